@@ -0,0 +1,364 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort;
+
+import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipError;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Source of the class files of projects. Besides the loose class files, the class files inside of the jar and zip
+ * archives of the project can be read (if readClassFileArchives is set in the configuration). The archives are
+ * opened as zip file systems, so that their class files are normal {@link Path}s and no extraction is needed.
+ * Hence, all consumers of bytecode should read the class files via {@link #read(Path)}, {@link #readBytes(Path)} or
+ * {@link #openStream(Path)} instead of using the path as file name.
+ *
+ * <p>A class that is also available as loose class file is not read from an archive. If several archives contain
+ * the same class, it is read from the archive with the lowest path.</p>
+ *
+ * <p>Archives that can not be read (e.g., files that are no zip files) are skipped.</p>
+ *
+ * <p>The opened archives stay open until {@link #close()} is called, as the paths of their class files are only
+ * valid as long as their file system is open. Archives that changed on disk are opened again. If the source is shared
+ * between runs (e.g., in the daemon mode), each run uses its own view ({@link #openRun()}). An archive that changed
+ * on disk is closed as soon as no view that listed its class files is open anymore, so that the outdated archives do
+ * not stay open as long as the shared source.</p>
+ *
+ * @author Fabian Trautsch
+ */
+public class ClassFileSource implements Closeable {
+    private static final Logger LOGGER = LogManager.getLogger(ClassFileSource.class.getName());
+
+    // Mapping a file has a fixed cost, therefore small class files are read into a heap buffer
+    private static final long MAP_THRESHOLD = 16 * 1024;
+
+    // Source that opens and closes the archives: the source itself or the shared source of a view
+    private final ClassFileSource owner;
+    private final Map<Path, Archive> archives = new HashMap<>();
+    // Archives that changed on disk, but are still used by open views
+    private final List<Archive> outdatedArchives = new ArrayList<>();
+    // Archives whose class files were listed via this source
+    private final Set<Archive> usedArchives = new HashSet<>();
+
+    public ClassFileSource() {
+        this.owner = this;
+    }
+
+    private ClassFileSource(ClassFileSource owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * Opens a view of this source for one run. The view shares the opened archives with this source. Closing the
+     * view closes the archives that changed on disk in the meantime, if no other view uses them anymore.
+     *
+     * @return view of this source, must be closed after the run
+     */
+    public ClassFileSource openRun() {
+        return new ClassFileSource(owner);
+    }
+
+    /**
+     * Returns the class files of the project of the configuration.
+     *
+     * @param configuration configuration with the project directory
+     * @return class files (a new set that can be changed by the caller)
+     * @throws IOException if the project can not be read
+     */
+    public Set<Path> getClassFiles(GeneralConfiguration configuration) throws IOException {
+        Path projectDir = configuration.getProjectDir();
+        Set<Path> classFiles = configuration.getFileCatalog().getFiles(projectDir, ".*\\.class");
+        if(!configuration.isReadClassFileArchives()) {
+            return classFiles;
+        }
+
+        Map<String, List<Path>> looseClassFilesByName = classFiles.stream()
+                .collect(Collectors.groupingBy(classFile -> classFile.getFileName().toString()));
+        Set<String> classesInArchives = new HashSet<>();
+        List<Path> archiveFiles = new ArrayList<>(configuration.getFileCatalog().getFiles(projectDir,
+                ".*\\.(jar|zip)"));
+        Collections.sort(archiveFiles);
+        for(Path archiveFile : archiveFiles) {
+            Archive archive;
+            try {
+                archive = owner.getArchive(archiveFile, this);
+            } catch (IOException | UncheckedIOException | ZipError e) {
+                // Archives that are no valid zip files (e.g., test resources) must not stop the loading
+                LOGGER.warn("Could not read archive {}, it is skipped: {}", archiveFile, e.getMessage());
+                continue;
+            }
+            for(Path classFile : archive.classFiles) {
+                // Relative name of the class file, e.g., org/foo/Main.class
+                String name = classFile.toString().substring(1);
+                if(!isLooseClassFile(name, classFile, looseClassFilesByName) && classesInArchives.add(name)) {
+                    classFiles.add(classFile);
+                }
+            }
+        }
+        return classFiles;
+    }
+
+    /**
+     * Returns a location of the class file that can be used in messages. For class files in archives, the location
+     * contains the path of the archive, e.g., lib/foo.jar!/org/foo/Main.class.
+     *
+     * @param classFile path of the class file
+     * @return location of the class file
+     */
+    public static String getLocation(Path classFile) {
+        if(classFile.getFileSystem() == FileSystems.getDefault()) {
+            return classFile.toString();
+        }
+        return classFile.getFileSystem()+"!"+classFile;
+    }
+
+    /**
+     * Reads the class file. Larger loose class files are memory-mapped, all other class files are read into a heap
+     * buffer.
+     *
+     * @param classFile path of the class file
+     * @return content of the class file
+     * @throws IOException if the class file can not be read
+     */
+    public static ByteBuffer read(Path classFile) throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(classFile)) {
+            long size = channel.size();
+            if(channel instanceof FileChannel && size >= MAP_THRESHOLD) {
+                return ((FileChannel) channel).map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            return ByteBuffer.wrap(readFully(channel, size, classFile));
+        }
+    }
+
+    /**
+     * Reads the class file into an array, for consumers that can only parse arrays (e.g., ASM or JaCoCo).
+     *
+     * @param classFile path of the class file
+     * @return content of the class file
+     * @throws IOException if the class file can not be read
+     */
+    public static byte[] readBytes(Path classFile) throws IOException {
+        try (SeekableByteChannel channel = Files.newByteChannel(classFile)) {
+            return readFully(channel, channel.size(), classFile);
+        }
+    }
+
+    /**
+     * Opens a stream on the content of the class file, for consumers that can only parse streams (e.g., BCEL).
+     *
+     * @param classFile path of the class file
+     * @return stream on the content of the class file
+     * @throws IOException if the class file can not be read
+     */
+    public static InputStream openStream(Path classFile) throws IOException {
+        return new ByteBufferInputStream(read(classFile));
+    }
+
+    /**
+     * Closes the source. For a view, the archives that changed on disk are closed, if no other view uses them. For
+     * the shared source, all opened archives are closed. The paths of their class files can not be read afterwards.
+     */
+    @Override
+    public void close() {
+        if(owner != this) {
+            owner.release(this);
+            return;
+        }
+
+        synchronized (this) {
+            List<Archive> openArchives = new ArrayList<>(outdatedArchives);
+            openArchives.addAll(archives.values());
+            archives.clear();
+            outdatedArchives.clear();
+            usedArchives.clear();
+            openArchives.forEach(ClassFileSource::closeArchive);
+        }
+    }
+
+    private synchronized void release(ClassFileSource view) {
+        for(Archive archive : view.usedArchives) {
+            archive.users--;
+            if(archive.outdated && archive.users == 0) {
+                outdatedArchives.remove(archive);
+                closeArchive(archive);
+            }
+        }
+        view.usedArchives.clear();
+    }
+
+    private synchronized Archive getArchive(Path archiveFile, ClassFileSource user) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(archiveFile, BasicFileAttributes.class);
+        Archive archive = archives.get(archiveFile);
+        if(archive != null && archive.isUpToDate(attributes)) {
+            use(archive, user);
+            return archive;
+        }
+        if(archive != null) {
+            // Paths of the outdated archive may still be in use, therefore, it is only closed if no view uses it
+            archives.remove(archiveFile);
+            archive.outdated = true;
+            if(archive.users == 0) {
+                closeArchive(archive);
+            } else {
+                outdatedArchives.add(archive);
+            }
+        }
+
+        LOGGER.debug("Opening archive {}...", archiveFile);
+        FileSystem fileSystem = FileSystems.newFileSystem(archiveFile, (ClassLoader) null);
+        List<Path> classFiles;
+        try (Stream<Path> files = Files.walk(fileSystem.getPath("/"))) {
+            classFiles = files
+                    .filter(file -> file.toString().endsWith(".class") && !file.startsWith("/META-INF"))
+                    .filter(Files::isRegularFile)
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException | RuntimeException | Error e) {
+            fileSystem.close();
+            throw e;
+        }
+        archive = new Archive(fileSystem, attributes, classFiles);
+        archives.put(archiveFile, archive);
+        use(archive, user);
+        return archive;
+    }
+
+    private static void use(Archive archive, ClassFileSource user) {
+        if(user.usedArchives.add(archive)) {
+            archive.users++;
+        }
+    }
+
+    private static void closeArchive(Archive archive) {
+        try {
+            archive.fileSystem.close();
+        } catch (IOException e) {
+            LOGGER.warn("Could not close archive {}: {}", archive.fileSystem, e.getMessage());
+        }
+    }
+
+    private static boolean isLooseClassFile(String name, Path classFile,
+                                            Map<String, List<Path>> looseClassFilesByName) {
+        List<Path> candidates = looseClassFilesByName.get(classFile.getFileName().toString());
+        if(candidates == null) {
+            return false;
+        }
+        for(Path candidate : candidates) {
+            if(candidate.endsWith(candidate.getFileSystem().getPath(name))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] readFully(SeekableByteChannel channel, long size, Path classFile) throws IOException {
+        if(size > Integer.MAX_VALUE) {
+            throw new IOException("Class file "+getLocation(classFile)+" is too large");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while(buffer.hasRemaining()) {
+            if(channel.read(buffer) < 0) {
+                throw new EOFException("Unexpected end of class file "+getLocation(classFile));
+            }
+        }
+        return buffer.array();
+    }
+
+    private static class Archive {
+        private final FileSystem fileSystem;
+        private final FileTime lastModifiedTime;
+        private final long size;
+        private final List<Path> classFiles;
+        // Number of sources (views) that listed the class files of the archive and are not closed yet
+        private int users = 0;
+        private boolean outdated = false;
+
+        Archive(FileSystem fileSystem, BasicFileAttributes attributes, List<Path> classFiles) {
+            this.fileSystem = fileSystem;
+            this.lastModifiedTime = attributes.lastModifiedTime();
+            this.size = attributes.size();
+            this.classFiles = classFiles;
+        }
+
+        boolean isUpToDate(BasicFileAttributes attributes) {
+            return lastModifiedTime.equals(attributes.lastModifiedTime()) && size == attributes.size();
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if(length == 0) {
+                return 0;
+            }
+            if(!buffer.hasRemaining()) {
+                return -1;
+            }
+            int bytesToRead = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, bytesToRead);
+            return bytesToRead;
+        }
+
+        @Override
+        public long skip(long n) {
+            int bytesToSkip = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + bytesToSkip);
+            return bytesToSkip;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
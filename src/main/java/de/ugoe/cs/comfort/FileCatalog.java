@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort;
+
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Caches the files of projects, so that the project directory does not need to be walked by every loader, filter
+ * and metric collector that needs to know the files of the project.
+ *
+ * <p>Together with the files, the modification times of all directories of the project are stored. Adding, removing
+ * or renaming a file changes the modification time of its directory. Before a cached listing is used, the
+ * modification times are compared, which only needs one stat per directory instead of a walk over all files.
+ * If something changed, the project is walked again.</p>
+ *
+ * <p>At most maximumProjects projects are cached. If more projects are requested, the least recently used one is
+ * removed from the catalog.</p>
+ *
+ * @author Fabian Trautsch
+ */
+public class FileCatalog {
+    private static final Logger LOGGER = LogManager.getLogger(FileCatalog.class.getName());
+
+    public static final int DEFAULT_MAXIMUM_PROJECTS = 16;
+
+    private final int maximumProjects;
+    private final Map<Path, ProjectListing> listings;
+
+    public FileCatalog() {
+        this(DEFAULT_MAXIMUM_PROJECTS);
+    }
+
+    public FileCatalog(int maximumProjects) {
+        if(maximumProjects < 1) {
+            throw new IllegalArgumentException("At least one project must be cached");
+        }
+        this.maximumProjects = maximumProjects;
+        // Access order, so that the least recently used project is removed first
+        this.listings = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns all regular files of the project whose file name matches the regular expression. The result is the
+     * same as for {@link Utils#getAllFilesFromProjectForRegex(Path, String)}.
+     *
+     * @param projectDir directory of the project
+     * @param regex regular expression for the file name
+     * @return matching files (a new set that can be changed by the caller)
+     * @throws IOException if the project can not be walked
+     */
+    public Set<Path> getFiles(Path projectDir, String regex) throws IOException {
+        return new HashSet<>(getListing(projectDir).getFiles(regex));
+    }
+
+    public synchronized void invalidate(Path projectDir) {
+        listings.remove(projectDir);
+    }
+
+    public synchronized void clear() {
+        listings.clear();
+    }
+
+    public synchronized int size() {
+        return listings.size();
+    }
+
+    private ProjectListing getListing(Path projectDir) throws IOException {
+        ProjectListing listing;
+        synchronized (this) {
+            listing = listings.get(projectDir);
+        }
+        if(listing != null && listing.isUpToDate()) {
+            return listing;
+        }
+
+        // The walk is done outside of the lock, so that different projects can be walked in parallel
+        LOGGER.debug("Walking project directory {}...", projectDir);
+        listing = ProjectListing.walk(projectDir);
+        synchronized (this) {
+            listings.put(projectDir, listing);
+            Iterator<Path> iterator = listings.keySet().iterator();
+            while(listings.size() > maximumProjects && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        return listing;
+    }
+
+    private static class ProjectListing {
+        private final List<Path> files;
+        private final Map<Path, FileTime> directories;
+        private final ConcurrentMap<String, Set<Path>> filesByRegex = new ConcurrentHashMap<>();
+
+        private ProjectListing(List<Path> files, Map<Path, FileTime> directories) {
+            this.files = files;
+            this.directories = directories;
+        }
+
+        static ProjectListing walk(Path projectDir) throws IOException {
+            List<Path> files = new ArrayList<>();
+            Map<Path, FileTime> directories = new HashMap<>();
+            Files.walkFileTree(projectDir, EnumSet.noneOf(FileVisitOption.class), 999,
+                    new SimpleFileVisitor<Path>() {
+                        @Override
+                        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                            directories.put(dir, attrs.lastModifiedTime());
+                            return FileVisitResult.CONTINUE;
+                        }
+
+                        @Override
+                        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                            if(attrs.isRegularFile()) {
+                                files.add(file);
+                            }
+                            return FileVisitResult.CONTINUE;
+                        }
+                    });
+            return new ProjectListing(files, directories);
+        }
+
+        boolean isUpToDate() {
+            for(Map.Entry<Path, FileTime> directory : directories.entrySet()) {
+                try {
+                    if(!Files.getLastModifiedTime(directory.getKey()).equals(directory.getValue())) {
+                        return false;
+                    }
+                } catch (NoSuchFileException e) {
+                    return false;
+                } catch (IOException e) {
+                    LOGGER.debug("Could not check directory {}: {}", directory.getKey(), e.getMessage());
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        Set<Path> getFiles(String regex) {
+            return filesByRegex.computeIfAbsent(regex, key -> {
+                Pattern pattern = Pattern.compile(key);
+                Set<Path> matchingFiles = new HashSet<>();
+                for(Path file : files) {
+                    if(pattern.matcher(file.getFileName().toString()).matches()) {
+                        matchingFiles.add(file);
+                    }
+                }
+                return Collections.unmodifiableSet(matchingFiles);
+            });
+        }
+    }
+}
@@ -17,23 +17,41 @@
 package de.ugoe.cs.comfort;
 
 import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 /**
+ * Finds the files of classes and modules. The files of the project are indexed once, so that a lookup does not need
+ * to go through all files. The results are the same as the ones of
+ * {@link Utils#getPathForFullyQualifiedClassNameInSetOfPaths(Set, String, Path)} and
+ * {@link Utils#getPathForModuleNameInSetOfPaths(Set, String)}. Results of lookups, including classes and modules
+ * that were not found, are cached.
+ *
  * @author Fabian Trautsch
  */
 public class FileNameUtils {
+    private static final Logger LOGGER = LogManager.getLogger(FileNameUtils.class.getName());
+
     private GeneralConfiguration configuration;
     private Set<Path> filesWithoutProjectDir = new HashSet<>();
+    private final Map<String, Path> filesByName = new HashMap<>();
+    private final PathSuffixIndex fileIndex;
+    private final ConcurrentMap<String, Optional<Path>> javaClassPaths = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Optional<Path>> pythonModulePaths = new ConcurrentHashMap<>();
 
-    @SuppressFBWarnings("DM_EXIT")
     public FileNameUtils(GeneralConfiguration configuration) {
         this.configuration = configuration;
 
@@ -47,11 +65,15 @@ public class FileNameUtils {
                 }
             }
         } catch (FileNotFoundException e) {
-            // We exit here directly, as if there was a problem with this, we can not determine the filepath of
-            // extracted classes or similar. Better solution needs to be found
-            e.printStackTrace();
-            System.exit(1);
+            // If there was a problem with this, we can not determine the filepath of extracted classes or similar.
+            // The run is aborted via the exception instead of exiting the JVM, as it can be shared by several runs
+            throw new UncheckedIOException(e);
+        }
+
+        for(Path file : filesWithoutProjectDir) {
+            filesByName.put(file.toString(), file);
         }
+        fileIndex = new PathSuffixIndex(filesWithoutProjectDir);
     }
 
     private Set<Path> getAllFilesFromProjectForConfiguration() throws FileNotFoundException {
@@ -62,26 +84,22 @@ public class FileNameUtils {
         }
 
         try {
-            return Utils.getAllFilesFromProjectForRegex(configuration.getProjectDir(), regex);
+            return configuration.getFileCatalog().getFiles(configuration.getProjectDir(), regex);
         } catch (IOException e) {
             throw new FileNotFoundException("Could not load Java Files! " + e);
         }
     }
 
     public boolean isPythonPackage(String fqn) throws FileNotFoundException {
-        Path expectedModulePath = Paths.get(fqn.replace(".", "/")+".py");
-        return !filesWithoutProjectDir.contains(expectedModulePath);
+        return !filesByName.containsKey(fqn.replace(".", "/")+".py");
     }
 
     public Path getPathForJavaClassFQN(String fullyQualifiedName) throws FileNotFoundException {
-        return Utils.getPathForFullyQualifiedClassNameInSetOfPaths(filesWithoutProjectDir,
-                fullyQualifiedName.replace(configuration.getProjectDir().toString(), ""),
-                configuration.getProjectDir());
+        return getPathForJavaClass(fullyQualifiedName.replace(configuration.getProjectDir().toString(), ""));
     }
 
     public Path getPathForPythonModuleFQN(String fullyQualifiedName) throws FileNotFoundException {
-        return Utils.getPathForModuleNameInSetOfPaths(filesWithoutProjectDir,
-                fullyQualifiedName.replace(configuration.getProjectDir().toString(), ""));
+        return getPathForPythonModule(fullyQualifiedName.replace(configuration.getProjectDir().toString(), ""));
     }
 
     public Path getPathForIdentifier(String identifier, boolean executeOnMethodLevel) throws FileNotFoundException {
@@ -90,25 +108,94 @@ public class FileNameUtils {
             if (executeOnMethodLevel) {
                 String[] testParts = identifier.split("\\:");
                 String testFileName = testParts[0];
-                return Utils.getPathForModuleNameInSetOfPaths(filesWithoutProjectDir,
-                        testFileName.replace(configuration.getProjectDir().toString(), ""));
+                return getPathForPythonModule(testFileName.replace(configuration.getProjectDir().toString(), ""));
             } else {
-                return Utils.getPathForModuleNameInSetOfPaths(filesWithoutProjectDir,
-                        identifier.replace(configuration.getProjectDir().toString(), ""));
+                return getPathForPythonModule(identifier.replace(configuration.getProjectDir().toString(), ""));
             }
         } else {
             if (executeOnMethodLevel) {
                 String testWithoutAttributes = identifier.split("\\[")[0];
                 String[] testParts = testWithoutAttributes.split("\\.");
                 String testFileName = String.join(".", Arrays.copyOfRange(testParts, 0, testParts.length - 1));
-                return Utils.getPathForFullyQualifiedClassNameInSetOfPaths(filesWithoutProjectDir,
-                        testFileName.replace(configuration.getProjectDir().toString(), ""),
-                        configuration.getProjectDir());
+                return getPathForJavaClass(testFileName.replace(configuration.getProjectDir().toString(), ""));
             } else {
                 return getPathForJavaClassFQN(identifier);
             }
         }
     }
 
+    private Path getPathForJavaClass(String fullyQualifiedClassName) throws FileNotFoundException {
+        Optional<Path> path = javaClassPaths.get(fullyQualifiedClassName);
+        if(path == null) {
+            path = Optional.ofNullable(findJavaClass(fullyQualifiedClassName));
+            javaClassPaths.putIfAbsent(fullyQualifiedClassName, path);
+        }
+
+        if(!path.isPresent()) {
+            throw new FileNotFoundException("File for class "+fullyQualifiedClassName+" was not found!");
+        }
+        return path.get();
+    }
+
+    private Path findJavaClass(String fullyQualifiedClassName) {
+        Set<String> possibleNames = Utils.getPossibleFileNamesForClassName(fullyQualifiedClassName);
+        Path bestFit = null;
+        for(String possibleName : possibleNames) {
+            Path path = fileIndex.getBestFit(possibleName);
+            if(path != null && PathSuffixIndex.isBetterFit(path, bestFit)) {
+                bestFit = path;
+            }
+        }
+
+        if(bestFit != null) {
+            LOGGER.debug("{} is best fit for {}", bestFit, fullyQualifiedClassName);
+            return bestFit;
+        }
 
+        try {
+            return Utils.getPathOfClassDefinition(filesWithoutProjectDir, possibleNames, fullyQualifiedClassName,
+                    configuration.getProjectDir());
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+    }
+
+    private Path getPathForPythonModule(String moduleName) throws FileNotFoundException {
+        Optional<Path> path = pythonModulePaths.get(moduleName);
+        if(path == null) {
+            path = Optional.ofNullable(findPythonModule(moduleName));
+            pythonModulePaths.putIfAbsent(moduleName, path);
+        }
+
+        if(!path.isPresent()) {
+            throw new FileNotFoundException("File for module"+moduleName+" was not found!");
+        }
+        return path.get();
+    }
+
+    private Path findPythonModule(String moduleName) {
+        String pythonFile = moduleName.replace(".", "/").concat(".py");
+
+        // First look if the whole module name can be found, e.g.
+        // tests.new_tests.test_module1 == tests/new_tests/test_module.py
+        Path path = filesByName.get(pythonFile);
+        if(path != null) {
+            return path;
+        }
+
+        // If it is not found, we just look if we find a module that ends with the test name
+        if(fileIndex.getNumberOfPaths(pythonFile) == 1) {
+            return fileIndex.getBestFit(pythonFile);
+        }
+
+        // If a specific module does not exist, we check if it is a package, if yes, than it is a doctest in the
+        // __init__ of the package
+        Path initFile = Paths.get(pythonFile.replace(".py", ""), "__init__.py");
+        if(filesWithoutProjectDir.contains(initFile)) {
+            return initFile;
+        }
+
+        LOGGER.error("Did not find a path! PythonFile: {}", pythonFile);
+        return null;
+    }
 }
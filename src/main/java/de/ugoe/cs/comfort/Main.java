@@ -17,19 +17,24 @@
 package de.ugoe.cs.comfort;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import de.ugoe.cs.comfort.collection.filter.BaseFilter;
-import de.ugoe.cs.comfort.collection.loader.BaseLoader;
-import de.ugoe.cs.comfort.collection.metriccollector.BaseMetricCollector;
+import de.ugoe.cs.comfort.batch.BatchProject;
+import de.ugoe.cs.comfort.batch.BatchRunner;
+import de.ugoe.cs.comfort.collection.CollectionScheduler;
+import de.ugoe.cs.comfort.configuration.BatchConfiguration;
 import de.ugoe.cs.comfort.configuration.CollectionConfiguration;
+import de.ugoe.cs.comfort.configuration.DaemonConfiguration;
 import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
-import de.ugoe.cs.comfort.data.DataSet;
-import de.ugoe.cs.comfort.exception.FilterException;
-import de.ugoe.cs.comfort.exception.LoaderException;
-import de.ugoe.cs.comfort.exception.MetricCollectorException;
+import de.ugoe.cs.comfort.daemon.ComfortDaemon;
+import de.ugoe.cs.comfort.exception.RevisionException;
+import de.ugoe.cs.comfort.exception.SchedulerException;
 import de.ugoe.cs.comfort.filer.BaseFiler;
+import de.ugoe.cs.comfort.instrumentation.MetricsRegistry;
+import de.ugoe.cs.comfort.instrumentation.StageTimer;
+import de.ugoe.cs.comfort.revision.RevisionWalker;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 import org.apache.logging.log4j.Level;
@@ -49,62 +54,116 @@ public class Main {
     private static final Logger LOGGER = LogManager.getLogger(Main.class.getName());
 
     public static void main(String[] args) {
+        if(args.length >= 1 && args[0].equals("--daemon")) {
+            runDaemon(args);
+            return;
+        }
+
+        if(args.length == 2 && args[0].equals("--batch")) {
+            runBatch(args[1]);
+        }
+
         if(args.length != 1) {
             System.out.println("You need to give the location to the config.json as argument!");
+            System.out.println("Alternatively, start the daemon with: --daemon [daemon.json]");
+            System.out.println("or analyze several projects with: --batch batch.json");
             System.exit(1);
         }
 
+        GeneralConfiguration config = null;
         try {
             // Load configuration
-            GeneralConfiguration config = loadConfiguration(args[0]);
+            config = loadConfiguration(args[0]);
 
             // SetUp Logging
-            setupLogging(config);
+            setupLogging(config.getLogFile(), config.getLogLevel());
+
+            // If several revisions should be analyzed, each revision is stored via its own filer
+            if(config.getRevisionConfiguration() != null) {
+                try (StageTimer timer = config.getMetricsRegistry().startStage("run")) {
+                    List<String> revisions = new RevisionWalker(config).walk();
+                    LOGGER.info("Analyzed {} revisions successfully.", revisions.size());
+                }
+                writeReport(config);
+                System.exit(0);
+            }
 
             // Get collections that should be done
             List<CollectionConfiguration> collections = config.getCollections();
 
             // Load filer
-            BaseFiler filer = config.getFiler();
-            LOGGER.info("Using filer {}...", filer.getClass().getName());
-
-            // Execute each collection
-            for(CollectionConfiguration collection: collections) {
-                try {
-                    // Get data first
-                    BaseLoader loader = collection.getLoader(config);
-                    LOGGER.info("Using loader {}...", loader.getClass().getName());
-                    DataSet data = loader.loadData();
-                    LOGGER.info("Loading data successful...");
-
-                    // Afterwards, filter the data
-                    List<BaseFilter> filters = collection.getFilter(config);
-                    for (BaseFilter filter : filters) {
-                        LOGGER.info("Using filter {}...", filter.getClass().getName());
-                        data = filter.filterData(data);
-                        LOGGER.info("Filtering successful...");
-                    }
-
-                    // Then, execute the metric collection
-                    List<BaseMetricCollector> collectors = collection.getMetricCollectors(config, filer);
-                    for (BaseMetricCollector collector : collectors) {
-                        LOGGER.info("Using collector {}...", collector.getClass().getName());
-                        collector.collectData(data);
-                        LOGGER.info("Collection successful...");
-                    }
-                } catch(LoaderException | FilterException | MetricCollectorException e) {
-                    LOGGER.catching(e);
+            try (BaseFiler filer = config.getFiler()) {
+                LOGGER.info("Using filer {}...", filer.getClass().getName());
+
+                // Execute the collections, independent collections are executed in parallel
+                try (StageTimer timer = config.getMetricsRegistry().startStage("run")) {
+                    new CollectionScheduler(config, filer).execute(collections);
                 }
             }
 
             LOGGER.info("Execution successful.");
+            writeReport(config);
 
             System.exit(0);
 
         } catch (InvocationTargetException | NoSuchMethodException | ClassNotFoundException | IllegalAccessException
-            | InstantiationException | IOException e) {
+            | InstantiationException | IOException | SchedulerException | RevisionException
+            | InterruptedException e) {
+            LOGGER.catching(e);
+            if(config != null) {
+                writeReport(config);
+            }
+            System.exit(1);
+        }
+    }
+
+    private static void runDaemon(String[] args) {
+        try {
+            DaemonConfiguration daemonConfig = new DaemonConfiguration();
+            if(args.length == 2) {
+                byte[] data = Files.readAllBytes(Paths.get(args[1]));
+                daemonConfig = new ObjectMapper().readValue(data, DaemonConfiguration.class);
+            }
+            setupLogging(daemonConfig.getLogFile(), daemonConfig.getLogLevel());
+
+            ComfortDaemon daemon = new ComfortDaemon(daemonConfig);
+            daemon.start();
+            daemon.awaitStop();
+        } catch (IOException e) {
             LOGGER.catching(e);
             System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void runBatch(String batchConfigLocation) {
+        try {
+            byte[] data = Files.readAllBytes(Paths.get(batchConfigLocation));
+            BatchConfiguration batchConfig = new ObjectMapper().readValue(data, BatchConfiguration.class);
+            setupLogging(batchConfig.getLogFile(), batchConfig.getLogLevel());
+
+            List<BatchProject> projects = new BatchRunner(batchConfig).run();
+            for(BatchProject project : projects) {
+                if(!project.isSuccessful()) {
+                    System.exit(1);
+                }
+            }
+            System.exit(0);
+        } catch (IOException | InterruptedException e) {
+            LOGGER.catching(e);
+            System.exit(1);
+        }
+    }
+
+    private static void writeReport(GeneralConfiguration config) {
+        // The report is stored next to the log file
+        Path reportPath = MetricsRegistry.getReportPath(config.getLogFile());
+        try {
+            config.getMetricsRegistry().writeReport(config.getProjectName(), reportPath);
+            LOGGER.info("Stored run report in {}.", reportPath);
+        } catch (IOException e) {
+            LOGGER.warn("Could not store run report in {}: {}", reportPath, e.getMessage());
         }
     }
 
@@ -115,16 +174,16 @@ public class Main {
         return mapper.readValue(data, GeneralConfiguration.class);
     }
 
-    private static void setupLogging(GeneralConfiguration configuration) {
+    private static void setupLogging(String logFile, String logLevel) {
         // Configure logging
         final LoggerContext ctx = (LoggerContext) LogManager.getContext(false);
         final Configuration config = ctx.getConfiguration();
         PatternLayout layout = PatternLayout.newBuilder().withPattern("%d [%t] %-5p - %msg%n").build();
-        Appender appender = FileAppender.newBuilder().withFileName(configuration.getLogFile())
+        Appender appender = FileAppender.newBuilder().withFileName(logFile)
                 .withName("File").withLayout(layout).build();
         appender.start();
         config.addAppender(appender);
-        config.getRootLogger().addAppender(appender, Level.getLevel(configuration.getLogLevel()), null);
+        config.getRootLogger().addAppender(appender, Level.getLevel(logLevel), null);
         ctx.updateLoggers();
     }
 }
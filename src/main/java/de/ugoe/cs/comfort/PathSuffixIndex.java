@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Index over a set of paths that finds all paths whose string ends with a given suffix. The paths are stored in a
+ * radix trie over their reversed strings. Each node knows how many paths end with the suffix that it represents and
+ * which of them is the best fit, i.e., the longest path. Therefore, a lookup only needs to walk along the characters
+ * of the suffix and does not depend on the number of paths.
+ *
+ * @author Fabian Trautsch
+ */
+class PathSuffixIndex {
+    private final Node root = new Node("");
+
+    PathSuffixIndex(Collection<Path> paths) {
+        for(Path path : paths) {
+            add(path);
+        }
+    }
+
+    /**
+     * Returns the longest path that ends with the suffix. If several paths have the same length, the
+     * lexicographically smallest one is returned.
+     *
+     * @param suffix suffix of the path string
+     * @return best fitting path or null, if no path ends with the suffix
+     */
+    Path getBestFit(String suffix) {
+        Node node = find(suffix);
+        return node == null ? null : node.bestFit;
+    }
+
+    /**
+     * Returns the number of paths that end with the suffix.
+     *
+     * @param suffix suffix of the path string
+     * @return number of paths
+     */
+    int getNumberOfPaths(String suffix) {
+        Node node = find(suffix);
+        return node == null ? 0 : node.numberOfPaths;
+    }
+
+    static boolean isBetterFit(Path path, Path bestFit) {
+        if(bestFit == null) {
+            return true;
+        }
+        String pathString = path.toString();
+        String bestFitString = bestFit.toString();
+        if(pathString.length() != bestFitString.length()) {
+            return pathString.length() > bestFitString.length();
+        }
+        return pathString.compareTo(bestFitString) < 0;
+    }
+
+    private void add(Path path) {
+        String reversedPath = new StringBuilder(path.toString()).reverse().toString();
+        Node node = root;
+        node.add(path);
+        int position = 0;
+        while(position < reversedPath.length()) {
+            char nextChar = reversedPath.charAt(position);
+            Node child = node.children.get(nextChar);
+            if(child == null) {
+                child = new Node(reversedPath.substring(position));
+                node.children.put(nextChar, child);
+                child.add(path);
+                return;
+            }
+
+            int commonLength = 0;
+            while(commonLength < child.label.length() && position + commonLength < reversedPath.length()
+                    && child.label.charAt(commonLength) == reversedPath.charAt(position + commonLength)) {
+                commonLength++;
+            }
+
+            if(commonLength < child.label.length()) {
+                // The path leaves the label of the child in between, therefore, the label is split
+                Node splitNode = new Node(child.label.substring(0, commonLength));
+                splitNode.numberOfPaths = child.numberOfPaths;
+                splitNode.bestFit = child.bestFit;
+                child.label = child.label.substring(commonLength);
+                splitNode.children.put(child.label.charAt(0), child);
+                node.children.put(nextChar, splitNode);
+                child = splitNode;
+            }
+            child.add(path);
+            node = child;
+            position += commonLength;
+        }
+    }
+
+    private Node find(String suffix) {
+        Node node = root;
+        int position = 0;
+        while(position < suffix.length()) {
+            // The suffix is read from the end, as the labels are reversed
+            Node child = node.children.get(suffix.charAt(suffix.length() - 1 - position));
+            if(child == null) {
+                return null;
+            }
+            for(int i = 0; i < child.label.length() && position < suffix.length(); i++, position++) {
+                if(child.label.charAt(i) != suffix.charAt(suffix.length() - 1 - position)) {
+                    return null;
+                }
+            }
+            node = child;
+        }
+        return node;
+    }
+
+    private static class Node {
+        private String label;
+        private final Map<Character, Node> children = new HashMap<>();
+        private int numberOfPaths = 0;
+        private Path bestFit;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        void add(Path path) {
+            numberOfPaths++;
+            if(isBetterFit(path, bestFit)) {
+                bestFit = path;
+            }
+        }
+    }
+}
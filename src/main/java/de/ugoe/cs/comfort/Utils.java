@@ -128,12 +128,34 @@ public class Utils {
                                                                      String fullyQualifiedClassName,
                                                                      Path projectRoot)
             throws FileNotFoundException {
-        /*
-        Create a set of possible names:
-        First -> original name; Afterwards, cut of parts that start with $ (to handle subclasses).
-        E.g., $Gson$Types$GenericArrayTypeImpl would result in the following list:
-        [$Gson$Types$GenericArrayTypeImpl.java, $Gson$Types.java, $Gson.java, '']
-         */
+        Set<String> possibleNames = getPossibleFileNamesForClassName(fullyQualifiedClassName);
+
+        Predicate<Path> endsWithSameString =
+                p -> possibleNames.stream().anyMatch(pn -> p.toString().endsWith(pn));
+
+        List<Path> candidatePaths = javaFiles.stream()
+                .filter(endsWithSameString)
+                .collect(Collectors.toList());
+
+
+        Optional<Path> bestFit = candidatePaths.stream().max(Comparator.comparingInt(p -> p.toString().length()));
+        if(bestFit.isPresent()) {
+            LOGGER.debug("{} is best fit for {}", bestFit.get(), fullyQualifiedClassName);
+            return bestFit.get();
+        }
+        return getPathOfClassDefinition(javaFiles, possibleNames, fullyQualifiedClassName, projectRoot);
+    }
+
+    /**
+     * Creates the names of the files in which the class can be defined.
+     * First -> original name; Afterwards, cut of parts that start with $ (to handle subclasses).
+     * E.g., $Gson$Types$GenericArrayTypeImpl would result in the following list:
+     * [$Gson$Types$GenericArrayTypeImpl.java, $Gson$Types.java, $Gson.java, '']
+     *
+     * @param fullyQualifiedClassName fully qualified name of the class
+     * @return possible file names, a path to the file of the class ends with one of these names
+     */
+    public static Set<String> getPossibleFileNamesForClassName(String fullyQualifiedClassName) {
         Set<String> possibleNames = new HashSet<>();
         possibleNames.add(fullyQualifiedClassName.replace(".", "/").concat(".java"));
 
@@ -145,48 +167,49 @@ public class Utils {
                             .concat(".java")
             );
         }
+        return possibleNames;
+    }
 
-        Predicate<Path> endsWithSameString =
-                p -> possibleNames.stream().anyMatch(pn -> p.toString().endsWith(pn));
+    /**
+     * Searches the class in the contents of the files. Used if there is no file with the name of the class.
+     *
+     * @param javaFiles java files of the project
+     * @param possibleNames possible file names of the class (see {@link #getPossibleFileNamesForClassName(String)})
+     * @param fullyQualifiedClassName fully qualified name of the class
+     * @param projectRoot root of the project, which is used for relative paths
+     * @return path of the file in which the class is defined
+     * @throws FileNotFoundException if the class is not defined in any of the files
+     */
+    public static Path getPathOfClassDefinition(Set<Path> javaFiles, Set<String> possibleNames,
+                                                String fullyQualifiedClassName, Path projectRoot)
+            throws FileNotFoundException {
+        /*
+        We need to look if we find a class or enum definition in any of the other class files, as it can be the
+        case, that a class or enum is defined in another class source file.
+         */
+        for(String possibleName: possibleNames) {
+            String[] allParts = possibleName.split("\\/");
+            String lastPart = allParts[allParts.length-1].replace(".java", "");
+            String pathExceptLastPart = String.join("/", Arrays.copyOfRange(allParts, 0, allParts.length-1));
+            for(Path possibleFile: javaFiles) {
+                // The package declaration must be the same, therefore, we only look for files that are in
+                // the same package
+                if(!possibleFile.toString().contains(pathExceptLastPart)) {
+                    continue;
+                }
 
-        List<Path> candidatePaths = javaFiles.stream()
-                .filter(endsWithSameString)
-                .collect(Collectors.toList());
+                Path searchInPath = possibleFile;
 
+                if(!possibleFile.startsWith(projectRoot)) {
+                    searchInPath = Paths.get(projectRoot.toString(), possibleFile.toString());
+                }
 
-        Optional<Path> bestFit = candidatePaths.stream().max(Comparator.comparingInt(p -> p.toString().length()));
-        if(bestFit.isPresent()) {
-            LOGGER.debug("{} is best fit for {}", bestFit.get(), fullyQualifiedClassName);
-            return bestFit.get();
-        } else {
-            /*
-            We need to look if we find a class or enum definition in any of the other class files, as it can be the
-            case, that a class or enum is defined in another class source file.
-             */
-            for(String possibleName: possibleNames) {
-                String[] allParts = possibleName.split("\\/");
-                String lastPart = allParts[allParts.length-1].replace(".java", "");
-                String pathExceptLastPart = String.join("/", Arrays.copyOfRange(allParts, 0, allParts.length-1));
-                for(Path possibleFile: javaFiles) {
-                    // The package declaration must be the same, therefore, we only look for files that are in
-                    // the same package
-                    if(!possibleFile.toString().contains(pathExceptLastPart)) {
-                        continue;
-                    }
-
-                    Path searchInPath = possibleFile;
-
-                    if(!possibleFile.startsWith(projectRoot)) {
-                        searchInPath = Paths.get(projectRoot.toString(), possibleFile.toString());
-                    }
-
-                    Boolean classFound = searchFile(searchInPath, "class "+lastPart);
-                    Boolean enumFound = searchFile(searchInPath, "enum "+lastPart);
-
-                    if(classFound || enumFound) {
-                        LOGGER.debug("{} is best fit for {}", possibleFile, fullyQualifiedClassName);
-                        return possibleFile;
-                    }
+                Boolean classFound = searchFile(searchInPath, "class "+lastPart);
+                Boolean enumFound = searchFile(searchInPath, "enum "+lastPart);
+
+                if(classFound || enumFound) {
+                    LOGGER.debug("{} is best fit for {}", possibleFile, fullyQualifiedClassName);
+                    return possibleFile;
                 }
             }
         }
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.ugoe.cs.comfort.configuration.BatchConfiguration;
+import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One project of a batch run together with the outcome of its analysis.
+ *
+ * @author Fabian Trautsch
+ */
+public class BatchProject {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final String configFile;
+    private final GeneralConfiguration configuration;
+    private volatile long estimatedMemory = 0;
+    private volatile long waitTime = 0;
+    private volatile long wallTime = 0;
+    private volatile boolean finished = false;
+    private volatile String error;
+
+    public BatchProject(String configFile, GeneralConfiguration configuration) {
+        this.configFile = configFile;
+        this.configuration = configuration;
+    }
+
+    private BatchProject(String configFile, String error) {
+        this.configFile = configFile;
+        this.configuration = null;
+        this.error = error;
+        this.finished = true;
+    }
+
+    /**
+     * Loads the configuration of a project. If the configuration can not be read, a failed project is returned,
+     * so that the other projects of the batch can still be executed.
+     *
+     * @param configFile path to the config.json of the project
+     * @return project of the batch
+     */
+    public static BatchProject load(String configFile) {
+        try {
+            byte[] data = Files.readAllBytes(Paths.get(configFile));
+            return new BatchProject(configFile, new ObjectMapper().readValue(data, GeneralConfiguration.class));
+        } catch (IOException e) {
+            return new BatchProject(configFile, "Could not read configuration: "+e.getMessage());
+        }
+    }
+
+    /**
+     * Estimates the memory that is needed to analyze the project based on the size of its files. The files are
+     * listed via the file catalog of the project, so that the loaders can reuse the listing afterwards.
+     *
+     * @param batchConf configuration of the batch
+     */
+    void estimateMemory(BatchConfiguration batchConf) {
+        long projectSize = 0;
+        Path projectDir = configuration == null ? null : configuration.getProjectDir();
+        if(projectDir != null) {
+            try {
+                for(Path file : configuration.getFileCatalog().getFiles(projectDir, ".*")) {
+                    projectSize += Files.size(file);
+                }
+            } catch (IOException e) {
+                // The project will fail anyway, if its files can not be read
+                projectSize = 0;
+            }
+        }
+        estimatedMemory = batchConf.getBaseMemoryPerProject()
+                + (long) (projectSize * batchConf.getBytesPerProjectByte());
+    }
+
+    void finish(long waitTime, long wallTime, String error) {
+        this.waitTime = waitTime;
+        this.wallTime = wallTime;
+        this.error = error;
+        this.finished = true;
+    }
+
+    public String getConfigFile() {
+        return configFile;
+    }
+
+    public GeneralConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    public long getEstimatedMemory() {
+        return estimatedMemory;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public boolean isSuccessful() {
+        return finished && error == null;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public String getProjectName() {
+        return configuration == null ? null : configuration.getProjectName();
+    }
+
+    public Map<String, Object> toReport() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("configFile", configFile);
+        report.put("projectName", getProjectName());
+        report.put("successful", isSuccessful());
+        if(error != null) {
+            report.put("error", error);
+        }
+        report.put("estimatedMemory", estimatedMemory);
+        report.put("waitTimeMs", waitTime / NANOS_PER_MILLI);
+        report.put("wallTimeMs", wallTime / NANOS_PER_MILLI);
+        if(configuration != null) {
+            report.put("metrics", configuration.getMetricsRegistry().createReport(getProjectName()));
+        }
+        return report;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import de.ugoe.cs.comfort.collection.CollectionScheduler;
+import de.ugoe.cs.comfort.collection.DataSetCache;
+import de.ugoe.cs.comfort.configuration.BatchConfiguration;
+import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
+import de.ugoe.cs.comfort.filer.BaseFiler;
+import de.ugoe.cs.comfort.instrumentation.StageTimer;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Analyzes several projects within one JVM.
+ *
+ * <p>The collections of all projects are executed on one work-stealing pool, whose size is defined by the parallelism
+ * of the batch configuration. Hence, idle threads of a project with few collections take over the work of other
+ * projects. The number of projects that are executed at the same time is limited by maxConcurrentProjects and by the
+ * memory budget: each project reserves its estimated memory (see {@link BatchProject}) before it is started. Projects
+ * are started with the largest one first, so that the batch does not end with one large project running alone.</p>
+ *
+ * <p>Failures are isolated per project: any error (including errors of the JVM, like an OutOfMemoryError) only marks
+ * the project as failed. At the end, one report with the outcome and metrics of all projects is written.</p>
+ *
+ * @author Fabian Trautsch
+ */
+public class BatchRunner {
+    private static final Logger LOGGER = LogManager.getLogger(BatchRunner.class.getName());
+
+    private static final long MEGABYTE = 1024 * 1024;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double MILLIS_PER_HOUR = 3_600_000.0;
+
+    private final BatchConfiguration batchConf;
+    private final AtomicInteger runningProjects = new AtomicInteger();
+    private final AtomicInteger maxRunningProjects = new AtomicInteger();
+
+    public BatchRunner(BatchConfiguration batchConfiguration) {
+        this.batchConf = batchConfiguration;
+    }
+
+    /**
+     * Loads and analyzes all projects of the batch configuration.
+     *
+     * @return all projects of the batch
+     * @throws InterruptedException if the batch is interrupted
+     */
+    public List<BatchProject> run() throws InterruptedException {
+        List<BatchProject> projects = new ArrayList<>();
+        for(String configFile : batchConf.getProjects()) {
+            projects.add(BatchProject.load(configFile));
+        }
+        return run(projects);
+    }
+
+    public List<BatchProject> run(List<BatchProject> projects) throws InterruptedException {
+        LOGGER.info("Starting batch with configuration {}...", batchConf);
+        long start = System.nanoTime();
+        long startTime = System.currentTimeMillis();
+
+        List<BatchProject> schedule = new ArrayList<>();
+        for(BatchProject project : projects) {
+            if(project.isFinished()) {
+                LOGGER.error("Skipping project {}: {}", project.getConfigFile(), project.getError());
+                continue;
+            }
+            project.estimateMemory(batchConf);
+            schedule.add(project);
+        }
+        schedule.sort(Comparator.comparingLong(BatchProject::getEstimatedMemory).reversed());
+
+        // The budget is managed in megabytes, so that it fits into the permits of a semaphore
+        int budget = (int) Math.min(Integer.MAX_VALUE, Math.max(1, batchConf.getMemoryBudget() / MEGABYTE));
+        // Fair, so that large projects are not starved by smaller ones
+        Semaphore memory = new Semaphore(budget, true);
+        ExecutorService collectionExecutor = new ForkJoinPool(Math.max(1, batchConf.getParallelism()));
+        ExecutorService projectExecutor = Executors.newFixedThreadPool(
+                Math.max(1, batchConf.getMaxConcurrentProjects()));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for(BatchProject project : schedule) {
+                futures.add(projectExecutor.submit(() -> runProject(project, memory, budget, collectionExecutor)));
+            }
+            for(Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // Can not happen, as runProject catches everything
+                    LOGGER.catching(e.getCause());
+                }
+            }
+        } finally {
+            projectExecutor.shutdownNow();
+            collectionExecutor.shutdownNow();
+        }
+
+        writeReport(projects, startTime, System.nanoTime() - start);
+        return projects;
+    }
+
+    private void runProject(BatchProject project, Semaphore memory, int budget, ExecutorService collectionExecutor) {
+        // Projects that are larger than the budget are executed alone
+        int permits = (int) Math.min(budget, Math.max(1, project.getEstimatedMemory() / MEGABYTE));
+        long queued = System.nanoTime();
+        try {
+            memory.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            project.finish(System.nanoTime() - queued, 0, "Interrupted");
+            return;
+        }
+
+        long start = System.nanoTime();
+        updateRunningProjects(runningProjects.incrementAndGet());
+        GeneralConfiguration config = project.getConfiguration();
+        String error = null;
+        LOGGER.info("Starting project {} (estimated memory: {} MB)...", config.getProjectName(), permits);
+        try (StageTimer timer = config.getMetricsRegistry().startStage("run");
+             BaseFiler filer = config.getFiler()) {
+            new CollectionScheduler(config, filer, new DataSetCache(), collectionExecutor)
+                    .execute(config.getCollections());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "Interrupted";
+        } catch (Throwable t) {
+            // The error of one project must not stop the other projects
+            LOGGER.error("Project {} failed.", config.getProjectName());
+            LOGGER.catching(t);
+            error = t.getClass().getSimpleName()+": "+t.getMessage();
+        } finally {
+            runningProjects.decrementAndGet();
+            memory.release(permits);
+        }
+
+        project.finish(start - queued, System.nanoTime() - start, error);
+        LOGGER.info("Project {} finished after {} ms (successful: {}).", config.getProjectName(),
+                (System.nanoTime() - start) / NANOS_PER_MILLI, error == null);
+    }
+
+    private void updateRunningProjects(int running) {
+        int max = maxRunningProjects.get();
+        while(running > max && !maxRunningProjects.compareAndSet(max, running)) {
+            max = maxRunningProjects.get();
+        }
+    }
+
+    Map<String, Object> createReport(List<BatchProject> projects, long startTime, long wallTime) {
+        int successful = 0;
+        List<Map<String, Object>> projectReports = new ArrayList<>();
+        for(BatchProject project : projects) {
+            if(project.isSuccessful()) {
+                successful++;
+            }
+            projectReports.add(project.toReport());
+        }
+
+        double wallTimeMs = wallTime / NANOS_PER_MILLI;
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("startTime", startTime);
+        report.put("wallTimeMs", wallTimeMs);
+        report.put("parallelism", batchConf.getParallelism());
+        report.put("maxConcurrentProjects", batchConf.getMaxConcurrentProjects());
+        report.put("memoryBudget", batchConf.getMemoryBudget());
+        report.put("maxRunningProjects", maxRunningProjects.get());
+        report.put("projects", projects.size());
+        report.put("successful", successful);
+        report.put("failed", projects.size() - successful);
+        report.put("projectsPerHour", wallTimeMs > 0 ? projects.size() * MILLIS_PER_HOUR / wallTimeMs : 0);
+        report.put("projectResults", projectReports);
+        return report;
+    }
+
+    private void writeReport(List<BatchProject> projects, long startTime, long wallTime) {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.enable(SerializationFeature.INDENT_OUTPUT);
+        try {
+            mapper.writeValue(new File(batchConf.getReportFile()), createReport(projects, startTime, wallTime));
+            LOGGER.info("Stored batch report in {}.", batchConf.getReportFile());
+        } catch (IOException e) {
+            LOGGER.warn("Could not store batch report in {}: {}", batchConf.getReportFile(), e.getMessage());
+        }
+    }
+}
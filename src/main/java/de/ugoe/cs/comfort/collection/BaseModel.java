@@ -16,14 +16,9 @@
 
 package de.ugoe.cs.comfort.collection;
 
-import de.ugoe.cs.comfort.annotations.SupportsClass;
-import de.ugoe.cs.comfort.annotations.SupportsJava;
-import de.ugoe.cs.comfort.annotations.SupportsMethod;
-import de.ugoe.cs.comfort.annotations.SupportsPython;
+import de.ugoe.cs.comfort.collection.DispatchRegistry.DispatchTarget;
 import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
-import java.lang.reflect.Method;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -41,38 +36,15 @@ public class BaseModel {
     }
 
 
-    protected boolean checkIfParameterTypesAreFitting(Method method, Set<String> classNamesOfArguments) {
-        // We also need to check the parameter types
-        Set<String> parameterTypes = new HashSet<>();
-
-        for(Class paramType: method.getParameterTypes()) {
-            parameterTypes.add(paramType.getName());
-        }
-
-        return parameterTypes.equals(classNamesOfArguments);
-    }
-
-    protected boolean shouldMethodBeExecutedIgnoreLevel(Method method) {
-        boolean shouldBeExecuted = false;
-
-        // First check for language
-        if(generalConf.getLanguage().equals("java")) {
-            shouldBeExecuted = method.isAnnotationPresent(SupportsJava.class);
-        } else if(generalConf.getLanguage().equals("python")) {
-            shouldBeExecuted = method.isAnnotationPresent(SupportsPython.class);
-        }
-
-        return shouldBeExecuted;
-    }
-
-    protected boolean shouldMethodBeExecuted(Method method) {
-        boolean shouldBeExecuted = shouldMethodBeExecutedIgnoreLevel(method);
-
-        // If the level of execution is important we need to check for SupportsX annotations
-        if (generalConf.getMethodLevel()) {
-            return shouldBeExecuted && method.isAnnotationPresent(SupportsMethod.class);
-        } else {
-            return shouldBeExecuted && method.isAnnotationPresent(SupportsClass.class);
-        }
+    /**
+     * Returns the methods of this model that fit to the language of the project and to the given argument type.
+     *
+     * @param argumentType type of the data set that is given to the methods, null if it is not important
+     * @param considerLevel true, if the methods also need to fit to the configured level (method or class)
+     * @return fitting methods
+     */
+    protected List<DispatchTarget> getDispatchTargets(Class<?> argumentType, boolean considerLevel) {
+        Boolean methodLevel = considerLevel ? generalConf.getMethodLevel() : null;
+        return DispatchRegistry.getTargets(this.getClass(), generalConf.getLanguage(), methodLevel, argumentType);
     }
 }
@@ -0,0 +1,261 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.ugoe.cs.comfort.collection;
+
+import de.ugoe.cs.comfort.collection.filter.BaseFilter;
+import de.ugoe.cs.comfort.collection.metriccollector.BaseMetricCollector;
+import de.ugoe.cs.comfort.configuration.CollectionConfiguration;
+import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
+import de.ugoe.cs.comfort.data.DataSet;
+import de.ugoe.cs.comfort.exception.FilterException;
+import de.ugoe.cs.comfort.exception.LoaderException;
+import de.ugoe.cs.comfort.exception.MetricCollectorException;
+import de.ugoe.cs.comfort.exception.SchedulerException;
+import de.ugoe.cs.comfort.filer.BaseFiler;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Executes the collections of a run. The collections together with their "dependsOn" entries form a directed acyclic
+ * graph. Collections whose dependencies are finished are executed in parallel on a pool that is sized by the
+ * collectionThreads parameter of the general configuration (default: 1, i.e., one collection after another). The
+ * nThreads parameter is only used by the loaders and metric collectors within a collection. If one collection fails,
+ * all collections that (transitively) depend on it are skipped. The data that is loaded by the loaders is shared
+ * between the collections via the {@link DataSetCache}.
+ *
+ * If an executor is given to the scheduler (e.g., in the daemon mode), the collections are executed on it instead and
+ * the collectionThreads parameter is ignored. The executor is not shut down by the scheduler.
+ *
+ * @author Fabian Trautsch
+ */
+public class CollectionScheduler {
+    private static final Logger LOGGER = LogManager.getLogger(CollectionScheduler.class.getName());
+
+    private final GeneralConfiguration generalConf;
+    private final BaseFiler filer;
+    private final DataSetCache dataSetCache;
+    private final ExecutorService sharedExecutor;
+
+    public CollectionScheduler(GeneralConfiguration generalConfiguration, BaseFiler filer) {
+        this(generalConfiguration, filer, new DataSetCache());
+    }
+
+    public CollectionScheduler(GeneralConfiguration generalConfiguration, BaseFiler filer,
+                               DataSetCache dataSetCache) {
+        this(generalConfiguration, filer, dataSetCache, null);
+    }
+
+    public CollectionScheduler(GeneralConfiguration generalConfiguration, BaseFiler filer,
+                               DataSetCache dataSetCache, ExecutorService sharedExecutor) {
+        this.generalConf = generalConfiguration;
+        this.filer = filer;
+        this.dataSetCache = dataSetCache;
+        this.sharedExecutor = sharedExecutor;
+    }
+
+    public void execute(List<CollectionConfiguration> collections) throws SchedulerException, InterruptedException {
+        Map<String, CollectionConfiguration> collectionsByName = getCollectionsByName(collections);
+        Map<String, Set<String>> openDependencies = new HashMap<>();
+        Map<String, List<String>> dependents = new HashMap<>();
+        for(Map.Entry<String, CollectionConfiguration> entry : collectionsByName.entrySet()) {
+            openDependencies.put(entry.getKey(), new HashSet<>(entry.getValue().getDependsOn()));
+            dependents.put(entry.getKey(), new ArrayList<>());
+        }
+        for(Map.Entry<String, CollectionConfiguration> entry : collectionsByName.entrySet()) {
+            for(String dependency : openDependencies.get(entry.getKey())) {
+                if(!collectionsByName.containsKey(dependency)) {
+                    throw new SchedulerException("Collection "+entry.getKey()+" depends on unknown collection "
+                            +dependency);
+                }
+                dependents.get(dependency).add(entry.getKey());
+            }
+        }
+        checkForCycles(collectionsByName.keySet(), dependents, openDependencies);
+
+        ExecutorService executor = sharedExecutor != null
+                ? sharedExecutor : Executors.newFixedThreadPool(Math.max(1, generalConf.getCollectionThreads()));
+        CompletionService<CollectionResult> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<CollectionResult>> submitted = new ArrayList<>();
+        Set<String> skipped = new HashSet<>();
+        int running = 0;
+        SchedulerException fatalError = null;
+        try {
+            for(String name : collectionsByName.keySet()) {
+                if(openDependencies.get(name).isEmpty()) {
+                    submitted.add(submit(completionService, name, collectionsByName.get(name)));
+                    running++;
+                }
+            }
+
+            while(running > 0) {
+                Future<CollectionResult> future = completionService.take();
+                running--;
+
+                CollectionResult result;
+                try {
+                    result = future.get();
+                } catch (ExecutionException e) {
+                    LOGGER.catching(e.getCause());
+                    fatalError = new SchedulerException("Could not execute collection: "+e.getCause().getMessage());
+                    continue;
+                }
+
+                LOGGER.info("Collection {} finished after {} ms (successful: {}).", result.name, result.wallTime,
+                        result.successful);
+                for(String dependent : dependents.get(result.name)) {
+                    if(!result.successful) {
+                        skip(dependent, dependents, skipped);
+                        continue;
+                    }
+
+                    Set<String> open = openDependencies.get(dependent);
+                    open.remove(result.name);
+                    if(open.isEmpty() && !skipped.contains(dependent) && fatalError == null) {
+                        submitted.add(submit(completionService, dependent, collectionsByName.get(dependent)));
+                        running++;
+                    }
+                }
+            }
+        } finally {
+            if(sharedExecutor == null) {
+                executor.shutdownNow();
+            } else {
+                // Only our own collections are stopped, the executor is used by other runs, too
+                submitted.forEach(future -> future.cancel(true));
+            }
+        }
+
+        if(fatalError != null) {
+            throw fatalError;
+        }
+    }
+
+    private Map<String, CollectionConfiguration> getCollectionsByName(List<CollectionConfiguration> collections)
+            throws SchedulerException {
+        Map<String, CollectionConfiguration> collectionsByName = new LinkedHashMap<>();
+        for(int i = 0; i < collections.size(); i++) {
+            CollectionConfiguration collection = collections.get(i);
+            String name = collection.getName() == null ? "collection-" + i : collection.getName();
+            if(collectionsByName.put(name, collection) != null) {
+                throw new SchedulerException("Collection name "+name+" is used more than once");
+            }
+        }
+        return collectionsByName;
+    }
+
+    private void checkForCycles(Set<String> names, Map<String, List<String>> dependents,
+                                Map<String, Set<String>> openDependencies) throws SchedulerException {
+        Map<String, Integer> inDegree = new HashMap<>();
+        List<String> ready = new ArrayList<>();
+        for(String name : names) {
+            inDegree.put(name, openDependencies.get(name).size());
+            if(openDependencies.get(name).isEmpty()) {
+                ready.add(name);
+            }
+        }
+
+        int visited = 0;
+        while(!ready.isEmpty()) {
+            String name = ready.remove(ready.size() - 1);
+            visited++;
+            for(String dependent : dependents.get(name)) {
+                int degree = inDegree.get(dependent) - 1;
+                inDegree.put(dependent, degree);
+                if(degree == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        if(visited != names.size()) {
+            throw new SchedulerException("The dependencies between the collections contain a cycle");
+        }
+    }
+
+    private void skip(String name, Map<String, List<String>> dependents, Set<String> skipped) {
+        if(!skipped.add(name)) {
+            return;
+        }
+        LOGGER.warn("Skipping collection {}, as one of its dependencies failed.", name);
+        for(String dependent : dependents.get(name)) {
+            skip(dependent, dependents, skipped);
+        }
+    }
+
+    private Future<CollectionResult> submit(CompletionService<CollectionResult> completionService, String name,
+                                            CollectionConfiguration collection) {
+        return completionService.submit(() -> {
+            long start = System.currentTimeMillis();
+            boolean successful = runCollection(name, collection);
+            return new CollectionResult(name, successful, System.currentTimeMillis() - start);
+        });
+    }
+
+    private boolean runCollection(String name, CollectionConfiguration collection) throws Exception {
+        LOGGER.info("Starting collection {}...", name);
+        try {
+            // Get data first, collections with the same loader configuration share the loaded data
+            DataSet data = dataSetCache.getDataSet(generalConf, collection);
+            LOGGER.info("Loading data successful...");
+
+            // Afterwards, filter the data
+            List<BaseFilter> filters = collection.getFilter(generalConf);
+            for (BaseFilter filter : filters) {
+                LOGGER.info("Using filter {}...", filter.getClass().getName());
+                data = filter.filterData(data);
+                LOGGER.info("Filtering successful...");
+            }
+
+            // Then, execute the metric collection
+            List<BaseMetricCollector> collectors = collection.getMetricCollectors(generalConf, filer);
+            for (BaseMetricCollector collector : collectors) {
+                LOGGER.info("Using collector {}...", collector.getClass().getName());
+                collector.collectData(data);
+                LOGGER.info("Collection successful...");
+            }
+            return true;
+        } catch(LoaderException | FilterException | MetricCollectorException e) {
+            LOGGER.catching(e);
+            return false;
+        }
+    }
+
+    private static class CollectionResult {
+        private final String name;
+        private final boolean successful;
+        private final long wallTime;
+
+        CollectionResult(String name, boolean successful, long wallTime) {
+            this.name = name;
+            this.successful = successful;
+            this.wallTime = wallTime;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.ugoe.cs.comfort.collection;
+
+import de.ugoe.cs.comfort.collection.loader.BaseLoader;
+import de.ugoe.cs.comfort.configuration.CollectionConfiguration;
+import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
+import de.ugoe.cs.comfort.configuration.LoaderConfiguration;
+import de.ugoe.cs.comfort.data.DataSet;
+import de.ugoe.cs.comfort.exception.LoaderException;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Caches the data sets that are created by the loaders. Two collections that use the same loader with an equal loader
+ * configuration (for the same project and language) share one data set, which is loaded exactly once. If a second
+ * collection asks for a data set that is currently loaded, it waits for the first loader to finish.
+ *
+ * The cached data sets are shared between all collections. Hence, they must not be changed afterwards: filters work
+ * on a copy or a filtered view of the data (e.g., via getCopyOfGraph or filter) and collectors only read it.
+ *
+ * A cache with a maximum size can be shared between several runs (e.g., in the daemon mode). Then, the key also
+ * contains the fingerprint of the input files of the loader, so that changed projects are loaded again. Data of
+ * loaders that do not declare their input files is only shared within one run. If the cache is full, the least
+ * recently used data set that is completely loaded is removed.
+ *
+ * If several revisions of a project are analyzed, the cache of the next revision is created via
+ * {@link #createCacheForNextRevision(Set)}. Its data sets are created by updating the data sets of the previous
+ * revision (see {@link BaseLoader#updateData(DataSet, Set)}) instead of loading them again.
+ *
+ * @author Fabian Trautsch
+ */
+public class DataSetCache {
+    private static final Logger LOGGER = LogManager.getLogger(DataSetCache.class.getName());
+
+    private final int maximumSize;
+    // Access order, so that the least recently used data set is removed first
+    private final Map<List<Object>, CompletableFuture<DataSet>> dataSets = new LinkedHashMap<>(16, 0.75f, true);
+    // Data sets of the previous revision and the files that were changed since then
+    private final Map<List<Object>, DataSet> previousDataSets = new HashMap<>();
+    private final Set<Path> changedFiles = new HashSet<>();
+
+    /**
+     * Creates a cache for one run without a size limit.
+     */
+    public DataSetCache() {
+        this.maximumSize = 0;
+    }
+
+    /**
+     * Creates a cache that can be shared between runs.
+     *
+     * @param maximumSize maximum number of cached data sets
+     */
+    public DataSetCache(int maximumSize) {
+        if(maximumSize < 1) {
+            throw new IllegalArgumentException("Maximum size must be at least 1");
+        }
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * Creates the cache for the next revision of the project. The completely loaded data sets of this cache are
+     * remembered, so that they can be updated for the next revision. The new cache does not reference this cache.
+     *
+     * @param changedFiles files that were changed between the revision of this cache and the next revision
+     * @return cache for the next revision
+     */
+    public DataSetCache createCacheForNextRevision(Set<Path> changedFiles) {
+        if(isSharedBetweenRuns()) {
+            throw new IllegalStateException("Only caches of one run can be used for several revisions");
+        }
+
+        DataSetCache nextCache = new DataSetCache();
+        synchronized (dataSets) {
+            for(Map.Entry<List<Object>, CompletableFuture<DataSet>> entry : dataSets.entrySet()) {
+                CompletableFuture<DataSet> future = entry.getValue();
+                if(future.isDone() && !future.isCompletedExceptionally()) {
+                    nextCache.previousDataSets.put(entry.getKey(), future.join());
+                }
+            }
+        }
+        nextCache.changedFiles.addAll(changedFiles);
+        return nextCache;
+    }
+
+    public DataSet getDataSet(GeneralConfiguration generalConf, CollectionConfiguration collection)
+            throws LoaderException, ClassNotFoundException, NoSuchMethodException, IllegalAccessException,
+            InvocationTargetException, InstantiationException {
+        BaseLoader loader = null;
+        Object inputState = null;
+        if(isSharedBetweenRuns()) {
+            // The loader is needed to determine its input files
+            loader = collection.getLoader(generalConf);
+            inputState = getInputState(generalConf, loader);
+        }
+        List<Object> key = createKey(generalConf, collection.getLoaderConfiguration(), inputState);
+
+        CompletableFuture<DataSet> future = new CompletableFuture<>();
+        CompletableFuture<DataSet> existingFuture;
+        synchronized (dataSets) {
+            existingFuture = dataSets.get(key);
+            if(existingFuture == null) {
+                dataSets.put(key, future);
+                evictIfNecessary();
+            }
+        }
+        if(existingFuture != null) {
+            LOGGER.info("Reusing data of loader {}...", collection.getLoaderConfiguration().getName());
+            generalConf.getMetricsRegistry().increment("dataSetCache.hits", 1);
+            return waitForDataSet(existingFuture);
+        }
+
+        try {
+            if(loader == null) {
+                loader = collection.getLoader(generalConf);
+            }
+            LOGGER.info("Using loader {}...", loader.getClass().getName());
+            DataSet previousData = previousDataSets.get(key);
+            DataSet data = previousData == null ? loader.loadData() : loader.updateData(previousData, changedFiles);
+            future.complete(data);
+            return data;
+        } catch (Exception e) {
+            // Failed loads are not cached, so that waiting collections get the error and later ones can retry
+            synchronized (dataSets) {
+                dataSets.remove(key, future);
+            }
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public void clear() {
+        synchronized (dataSets) {
+            dataSets.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (dataSets) {
+            return dataSets.size();
+        }
+    }
+
+    private boolean isSharedBetweenRuns() {
+        return maximumSize > 0;
+    }
+
+    private void evictIfNecessary() {
+        if(!isSharedBetweenRuns()) {
+            return;
+        }
+
+        // Data sets that are currently loaded are never removed, as other collections may wait for them
+        Iterator<CompletableFuture<DataSet>> iterator = dataSets.values().iterator();
+        int size = dataSets.size();
+        while(size > maximumSize && iterator.hasNext()) {
+            if(iterator.next().isDone()) {
+                iterator.remove();
+                size--;
+            }
+        }
+    }
+
+    private Object getInputState(GeneralConfiguration generalConf, BaseLoader loader) throws LoaderException {
+        try {
+            String fingerprint = loader.getInputFingerprint();
+            // Without a fingerprint, the data is only shared within the run of the given configuration
+            return fingerprint == null ? generalConf : fingerprint;
+        } catch (IOException e) {
+            throw new LoaderException("Could not determine input files of loader: "+e.getMessage());
+        }
+    }
+
+    private DataSet waitForDataSet(CompletableFuture<DataSet> future) throws LoaderException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LoaderException("Interrupted while waiting for data: "+e.getMessage());
+        } catch (ExecutionException e) {
+            throw new LoaderException("Could not load data: "+e.getCause().getMessage());
+        }
+    }
+
+    private static List<Object> createKey(GeneralConfiguration generalConf, LoaderConfiguration loaderConf,
+                                          Object inputState) {
+        Path projectDir = generalConf.getProjectDir() == null
+                ? null : generalConf.getProjectDir().toAbsolutePath().normalize();
+        // Graphs of different backends are not interchangeable, e.g., an off-heap graph must not be replaced by a
+        // graph on the heap
+        return Arrays.asList(loaderConf, projectDir, generalConf.getLanguage(), generalConf.getGraphBackend(),
+                inputState);
+    }
+}
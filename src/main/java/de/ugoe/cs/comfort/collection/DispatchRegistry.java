@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.ugoe.cs.comfort.collection;
+
+import de.ugoe.cs.comfort.annotations.SupportsClass;
+import de.ugoe.cs.comfort.annotations.SupportsJava;
+import de.ugoe.cs.comfort.annotations.SupportsMethod;
+import de.ugoe.cs.comfort.annotations.SupportsPython;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolves which methods of a loader, filter or metric collector need to be executed for a given language, level and
+ * data set type. The resolution (i.e., checking the annotations and parameter types of all declared methods) is only
+ * done once per combination. The found methods are bound to method handles, so that the dispatch afterwards is only
+ * a map lookup and a direct call.
+ *
+ * @author Fabian Trautsch
+ */
+public final class DispatchRegistry {
+    private static final MethodType NO_ARGUMENT_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType ONE_ARGUMENT_TYPE = MethodType.methodType(Object.class, Object.class,
+            Object.class);
+
+    private static final ConcurrentMap<List<Object>, List<DispatchTarget>> TARGETS = new ConcurrentHashMap<>();
+
+    private DispatchRegistry() {
+
+    }
+
+    /**
+     * Returns the methods of the given class that fit to the language, level and argument type. The methods are
+     * returned in the order of {@link Class#getDeclaredMethods()}.
+     *
+     * @param modelClass class of the loader, filter or metric collector
+     * @param language language of the project
+     * @param methodLevel true/false, if the level needs to fit to the SupportsMethod/SupportsClass annotations,
+     *                    null if the level is not important
+     * @param argumentType type of the data set that is given to the method, null if the parameter types are not
+     *                     important
+     * @return fitting methods
+     */
+    public static List<DispatchTarget> getTargets(Class<?> modelClass, String language, Boolean methodLevel,
+                                                  Class<?> argumentType) {
+        List<Object> key = Arrays.asList(modelClass, language, methodLevel, argumentType);
+        List<DispatchTarget> targets = TARGETS.get(key);
+        if(targets == null) {
+            targets = resolveTargets(modelClass, language, methodLevel, argumentType);
+            TARGETS.putIfAbsent(key, targets);
+        }
+        return targets;
+    }
+
+    private static List<DispatchTarget> resolveTargets(Class<?> modelClass, String language, Boolean methodLevel,
+                                                       Class<?> argumentType) {
+        List<DispatchTarget> targets = new ArrayList<>();
+        for(Method method : modelClass.getDeclaredMethods()) {
+            if(supportsLanguage(method, language) && supportsLevel(method, methodLevel)
+                    && parameterTypesAreFitting(method, argumentType)) {
+                targets.add(new DispatchTarget(method));
+            }
+        }
+        return Collections.unmodifiableList(targets);
+    }
+
+    private static boolean supportsLanguage(Method method, String language) {
+        if(language.equals("java")) {
+            return method.isAnnotationPresent(SupportsJava.class);
+        } else if(language.equals("python")) {
+            return method.isAnnotationPresent(SupportsPython.class);
+        }
+        return false;
+    }
+
+    private static boolean supportsLevel(Method method, Boolean methodLevel) {
+        if(methodLevel == null) {
+            return true;
+        }
+
+        if(methodLevel) {
+            return method.isAnnotationPresent(SupportsMethod.class);
+        } else {
+            return method.isAnnotationPresent(SupportsClass.class);
+        }
+    }
+
+    private static boolean parameterTypesAreFitting(Method method, Class<?> argumentType) {
+        if(argumentType == null) {
+            return true;
+        }
+
+        // Same check as before: the set of parameter type names must be equal to the name of the argument type
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        if(parameterTypes.length == 0) {
+            return false;
+        }
+        for(Class<?> parameterType : parameterTypes) {
+            if(!parameterType.getName().equals(argumentType.getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A method that was found by the registry, bound to a method handle.
+     */
+    public static final class DispatchTarget {
+        private final String name;
+        private final int parameterCount;
+        private final MethodHandle handle;
+        private final IllegalAccessException accessException;
+
+        private DispatchTarget(Method method) {
+            this.name = method.getName();
+            this.parameterCount = method.getParameterCount();
+
+            MethodHandle boundHandle = null;
+            IllegalAccessException exception = null;
+            try {
+                MethodHandle methodHandle = MethodHandles.publicLookup().unreflect(method);
+                if(parameterCount == 0) {
+                    boundHandle = methodHandle.asType(NO_ARGUMENT_TYPE);
+                } else if(parameterCount == 1) {
+                    boundHandle = methodHandle.asType(ONE_ARGUMENT_TYPE);
+                } else {
+                    boundHandle = methodHandle;
+                }
+            } catch (IllegalAccessException e) {
+                // Is only thrown if the method is called, like it was done by Method.invoke
+                exception = e;
+            }
+            this.handle = boundHandle;
+            this.accessException = exception;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Calls the method. In contrast to Method.invoke, exceptions of the method are not wrapped, and errors
+         * (e.g., an OutOfMemoryError) are thrown as they are.
+         *
+         * @param model model on which the method is called
+         * @return return value of the method
+         * @throws Exception exception that was thrown by the method
+         */
+        public Object invoke(Object model) throws Exception {
+            checkAccess();
+            if(parameterCount != 0) {
+                throw new IllegalArgumentException("Method "+name+" expects "+parameterCount+" arguments");
+            }
+            try {
+                return (Object) handle.invokeExact(model);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        }
+
+        public Object invoke(Object model, Object argument) throws Exception {
+            checkAccess();
+            if(parameterCount != 1) {
+                throw new IllegalArgumentException("Method "+name+" expects "+parameterCount+" arguments");
+            }
+            try {
+                return (Object) handle.invokeExact(model, argument);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UndeclaredThrowableException(e);
+            }
+        }
+
+        private void checkAccess() throws IllegalAccessException {
+            if(accessException != null) {
+                throw accessException;
+            }
+        }
+    }
+}
@@ -17,13 +17,11 @@
 package de.ugoe.cs.comfort.collection.filter;
 
 import de.ugoe.cs.comfort.collection.BaseModel;
+import de.ugoe.cs.comfort.collection.DispatchRegistry.DispatchTarget;
 import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
 import de.ugoe.cs.comfort.data.DataSet;
 import de.ugoe.cs.comfort.exception.FilterException;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.HashSet;
-import java.util.Set;
+import de.ugoe.cs.comfort.instrumentation.StageTimer;
 
 
 /**
@@ -36,23 +34,21 @@ public class BaseFilter extends BaseModel {
 
     public DataSet filterData(DataSet dataSet) throws FilterException {
         DataSet filteredDataSet = dataSet;
-        Set<String> classNamesOfArguments = new HashSet<>();
-        classNamesOfArguments.add(filteredDataSet.getClass().getName());
+        String stage = "filter:"+this.getClass().getSimpleName();
 
-        for(Method method : this.getClass().getDeclaredMethods()) {
-            // We need to find the method where the annotations are fitting to the configuration and
-            // where the parameter types are fitting
-            try {
-                if (shouldMethodBeExecutedIgnoreLevel(method)
-                        && checkIfParameterTypesAreFitting(method, classNamesOfArguments)) {
+        // All methods where the annotations and the parameter types are fitting are executed one after another
+        try (StageTimer timer = generalConf.getMetricsRegistry().startStage(stage)) {
+            for(DispatchTarget target : getDispatchTargets(dataSet.getClass(), false)) {
+                try {
                     logger.info("Using filter method {} from class {}...",
-                            method.getName(), this.getClass().getName());
-                    filteredDataSet = (DataSet) method.invoke(this, filteredDataSet);
+                            target.getName(), this.getClass().getName());
+                    filteredDataSet = (DataSet) target.invoke(this, filteredDataSet);
+                } catch (Exception e) {
+                    throw new FilterException("Could not filter data: " + e.getMessage());
                 }
-            } catch (IllegalAccessException | InvocationTargetException e) {
-                throw new FilterException("Could not filter data: " + e.getMessage());
             }
         }
+        generalConf.getMetricsRegistry().recordGraphSize(stage, dataSet, filteredDataSet);
         return filteredDataSet;
     }
 }
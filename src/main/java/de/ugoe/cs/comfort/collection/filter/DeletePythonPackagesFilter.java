@@ -19,9 +19,7 @@ package de.ugoe.cs.comfort.collection.filter;
 import de.ugoe.cs.comfort.annotations.SupportsPython;
 import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
 import de.ugoe.cs.comfort.data.graphs.DependencyGraph;
-import de.ugoe.cs.comfort.data.models.IUnit;
 import de.ugoe.cs.comfort.data.models.PythonModule;
-import java.util.Set;
 
 /**
  * @author Fabian Trautsch
@@ -33,20 +31,14 @@ public class DeletePythonPackagesFilter extends BaseFilter{
 
     @SupportsPython
     public DependencyGraph filter(DependencyGraph dependencyGraph) {
-        DependencyGraph filteredDependencyGraph = dependencyGraph.getCopyOfGraph();
-
-        // If the source or the target is a package -> delete it
-        Set<IUnit> nodes = dependencyGraph.nodes();
-        nodes.forEach(node -> {
+        // If the source or the target is a package -> drop it
+        return dependencyGraph.filter(node -> {
             PythonModule moduleNode = (PythonModule) node;
             if (moduleNode.getModule().equals("__init__")) {
                 logger.debug("Deleting node {} (is Package)", moduleNode);
-                filteredDependencyGraph.removeNode(node);
+                return false;
             }
-        });
-
-        filteredDependencyGraph.cleanGraphOfNodesThatAreSingle();
-
-        return filteredDependencyGraph;
+            return true;
+        }, edge -> true);
     }
 }
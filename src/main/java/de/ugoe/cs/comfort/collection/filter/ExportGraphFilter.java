@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.collection.filter;
+
+import de.ugoe.cs.comfort.annotations.SupportsJava;
+import de.ugoe.cs.comfort.annotations.SupportsPython;
+import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
+import de.ugoe.cs.comfort.data.DataSet;
+import de.ugoe.cs.comfort.data.graphs.CallGraph;
+import de.ugoe.cs.comfort.data.graphs.DependencyGraph;
+import de.ugoe.cs.comfort.data.graphs.export.GraphExportFormat;
+import de.ugoe.cs.comfort.data.graphs.export.GraphExporter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Exports the graph as it is at this point of the filter chain into the configured graph export directory. The graph
+ * itself is not changed, therefore the filter can be placed after any other filter.
+ *
+ * @author Fabian Trautsch
+ */
+public class ExportGraphFilter extends BaseFilter {
+
+    public ExportGraphFilter(GeneralConfiguration generalConfiguration) {
+        super(generalConfiguration);
+    }
+
+    @SupportsJava
+    @SupportsPython
+    public DependencyGraph exportDependencyGraph(DependencyGraph dependencyGraph) throws IOException {
+        export(dependencyGraph, "dependencygraph");
+        return dependencyGraph;
+    }
+
+    @SupportsJava
+    @SupportsPython
+    public CallGraph exportCallGraph(CallGraph callGraph) throws IOException {
+        export(callGraph, "callgraph");
+        return callGraph;
+    }
+
+    private void export(DataSet graph, String graphName) throws IOException {
+        Path exportDir = generalConf.getGraphExportDir();
+        if(exportDir == null) {
+            throw new IOException("No graphExportDir is configured");
+        }
+
+        GraphExportFormat format = generalConf.getGraphExportFormat();
+        boolean compressed = generalConf.isGraphExportCompressed();
+        String prefix = generalConf.getProjectName()+"-"
+                +(generalConf.getRevision() == null ? "" : generalConf.getRevision()+"-")+graphName+"-";
+        String suffix = format.getFileEnding()+(compressed ? ".gz" : "");
+
+        // The filter can be used in several collections, therefore each export gets its own file
+        Files.createDirectories(exportDir);
+        Path exportFile = Files.createTempFile(exportDir, prefix, suffix);
+        logger.info("Exporting {} to {}...", graphName, exportFile);
+        GraphExporter.export(graph, exportFile, format, compressed);
+    }
+}
@@ -16,18 +16,29 @@
 
 package de.ugoe.cs.comfort.collection.filter;
 
-import com.google.common.graph.Graph;
+import com.google.common.graph.EndpointPair;
 import de.ugoe.cs.comfort.annotations.SupportsJava;
 import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
 import de.ugoe.cs.comfort.data.graphs.DependencyGraph;
 import de.ugoe.cs.comfort.data.models.IUnit;
 import de.ugoe.cs.comfort.data.models.JavaClass;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
+ * Merges inner classes (e.g., Foo$1 or Foo$Bar$2) into their main class: each edge from or to an inner class is
+ * replaced by an edge from or to the main class. Edges whose main class is not part of the graph are removed.
+ *
  * @author Fabian Trautsch
  */
 public class MergeInnerClassToMainClassFilter extends BaseFilter{
+    // Below this number of edges, the edges are not rewritten in parallel as the overhead would dominate
+    private static final int PARALLEL_THRESHOLD = 10000;
 
     public MergeInnerClassToMainClassFilter(GeneralConfiguration generalConfiguration) {
         super(generalConfiguration);
@@ -35,54 +46,51 @@ public class MergeInnerClassToMainClassFilter extends BaseFilter{
 
     @SupportsJava
     public DependencyGraph filter(DependencyGraph dependencyGraph) {
-        DependencyGraph filteredDependencyGraph = dependencyGraph.getCopyOfGraph();
-
-        dependencyGraph.edges().forEach(
-                edge -> {
-                    JavaClass source = (JavaClass) edge.source();
-                    JavaClass target = (JavaClass) edge.target();
-                    if(source.isInnerClass() || target.isInnerClass()) {
-                        if(source.isInnerClass() && !target.isInnerClass()) {
-                            logger.debug("Source {} is an inner class.", source);
-                            Optional<IUnit> baseClass = getBaseClassForInnerClass(dependencyGraph, source);
-                            if(baseClass.isPresent()) {
-                                filteredDependencyGraph.putEdge(baseClass.get(), target);
-                                logger.debug("Putting edge between {} and {}", baseClass.get(), target);
-                            }
-                        } else if(!source.isInnerClass() && target.isInnerClass()) {
-                            logger.debug("Target {} is an inner class.", target);
-                            Optional<IUnit> baseClass = getBaseClassForInnerClass(dependencyGraph, target);
-                            if(baseClass.isPresent()) {
-                                filteredDependencyGraph.putEdge(source, baseClass.get());
-                                logger.debug("Putting edge between {} and {}", source, baseClass.get());
-                            }
-                        } else if(source.isInnerClass() && target.isInnerClass()) {
-                            logger.debug("Source {} and Target {} are inner classes.", source, target);
-                            Optional<IUnit> baseClassSrc = getBaseClassForInnerClass(dependencyGraph, source);
-                            Optional<IUnit> baseClassTarget = getBaseClassForInnerClass(dependencyGraph, target);
-                            if(baseClassSrc.isPresent() && baseClassTarget.isPresent()) {
-                                filteredDependencyGraph.putEdge(baseClassSrc.get(), baseClassTarget.get());
-                                logger.debug("Putting edge between {} and {}", baseClassSrc.get(),
-                                        baseClassTarget.get());
-                            }
-                        }
-                        filteredDependencyGraph.removeEdge(source, target);
-                        logger.debug("Removing edge between {} and {}", source, target);
-                    }
-                }
-        );
+        // Index of all main classes by their name, so that the main class of an inner class is a single lookup
+        Map<String, IUnit> mainClasses = new HashMap<>();
+        dependencyGraph.nodes().forEach(node -> {
+            if(!((JavaClass) node).isInnerClass()) {
+                mainClasses.putIfAbsent(node.getFQNOfUnit(), node);
+            }
+        });
 
-        // Go through all nodes and check if they have any connections left. If not -> put them in a list to remove
-        filteredDependencyGraph.cleanGraphOfNodesThatAreSingle();
+        // Rewrite all edges in one pass. Edges are independent of each other, so they can be rewritten in parallel
+        List<EndpointPair<IUnit>> edges = new ArrayList<>(dependencyGraph.edges());
+        Stream<EndpointPair<IUnit>> edgeStream = edges.size() < PARALLEL_THRESHOLD
+                ? edges.stream() : edges.parallelStream();
+        List<EndpointPair<IUnit>> rewrittenEdges = edgeStream
+                .map(edge -> rewriteEdge(mainClasses, edge))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
 
+        // Only nodes that have any connections left are part of the filtered graph
+        DependencyGraph filteredDependencyGraph = new DependencyGraph(dependencyGraph.getBackend());
+        rewrittenEdges.forEach(edge -> filteredDependencyGraph.putEdge(edge.source(), edge.target()));
         return filteredDependencyGraph;
     }
 
-    private Optional<IUnit> getBaseClassForInnerClass(Graph<IUnit> graph, JavaClass node) {
-        String baseClass = node.getFQNOfUnit().split("\\$")[0];
-        logger.debug("Baseclass of {} is {}", node, baseClass);
-        return graph.nodes().stream()
-                .filter(graphNode -> graphNode.getFQNOfUnit().equals(baseClass))
-                .findFirst();
+    private EndpointPair<IUnit> rewriteEdge(Map<String, IUnit> mainClasses, EndpointPair<IUnit> edge) {
+        JavaClass source = (JavaClass) edge.source();
+        JavaClass target = (JavaClass) edge.target();
+        if(!source.isInnerClass() && !target.isInnerClass()) {
+            return edge;
+        }
+
+        IUnit newSource = source.isInnerClass() ? getMainClassForInnerClass(mainClasses, source) : source;
+        IUnit newTarget = target.isInnerClass() ? getMainClassForInnerClass(mainClasses, target) : target;
+        logger.debug("Removing edge between {} and {}", source, target);
+        if(newSource == null || newTarget == null) {
+            return null;
+        }
+        logger.debug("Putting edge between {} and {}", newSource, newTarget);
+        return EndpointPair.ordered(newSource, newTarget);
+    }
+
+    private IUnit getMainClassForInnerClass(Map<String, IUnit> mainClasses, JavaClass node) {
+        // The whole chain of inner classes is collapsed, e.g., Foo$Bar$2 -> Foo
+        String fqnOfUnit = node.getFQNOfUnit();
+        String mainClass = fqnOfUnit.substring(0, fqnOfUnit.indexOf('$'));
+        logger.debug("Main class of {} is {}", node, mainClass);
+        return mainClasses.get(mainClass);
     }
 }
@@ -21,6 +21,7 @@ import de.ugoe.cs.comfort.annotations.SupportsPython;
 import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
 import de.ugoe.cs.comfort.data.graphs.CallGraph;
 import de.ugoe.cs.comfort.data.graphs.DependencyGraph;
+import de.ugoe.cs.comfort.data.models.IUnit;
 
 /**
  * @author Fabian Trautsch
@@ -34,37 +35,23 @@ public class SameProjectFilter extends BaseFilter {
     @SupportsJava
     @SupportsPython
     public DependencyGraph filterDependencyGraph(DependencyGraph dependencyGraph) {
-        DependencyGraph filteredDepedencyGraph = dependencyGraph.getCopyOfGraph();
-
-        // Go through all nodes and check if the node has a file path, if not it is not project related
-        dependencyGraph.nodes().forEach(node -> {
-            if(node.getFilePath() == null) {
-                logger.debug("Removing the following node: {}", node);
-                filteredDepedencyGraph.removeNode(node);
-            }
-        });
-
-        filteredDepedencyGraph.cleanGraphOfNodesThatAreSingle();
-
-        return filteredDepedencyGraph;
+        // Only keep nodes that have a file path, otherwise they are not project related. Nodes that do not have any
+        // edges left are not part of the view
+        return dependencyGraph.filter(this::isProjectRelated, edge -> true);
     }
 
     @SupportsJava
     @SupportsPython
     public CallGraph filterCallGraph(CallGraph callGraph) {
-        CallGraph filteredCallGraph = callGraph.getCopyOfGraph();
-
-        // Go through all nodes and check if the class can be found in the project folder
-        callGraph.nodes().forEach(node -> {
-            if(node.getFilePath() == null) {
-                logger.debug("Removing the node: {}", node);
-                filteredCallGraph.removeNode(node);
-            }
-        });
-
-        // Remove all nodes that do not have any edges left
-        filteredCallGraph.cleanGraphOfNodesThatAreSingle();
+        // Only keep nodes whose class can be found in the project folder
+        return callGraph.filter(this::isProjectRelated, edge -> true);
+    }
 
-        return filteredCallGraph;
+    private boolean isProjectRelated(IUnit node) {
+        if(node.getFilePath() == null) {
+            logger.debug("Removing the node: {}", node);
+            return false;
+        }
+        return true;
     }
 }
@@ -34,7 +34,7 @@ public class TransformCallGraphToDependencyGraphFilter extends BaseFilter{
     @SupportsPython
     @SupportsJava
     public DependencyGraph filter(CallGraph callGraph) {
-        DependencyGraph dependencyGraph = callGraph.getDependencyGraphRepresentation();
+        DependencyGraph dependencyGraph = callGraph.getDependencyGraphRepresentation(generalConf.getUnitRegistry());
         logger.debug("Got the following dependencygraph: {}", dependencyGraph);
         return dependencyGraph;
     }
@@ -16,13 +16,25 @@
 
 package de.ugoe.cs.comfort.collection.loader;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import de.ugoe.cs.comfort.collection.BaseModel;
+import de.ugoe.cs.comfort.collection.DispatchRegistry.DispatchTarget;
+import de.ugoe.cs.comfort.collection.loader.snapshot.SnapshotStore;
 import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
 import de.ugoe.cs.comfort.configuration.LoaderConfiguration;
 import de.ugoe.cs.comfort.data.DataSet;
 import de.ugoe.cs.comfort.exception.LoaderException;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import de.ugoe.cs.comfort.instrumentation.StageTimer;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
 
 
 /**
@@ -37,14 +49,146 @@ public class BaseLoader extends BaseModel {
     }
 
     public DataSet loadData() throws LoaderException {
-        for(Method method : this.getClass().getDeclaredMethods()) {
-            try {
-                if (shouldMethodBeExecutedIgnoreLevel(method)) {
-                    this.logger.info("Using data loader method {} from class {}...", method.getName(),
-                            this.getClass().getName());
-                    return (DataSet) method.invoke(this);
+        String stage = "loader:"+this.getClass().getSimpleName();
+        DataSet data;
+        try (StageTimer timer = generalConf.getMetricsRegistry().startStage(stage)) {
+            data = loadDataFromSnapshotOrSource();
+        }
+        generalConf.getMetricsRegistry().recordGraphSize(stage, null, data);
+        return data;
+    }
+
+    /**
+     * Updates the data set that was loaded for the previous revision of the project. If the loader supports it, only
+     * the parts of the data set that depend on the changed files are loaded again. Otherwise, the data set is loaded
+     * completely via {@link #loadData()}.
+     *
+     * @param previousData data set of the previous revision, which is not changed
+     * @param changedFiles files that were changed between the previous and the current revision
+     * @return data set for the current revision
+     * @throws LoaderException if the data can not be loaded
+     */
+    public DataSet updateData(DataSet previousData, Set<Path> changedFiles) throws LoaderException {
+        String stage = "loader:"+this.getClass().getSimpleName();
+        DataSet data;
+        try (StageTimer timer = generalConf.getMetricsRegistry().startStage(stage)) {
+            data = updateDataOfPreviousRevision(previousData, changedFiles);
+        }
+        if(data == null) {
+            return loadData();
+        }
+
+        generalConf.getMetricsRegistry().increment("loader.incrementalUpdates", 1);
+        generalConf.getMetricsRegistry().recordGraphSize(stage, previousData, data);
+        return data;
+    }
+
+    /**
+     * Creates the data set for the current revision based on the data set of the previous revision. Needs to be
+     * overwritten by loaders that support incremental updates.
+     *
+     * @param previousData data set of the previous revision, which must not be changed
+     * @param changedFiles files that were changed between the previous and the current revision
+     * @return updated data set or null, if the data set needs to be loaded completely
+     * @throws LoaderException if the data can not be loaded
+     */
+    protected DataSet updateDataOfPreviousRevision(DataSet previousData, Set<Path> changedFiles)
+            throws LoaderException {
+        return null;
+    }
+
+    private DataSet loadDataFromSnapshotOrSource() throws LoaderException {
+        // If snapshots are enabled, we first check if there is a snapshot for the current inputs
+        SnapshotStore snapshotStore = null;
+        String snapshotKey = null;
+        if(generalConf.getSnapshotDir() != null) {
+            snapshotStore = new SnapshotStore(generalConf.getSnapshotDir());
+            snapshotKey = createSnapshotKey(snapshotStore);
+            if(snapshotKey != null) {
+                DataSet snapshot = snapshotStore.read(snapshotKey, generalConf.getGraphBackend());
+                if(snapshot != null) {
+                    generalConf.getMetricsRegistry().increment("snapshots.used", 1);
+                    return snapshot;
                 }
-            } catch (IllegalAccessException | InvocationTargetException e) {
+            }
+        }
+
+        DataSet data = dispatchLoadData();
+        if(snapshotKey != null) {
+            snapshotStore.write(snapshotKey, data);
+        }
+        return data;
+    }
+
+    /**
+     * Returns all files whose content is read by this loader. If null is returned, the data of this loader is never
+     * stored as snapshot.
+     *
+     * @return files that are read by this loader or null
+     * @throws IOException if the files can not be determined
+     */
+    protected Set<Path> getSnapshotInputFiles() throws IOException {
+        return null;
+    }
+
+    /**
+     * Returns a fingerprint of the files that are read by this loader. In contrast to the snapshot key, only the
+     * paths, sizes and modification times of the files are used, so that the fingerprint is cheap to compute. It
+     * is used to decide if data that was loaded in an earlier run can still be used.
+     *
+     * @return fingerprint of the input files or null, if the loader does not declare its input files
+     * @throws IOException if the files can not be determined
+     */
+    public String getInputFingerprint() throws IOException {
+        Set<Path> inputFiles = getSnapshotInputFiles();
+        if(inputFiles == null) {
+            return null;
+        }
+
+        List<Path> sortedFiles = new ArrayList<>(inputFiles);
+        sortedFiles.sort(Comparator.comparing(Path::toString));
+
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        for(Path file : sortedFiles) {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            hasher.putString(file.toString(), StandardCharsets.UTF_8);
+            hasher.putLong(attributes.size());
+            hasher.putLong(attributes.lastModifiedTime().toMillis());
+        }
+        return hasher.hash().toString();
+    }
+
+    protected Set<Path> getSourceFilesOfProject() throws IOException {
+        if(generalConf.getLanguage().equals("python")) {
+            return generalConf.getFileCatalog().getFiles(generalConf.getProjectDir(), ".*\\.py");
+        }
+        return generalConf.getFileCatalog().getFiles(generalConf.getProjectDir(), ".*\\.java");
+    }
+
+    protected Set<Path> getClassFilesOfProject() throws IOException {
+        return generalConf.getClassFileSource().getClassFiles(generalConf);
+    }
+
+    private String createSnapshotKey(SnapshotStore snapshotStore) {
+        try {
+            Set<Path> inputFiles = getSnapshotInputFiles();
+            if(inputFiles == null) {
+                return null;
+            }
+            return snapshotStore.createKey(this.getClass(), generalConf, loaderConf, inputFiles);
+        } catch (IOException e) {
+            logger.warn("Could not create snapshot key: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private DataSet dispatchLoadData() throws LoaderException {
+        for(DispatchTarget target : getDispatchTargets(null, false)) {
+            try {
+                this.logger.info("Using data loader method {} from class {}...", target.getName(),
+                        this.getClass().getName());
+                return (DataSet) target.invoke(this);
+            } catch (Exception e) {
                 throw new LoaderException("Could not load data: " + e.getMessage());
             }
         }
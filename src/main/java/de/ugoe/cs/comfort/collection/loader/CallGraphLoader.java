@@ -16,43 +16,75 @@
 
 package de.ugoe.cs.comfort.collection.loader;
 
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import de.ugoe.cs.comfort.ClassFileSource;
 import de.ugoe.cs.comfort.FileNameUtils;
-import de.ugoe.cs.comfort.Utils;
 import de.ugoe.cs.comfort.annotations.SupportsJava;
 import de.ugoe.cs.comfort.annotations.SupportsPython;
+import de.ugoe.cs.comfort.collection.loader.callgraph.AsmCallVisitor;
+import de.ugoe.cs.comfort.collection.loader.callgraph.CallEdgeCache;
+import de.ugoe.cs.comfort.collection.loader.callgraph.CallGraphFrontend;
 import de.ugoe.cs.comfort.collection.loader.callgraph.ClassVisitor;
+import de.ugoe.cs.comfort.collection.loader.callgraph.PythonCallGraphParser;
 import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
 import de.ugoe.cs.comfort.configuration.LoaderConfiguration;
+import de.ugoe.cs.comfort.data.DataSet;
 import de.ugoe.cs.comfort.data.graphs.CallEdge;
 import de.ugoe.cs.comfort.data.graphs.CallGraph;
-import de.ugoe.cs.comfort.data.graphs.CallType;
-import de.ugoe.cs.comfort.data.models.PythonMethod;
 import de.ugoe.cs.comfort.exception.LoaderException;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.bcel.classfile.ClassParser;
 
 /**
  * @author Fabian Trautsch
  */
 public class CallGraphLoader extends BaseLoader {
+    private static final int PARTITIONS_PER_THREAD = 4;
+    private static final int MIN_CLASS_FILES_PER_PARTITION = 16;
+    private static final String EDGE_CACHE_FILE_ENDING = ".edges";
+
+    private int minClassFilesPerPartition = MIN_CLASS_FILES_PER_PARTITION;
 
     public CallGraphLoader(GeneralConfiguration generalConfiguration, LoaderConfiguration loaderConfiguration) {
         super(generalConfiguration, loaderConfiguration);
     }
 
+    /**
+     * Sets the minimal number of class files per partition that is parsed in parallel. Small projects are parsed
+     * sequentially, as the overhead of the threads is higher than their gain.
+     *
+     * @param minClassFilesPerPartition minimal number of class files per partition (default: 16)
+     */
+    void setMinClassFilesPerPartition(int minClassFilesPerPartition) {
+        this.minClassFilesPerPartition = Math.max(1, minClassFilesPerPartition);
+    }
+
+    @Override
+    protected Set<Path> getSnapshotInputFiles() throws IOException {
+        Set<Path> inputFiles = getSourceFilesOfProject();
+        if(generalConf.getLanguage().equals("python")) {
+            inputFiles.add(loaderConf.getCallGraphLocation());
+        } else {
+            inputFiles.addAll(getClassFilesOfProject());
+        }
+        return inputFiles;
+    }
+
     @SupportsJava
     public CallGraph loadJavaCallGraph() throws LoaderException {
         logger.info("Parsing class files...");
-        ClassParser cp;
         Set<Path> classFiles;
         try {
-            classFiles = Utils.getAllFilesFromProjectForRegex(generalConf.getProjectDir(), ".*\\.class");
+            classFiles = getClassFilesOfProject();
         } catch (IOException e) {
             throw new LoaderException("Could not read project directory: "+generalConf.getProjectDir());
         }
@@ -62,62 +94,189 @@ public class CallGraphLoader extends BaseLoader {
                 + "compiled the project already?");
         }
         logger.info("Building call graph network...");
-        CallGraph callGraph = new CallGraph();
+        CallGraph callGraph = new CallGraph(generalConf.getGraphBackend());
+        parseClassFiles(classFiles, callGraph, true);
+        logger.info("Finished extracting call graph.");
+        return callGraph;
+    }
+
+    /**
+     * Updates the java call graph of the previous revision. All calls from methods of changed classes are removed
+     * and only the class files of these classes are parsed again. As each edge is created by the class file of
+     * its caller, the result is the same as if all class files were parsed.
+     */
+    @Override
+    protected DataSet updateDataOfPreviousRevision(DataSet previousData, Set<Path> changedFiles)
+            throws LoaderException {
+        if(!generalConf.getLanguage().equals("java") || !(previousData instanceof CallGraph)) {
+            return null;
+        }
+
+        CallGraph previousCallGraph = (CallGraph) previousData;
+        ChangedClasses changedClasses;
+        Set<Path> classFilesToParse = new HashSet<>();
         try {
-            FileNameUtils fileNameUtils = new FileNameUtils(generalConf);
-            for(Path classFilePath: classFiles) {
-                cp = new ClassParser(classFilePath.toString());
-                ClassVisitor visitor = new ClassVisitor(cp.parse(), callGraph, fileNameUtils);
-                visitor.start();
+            changedClasses = ChangedClasses.of(previousCallGraph.nodes(), changedFiles);
+            for(Path classFile : getClassFilesOfProject()) {
+                if(changedClasses.containsClassFile(classFile)) {
+                    classFilesToParse.add(classFile);
+                }
             }
         } catch (IOException e) {
-            throw new LoaderException("Error in executing CallGraphLoader: "+e.getMessage());
+            throw new LoaderException("Could not determine changed classes: "+e.getMessage());
         }
+        logger.info("Updating call graph for {} changed classes ({} class files)...",
+                changedClasses.getTopLevelClasses().size(), classFilesToParse.size());
 
-        logger.info("Finished extracting call graph.");
+        CallGraph callGraph = previousCallGraph.getCopyOfGraph();
+        Set<CallEdge> edgesToRemove = new HashSet<>();
+        for(CallEdge edge : callGraph.edges()) {
+            if(changedClasses.contains(edge.getCaller().getFQNOfUnit())) {
+                edgesToRemove.add(edge);
+            }
+        }
+        edgesToRemove.forEach(callGraph::removeEdge);
+        // A full load never creates nodes without edges
+        callGraph.cleanGraphOfNodesThatAreSingle();
+
+        parseClassFiles(classFilesToParse, callGraph, false);
+        logger.info("Finished updating call graph.");
         return callGraph;
     }
 
-    @SupportsPython
-    public CallGraph loadPythonCallGraph() throws LoaderException {
-        String regexToDeleteAllParanthesis = "\\s*\\([^\\)]*\\)\\s*";
-        Pattern pattern = Pattern.compile(regexToDeleteAllParanthesis);
-
+    /**
+     * Parses the class files and adds their call edges to the call graph. With more than one thread, the sorted
+     * class files are split into contiguous partitions that are parsed in parallel. Each partition collects its
+     * edges in its own buffer and the buffers are added to the call graph in the order of the partitions, so that
+     * the resulting graph is the same as if the class files were parsed sequentially in sorted order.
+     *
+     * <p>If snapshots are enabled, the edges of each class file are cached under the hash of its content (see
+     * {@link CallEdgeCache}), so that only the class files that changed are parsed again. Class files with the same
+     * content (e.g., in several build output directories) are only parsed and added once.</p>
+     *
+     * @param fullLoad true, if all class files of the project are parsed. Only then, the class files that do not
+     *                 exist anymore are removed from the cache
+     */
+    private void parseClassFiles(Collection<Path> classFiles, CallGraph callGraph, boolean fullLoad)
+            throws LoaderException {
         FileNameUtils fileNameUtils = new FileNameUtils(generalConf);
-        Map<String, Integer> callsFromMethod = new HashMap<>();
-        try {
-            List<String> fileLines = Files.readAllLines(loaderConf.getCallGraphLocation());
-            logger.info("Building call graph network...");
+        Path edgeCacheFile = getEdgeCacheFile();
+        CallEdgeCache edgeCache = edgeCacheFile == null ? null
+                : CallEdgeCache.read(edgeCacheFile, fileNameUtils, generalConf.getUnitRegistry());
 
-            CallGraph callGraph = new CallGraph();
-            for(String line : fileLines) {
-                String[] lineParts = line.split("\\;");
-                String caller = lineParts[0].split("\\,")[0];
-                Path callerPath = Paths.get(lineParts[0].split("\\,")[1]);
-                String callee = lineParts[1].split("\\,")[0];
-                Path calleePath = Paths.get(lineParts[1].split("\\,")[1]);
-
-                Matcher matcherCaller = pattern.matcher(caller);
-                caller = matcherCaller.replaceAll("");
-                Matcher matcherCallee = pattern.matcher(callee);
-                callee = matcherCallee.replaceAll("");
+        List<Path> sortedClassFiles = new ArrayList<>(classFiles);
+        sortedClassFiles.sort(Comparator.comparing(Path::toString));
+        Set<HashCode> addedClassFiles = new HashSet<>();
+        for(List<ParsedClassFile> partition : parsePartitions(sortedClassFiles, fileNameUtils, edgeCache)) {
+            for(ParsedClassFile parsedClassFile : partition) {
+                if(addedClassFiles.add(parsedClassFile.hash)) {
+                    parsedClassFile.edges.forEach(callGraph::addEdge);
+                }
+            }
+        }
 
-                Integer callerCallNumber = callsFromMethod.getOrDefault(caller, 0);
-                callsFromMethod.put(caller, callerCallNumber+1);
+        if(edgeCache != null) {
+            edgeCache.write(edgeCacheFile, fullLoad);
+        }
+    }
 
-                // Get Python method from string
-                PythonMethod pyCaller = getPythonMethodForCallString(caller);
-                // Set correct path
-                pyCaller.setFileName(fileNameUtils.getPathForPythonModuleFQN(pyCaller.getFQNOfUnit()));
+    private List<List<ParsedClassFile>> parsePartitions(List<Path> sortedClassFiles, FileNameUtils fileNameUtils,
+                                                        CallEdgeCache edgeCache) throws LoaderException {
+        int nThreads = Math.max(1, generalConf.getNThreads());
+        if(nThreads == 1 || sortedClassFiles.size() < minClassFilesPerPartition * 2) {
+            return Collections.singletonList(parseClassFiles(sortedClassFiles, fileNameUtils, edgeCache));
+        }
 
-                PythonMethod pyCallee = getPythonMethodForCallString(callee);
-                pyCallee.setFileName(fileNameUtils.getPathForPythonModuleFQN(pyCallee.getFQNOfUnit()));
+        // More partitions than threads, so that threads that parse small classes do not run idle
+        int numberOfPartitions = Math.min(nThreads * PARTITIONS_PER_THREAD,
+                sortedClassFiles.size() / minClassFilesPerPartition);
+        int partitionSize = (sortedClassFiles.size() + numberOfPartitions - 1) / numberOfPartitions;
+        ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+        try {
+            List<Future<List<ParsedClassFile>>> futures = new ArrayList<>();
+            for(int start = 0; start < sortedClassFiles.size(); start += partitionSize) {
+                List<Path> partition = sortedClassFiles.subList(start,
+                        Math.min(start + partitionSize, sortedClassFiles.size()));
+                futures.add(executor.submit(() -> parseClassFiles(partition, fileNameUtils, edgeCache)));
+            }
 
-                callGraph.addEdge(new CallEdge(CallType.INVOKE_PYTHON, callerCallNumber, pyCaller, pyCallee));
-                logger.debug("{} calls {}...", pyCaller, pyCallee);
+            List<List<ParsedClassFile>> partitions = new ArrayList<>();
+            for(Future<List<ParsedClassFile>> future : futures) {
+                partitions.add(future.get());
+            }
+            return partitions;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LoaderException("Interrupted while executing CallGraphLoader");
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof LoaderException) {
+                throw (LoaderException) e.getCause();
+            }
+            throw new LoaderException("Error in executing CallGraphLoader: "+e.getCause().getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
+    private List<ParsedClassFile> parseClassFiles(List<Path> classFiles, FileNameUtils fileNameUtils,
+                                                  CallEdgeCache edgeCache) throws LoaderException {
+        List<ParsedClassFile> parsedClassFiles = new ArrayList<>();
+        Set<HashCode> parsedHashes = new HashSet<>();
+        List<CallEdge> edgeBuffer = new ArrayList<>();
+        AsmCallVisitor asmVisitor = new AsmCallVisitor(edgeBuffer::add, fileNameUtils,
+                generalConf.getUnitRegistry());
+        try {
+            for(Path classFilePath : classFiles) {
+                byte[] content = ClassFileSource.readBytes(classFilePath);
+                HashCode hash = CallEdgeCache.hash(content);
+                if(!parsedHashes.add(hash)) {
+                    continue;
+                }
 
+                List<CallEdge> edges = edgeCache == null ? null : edgeCache.get(hash);
+                if(edges != null) {
+                    generalConf.getMetricsRegistry().increment("callGraphLoader.cachedClassFiles", 1);
+                } else {
+                    if(generalConf.getCallGraphFrontend() == CallGraphFrontend.ASM) {
+                        asmVisitor.visitClassFile(content);
+                    } else {
+                        ClassParser cp = new ClassParser(new ByteArrayInputStream(content),
+                                ClassFileSource.getLocation(classFilePath));
+                        new ClassVisitor(cp.parse(), edgeBuffer::add, fileNameUtils,
+                                generalConf.getUnitRegistry()).start();
+                    }
+                    edges = new ArrayList<>(edgeBuffer);
+                    edgeBuffer.clear();
+                    if(edgeCache != null) {
+                        edgeCache.put(hash, edges);
+                    }
+                    generalConf.getMetricsRegistry().increment("callGraphLoader.parsedClassFiles", 1);
+                }
+                parsedClassFiles.add(new ParsedClassFile(hash, edges));
             }
+        } catch (IOException e) {
+            throw new LoaderException("Error in executing CallGraphLoader: "+e.getMessage());
+        }
+        return parsedClassFiles;
+    }
+
+    private Path getEdgeCacheFile() {
+        if(generalConf.getSnapshotDir() == null) {
+            return null;
+        }
+        String projectHash = Hashing.murmur3_128().hashString(
+                generalConf.getProjectDir().toAbsolutePath().normalize().toString(), StandardCharsets.UTF_8).toString();
+        return generalConf.getSnapshotDir().resolve("CallGraphLoader-"+projectHash+EDGE_CACHE_FILE_ENDING);
+    }
+
+    @SupportsPython
+    public CallGraph loadPythonCallGraph() throws LoaderException {
+        PythonCallGraphParser parser = new PythonCallGraphParser(new FileNameUtils(generalConf),
+                generalConf.getUnitRegistry(), generalConf.getNThreads());
+        try {
+            logger.info("Building call graph network...");
+            CallGraph callGraph = new CallGraph(generalConf.getGraphBackend());
+            parser.parse(loaderConf.getCallGraphLocation(), callGraph::addEdge);
             logger.info("Finished extracting call graph.");
             return callGraph;
         } catch (IOException e) {
@@ -125,31 +284,13 @@ public class CallGraphLoader extends BaseLoader {
         }
     }
 
-    private PythonMethod getPythonMethodForCallString(String callString) {
-        // input: tests.data.demo:Demo.bar
-        // Result: tests.data = package, demo = module, Demo = namespace, bar = method
-        String[] parts = callString.split("\\:");
-        String packageAndModule = parts[0];
-        String nameSpaceAndMethod = parts[1];
-
-        String[] packageAndModuleParts = packageAndModule.split("\\.");
-        String module = packageAndModuleParts[packageAndModuleParts.length-1];
-        String pPackage = String.join(".", Arrays.copyOfRange(packageAndModuleParts,
-                0, packageAndModuleParts.length-1));
-
-        String[] nameSpaceAndMethodParts = nameSpaceAndMethod.split("\\.");
-        String method = nameSpaceAndMethodParts[nameSpaceAndMethodParts.length-1];
-        String namespace = String.join(".", Arrays.copyOfRange(nameSpaceAndMethodParts,
-                0, nameSpaceAndMethodParts.length-1));
-
-        if(namespace.equals("")) {
-            namespace = null;
-        }
+    private static class ParsedClassFile {
+        private final HashCode hash;
+        private final List<CallEdge> edges;
 
-        if(pPackage.equals("")) {
-            pPackage = null;
+        ParsedClassFile(HashCode hash, List<CallEdge> edges) {
+            this.hash = hash;
+            this.edges = edges;
         }
-
-        return new PythonMethod(pPackage, module, namespace, method, null);
     }
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.collection.loader;
+
+import de.ugoe.cs.comfort.Utils;
+import de.ugoe.cs.comfort.data.models.IUnit;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Java classes that are affected by the files that were changed between two revisions. Classes are identified by
+ * their top-level class, as inner classes are defined in the same source file. A class is affected, if
+ * <ul>
+ *     <li>a unit of the previous revision belongs to the class and its file was changed, or</li>
+ *     <li>its source file was added or changed in the current revision.</li>
+ * </ul>
+ *
+ * @author Fabian Trautsch
+ */
+final class ChangedClasses {
+    private static final Pattern PACKAGE_PATTERN = Pattern.compile("^\\s*package\\s+([\\w.]+)\\s*;",
+            Pattern.MULTILINE);
+
+    private final Set<String> topLevelClasses = new HashSet<>();
+    private final Map<String, List<String>> topLevelClassesBySimpleName = new HashMap<>();
+
+    private ChangedClasses() {
+
+    }
+
+    static ChangedClasses of(Collection<IUnit> previousUnits, Set<Path> changedFiles) throws IOException {
+        Set<Path> normalizedFiles = new HashSet<>();
+        for(Path file : changedFiles) {
+            normalizedFiles.add(file.toAbsolutePath().normalize());
+        }
+
+        ChangedClasses changedClasses = new ChangedClasses();
+        for(IUnit unit : previousUnits) {
+            if(unit.getFilePath() != null
+                    && normalizedFiles.contains(unit.getFilePath().toAbsolutePath().normalize())) {
+                changedClasses.add(unit.getFQNOfUnit());
+            }
+        }
+
+        for(Path file : normalizedFiles) {
+            if(file.toString().endsWith(".java") && Files.isRegularFile(file)) {
+                String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+                String className = file.getFileName().toString().replaceAll("\\.java$", "");
+                Matcher matcher = PACKAGE_PATTERN.matcher(content);
+                changedClasses.add(matcher.find() ? matcher.group(1)+"."+className : className);
+            }
+        }
+        return changedClasses;
+    }
+
+    static String getTopLevelClass(String className) {
+        int innerClassStart = className.indexOf('$');
+        return innerClassStart < 0 ? className : className.substring(0, innerClassStart);
+    }
+
+    private void add(String className) {
+        String topLevelClass = getTopLevelClass(className);
+        if(topLevelClasses.add(topLevelClass)) {
+            topLevelClassesBySimpleName.computeIfAbsent(Utils.getClassName(topLevelClass), key -> new ArrayList<>())
+                    .add(topLevelClass);
+        }
+    }
+
+    boolean isEmpty() {
+        return topLevelClasses.isEmpty();
+    }
+
+    Set<String> getTopLevelClasses() {
+        return topLevelClasses;
+    }
+
+    boolean contains(String className) {
+        return topLevelClasses.contains(getTopLevelClass(className));
+    }
+
+    /**
+     * Checks if the class file belongs to one of the changed classes. The directories of the class file need to end
+     * with the package of the class, e.g., target/classes/de/ugoe/Main$1.class belongs to de.ugoe.Main.
+     *
+     * @param classFile path to the class file
+     * @return true, if the class file belongs to a changed class
+     */
+    boolean containsClassFile(Path classFile) {
+        String simpleName = getTopLevelClass(classFile.getFileName().toString().replaceAll("\\.class$", ""));
+        List<String> candidates = topLevelClassesBySimpleName.get(simpleName);
+        if(candidates == null) {
+            return false;
+        }
+
+        Path directory = classFile.toAbsolutePath().getParent();
+        for(String candidate : candidates) {
+            String packageName = Utils.getPackageName(candidate);
+            if(packageName.isEmpty()
+                    || directory.endsWith(directory.getFileSystem().getPath("", packageName.split("\\.")))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
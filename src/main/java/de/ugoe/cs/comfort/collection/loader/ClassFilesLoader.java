@@ -40,8 +40,7 @@ public class ClassFilesLoader extends BaseLoader {
     public DataSet loadClassFilesForProject() throws LoaderException {
         // Find all code files by going through the projectDir and detect all files with the given regex
         try {
-            Set<Path> codeFiles = Utils.getAllFilesFromProjectForRegex(
-                    generalConf.getProjectDir(), ".*\\.class");
+            Set<Path> codeFiles = getClassFilesOfProject();
             // Find all java test files by going through detected code files and looking if the file name
             // starts with Test oder test or ends with Test or test
             HashSet<Path> testFiles = new HashSet<>();
@@ -16,28 +16,47 @@
 
 package de.ugoe.cs.comfort.collection.loader;
 
+import com.google.common.graph.EndpointPair;
 import de.ugoe.cs.comfort.FileNameUtils;
 import de.ugoe.cs.comfort.annotations.SupportsJava;
 import de.ugoe.cs.comfort.annotations.SupportsPython;
 import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
 import de.ugoe.cs.comfort.configuration.LoaderConfiguration;
+import de.ugoe.cs.comfort.data.DataSet;
 import de.ugoe.cs.comfort.data.graphs.DependencyGraph;
+import de.ugoe.cs.comfort.data.models.IUnit;
 import de.ugoe.cs.comfort.data.models.JavaClass;
 import de.ugoe.cs.comfort.data.models.PythonModule;
 import de.ugoe.cs.comfort.exception.LoaderException;
 import java.io.*;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.*;
 
 /**
  * @author Fabian Trautsch
  */
 public class DependencyGraphLoader extends BaseLoader {
+    private static final int MAX_INCREMENTAL_CLASS_FILES = 1000;
+
     public DependencyGraphLoader(GeneralConfiguration generalConfiguration, LoaderConfiguration loaderConfiguration) {
         super(generalConfiguration, loaderConfiguration);
     }
 
+    @Override
+    protected Set<Path> getSnapshotInputFiles() throws IOException {
+        Set<Path> inputFiles = getSourceFilesOfProject();
+        if(generalConf.getLanguage().equals("java")) {
+            inputFiles.addAll(getClassFilesOfProject());
+        }
+        return inputFiles;
+    }
+
     @SupportsJava
     public DependencyGraph loadJavaDependencyGraph() throws LoaderException {
         // Create process builder
@@ -45,7 +64,66 @@ public class DependencyGraphLoader extends BaseLoader {
         builder.directory(generalConf.getProjectDir().toFile());
         builder.command("jdeps", "-v", generalConf.getProjectDir().toString());
 
-        return executeCommandAndGenerateGraph(builder);
+        return executeCommandAndGenerateGraph(builder, new DependencyGraph(generalConf.getGraphBackend()));
+    }
+
+    /**
+     * Updates the java dependency graph of the previous revision. All dependencies of changed classes are removed
+     * and jdeps is only executed on the class files of these classes.
+     */
+    @Override
+    protected DataSet updateDataOfPreviousRevision(DataSet previousData, Set<Path> changedFiles)
+            throws LoaderException {
+        if(!generalConf.getLanguage().equals("java") || !(previousData instanceof DependencyGraph)) {
+            return null;
+        }
+
+        DependencyGraph previousDependencyGraph = (DependencyGraph) previousData;
+        ChangedClasses changedClasses;
+        List<String> classFilesToParse = new ArrayList<>();
+        try {
+            changedClasses = ChangedClasses.of(previousDependencyGraph.nodes(), changedFiles);
+            for(Path classFile : getClassFilesOfProject()) {
+                if(changedClasses.containsClassFile(classFile)) {
+                    // Class files in archives can not be given to jdeps as arguments
+                    if(classFile.getFileSystem() != FileSystems.getDefault()) {
+                        return null;
+                    }
+                    classFilesToParse.add(classFile.toString());
+                }
+            }
+        } catch (IOException e) {
+            throw new LoaderException("Could not determine changed classes: "+e.getMessage());
+        }
+
+        // All class files are given as arguments, for too many files the command line would get too long
+        if(classFilesToParse.size() > MAX_INCREMENTAL_CLASS_FILES) {
+            return null;
+        }
+        logger.info("Updating dependency graph for {} changed classes ({} class files)...",
+                changedClasses.getTopLevelClasses().size(), classFilesToParse.size());
+
+        DependencyGraph dependencyGraph = previousDependencyGraph.getCopyOfGraph();
+        List<EndpointPair<IUnit>> edgesToRemove = new ArrayList<>();
+        for(EndpointPair<IUnit> edge : dependencyGraph.edges()) {
+            if(changedClasses.contains(edge.source().getFQNOfUnit())) {
+                edgesToRemove.add(edge);
+            }
+        }
+        edgesToRemove.forEach(edge -> dependencyGraph.removeEdge(edge.source(), edge.target()));
+        dependencyGraph.cleanGraphOfNodesThatAreSingle();
+
+        if(classFilesToParse.isEmpty()) {
+            return dependencyGraph;
+        }
+        List<String> command = new ArrayList<>();
+        command.add("jdeps");
+        command.add("-v");
+        command.addAll(classFilesToParse);
+        ProcessBuilder builder = new ProcessBuilder();
+        builder.directory(generalConf.getProjectDir().toFile());
+        builder.command(command);
+        return executeCommandAndGenerateGraph(builder, dependencyGraph);
     }
 
     @SupportsPython
@@ -79,18 +157,19 @@ public class DependencyGraphLoader extends BaseLoader {
         builder.command("python3", tempFile.toString(), generalConf.getProjectDir().toString());
 
 
-        return executeCommandAndGenerateGraph(builder);
+        return executeCommandAndGenerateGraph(builder, new DependencyGraph(generalConf.getGraphBackend()));
     }
 
 
-    private DependencyGraph executeCommandAndGenerateGraph(ProcessBuilder builder) throws LoaderException {
+    private DependencyGraph executeCommandAndGenerateGraph(ProcessBuilder builder, DependencyGraph graph)
+            throws LoaderException {
         logger.info("Calling command: {}", builder.command());
         int exitCode;
         Future<DependencyGraph> future;
         try {
             Process depExtract = builder.start();
             DependencyExtractOutputParser outputParser =
-                    new DependencyExtractOutputParser(depExtract.getInputStream(), generalConf);
+                    new DependencyExtractOutputParser(depExtract.getInputStream(), generalConf, graph);
 
             ExecutorService executor = Executors.newFixedThreadPool(1);
             future = executor.submit(outputParser);
@@ -125,16 +204,18 @@ public class DependencyGraphLoader extends BaseLoader {
         private InputStream inputStream;
         private GeneralConfiguration configuration;
         private FileNameUtils fileNameUtils;
+        private DependencyGraph dependencyGraph;
 
-        DependencyExtractOutputParser(InputStream inputStream, GeneralConfiguration configuration) {
+        DependencyExtractOutputParser(InputStream inputStream, GeneralConfiguration configuration,
+                                      DependencyGraph dependencyGraph) {
             this.inputStream = inputStream;
             this.configuration = configuration;
+            this.dependencyGraph = dependencyGraph;
             this.fileNameUtils = new FileNameUtils(configuration);
         }
 
         @Override
         public DependencyGraph call() {
-            DependencyGraph dependencyGraph = new DependencyGraph();
             try {
                 if(configuration.getLanguage().equals("java")) {
                     parseJdepsOutput(dependencyGraph);
@@ -150,6 +231,11 @@ public class DependencyGraphLoader extends BaseLoader {
         }
 
         private PythonModule createPythonModuleNode(String fqn) {
+            // jdeps and the dependency extractor name the same units in many lines, the nodes are only created once
+            return configuration.getUnitRegistry().intern("module:"+fqn, () -> createNewPythonModuleNode(fqn));
+        }
+
+        private PythonModule createNewPythonModuleNode(String fqn) {
             try {
                 if(fileNameUtils.isPythonPackage(fqn)) {
                     return new PythonModule(fqn, "__init__",
@@ -164,6 +250,10 @@ public class DependencyGraphLoader extends BaseLoader {
         }
 
         private JavaClass createJavaClassNode(String fqn) {
+            return configuration.getUnitRegistry().intern("class:"+fqn, () -> createNewJavaClassNode(fqn));
+        }
+
+        private JavaClass createNewJavaClassNode(String fqn) {
             try {
                 return new JavaClass(fqn, this.fileNameUtils.getPathForJavaClassFQN(fqn));
             } catch (FileNotFoundException e) {
@@ -36,6 +36,11 @@ public class ProjectFilesLoader extends BaseLoader {
         super(generalConfiguration, loaderConfiguration);
     }
 
+    @Override
+    protected Set<Path> getSnapshotInputFiles() throws IOException {
+        return getSourceFilesOfProject();
+    }
+
     @SupportsPython
     public ProjectFiles loadPythonProjectFiles() throws LoaderException {
         return getProjectFilesBasedOnRegex(".*\\.py");
@@ -49,7 +54,7 @@ public class ProjectFilesLoader extends BaseLoader {
     private ProjectFiles getProjectFilesBasedOnRegex(String fileRegex) throws LoaderException{
         // Find all code files by going through the projectDir and detect all files with the given regex
         try {
-            Set<Path> codeFiles = Utils.getAllFilesFromProjectForRegex(generalConf.getProjectDir(), fileRegex);
+            Set<Path> codeFiles = generalConf.getFileCatalog().getFiles(generalConf.getProjectDir(), fileRegex);
             // Find all java test files by going through detected code files and looking if the file name
             // starts with Test oder test or ends with Test or test
             HashSet<Path> testFiles = new HashSet<>();
@@ -21,7 +21,6 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import de.ugoe.cs.comfort.FileNameUtils;
-import de.ugoe.cs.comfort.Utils;
 import de.ugoe.cs.comfort.annotations.SupportsJava;
 import de.ugoe.cs.comfort.annotations.SupportsPython;
 import de.ugoe.cs.comfort.collection.loader.testcoverage.ExecutionDataVisitor;
@@ -36,6 +35,7 @@ import de.ugoe.cs.comfort.data.models.PythonCoveragerloaderTestedMethod;
 import de.ugoe.cs.comfort.data.models.PythonMethod;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -67,9 +67,19 @@ public class TestCoverageLoader extends BaseLoader {
     }
 
 
+    @Override
+    protected Set<Path> getSnapshotInputFiles() throws IOException {
+        Set<Path> inputFiles = getSourceFilesOfProject();
+        inputFiles.add(loaderConf.getCoverageLocation());
+        if(generalConf.getLanguage().equals("java")) {
+            inputFiles.addAll(getClassFilesOfProject());
+        }
+        return inputFiles;
+    }
+
     @SupportsPython
     public CoverageData loadPythonCoverageData() throws IOException {
-        CoverageData covfefe = new CoverageData();
+        CoverageData covfefe = new CoverageData(generalConf.getUnitRegistry());
 
         JsonParser jp = new JsonFactory().createParser(loaderConf.getCoverageLocation().toFile());
         ObjectMapper mapper = new ObjectMapper();
@@ -112,7 +122,8 @@ public class TestCoverageLoader extends BaseLoader {
 
                 testedMethodsWithoutTestsItself.add(pythonTestedMethod);
             }
-            covfefe.add(pythonMethod, testedMethodsWithoutTestsItself);
+            // Tested methods are not interned, as they carry the covered lines of this test
+            covfefe.add(generalConf.getUnitRegistry().intern(pythonMethod), testedMethodsWithoutTestsItself);
             logger.debug("Found {} which tests {}", pythonMethod, testedMethodsWithoutTestsItself);
         }
         return covfefe;
@@ -129,7 +140,7 @@ public class TestCoverageLoader extends BaseLoader {
         reader.readJacocoReport(visitor, visitor);
 
         // Create coverage data
-        CoverageData covData = new CoverageData();
+        CoverageData covData = new CoverageData(generalConf.getUnitRegistry());
 
         final ExecutorService executor = Executors.newFixedThreadPool(generalConf.getNThreads());
         CountDownLatch latch = new CountDownLatch(visitor.getSessions().entrySet().size());
@@ -155,13 +166,12 @@ public class TestCoverageLoader extends BaseLoader {
 
                         // Analyze the files, where all class files in the project dir are looked at
 
-                        CoverageBuilder covfefe = reader.analyzeFiles(data, Utils.getAllFilesFromProjectForRegex(
-                                generalConf.getProjectDir(), ".*\\.class"));
+                        CoverageBuilder covfefe = reader.analyzeFiles(data, getClassFilesOfProject());
 
                         // Parse the class coverage data
                         Set<IUnit> testedMethods = parseClassCoverageDataForJavaTestMethod(fqnOfTest, covfefe);
-                        IUnit testMethod = new JavaMethod(fqnOfTest, methodName, new ArrayList<>(),
-                                fileNameUtils.getPathForJavaClassFQN(fqnOfTest));
+                        IUnit testMethod = generalConf.getUnitRegistry().intern(new JavaMethod(fqnOfTest,
+                                methodName, new ArrayList<>(), fileNameUtils.getPathForJavaClassFQN(fqnOfTest)));
 
                         covData.add(testMethod, testedMethods);
                         if(testedMethods.size() == 0) {
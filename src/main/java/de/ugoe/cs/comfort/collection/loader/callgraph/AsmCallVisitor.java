@@ -0,0 +1,250 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.collection.loader.callgraph;
+
+import de.ugoe.cs.comfort.FileNameUtils;
+import de.ugoe.cs.comfort.data.graphs.CallEdge;
+import de.ugoe.cs.comfort.data.graphs.CallType;
+import de.ugoe.cs.comfort.data.models.JavaMethod;
+import de.ugoe.cs.comfort.data.models.UnitRegistry;
+import java.io.FileNotFoundException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Handle;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+/**
+ * Extracts the calls of a class file with the streaming {@link ClassReader} of ASM. Frames and debug information are
+ * skipped and only the invoke instructions are looked at. The created call edges are the same as the ones of the
+ * BCEL based {@link de.ugoe.cs.comfort.collection.loader.callgraph.ClassVisitor}: call type, order number, caller and
+ * callee are equal.
+ *
+ * The referenced methods are cached per visitor, so that a call site only allocates something if it references a
+ * method that was not seen before. Hence, a visitor should be reused for several class files. It must not be used by
+ * several threads at the same time.
+ *
+ * @author Fabian Trautsch
+ */
+public class AsmCallVisitor extends ClassVisitor {
+    private static final Logger LOGGER = LogManager.getLogger(AsmCallVisitor.class.getName());
+
+    // BCEL 6.2 returns java.lang.Object as reference type of invokedynamic instructions
+    private static final String INVOKE_DYNAMIC_REFERENCE_TYPE = "java.lang.Object";
+
+    private final Consumer<CallEdge> edgeSink;
+    private final FileNameUtils fileNameUtils;
+    private final UnitRegistry unitRegistry;
+    private final Map<MethodReference, JavaMethod> referencedMethods = new HashMap<>();
+    private final MethodReference lookupReference = new MethodReference();
+    private final CallVisitor callVisitor = new CallVisitor();
+    private String internalClassName;
+
+    public AsmCallVisitor(Consumer<CallEdge> edgeSink, FileNameUtils fileNameUtils, UnitRegistry unitRegistry) {
+        super(Opcodes.ASM5);
+        this.edgeSink = edgeSink;
+        this.fileNameUtils = fileNameUtils;
+        this.unitRegistry = unitRegistry;
+    }
+
+    /**
+     * Hands all calls of the given class file to the edge sink, in the order in which they appear in the class file.
+     *
+     * @param classFile content of the class file
+     */
+    public void visitClassFile(byte[] classFile) {
+        new ClassReader(classFile).accept(this, ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+    }
+
+    @Override
+    public void visit(int version, int access, String name, String signature, String superName,
+                      String[] interfaces) {
+        internalClassName = name;
+    }
+
+    @Override
+    public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+        if((access & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE)) != 0) {
+            return null;
+        }
+        // The class reader visits one method after the other, therefore the visitor can be reused
+        callVisitor.startMethod(name, desc);
+        return callVisitor;
+    }
+
+    private JavaMethod getMethod(String owner, String methodName, String desc, boolean dynamic) {
+        lookupReference.set(owner, methodName, desc, dynamic);
+        JavaMethod method = referencedMethods.get(lookupReference);
+        if(method == null) {
+            method = createMethod(owner, methodName, desc, dynamic);
+            MethodReference reference = new MethodReference();
+            reference.set(owner, methodName, desc, dynamic);
+            referencedMethods.put(reference, method);
+        }
+        return method;
+    }
+
+    private JavaMethod createMethod(String owner, String methodName, String desc, boolean dynamic) {
+        // The path is looked up for the referenced type, which is not the class for invokedynamic instructions
+        String methodClassName;
+        String classNameForPath;
+        if(dynamic) {
+            methodClassName = Type.getReturnType(desc).getClassName();
+            classNameForPath = INVOKE_DYNAMIC_REFERENCE_TYPE;
+        } else {
+            methodClassName = getClassName(owner);
+            classNameForPath = methodClassName;
+        }
+
+        // Same key as in the MethodVisitor, so that both front-ends share the units of the registry
+        String key = methodClassName+"."+methodName+desc+"@"+classNameForPath;
+        return unitRegistry.intern(key, () -> new JavaMethod(
+                methodClassName,
+                methodName,
+                getArgumentStrings(desc),
+                getPathForClassName(classNameForPath)
+        ));
+    }
+
+    private static List<String> getArgumentStrings(String desc) {
+        List<String> arguments = new ArrayList<>();
+        for(Type argumentType : Type.getArgumentTypes(desc)) {
+            arguments.add(argumentType.getClassName());
+        }
+        return arguments;
+    }
+
+    private static String getClassName(String internalName) {
+        // Arrays are referenced with their descriptor, e.g., for calls of clone()
+        if(internalName.charAt(0) == '[') {
+            return Type.getObjectType(internalName).getClassName();
+        }
+        return internalName.replace('/', '.');
+    }
+
+    private Path getPathForClassName(String name) {
+        try {
+            return fileNameUtils.getPathForJavaClassFQN(name);
+        } catch (FileNotFoundException e) {
+            LOGGER.warn("Could not find path for class {}", name);
+            return null;
+        }
+    }
+
+    private class CallVisitor extends MethodVisitor {
+        private String methodName;
+        private String methodDesc;
+        private JavaMethod methodNode;
+        private int orderNumber;
+
+        CallVisitor() {
+            super(Opcodes.ASM5);
+        }
+
+        void startMethod(String name, String desc) {
+            methodName = name;
+            methodDesc = desc;
+            methodNode = null;
+            orderNumber = 0;
+        }
+
+        @Override
+        public void visitMethodInsn(int opcode, String owner, String name, String desc, boolean itf) {
+            addCallEdge(getCallType(opcode), getMethod(owner, name, desc, false));
+        }
+
+        @Override
+        public void visitInvokeDynamicInsn(String name, String desc, Handle bsm, Object... bsmArgs) {
+            addCallEdge(CallType.INVOKE_DYNAMIC, getMethod(null, name, desc, true));
+        }
+
+        private void addCallEdge(CallType callType, JavaMethod referenceOn) {
+            // The node of the calling method is only needed, if the method calls something
+            if(methodNode == null) {
+                methodNode = getMethod(internalClassName, methodName, methodDesc, false);
+            }
+            CallEdge callEdge = new CallEdge(callType, orderNumber, methodNode, referenceOn);
+            edgeSink.accept(callEdge);
+            orderNumber++;
+
+            LOGGER.debug("Created edge {} ", callEdge);
+        }
+    }
+
+    private static CallType getCallType(int opcode) {
+        switch (opcode) {
+            case Opcodes.INVOKEVIRTUAL:
+                return CallType.INVOKE_VIRTUAL;
+            case Opcodes.INVOKEINTERFACE:
+                return CallType.INVOKE_INTERFACE;
+            case Opcodes.INVOKESPECIAL:
+                return CallType.INVOKE_SPECIAL;
+            case Opcodes.INVOKESTATIC:
+                return CallType.INVOKE_STATIC;
+            default:
+                throw new IllegalArgumentException("Opcode "+opcode+" is no method invocation");
+        }
+    }
+
+    /**
+     * Owner (as internal name), name and descriptor of a referenced method as they are stored in the class file.
+     * Invokedynamic instructions have no owner. The strings of a class file are shared by the {@link ClassReader}, so
+     * the lookup is mostly done on equal references.
+     */
+    private static class MethodReference {
+        private String owner;
+        private String methodName;
+        private String desc;
+        private boolean dynamic;
+        private int hash;
+
+        void set(String owner, String methodName, String desc, boolean dynamic) {
+            this.owner = owner;
+            this.methodName = methodName;
+            this.desc = desc;
+            this.dynamic = dynamic;
+            this.hash = (31 * (31 * Objects.hashCode(owner) + methodName.hashCode()) + desc.hashCode()) * 2
+                    + (dynamic ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if(!(obj instanceof MethodReference)) {
+                return false;
+            }
+            MethodReference other = (MethodReference) obj;
+            return hash == other.hash && dynamic == other.dynamic && Objects.equals(owner, other.owner)
+                    && methodName.equals(other.methodName) && desc.equals(other.desc);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,389 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.collection.loader.callgraph;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import de.ugoe.cs.comfort.FileNameUtils;
+import de.ugoe.cs.comfort.data.graphs.CallEdge;
+import de.ugoe.cs.comfort.data.graphs.CallType;
+import de.ugoe.cs.comfort.data.models.JavaMethod;
+import de.ugoe.cs.comfort.data.models.UnitRegistry;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Caches the call edges that were extracted from class files. The edges of a class file only depend on its content,
+ * therefore, they are stored under the hash of the content. If a class file did not change, its edges can be taken
+ * from the cache instead of parsing the class file again.
+ *
+ * <p>The paths of the units depend on the source files of the project and not on the class file. Hence, they are
+ * not stored, but looked up again with the {@link FileNameUtils} when the edges are taken from the cache. The units
+ * are interned in the {@link UnitRegistry}, so that they are the same instances as the ones of parsed class
+ * files. The cache is thread-safe.</p>
+ *
+ * @author Fabian Trautsch
+ */
+public class CallEdgeCache {
+    private static final Logger LOGGER = LogManager.getLogger(CallEdgeCache.class.getName());
+
+    private static final int MAGIC = 0x43454443;
+    // Needs to be increased, if the format of the cache or the extraction of the edges changes
+    private static final int VERSION = 1;
+    private static final int NULL_STRING = 0;
+
+    // The ClassVisitor and AsmCallVisitor look up the path of invokedynamic callees for this class
+    private static final String INVOKE_DYNAMIC_REFERENCE_TYPE = "java.lang.Object";
+
+    private final FileNameUtils fileNameUtils;
+    private final UnitRegistry unitRegistry;
+    private final ConcurrentMap<HashCode, List<CachedEdge>> entries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<MethodRecord, MethodRecord> methodRecords = new ConcurrentHashMap<>();
+    private final Set<HashCode> usedEntries = ConcurrentHashMap.newKeySet();
+
+    public CallEdgeCache(FileNameUtils fileNameUtils, UnitRegistry unitRegistry) {
+        this.fileNameUtils = fileNameUtils;
+        this.unitRegistry = unitRegistry;
+    }
+
+    /**
+     * Reads the cache from the given file. If the file does not exist or can not be read, an empty cache is
+     * returned.
+     *
+     * @param cacheFile file of the cache
+     * @param fileNameUtils used to look up the paths of the units
+     * @param unitRegistry registry in which the units are interned
+     * @return cache
+     */
+    public static CallEdgeCache read(Path cacheFile, FileNameUtils fileNameUtils, UnitRegistry unitRegistry) {
+        CallEdgeCache cache = new CallEdgeCache(fileNameUtils, unitRegistry);
+        if(!Files.isRegularFile(cacheFile)) {
+            return cache;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            cache.readEntries(in);
+            LOGGER.info("Using {} cached class files of {}...", cache.entries.size(), cacheFile);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not read call edge cache {}: {}", cacheFile, e.getMessage());
+            cache.entries.clear();
+            cache.methodRecords.clear();
+        }
+        return cache;
+    }
+
+    /**
+     * @param classFile content of a class file
+     * @return hash under which the edges of the class file are stored
+     */
+    public static HashCode hash(byte[] classFile) {
+        return Hashing.murmur3_128().hashBytes(classFile);
+    }
+
+    /**
+     * Returns the cached edges of the class file with the given hash.
+     *
+     * @param hash hash of the content of the class file
+     * @return edges in the order in which they were extracted or null, if the class file is not cached
+     */
+    public List<CallEdge> get(HashCode hash) {
+        List<CachedEdge> cachedEdges = entries.get(hash);
+        if(cachedEdges == null) {
+            return null;
+        }
+        usedEntries.add(hash);
+
+        List<CallEdge> edges = new ArrayList<>(cachedEdges.size());
+        for(CachedEdge cachedEdge : cachedEdges) {
+            edges.add(new CallEdge(cachedEdge.callType, cachedEdge.orderNumber, cachedEdge.caller.getUnit(),
+                    cachedEdge.callee.getUnit()));
+        }
+        return edges;
+    }
+
+    /**
+     * Stores the edges that were extracted from the class file with the given hash. Edges between units that are
+     * no java methods can not be cached, in this case the class file is not stored.
+     *
+     * @param hash hash of the content of the class file
+     * @param edges edges of the class file in the order in which they were extracted
+     */
+    public void put(HashCode hash, List<CallEdge> edges) {
+        List<CachedEdge> cachedEdges = new ArrayList<>(edges.size());
+        for(CallEdge edge : edges) {
+            if(!(edge.getCaller() instanceof JavaMethod) || !(edge.getCallee() instanceof JavaMethod)) {
+                return;
+            }
+            JavaMethod caller = (JavaMethod) edge.getCaller();
+            JavaMethod callee = (JavaMethod) edge.getCallee();
+            String calleeClassNameForPath = edge.getCallType() == CallType.INVOKE_DYNAMIC
+                    ? INVOKE_DYNAMIC_REFERENCE_TYPE : callee.getFQNOfUnit();
+            cachedEdges.add(new CachedEdge(edge.getCallType(), edge.getOrderNumber(),
+                    getMethodRecord(caller, caller.getFQNOfUnit()), getMethodRecord(callee, calleeClassNameForPath)));
+        }
+        entries.put(hash, cachedEdges);
+        usedEntries.add(hash);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Writes the cache to the given file. Failures are only logged, as the cache can always be created again.
+     *
+     * @param cacheFile file of the cache
+     * @param onlyUsedEntries if true, only the class files that were requested or stored since the cache was read
+     *                        are written, so that class files that do not exist anymore are removed from the cache
+     */
+    public void write(Path cacheFile, boolean onlyUsedEntries) {
+        Path temporaryFile = null;
+        try {
+            Files.createDirectories(cacheFile.toAbsolutePath().getParent());
+            // Write to a temporary file first, so that other runs never see a half-written cache
+            temporaryFile = Files.createTempFile(cacheFile.toAbsolutePath().getParent(),
+                    cacheFile.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(temporaryFile)))) {
+                writeEntries(out, onlyUsedEntries);
+            }
+            Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Could not store call edge cache {}: {}", cacheFile, e.getMessage());
+            try {
+                if(temporaryFile != null) {
+                    Files.deleteIfExists(temporaryFile);
+                }
+            } catch (IOException deleteException) {
+                LOGGER.catching(deleteException);
+            }
+        }
+    }
+
+    private MethodRecord getMethodRecord(JavaMethod method, String classNameForPath) {
+        MethodRecord record = new MethodRecord(method.getPackage(), method.getClassName(), method.getMethod(),
+                method.getParameter(), classNameForPath);
+        MethodRecord existingRecord = methodRecords.putIfAbsent(record, record);
+        if(existingRecord != null) {
+            return existingRecord;
+        }
+        // The unit of a parsed class file is already interned
+        record.unit = method;
+        return record;
+    }
+
+    private void writeEntries(DataOutputStream out, boolean onlyUsedEntries) throws IOException {
+        Map<HashCode, List<CachedEdge>> entriesToWrite = new HashMap<>();
+        entries.forEach((hash, cachedEdges) -> {
+            if(!onlyUsedEntries || usedEntries.contains(hash)) {
+                entriesToWrite.put(hash, cachedEdges);
+            }
+        });
+
+        // Number the strings and methods, so that they are only written once
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        Map<MethodRecord, Integer> recordIds = new HashMap<>();
+        List<MethodRecord> records = new ArrayList<>();
+        for(List<CachedEdge> cachedEdges : entriesToWrite.values()) {
+            for(CachedEdge cachedEdge : cachedEdges) {
+                for(MethodRecord record : new MethodRecord[]{cachedEdge.caller, cachedEdge.callee}) {
+                    if(recordIds.putIfAbsent(record, records.size()) == null) {
+                        records.add(record);
+                        addString(record.jPackage, stringIds, strings);
+                        addString(record.jClass, stringIds, strings);
+                        addString(record.method, stringIds, strings);
+                        addString(record.classNameForPath, stringIds, strings);
+                        record.parameter.forEach(parameter -> addString(parameter, stringIds, strings));
+                    }
+                }
+            }
+        }
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(strings.size());
+        for(String string : strings) {
+            out.writeUTF(string);
+        }
+
+        out.writeInt(records.size());
+        for(MethodRecord record : records) {
+            out.writeInt(getStringId(record.jPackage, stringIds));
+            out.writeInt(getStringId(record.jClass, stringIds));
+            out.writeInt(getStringId(record.method, stringIds));
+            out.writeInt(getStringId(record.classNameForPath, stringIds));
+            out.writeInt(record.parameter.size());
+            for(String parameter : record.parameter) {
+                out.writeInt(getStringId(parameter, stringIds));
+            }
+        }
+
+        out.writeInt(entriesToWrite.size());
+        for(Map.Entry<HashCode, List<CachedEdge>> entry : entriesToWrite.entrySet()) {
+            out.write(entry.getKey().asBytes());
+            out.writeInt(entry.getValue().size());
+            for(CachedEdge cachedEdge : entry.getValue()) {
+                out.writeByte(cachedEdge.callType.ordinal());
+                out.writeInt(cachedEdge.orderNumber);
+                out.writeInt(recordIds.get(cachedEdge.caller));
+                out.writeInt(recordIds.get(cachedEdge.callee));
+            }
+        }
+    }
+
+    private void readEntries(DataInputStream in) throws IOException {
+        if(in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Unknown format");
+        }
+
+        String[] strings = new String[in.readInt() + 1];
+        for(int i = 1; i < strings.length; i++) {
+            strings[i] = in.readUTF();
+        }
+
+        MethodRecord[] records = new MethodRecord[in.readInt()];
+        for(int i = 0; i < records.length; i++) {
+            String jPackage = strings[in.readInt()];
+            String jClass = strings[in.readInt()];
+            String method = strings[in.readInt()];
+            String classNameForPath = strings[in.readInt()];
+            List<String> parameter = new ArrayList<>();
+            int numberOfParameters = in.readInt();
+            for(int j = 0; j < numberOfParameters; j++) {
+                parameter.add(strings[in.readInt()]);
+            }
+            records[i] = new MethodRecord(jPackage, jClass, method, parameter, classNameForPath);
+            methodRecords.put(records[i], records[i]);
+        }
+
+        CallType[] callTypes = CallType.values();
+        int numberOfEntries = in.readInt();
+        byte[] hash = new byte[Hashing.murmur3_128().bits() / Byte.SIZE];
+        for(int i = 0; i < numberOfEntries; i++) {
+            in.readFully(hash);
+            int numberOfEdges = in.readInt();
+            List<CachedEdge> cachedEdges = new ArrayList<>(numberOfEdges);
+            for(int j = 0; j < numberOfEdges; j++) {
+                CallType callType = callTypes[in.readUnsignedByte()];
+                int orderNumber = in.readInt();
+                cachedEdges.add(new CachedEdge(callType, orderNumber, records[in.readInt()], records[in.readInt()]));
+            }
+            entries.put(HashCode.fromBytes(hash), cachedEdges);
+        }
+    }
+
+    private static void addString(String string, Map<String, Integer> stringIds, List<String> strings) {
+        if(string != null && stringIds.putIfAbsent(string, strings.size() + 1) == null) {
+            strings.add(string);
+        }
+    }
+
+    private static int getStringId(String string, Map<String, Integer> stringIds) {
+        return string == null ? NULL_STRING : stringIds.get(string);
+    }
+
+    private static class CachedEdge {
+        private final CallType callType;
+        private final int orderNumber;
+        private final MethodRecord caller;
+        private final MethodRecord callee;
+
+        CachedEdge(CallType callType, int orderNumber, MethodRecord caller, MethodRecord callee) {
+            this.callType = callType;
+            this.orderNumber = orderNumber;
+            this.caller = caller;
+            this.callee = callee;
+        }
+    }
+
+    /**
+     * Everything that is needed to create a unit, the path is looked up for the class classNameForPath.
+     */
+    private class MethodRecord {
+        private final String jPackage;
+        private final String jClass;
+        private final String method;
+        private final List<String> parameter;
+        private final String classNameForPath;
+        private volatile JavaMethod unit;
+
+        MethodRecord(String jPackage, String jClass, String method, List<String> parameter,
+                     String classNameForPath) {
+            this.jPackage = jPackage;
+            this.jClass = jClass;
+            this.method = method;
+            this.parameter = parameter;
+            this.classNameForPath = classNameForPath;
+        }
+
+        JavaMethod getUnit() {
+            // Interning is idempotent, so it does not matter if several threads create the unit at the same time
+            JavaMethod result = unit;
+            if(result == null) {
+                result = unitRegistry.intern(new JavaMethod(jPackage, jClass, method, new ArrayList<>(parameter),
+                        getPath()));
+                unit = result;
+            }
+            return result;
+        }
+
+        private Path getPath() {
+            try {
+                return fileNameUtils.getPathForJavaClassFQN(classNameForPath);
+            } catch (FileNotFoundException e) {
+                LOGGER.warn("Could not find path for class {}", classNameForPath);
+                return null;
+            }
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if(!(obj instanceof MethodRecord)) {
+                return false;
+            }
+            MethodRecord other = (MethodRecord) obj;
+            return Objects.equals(jPackage, other.jPackage) && Objects.equals(jClass, other.jClass)
+                    && Objects.equals(method, other.method) && Objects.equals(parameter, other.parameter)
+                    && Objects.equals(classNameForPath, other.classNameForPath);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(jPackage, jClass, method, parameter, classNameForPath);
+        }
+    }
+}
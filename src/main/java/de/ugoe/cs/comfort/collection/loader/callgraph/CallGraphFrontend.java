@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.collection.loader.callgraph;
+
+/**
+ * Front-ends that can be used to extract the call graph from java class files. The BCEL front-end builds a
+ * {@link org.apache.bcel.generic.MethodGen} for each method and visits all of its instructions (see
+ * {@link ClassVisitor}). The ASM front-end streams through the class files and only looks at the invoke instructions
+ * (see {@link AsmCallVisitor}), which is faster and allocates less. Both front-ends create the same call edges.
+ *
+ * @author Fabian Trautsch
+ */
+public enum CallGraphFrontend {
+    BCEL,
+    ASM
+}
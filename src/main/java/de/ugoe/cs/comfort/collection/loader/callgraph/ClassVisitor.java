@@ -29,7 +29,10 @@
 package de.ugoe.cs.comfort.collection.loader.callgraph;
 
 import de.ugoe.cs.comfort.FileNameUtils;
+import de.ugoe.cs.comfort.data.graphs.CallEdge;
 import de.ugoe.cs.comfort.data.graphs.CallGraph;
+import de.ugoe.cs.comfort.data.models.UnitRegistry;
+import java.util.function.Consumer;
 import org.apache.bcel.classfile.*;
 import org.apache.bcel.generic.ConstantPoolGen;
 import org.apache.bcel.generic.MethodGen;
@@ -44,15 +47,30 @@ public class ClassVisitor extends EmptyVisitor {
 
     private JavaClass clazz;
     private ConstantPoolGen constants;
-    private CallGraph callGraph;
+    private Consumer<CallEdge> edgeSink;
     private FileNameUtils fileNameUtils;
+    private UnitRegistry unitRegistry;
     private static final Logger LOGGER = LogManager.getLogger(ClassVisitor.class.getName());
 
     public ClassVisitor(JavaClass jc, CallGraph callGraph, FileNameUtils fileNameUtils) {
+        this(jc, callGraph, fileNameUtils, new UnitRegistry());
+    }
+
+    public ClassVisitor(JavaClass jc, CallGraph callGraph, FileNameUtils fileNameUtils, UnitRegistry unitRegistry) {
+        this(jc, callGraph::addEdge, fileNameUtils, unitRegistry);
+    }
+
+    /**
+     * Creates a visitor that hands all call edges that it finds to the given sink instead of adding them to a call
+     * graph directly. The sink is called in the order in which the calls appear in the class file.
+     */
+    public ClassVisitor(JavaClass jc, Consumer<CallEdge> edgeSink, FileNameUtils fileNameUtils,
+                        UnitRegistry unitRegistry) {
         clazz = jc;
         constants = new ConstantPoolGen(clazz.getConstantPool());
-        this.callGraph = callGraph;
+        this.edgeSink = edgeSink;
         this.fileNameUtils = fileNameUtils;
+        this.unitRegistry = unitRegistry;
     }
 
     public void visitJavaClass(JavaClass jc) {
@@ -79,7 +97,7 @@ public class ClassVisitor extends EmptyVisitor {
 
     public void visitMethod(Method method) {
         MethodGen mg = new MethodGen(method, clazz.getClassName(), constants);
-        MethodVisitor visitor = new MethodVisitor(mg, clazz, callGraph, fileNameUtils);
+        MethodVisitor visitor = new MethodVisitor(mg, clazz, edgeSink, fileNameUtils, unitRegistry);
         visitor.start();
     }
 
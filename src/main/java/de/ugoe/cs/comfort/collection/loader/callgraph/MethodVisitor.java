@@ -30,14 +30,15 @@ package de.ugoe.cs.comfort.collection.loader.callgraph;
 
 import de.ugoe.cs.comfort.FileNameUtils;
 import de.ugoe.cs.comfort.data.graphs.CallEdge;
-import de.ugoe.cs.comfort.data.graphs.CallGraph;
 import de.ugoe.cs.comfort.data.graphs.CallType;
 import de.ugoe.cs.comfort.data.models.JavaMethod;
+import de.ugoe.cs.comfort.data.models.UnitRegistry;
 import java.io.FileNotFoundException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 import org.apache.bcel.classfile.JavaClass;
 import org.apache.bcel.generic.*;
 import org.apache.logging.log4j.LogManager;
@@ -54,25 +55,29 @@ public class MethodVisitor extends EmptyVisitor {
     private MethodGen mg;
     private ConstantPoolGen cp;
     private String format;
-    private CallGraph callGraph;
+    private Consumer<CallEdge> edgeSink;
     private static final Logger LOGGER = LogManager.getLogger(MethodVisitor.class.getName());
     private JavaMethod methodNode;
     private FileNameUtils fileNameUtils;
+    private UnitRegistry unitRegistry;
     private int orderNumber = 0;
 
-    MethodVisitor(MethodGen m, JavaClass jc, CallGraph callGraph, FileNameUtils fileNameUtils) {
+    MethodVisitor(MethodGen m, JavaClass jc, Consumer<CallEdge> edgeSink, FileNameUtils fileNameUtils,
+                  UnitRegistry unitRegistry) {
         mg = m;
-        this.callGraph = callGraph;
+        this.edgeSink = edgeSink;
         cp = mg.getConstantPool();
 
         this.fileNameUtils = fileNameUtils;
+        this.unitRegistry = unitRegistry;
         // Create a method node for this method
-        this.methodNode = new JavaMethod(
+        String key = jc.getClassName()+"."+mg.getName()+mg.getSignature()+"@"+jc.getClassName();
+        this.methodNode = unitRegistry.intern(key, () -> new JavaMethod(
                 jc.getClassName(),
                 mg.getName(),
                 getArgumentStringForArgumentTypes(mg.getArgumentTypes()),
                 getPathForToClassForClassName(jc.getClassName())
-        );
+        ));
 
     }
 
@@ -114,77 +119,48 @@ public class MethodVisitor extends EmptyVisitor {
 
     @Override
     public void visitINVOKEVIRTUAL(INVOKEVIRTUAL i) {
-        JavaMethod referenceOn = new JavaMethod(
-                i.getReferenceType(cp).toString(),
-                i.getMethodName(cp),
-                getArgumentStringForArgumentTypes(i.getArgumentTypes(cp)),
-                getPathForToClassForClassName(i.getReferenceType(cp).toString())
-        );
-        CallEdge callEdge = new CallEdge(CallType.INVOKE_VIRTUAL, orderNumber, methodNode, referenceOn);
-        callGraph.addEdge(callEdge);
-        orderNumber++;
-
-        LOGGER.debug("Created edge {} ", callEdge);
+        addCallEdge(CallType.INVOKE_VIRTUAL, getReferencedMethod(i, i.getReferenceType(cp).toString()));
     }
 
     @Override
     public void visitINVOKEINTERFACE(INVOKEINTERFACE i) {
-        JavaMethod referenceOn = new JavaMethod(
-                i.getReferenceType(cp).toString(),
-                i.getMethodName(cp),
-                getArgumentStringForArgumentTypes(i.getArgumentTypes(cp)),
-                getPathForToClassForClassName(i.getReferenceType(cp).toString())
-        );
-        CallEdge callEdge = new CallEdge(CallType.INVOKE_INTERFACE, orderNumber, methodNode, referenceOn);
-        callGraph.addEdge(callEdge);
-        orderNumber++;
-
-        LOGGER.debug("Created edge {} ", callEdge);
+        addCallEdge(CallType.INVOKE_INTERFACE, getReferencedMethod(i, i.getReferenceType(cp).toString()));
     }
 
     @Override
     public void visitINVOKESPECIAL(INVOKESPECIAL i) {
-        JavaMethod referenceOn = new JavaMethod(
-                i.getReferenceType(cp).toString(),
-                i.getMethodName(cp),
-                getArgumentStringForArgumentTypes(i.getArgumentTypes(cp)),
-                getPathForToClassForClassName(i.getReferenceType(cp).toString())
-        );
-        CallEdge callEdge = new CallEdge(CallType.INVOKE_SPECIAL, orderNumber, methodNode, referenceOn);
-        callGraph.addEdge(callEdge);
-        orderNumber++;
-
-        LOGGER.debug("Created edge {} ", callEdge);
+        addCallEdge(CallType.INVOKE_SPECIAL, getReferencedMethod(i, i.getReferenceType(cp).toString()));
     }
 
     @Override
     public void visitINVOKESTATIC(INVOKESTATIC i) {
-        JavaMethod referenceOn = new JavaMethod(
-                i.getReferenceType(cp).toString(),
-                i.getMethodName(cp),
-                getArgumentStringForArgumentTypes(i.getArgumentTypes(cp)),
-                getPathForToClassForClassName(i.getReferenceType(cp).toString())
-        );
-        CallEdge callEdge = new CallEdge(CallType.INVOKE_STATIC, orderNumber, methodNode, referenceOn);
-        callGraph.addEdge(callEdge);
-        orderNumber++;
-
-        LOGGER.debug("Created edge {} ", callEdge);
+        addCallEdge(CallType.INVOKE_STATIC, getReferencedMethod(i, i.getReferenceType(cp).toString()));
     }
 
     @Override
     public void visitINVOKEDYNAMIC(INVOKEDYNAMIC i) {
-        JavaMethod referenceOn = new JavaMethod(
-                i.getType(cp).toString(),
-                i.getMethodName(cp),
+        addCallEdge(CallType.INVOKE_DYNAMIC, getReferencedMethod(i, i.getType(cp).toString()));
+    }
+
+    private JavaMethod getReferencedMethod(InvokeInstruction i, String className) {
+        String classNameForPath = i.getReferenceType(cp).toString();
+        String methodName = i.getMethodName(cp);
+        // Class, method name and signature identify the method. The path is looked up for the referenced type, which
+        // is not the class for invokedynamic instructions
+        String key = className+"."+methodName+i.getSignature(cp)+"@"+classNameForPath;
+        return unitRegistry.intern(key, () -> new JavaMethod(
+                className,
+                methodName,
                 getArgumentStringForArgumentTypes(i.getArgumentTypes(cp)),
-                getPathForToClassForClassName(i.getReferenceType(cp).toString())
-        );
-        CallEdge callEdge = new CallEdge(CallType.INVOKE_DYNAMIC, orderNumber, methodNode, referenceOn);
-        callGraph.addEdge(callEdge);
+                getPathForToClassForClassName(classNameForPath)
+        ));
+    }
+
+    private void addCallEdge(CallType callType, JavaMethod referenceOn) {
+        CallEdge callEdge = new CallEdge(callType, orderNumber, methodNode, referenceOn);
+        edgeSink.accept(callEdge);
         orderNumber++;
 
         LOGGER.debug("Created edge {} ", callEdge);
     }
-
 }
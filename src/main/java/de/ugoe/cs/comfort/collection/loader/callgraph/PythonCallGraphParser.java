@@ -0,0 +1,365 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.collection.loader.callgraph;
+
+import de.ugoe.cs.comfort.FileNameUtils;
+import de.ugoe.cs.comfort.data.graphs.CallEdge;
+import de.ugoe.cs.comfort.data.graphs.CallType;
+import de.ugoe.cs.comfort.data.models.PythonMethod;
+import de.ugoe.cs.comfort.data.models.UnitRegistry;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Parses the call graph files that are created for python projects. Each line contains one call in the format
+ * caller,callerPath;callee,calleePath, where caller and callee are call strings like
+ * tests.data.demo:Demo(C).bar(F). Everything in parentheses is removed from the call strings.
+ *
+ * <p>The file is memory-mapped in chunks that end at line breaks and the lines are scanned directly on the bytes.
+ * Each call string is only decoded and parsed once, afterwards it is found via its bytes. The chunks can be parsed
+ * in parallel. The edges are handed to the sink in the order of the lines and the order numbers of the calls are
+ * assigned at this point, so that the result does not depend on the number of threads.</p>
+ *
+ * @author Fabian Trautsch
+ */
+public class PythonCallGraphParser {
+    private static final Logger LOGGER = LogManager.getLogger(PythonCallGraphParser.class.getName());
+
+    private static final long DEFAULT_CHUNK_SIZE = 64L * 1024 * 1024;
+    private static final Pattern PARENTHESES = Pattern.compile("\\s*\\([^\\)]*\\)\\s*");
+
+    private final FileNameUtils fileNameUtils;
+    private final UnitRegistry unitRegistry;
+    private final int nThreads;
+    private final long chunkSize;
+    private final ConcurrentMap<String, CallString> callStrings = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Optional<Path>> modulePaths = new ConcurrentHashMap<>();
+
+    public PythonCallGraphParser(FileNameUtils fileNameUtils, UnitRegistry unitRegistry, int nThreads) {
+        this(fileNameUtils, unitRegistry, nThreads, DEFAULT_CHUNK_SIZE);
+    }
+
+    PythonCallGraphParser(FileNameUtils fileNameUtils, UnitRegistry unitRegistry, int nThreads, long chunkSize) {
+        this.fileNameUtils = fileNameUtils;
+        this.unitRegistry = unitRegistry;
+        this.nThreads = Math.max(1, nThreads);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Parses the call graph file.
+     *
+     * @param callGraphFile path to the call graph file
+     * @param edgeSink gets the edges in the order of the lines of the file
+     * @throws IOException if the file can not be read, contains malformed lines or refers to unknown modules
+     */
+    public void parse(Path callGraphFile, Consumer<CallEdge> edgeSink) throws IOException {
+        try (FileChannel channel = FileChannel.open(callGraphFile, StandardOpenOption.READ)) {
+            List<long[]> chunks = getChunks(channel);
+            if(nThreads == 1 || chunks.size() == 1) {
+                for(long[] chunk : chunks) {
+                    addEdges(parseChunk(channel, chunk[0], chunk[1]), edgeSink);
+                }
+                return;
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(nThreads);
+            try {
+                // Only a few chunks are parsed ahead, so that the parsed calls of the whole file are never in memory
+                Deque<Future<CallString[]>> parsedChunks = new ArrayDeque<>();
+                int nextChunk = 0;
+                while(nextChunk < chunks.size() || !parsedChunks.isEmpty()) {
+                    while(nextChunk < chunks.size() && parsedChunks.size() < nThreads * 2) {
+                        long[] chunk = chunks.get(nextChunk++);
+                        parsedChunks.add(executor.submit(() -> parseChunk(channel, chunk[0], chunk[1])));
+                    }
+                    addEdges(parsedChunks.poll().get(), edgeSink);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while parsing "+callGraphFile);
+            } catch (ExecutionException e) {
+                if(e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException(e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private static void addEdges(CallString[] calls, Consumer<CallEdge> edgeSink) {
+        for(int i = 0; i < calls.length; i += 2) {
+            CallString caller = calls[i];
+            CallString callee = calls[i + 1];
+            CallEdge edge = new CallEdge(CallType.INVOKE_PYTHON, caller.numberOfCalls, caller.method, callee.method);
+            caller.numberOfCalls++;
+            edgeSink.accept(edge);
+            LOGGER.debug("{} calls {}...", caller.method, callee.method);
+        }
+    }
+
+    private List<long[]> getChunks(FileChannel channel) throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        long size = channel.size();
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long start = 0;
+        while(start < size) {
+            // The chunk ends behind the first line break after the chunk size, so that no line is split
+            long end = Math.min(size, start + chunkSize);
+            while(end < size) {
+                buffer.clear();
+                int read = channel.read(buffer, end);
+                if(read <= 0) {
+                    end = size;
+                    break;
+                }
+                int lineBreak = indexOf(buffer, 0, read, (byte) '\n');
+                if(lineBreak >= 0) {
+                    end += lineBreak + 1;
+                    break;
+                }
+                end += read;
+            }
+            chunks.add(new long[]{start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Parses the lines of a chunk. The returned array contains the caller and callee of each line one after the
+     * other.
+     */
+    private CallString[] parseChunk(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        Map<ByteSlice, CallString> callStringsOfChunk = new HashMap<>();
+        ByteSlice lookupSlice = new ByteSlice();
+        CallString[] calls = new CallString[64];
+        int numberOfCalls = 0;
+
+        int limit = buffer.limit();
+        int lineStart = 0;
+        while(lineStart < limit) {
+            int lineEnd = lineStart;
+            while(lineEnd < limit && buffer.get(lineEnd) != '\n' && buffer.get(lineEnd) != '\r') {
+                lineEnd++;
+            }
+
+            if(lineEnd > lineStart) {
+                int separator = indexOf(buffer, lineStart, lineEnd, (byte) ';');
+                if(separator < 0) {
+                    throw new IOException("Malformed line in call graph at byte "+(start + lineStart));
+                }
+                int callerEnd = indexOf(buffer, lineStart, separator, (byte) ',');
+                int calleeEnd = lineEnd;
+                for(int i = separator + 1; i < lineEnd; i++) {
+                    if(buffer.get(i) == ',' || buffer.get(i) == ';') {
+                        calleeEnd = i;
+                        break;
+                    }
+                }
+
+                if(numberOfCalls + 2 > calls.length) {
+                    calls = Arrays.copyOf(calls, calls.length * 2);
+                }
+                calls[numberOfCalls++] = getCallString(buffer, lineStart, callerEnd < 0 ? separator : callerEnd,
+                        callStringsOfChunk, lookupSlice);
+                calls[numberOfCalls++] = getCallString(buffer, separator + 1, calleeEnd, callStringsOfChunk,
+                        lookupSlice);
+            }
+            lineStart = lineEnd + 1;
+        }
+        return Arrays.copyOf(calls, numberOfCalls);
+    }
+
+    private CallString getCallString(ByteBuffer buffer, int start, int end, Map<ByteSlice, CallString> cache,
+                                     ByteSlice lookupSlice) throws IOException {
+        lookupSlice.set(buffer, start, end);
+        CallString callString = cache.get(lookupSlice);
+        if(callString != null) {
+            return callString;
+        }
+
+        byte[] bytes = new byte[end - start];
+        for(int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        String value = PARENTHESES.matcher(new String(bytes, StandardCharsets.UTF_8)).replaceAll("");
+        callString = callStrings.get(value);
+        if(callString == null) {
+            CallString newCallString = new CallString(getPythonMethodForCallString(value));
+            callString = callStrings.putIfAbsent(value, newCallString);
+            if(callString == null) {
+                callString = newCallString;
+            }
+        }
+
+        ByteSlice slice = new ByteSlice();
+        slice.set(ByteBuffer.wrap(bytes), 0, bytes.length);
+        cache.put(slice, callString);
+        return callString;
+    }
+
+    private PythonMethod getPythonMethodForCallString(String callString) throws IOException {
+        return unitRegistry.intern(callString, () -> {
+            PythonMethod pythonMethod = createPythonMethod(callString);
+            // Set correct path
+            pythonMethod.setFileName(getPathForModule(pythonMethod.getFQNOfUnit()));
+            return pythonMethod;
+        });
+    }
+
+    private Path getPathForModule(String module) throws IOException {
+        // Many methods are in the same module, therefore, the path of each module is only searched once. Modules
+        // that were not found are stored as well, so that they are not searched again.
+        Optional<Path> path = modulePaths.get(module);
+        if(path == null) {
+            try {
+                path = Optional.of(fileNameUtils.getPathForPythonModuleFQN(module));
+            } catch (FileNotFoundException e) {
+                path = Optional.empty();
+            }
+            modulePaths.putIfAbsent(module, path);
+        }
+
+        if(!path.isPresent()) {
+            throw new FileNotFoundException("File for module "+module+" was not found!");
+        }
+        return path.get();
+    }
+
+    private static PythonMethod createPythonMethod(String callString) throws IOException {
+        // input: tests.data.demo:Demo.bar
+        // Result: tests.data = package, demo = module, Demo = namespace, bar = method
+        String[] parts = callString.split("\\:");
+        if(parts.length < 2) {
+            throw new IOException("Malformed call "+callString+" in call graph");
+        }
+        String packageAndModule = parts[0];
+        String nameSpaceAndMethod = parts[1];
+
+        String[] packageAndModuleParts = packageAndModule.split("\\.");
+        String module = packageAndModuleParts[packageAndModuleParts.length-1];
+        String pPackage = String.join(".", Arrays.copyOfRange(packageAndModuleParts,
+                0, packageAndModuleParts.length-1));
+
+        String[] nameSpaceAndMethodParts = nameSpaceAndMethod.split("\\.");
+        String method = nameSpaceAndMethodParts[nameSpaceAndMethodParts.length-1];
+        String namespace = String.join(".", Arrays.copyOfRange(nameSpaceAndMethodParts,
+                0, nameSpaceAndMethodParts.length-1));
+
+        if(namespace.equals("")) {
+            namespace = null;
+        }
+
+        if(pPackage.equals("")) {
+            pPackage = null;
+        }
+
+        return new PythonMethod(pPackage, module, namespace, method, null);
+    }
+
+    private static int indexOf(ByteBuffer buffer, int start, int end, byte value) {
+        for(int i = start; i < end; i++) {
+            if(buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static class CallString {
+        private final PythonMethod method;
+        // Only used by the thread that hands the edges to the sink
+        private int numberOfCalls = 0;
+
+        CallString(PythonMethod method) {
+            this.method = method;
+        }
+    }
+
+    /**
+     * Bytes of a call string inside of a buffer. Used as key, so that a call string does not need to be decoded
+     * again.
+     */
+    private static class ByteSlice {
+        private ByteBuffer buffer;
+        private int start;
+        private int end;
+        private int hash;
+
+        void set(ByteBuffer buffer, int start, int end) {
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+            int result = 1;
+            for(int i = start; i < end; i++) {
+                result = 31 * result + buffer.get(i);
+            }
+            this.hash = result;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if(!(obj instanceof ByteSlice)) {
+                return false;
+            }
+            ByteSlice other = (ByteSlice) obj;
+            if(hash != other.hash || end - start != other.end - other.start) {
+                return false;
+            }
+            for(int i = 0; i < end - start; i++) {
+                if(buffer.get(start + i) != other.buffer.get(other.start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.ugoe.cs.comfort.collection.loader.snapshot;
+
+import de.ugoe.cs.comfort.data.CoverageData;
+import de.ugoe.cs.comfort.data.DataSet;
+import de.ugoe.cs.comfort.data.ProjectFiles;
+import de.ugoe.cs.comfort.data.models.IUnit;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes and reads the data sets that are stored as serialized snapshot. Graphs are not handled here, they are
+ * stored in the binary graph format. The units are written via java serialization, so that each unit is only written
+ * once and afterwards only referenced.
+ *
+ * @author Fabian Trautsch
+ */
+final class DataSetCodec {
+    private static final String COVERAGE_DATA = "CoverageData";
+    private static final String PROJECT_FILES = "ProjectFiles";
+
+    private DataSetCodec() {
+
+    }
+
+    static boolean isSupported(DataSet dataSet) {
+        return dataSet instanceof CoverageData || dataSet instanceof ProjectFiles;
+    }
+
+    static void write(DataSet dataSet, ObjectOutputStream out) throws IOException {
+        if(dataSet instanceof CoverageData) {
+            out.writeUTF(COVERAGE_DATA);
+            CoverageData coverageData = (CoverageData) dataSet;
+            out.writeObject(coverageData.getCoverageDataForAll());
+            out.writeObject(coverageData.getCoverageDataForAllClassLevel());
+        } else if(dataSet instanceof ProjectFiles) {
+            out.writeUTF(PROJECT_FILES);
+            ProjectFiles projectFiles = (ProjectFiles) dataSet;
+            out.writeUTF(projectFiles.getProjectDir().toString());
+            writePaths(projectFiles.getTestFiles(), out);
+            writePaths(projectFiles.getCodeFiles(), out);
+        } else {
+            throw new IOException("Data set "+dataSet.getClass().getName()+" can not be stored as snapshot");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static DataSet read(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        String type = in.readUTF();
+        switch (type) {
+            case COVERAGE_DATA:
+                Map<IUnit, Set<IUnit>> methodLevel = (Map<IUnit, Set<IUnit>>) in.readObject();
+                Map<IUnit, Set<IUnit>> classLevel = (Map<IUnit, Set<IUnit>>) in.readObject();
+                return new CoverageData(methodLevel, classLevel);
+            case PROJECT_FILES:
+                Path projectDir = Paths.get(in.readUTF());
+                Set<Path> testFiles = readPaths(in);
+                Set<Path> codeFiles = readPaths(in);
+                return new ProjectFiles(projectDir, testFiles, codeFiles);
+            default:
+                throw new IOException("Unknown data set type "+type+" in snapshot");
+        }
+    }
+
+    private static void writePaths(Set<Path> paths, ObjectOutputStream out) throws IOException {
+        out.writeInt(paths.size());
+        for(Path path : paths) {
+            out.writeUTF(path.toString());
+        }
+    }
+
+    private static Set<Path> readPaths(ObjectInputStream in) throws IOException {
+        int numberOfPaths = in.readInt();
+        Set<Path> paths = new HashSet<>();
+        for(int i = 0; i < numberOfPaths; i++) {
+            paths.add(Paths.get(in.readUTF()));
+        }
+        return paths;
+    }
+}
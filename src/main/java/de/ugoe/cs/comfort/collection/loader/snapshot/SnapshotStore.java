@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.ugoe.cs.comfort.collection.loader.snapshot;
+
+import com.google.common.hash.Funnels;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
+import de.ugoe.cs.comfort.configuration.LoaderConfiguration;
+import de.ugoe.cs.comfort.data.DataSet;
+import de.ugoe.cs.comfort.data.graphs.GraphBackend;
+import de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphReader;
+import de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphWriter;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Stores the data sets that are created by the loaders on disk. Each snapshot is identified by a hash over the
+ * contents of all files that the loader reads, the loader configuration and the general settings that influence
+ * the loading (project directory and language). If the inputs did not change, the snapshot can be reused instead
+ * of loading the data again. Graphs are stored in the binary graph format, all other data sets as compressed java
+ * serialization.
+ *
+ * @author Fabian Trautsch
+ */
+public class SnapshotStore {
+    private static final Logger LOGGER = LogManager.getLogger(SnapshotStore.class.getName());
+
+    // Needs to be increased, if the format of the snapshots changes
+    private static final int FORMAT_VERSION = 2;
+    private static final String FILE_ENDING = ".snapshot";
+    private static final String GRAPH_FILE_ENDING = ".graph";
+
+    private final Path snapshotDir;
+
+    public SnapshotStore(Path snapshotDir) {
+        this.snapshotDir = snapshotDir;
+    }
+
+    /**
+     * Creates the key for a snapshot.
+     *
+     * @param loaderClass class of the loader that creates the data set
+     * @param generalConf general configuration of the run
+     * @param loaderConf configuration of the loader
+     * @param inputFiles all files whose content is read by the loader
+     * @return key of the snapshot
+     * @throws IOException if one of the input files can not be read
+     */
+    public String createKey(Class<?> loaderClass, GeneralConfiguration generalConf, LoaderConfiguration loaderConf,
+                            Collection<Path> inputFiles) throws IOException {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        hasher.putInt(FORMAT_VERSION);
+        hasher.putString(loaderClass.getName(), StandardCharsets.UTF_8);
+        hasher.putString(String.valueOf(loaderConf), StandardCharsets.UTF_8);
+        hasher.putString(String.valueOf(generalConf.getProjectDir()), StandardCharsets.UTF_8);
+        hasher.putString(generalConf.getLanguage(), StandardCharsets.UTF_8);
+
+        // Sort the files, so that the key does not depend on the order in which the files were found
+        List<Path> sortedFiles = new ArrayList<>(inputFiles);
+        sortedFiles.sort(Comparator.comparing(Path::toString));
+
+        OutputStream hashingStream = Funnels.asOutputStream(hasher);
+        for(Path file : sortedFiles) {
+            hasher.putString(file.toString(), StandardCharsets.UTF_8);
+            hasher.putLong(Files.size(file));
+            Files.copy(file, hashingStream);
+        }
+        return loaderClass.getSimpleName()+"-"+hasher.hash().toString();
+    }
+
+    /**
+     * Reads the snapshot with the given key. Graphs are created with the default backend.
+     *
+     * @param key key of the snapshot
+     * @return stored data set or null, if there is no (readable) snapshot for this key
+     */
+    public DataSet read(String key) {
+        return read(key, GraphBackend.GUAVA);
+    }
+
+    /**
+     * Reads the snapshot with the given key.
+     *
+     * @param key key of the snapshot
+     * @param graphBackend backend of the graphs that are read from the snapshot
+     * @return stored data set or null, if there is no (readable) snapshot for this key
+     */
+    public DataSet read(String key, GraphBackend graphBackend) {
+        Path graphFile = snapshotDir.resolve(key+GRAPH_FILE_ENDING);
+        if(Files.isRegularFile(graphFile)) {
+            try {
+                DataSet dataSet = BinaryGraphReader.read(graphFile, graphBackend);
+                LOGGER.info("Using snapshot {}...", graphFile);
+                return dataSet;
+            } catch (IOException e) {
+                LOGGER.warn("Could not read snapshot {}: {}", graphFile, e.getMessage());
+                return null;
+            }
+        }
+
+        Path snapshotFile = snapshotDir.resolve(key+FILE_ENDING);
+        if(!Files.isRegularFile(snapshotFile)) {
+            return null;
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(snapshotFile))))) {
+            DataSet dataSet = DataSetCodec.read(in);
+            LOGGER.info("Using snapshot {}...", snapshotFile);
+            return dataSet;
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            LOGGER.warn("Could not read snapshot {}: {}", snapshotFile, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Stores the data set under the given key. Data sets that can not be stored are ignored.
+     *
+     * @param key key of the snapshot
+     * @param dataSet data set to store
+     */
+    public void write(String key, DataSet dataSet) {
+        if(BinaryGraphWriter.isSupported(dataSet)) {
+            writeAtomically(key, key+GRAPH_FILE_ENDING, file -> BinaryGraphWriter.write(dataSet, file));
+        } else if(DataSetCodec.isSupported(dataSet)) {
+            writeAtomically(key, key+FILE_ENDING, file -> {
+                try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(
+                        new GZIPOutputStream(Files.newOutputStream(file))))) {
+                    DataSetCodec.write(dataSet, out);
+                }
+            });
+        }
+    }
+
+    private void writeAtomically(String key, String fileName, SnapshotWriter writer) {
+        Path snapshotFile = snapshotDir.resolve(fileName);
+        Path temporaryFile = null;
+        try {
+            Files.createDirectories(snapshotDir);
+            // Write to a temporary file first, so that other runs never see a half-written snapshot
+            temporaryFile = Files.createTempFile(snapshotDir, key, ".tmp");
+            writer.write(temporaryFile);
+            Files.move(temporaryFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            LOGGER.info("Stored snapshot {}...", snapshotFile);
+        } catch (IOException e) {
+            LOGGER.warn("Could not store snapshot {}: {}", snapshotFile, e.getMessage());
+            try {
+                if(temporaryFile != null) {
+                    Files.deleteIfExists(temporaryFile);
+                }
+            } catch (IOException deleteException) {
+                LOGGER.catching(deleteException);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface SnapshotWriter {
+        void write(Path file) throws IOException;
+    }
+}
@@ -0,0 +1,24 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Includes the on-disk snapshot store for the data sets that are created by the loaders
+ *
+ * @since 1.0
+ * @author Fabian Trautsch
+ * @version 1.0
+ */
+package de.ugoe.cs.comfort.collection.loader.snapshot;
\ No newline at end of file
@@ -16,6 +16,7 @@
 
 package de.ugoe.cs.comfort.collection.loader.testcoverage;
 
+import de.ugoe.cs.comfort.ClassFileSource;
 import java.io.*;
 import java.nio.file.Path;
 import java.util.Collection;
@@ -77,17 +78,18 @@ public class JacocoReportReader {
         CoverageBuilder coverageBuilder = new CoverageBuilder();
         Analyzer analyzer = new Analyzer(executionDataStore, coverageBuilder);
         for (Path classFilePath : classFiles) {
-            analyzeClassFile(analyzer, classFilePath.toFile());
+            analyzeClassFile(analyzer, classFilePath);
         }
 
         return coverageBuilder;
     }
 
-    private static void analyzeClassFile(Analyzer analyzer, File classFile) {
-        try (InputStream inputStream = new FileInputStream(classFile)) {
-            analyzer.analyzeClass(inputStream, classFile.getPath());
+    private static void analyzeClassFile(Analyzer analyzer, Path classFile) {
+        String location = ClassFileSource.getLocation(classFile);
+        try {
+            analyzer.analyzeClass(ClassFileSource.readBytes(classFile), location);
         } catch (IOException e) {
-            LOGGER.warn("Exception during analysis of file " + classFile.getAbsolutePath(), e);
+            LOGGER.warn("Exception during analysis of file " + location, e);
         }
     }
 
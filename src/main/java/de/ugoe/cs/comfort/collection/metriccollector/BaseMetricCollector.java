@@ -18,16 +18,14 @@ package de.ugoe.cs.comfort.collection.metriccollector;
 
 import de.ugoe.cs.comfort.FileNameUtils;
 import de.ugoe.cs.comfort.collection.BaseModel;
+import de.ugoe.cs.comfort.collection.DispatchRegistry.DispatchTarget;
 import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
 import de.ugoe.cs.comfort.data.DataSet;
 import de.ugoe.cs.comfort.exception.MetricCollectorException;
 import de.ugoe.cs.comfort.filer.BaseFiler;
 import de.ugoe.cs.comfort.filer.models.Result;
+import de.ugoe.cs.comfort.instrumentation.StageTimer;
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.HashSet;
-import java.util.Set;
 
 
 
@@ -50,19 +48,15 @@ public class BaseMetricCollector extends BaseModel {
     }
 
     public void collectData(DataSet data) throws MetricCollectorException {
-        Set<String> classNamesOfArguments = new HashSet<>();
-        classNamesOfArguments.add(data.getClass().getName());
-
-        for(Method method : this.getClass().getDeclaredMethods()) {
-            try {
-                // We need to find the method where the annotations are fitting to the configuration and
-                // where the parameter types are fitting
-                if (shouldMethodBeExecuted(method) && checkIfParameterTypesAreFitting(method, classNamesOfArguments)) {
-                    method.invoke(this, data);
-                    return;
-                }
-            } catch (IllegalAccessException | InvocationTargetException e) {
-                throw new MetricCollectorException(e.getCause().getMessage());
+        // We need to find the method where the annotations are fitting to the configuration and
+        // where the parameter types are fitting
+        for(DispatchTarget target : getDispatchTargets(data.getClass(), true)) {
+            try (StageTimer timer = generalConf.getMetricsRegistry()
+                    .startStage("collector:"+this.getClass().getSimpleName())) {
+                target.invoke(this, data);
+                return;
+            } catch (Exception e) {
+                throw new MetricCollectorException(e.getMessage());
             }
         }
 
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.collection.metriccollector;
+
+import de.ugoe.cs.comfort.Utils;
+import de.ugoe.cs.comfort.data.graphs.IGraph;
+import de.ugoe.cs.comfort.data.models.IUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Calculates the depth of a call graph from a node, i.e., the maximum length of the shortest paths from the node to
+ * all reachable production nodes. As all edges have the same weight, a breadth first search is enough. The graph is
+ * indexed once into int arrays (compressed adjacency lists), so that each search only works on ints. The arrays that
+ * are needed for a search are reused per thread, so that the calculator can be used by several threads at once.
+ *
+ * @author Fabian Trautsch
+ */
+public class BreadthFirstDepthCalculator {
+    private final Map<IUnit, Integer> nodeIds;
+    private final boolean[] productionNodes;
+
+    // Successors of node n are successors[successorStart[n]] to successors[successorStart[n+1]-1]
+    private final int[] successorStart;
+    private final int[] successors;
+
+    private final ThreadLocal<SearchState> searchStates;
+
+    public BreadthFirstDepthCalculator(IGraph graph) {
+        int numberOfNodes = graph.nodes().size();
+        IUnit[] nodes = graph.nodes().toArray(new IUnit[numberOfNodes]);
+        nodeIds = new HashMap<>(numberOfNodes * 4 / 3 + 1);
+        productionNodes = new boolean[numberOfNodes];
+        for(int i = 0; i < numberOfNodes; i++) {
+            nodeIds.put(nodes[i], i);
+            // Same classification as CallGraph#getProductionNodes
+            productionNodes[i] = !Utils.isTestBasedOnFQN(nodes[i].getFQNOfUnit());
+        }
+
+        successorStart = new int[numberOfNodes + 1];
+        for(int i = 0; i < numberOfNodes; i++) {
+            successorStart[i + 1] = successorStart[i] + graph.successors(nodes[i]).size();
+        }
+        successors = new int[successorStart[numberOfNodes]];
+        for(int i = 0; i < numberOfNodes; i++) {
+            int position = successorStart[i];
+            for(IUnit successor : graph.successors(nodes[i])) {
+                successors[position++] = nodeIds.get(successor);
+            }
+        }
+
+        searchStates = ThreadLocal.withInitial(() -> new SearchState(numberOfNodes));
+    }
+
+    /**
+     * Returns the maximum length of the shortest paths from the given node to all production nodes that can be
+     * reached from it.
+     *
+     * @param source start node
+     * @return maximum depth or 0, if no production node can be reached
+     */
+    public int getMaximumDepth(IUnit source) {
+        Integer sourceId = nodeIds.get(source);
+        if(sourceId == null) {
+            return 0;
+        }
+
+        SearchState state = searchStates.get();
+        int visitedMark = state.nextVisitedMark();
+        int[] visited = state.visited;
+        int[] queue = state.queue;
+
+        visited[sourceId] = visitedMark;
+        queue[0] = sourceId;
+        int head = 0;
+        int tail = 1;
+        int depth = 0;
+        int maximumDepth = 0;
+
+        // Level by level, so that the depth of a node is the level in which it is dequeued
+        while(head < tail) {
+            int endOfLevel = tail;
+            while(head < endOfLevel) {
+                int node = queue[head++];
+                if(depth > 0 && productionNodes[node]) {
+                    maximumDepth = depth;
+                }
+                for(int i = successorStart[node]; i < successorStart[node + 1]; i++) {
+                    int successor = successors[i];
+                    if(visited[successor] != visitedMark) {
+                        visited[successor] = visitedMark;
+                        queue[tail++] = successor;
+                    }
+                }
+            }
+            depth++;
+        }
+        return maximumDepth;
+    }
+
+    private static class SearchState {
+        private final int[] visited;
+        private final int[] queue;
+        private int visitedMark = 0;
+
+        SearchState(int numberOfNodes) {
+            visited = new int[numberOfNodes];
+            queue = new int[numberOfNodes];
+        }
+
+        int nextVisitedMark() {
+            // The visited array does not need to be cleared between searches, only if the marks are exhausted
+            if(visitedMark == Integer.MAX_VALUE) {
+                Arrays.fill(visited, 0);
+                visitedMark = 0;
+            }
+            return ++visitedMark;
+        }
+    }
+}
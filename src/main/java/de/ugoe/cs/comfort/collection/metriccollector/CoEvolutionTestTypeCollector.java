@@ -24,11 +24,10 @@ import de.ugoe.cs.comfort.annotations.SupportsPython;
 import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
 import de.ugoe.cs.comfort.data.ChangeSet;
 import de.ugoe.cs.comfort.filer.BaseFiler;
+import de.ugoe.cs.comfort.filer.ResultSink;
 import de.ugoe.cs.comfort.filer.models.Result;
 import java.io.IOException;
 import java.nio.file.Path;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * @author Fabian Trautsch
@@ -45,15 +44,15 @@ public class CoEvolutionTestTypeCollector extends BaseMetricCollector {
     @SupportsPython
     @SupportsClass
     public void createResults(ChangeSet changeSet) throws IOException {
-        // Create filer map
-        Set<Result> result = new HashSet<>();
-        for(Path testFile: changeSet.getTestFiles()) {
-            ImmutableMultiset<Path> sortedChangeSet = Multisets
-                    .copyHighestCountFirst(changeSet.getChangedWithFiles(testFile));
-            result.add(classifyTestFile(testFile, sortedChangeSet));
+        // Stream the classification of each test file to the filer
+        try (ResultSink sink = filer.openSink()) {
+            for(Path testFile: changeSet.getTestFiles()) {
+                ImmutableMultiset<Path> sortedChangeSet = Multisets
+                        .copyHighestCountFirst(changeSet.getChangedWithFiles(testFile));
+                sink.accept(classifyTestFile(testFile, sortedChangeSet));
+            }
+            sink.commit();
         }
-
-        filer.storeResults(result);
     }
 
     private Result classifyTestFile(Path testFile, ImmutableMultiset<Path> changeSetOfTestFile) {
@@ -25,9 +25,9 @@ import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
 import de.ugoe.cs.comfort.data.CoverageData;
 import de.ugoe.cs.comfort.data.models.IUnit;
 import de.ugoe.cs.comfort.filer.BaseFiler;
+import de.ugoe.cs.comfort.filer.ResultSink;
 import de.ugoe.cs.comfort.filer.models.Result;
 import java.io.IOException;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -43,8 +43,7 @@ public class CoveredLinesCollector  extends BaseMetricCollector {
     @SupportsMethod
     public void getCoveredTestAndProductionLinesMethodLevel(CoverageData coverageData) throws IOException {
 
-        Set<Result> results = generateResults(coverageData.getCoverageDataForAll());
-        filer.storeResults(results);
+        storeResults(coverageData.getCoverageDataForAll());
     }
 
 
@@ -52,39 +51,40 @@ public class CoveredLinesCollector  extends BaseMetricCollector {
     @SupportsMethod
     public void getCoveredTestAndProductionLinesMethodLevelPython(CoverageData coverageData) throws IOException {
 
-        Set<Result> results = new HashSet<>();
-        for(Map.Entry<IUnit, Set<IUnit>> entry: coverageData.getCoverageDataForAll().entrySet()) {
-            Integer coveredProductionLines = 0;
-            Integer coveredTestLines = 0;
-            logger.debug("Looking at test {}", entry.getKey());
-            if(entry.getValue() != null) {
-                for (IUnit coveredMethod : entry.getValue()) {
-                    // If we have a standard python projects, tests are hold in folders called "test" or "tests",
-                    // which can also be in sub folders, thats why we look for a contains
-                    if(coveredMethod.getFilePath().toString().contains("test")) {
-                        logger.debug("Covered Test (by path): {}", coveredMethod);
-                        coveredTestLines += coveredMethod.getCoveredLines();
-                    } else {
-                        if (!coveredMethod.getFQNOfUnit().equals(entry.getKey().getFQNOfUnit())
-                                && !(coveredMethod.getFQNOfUnit().contains("test")
-                                || coveredMethod.getFQNOfUnit().contains("validate"))) {
-                            logger.debug("Covered production code: {}", coveredMethod);
-                            coveredProductionLines += coveredMethod.getCoveredLines();
-                        } else {
-                            logger.debug("Covered Test: {}", coveredMethod);
+        try (ResultSink sink = filer.openSink()) {
+            for(Map.Entry<IUnit, Set<IUnit>> entry: coverageData.getCoverageDataForAll().entrySet()) {
+                Integer coveredProductionLines = 0;
+                Integer coveredTestLines = 0;
+                logger.debug("Looking at test {}", entry.getKey());
+                if(entry.getValue() != null) {
+                    for (IUnit coveredMethod : entry.getValue()) {
+                        // If we have a standard python projects, tests are hold in folders called "test" or "tests",
+                        // which can also be in sub folders, thats why we look for a contains
+                        if(coveredMethod.getFilePath().toString().contains("test")) {
+                            logger.debug("Covered Test (by path): {}", coveredMethod);
                             coveredTestLines += coveredMethod.getCoveredLines();
+                        } else {
+                            if (!coveredMethod.getFQNOfUnit().equals(entry.getKey().getFQNOfUnit())
+                                    && !(coveredMethod.getFQNOfUnit().contains("test")
+                                    || coveredMethod.getFQNOfUnit().contains("validate"))) {
+                                logger.debug("Covered production code: {}", coveredMethod);
+                                coveredProductionLines += coveredMethod.getCoveredLines();
+                            } else {
+                                logger.debug("Covered Test: {}", coveredMethod);
+                                coveredTestLines += coveredMethod.getCoveredLines();
+                            }
                         }
                     }
                 }
+                logger.debug("Test {} covered {} test and {} production lines", entry.getKey(),
+                        coveredTestLines, coveredProductionLines);
+                Result result = new Result(entry.getKey().getFQN(), entry.getKey().getFilePath());
+                result.addMetric("cov_tlines", String.valueOf(coveredTestLines));
+                result.addMetric("cov_plines", String.valueOf(coveredProductionLines));
+                sink.accept(result);
             }
-            logger.debug("Test {} covered {} test and {} production lines", entry.getKey(),
-                    coveredTestLines, coveredProductionLines);
-            Result result = new Result(entry.getKey().getFQN(), entry.getKey().getFilePath());
-            result.addMetric("cov_tlines", String.valueOf(coveredTestLines));
-            result.addMetric("cov_plines", String.valueOf(coveredProductionLines));
-            results.add(result);
+            sink.commit();
         }
-        filer.storeResults(results);
     }
 
     @SupportsJava
@@ -92,42 +92,42 @@ public class CoveredLinesCollector  extends BaseMetricCollector {
     @SupportsClass
     public void getCoveredTestAndProductionLinesClassLevel(CoverageData coverageData) throws IOException {
 
-        Set<Result> results = generateResults(coverageData.getCoverageDataForAllClassLevel());
-        filer.storeResults(results);
+        storeResults(coverageData.getCoverageDataForAllClassLevel());
     }
 
-    private Set<Result> generateResults(Map<IUnit, Set<IUnit>> data) {
-        Set<Result> results = new HashSet<>();
-        for(Map.Entry<IUnit, Set<IUnit>> entry: data.entrySet()) {
-            Integer coveredProductionLines = 0;
-            Integer coveredTestLines = 0;
-            logger.debug("Looking at test {}", entry.getKey());
-            if(entry.getValue() != null) {
-                for (IUnit coveredMethod : entry.getValue()) {
-                    // If we have a standard java project, tests are always in src/test
-                    if(coveredMethod.getFilePath() != null && coveredMethod.getFilePath().startsWith("src/test")) {
-                        logger.debug("Covered Test (by path): {}", coveredMethod);
-                        coveredTestLines += coveredMethod.getCoveredLines();
-                    } else {
-                        // Fallback method: If filename has "test" or "validate" in it, it is a test
-                        if (!coveredMethod.getFQNOfUnit().equals(entry.getKey().getFQNOfUnit())
-                                && !Utils.isTestBasedOnFQN(coveredMethod.getFQNOfUnit())) {
-                            logger.debug("Covered production code: {}", coveredMethod);
-                            coveredProductionLines += coveredMethod.getCoveredLines();
-                        } else {
-                            logger.debug("Covered Test: {}", coveredMethod);
+    private void storeResults(Map<IUnit, Set<IUnit>> data) throws IOException {
+        try (ResultSink sink = filer.openSink()) {
+            for(Map.Entry<IUnit, Set<IUnit>> entry: data.entrySet()) {
+                Integer coveredProductionLines = 0;
+                Integer coveredTestLines = 0;
+                logger.debug("Looking at test {}", entry.getKey());
+                if(entry.getValue() != null) {
+                    for (IUnit coveredMethod : entry.getValue()) {
+                        // If we have a standard java project, tests are always in src/test
+                        if(coveredMethod.getFilePath() != null && coveredMethod.getFilePath().startsWith("src/test")) {
+                            logger.debug("Covered Test (by path): {}", coveredMethod);
                             coveredTestLines += coveredMethod.getCoveredLines();
+                        } else {
+                            // Fallback method: If filename has "test" or "validate" in it, it is a test
+                            if (!coveredMethod.getFQNOfUnit().equals(entry.getKey().getFQNOfUnit())
+                                    && !Utils.isTestBasedOnFQN(coveredMethod.getFQNOfUnit())) {
+                                logger.debug("Covered production code: {}", coveredMethod);
+                                coveredProductionLines += coveredMethod.getCoveredLines();
+                            } else {
+                                logger.debug("Covered Test: {}", coveredMethod);
+                                coveredTestLines += coveredMethod.getCoveredLines();
+                            }
                         }
                     }
                 }
+                logger.debug("Test {} covered {} test and {} production lines", entry.getKey(),
+                        coveredTestLines, coveredProductionLines);
+                Result result = new Result(entry.getKey().getFQN(), entry.getKey().getFilePath());
+                result.addMetric("cov_tlines", String.valueOf(coveredTestLines));
+                result.addMetric("cov_plines", String.valueOf(coveredProductionLines));
+                sink.accept(result);
             }
-            logger.debug("Test {} covered {} test and {} production lines", entry.getKey(),
-                    coveredTestLines, coveredProductionLines);
-            Result result = new Result(entry.getKey().getFQN(), entry.getKey().getFilePath());
-            result.addMetric("cov_tlines", String.valueOf(coveredTestLines));
-            result.addMetric("cov_plines", String.valueOf(coveredProductionLines));
-            results.add(result);
+            sink.commit();
         }
-        return results;
     }
 }
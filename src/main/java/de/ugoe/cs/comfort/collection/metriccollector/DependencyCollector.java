@@ -26,6 +26,7 @@ import de.ugoe.cs.comfort.data.graphs.CallGraph;
 import de.ugoe.cs.comfort.data.graphs.DependencyGraph;
 import de.ugoe.cs.comfort.data.models.IUnit;
 import de.ugoe.cs.comfort.filer.BaseFiler;
+import de.ugoe.cs.comfort.filer.ResultSink;
 import de.ugoe.cs.comfort.filer.models.Result;
 import java.io.IOException;
 import java.util.HashSet;
@@ -46,7 +47,7 @@ public class DependencyCollector extends BaseMetricCollector {
     public void getNumberOfDependentUnitsForMethod(CallGraph callGraph) throws IOException {
         Map<IUnit, Set<IUnit>> callerCalleePairs = TestTypeDetectionUtils
                 .getCallPairsOnClassLevel(callGraph);
-        filer.storeResults(generateResults(callerCalleePairs, "call_dep"));
+        storeResults(callerCalleePairs, "call_dep");
     }
 
     @SupportsJava
@@ -55,30 +56,31 @@ public class DependencyCollector extends BaseMetricCollector {
     public void getNumberOfDependentUnitsForClass(DependencyGraph dependencyGraph) throws IOException {
         Map<IUnit, Set<IUnit>> callerCalleePairs = TestTypeDetectionUtils
                 .getCallPairsOnClassLevel(dependencyGraph);
-        filer.storeResults(generateResults(callerCalleePairs, "call_dep"));
+        storeResults(callerCalleePairs, "call_dep");
     }
 
     @SupportsJava
     @SupportsPython
     @SupportsMethod
     public void getNumberOfDependentUnitsForCoverageData(CoverageData data) throws IOException {
-        filer.storeResults(generateResults(data.getCoverageData(), "cov_dep"));
+        storeResults(data.getCoverageData(), "cov_dep");
     }
 
-    private Set<Result> generateResults(Map<IUnit, Set<IUnit>> callerCalleePairs, String metricName) {
-        Set<Result> results = new HashSet<>();
-        for(Map.Entry<IUnit, Set<IUnit>> entry: callerCalleePairs.entrySet()) {
-            Set<String> units = new HashSet<>();
-            entry.getValue().forEach(unit -> {
-                if(!unit.isTestBasedOnFQNofUnit()) {
-                    units.add(unit.getFQNOfUnit());
-                }
-            });
-            logger.debug("Dependency of {} is: {}", entry.getKey(), entry.getValue().size());
-            results.add(new Result(entry.getKey().getFQN(), entry.getKey().getFilePath(),
-                    metricName, String.valueOf(units.size())));
+    private void storeResults(Map<IUnit, Set<IUnit>> callerCalleePairs, String metricName) throws IOException {
+        try (ResultSink sink = filer.openSink()) {
+            for(Map.Entry<IUnit, Set<IUnit>> entry: callerCalleePairs.entrySet()) {
+                Set<String> units = new HashSet<>();
+                entry.getValue().forEach(unit -> {
+                    if(!unit.isTestBasedOnFQNofUnit()) {
+                        units.add(unit.getFQNOfUnit());
+                    }
+                });
+                logger.debug("Dependency of {} is: {}", entry.getKey(), entry.getValue().size());
+                sink.accept(new Result(entry.getKey().getFQN(), entry.getKey().getFilePath(),
+                        metricName, String.valueOf(units.size())));
+            }
+            sink.commit();
         }
-        return results;
     }
 
 
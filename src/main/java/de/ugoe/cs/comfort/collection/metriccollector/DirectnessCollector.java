@@ -26,6 +26,7 @@ import de.ugoe.cs.comfort.data.graphs.CallGraph;
 import de.ugoe.cs.comfort.data.graphs.DependencyGraph;
 import de.ugoe.cs.comfort.data.models.IUnit;
 import de.ugoe.cs.comfort.filer.BaseFiler;
+import de.ugoe.cs.comfort.filer.ResultSink;
 import de.ugoe.cs.comfort.filer.models.Result;
 import java.io.IOException;
 import java.text.DecimalFormat;
@@ -46,20 +47,24 @@ public class DirectnessCollector extends BaseMetricCollector {
     @SupportsPython
     @SupportsMethod
     public void createDirectnessMetricForJavaOnMethodLevel(CallGraph callGraph) throws IOException {
-        Map<IUnit, Set<String>> numDirectConnections = new HashMap<>();
         Set<String> units = new HashSet<>();
         callGraph.getProductionNodes().forEach(x -> units.add(x.getFQNOfUnit()));
 
-        for(IUnit node: callGraph.getTestNodes()) {
-            Set<String> adjacentUnits = new HashSet<>();
-            callGraph.adjacentNodes(node).forEach(x -> {
-                if(!Utils.isTestBasedOnFQN(x.getFQN())) {
-                    adjacentUnits.add(x.getFQNOfUnit());
-                }
-            });
-            numDirectConnections.put(node, adjacentUnits);
+        // Each test node is only visited once on method level, therefore, its result can be stored directly
+        DecimalFormat decimalFormat = new DecimalFormat("#0.0000");
+        try (ResultSink sink = filer.openSink()) {
+            for(IUnit node: callGraph.getTestNodes()) {
+                Set<String> adjacentUnits = new HashSet<>();
+                callGraph.adjacentNodes(node).forEach(x -> {
+                    if(!Utils.isTestBasedOnFQN(x.getFQN())) {
+                        adjacentUnits.add(x.getFQNOfUnit());
+                    }
+                });
+                logger.debug("Got the following connections for {}: {}", node, adjacentUnits);
+                sink.accept(createResult(node, adjacentUnits, units.size(), decimalFormat));
+            }
+            sink.commit();
         }
-        filer.storeResults(getResults(numDirectConnections, units.size()));
     }
 
     @SupportsJava
@@ -67,7 +72,7 @@ public class DirectnessCollector extends BaseMetricCollector {
     @SupportsClass
     public void createDirectnessMetricForJavaOnClassLevel(CallGraph callGraph) throws IOException {
         // As we are only working on class level, we are using the dependencygraph here
-        DependencyGraph depGraph = callGraph.getDependencyGraphRepresentation();
+        DependencyGraph depGraph = callGraph.getDependencyGraphRepresentation(generalConf.getUnitRegistry());
 
         Map<IUnit, Set<String>> numDirectConnections = new HashMap<>();
         Set<String> units = new HashSet<>();
@@ -84,21 +89,26 @@ public class DirectnessCollector extends BaseMetricCollector {
             connectionsToClass.addAll(adjacentUnits);
             numDirectConnections.put(node, connectionsToClass);
         }
-        filer.storeResults(getResults(numDirectConnections, units.size()));
+        storeResults(numDirectConnections, units.size());
     }
 
-    private Set<Result> getResults(Map<IUnit, Set<String>> numDirectConnectionsPerTest, Integer numAllUnits) {
+    private void storeResults(Map<IUnit, Set<String>> numDirectConnectionsPerTest, Integer numAllUnits)
+            throws IOException {
         logger.debug("Got the following connections: {}", numDirectConnectionsPerTest);
 
-        Set<Result> results = new HashSet<>();
         DecimalFormat decimalFormat = new DecimalFormat("#0.0000");
-        for(Map.Entry<IUnit, Set<String>> entry: numDirectConnectionsPerTest.entrySet()) {
-            double percentDirectlyCovered = ((double) entry.getValue().size()*100) / (double) numAllUnits;
-            results.add(new Result(entry.getKey().getFQN(), entry.getKey().getFilePath(),
-                    "call_dire", decimalFormat.format(percentDirectlyCovered)));
+        try (ResultSink sink = filer.openSink()) {
+            for(Map.Entry<IUnit, Set<String>> entry: numDirectConnectionsPerTest.entrySet()) {
+                sink.accept(createResult(entry.getKey(), entry.getValue(), numAllUnits, decimalFormat));
+            }
+            sink.commit();
         }
+    }
 
-        return results;
+    private Result createResult(IUnit test, Set<String> directlyConnectedUnits, Integer numAllUnits,
+                                DecimalFormat decimalFormat) {
+        double percentDirectlyCovered = ((double) directlyConnectedUnits.size()*100) / (double) numAllUnits;
+        return new Result(test.getFQN(), test.getFilePath(), "call_dire", decimalFormat.format(percentDirectlyCovered));
     }
 
 }
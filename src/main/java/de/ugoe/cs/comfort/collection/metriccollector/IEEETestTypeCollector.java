@@ -27,7 +27,6 @@ import de.ugoe.cs.comfort.data.graphs.DependencyGraph;
 import de.ugoe.cs.comfort.data.graphs.IGraph;
 import de.ugoe.cs.comfort.data.models.IUnit;
 import de.ugoe.cs.comfort.filer.BaseFiler;
-import de.ugoe.cs.comfort.filer.models.Result;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -47,7 +46,7 @@ public class IEEETestTypeCollector extends BaseMetricCollector {
     @SupportsJava
     @SupportsPython
     public void createResultsJavaPythonClassLevelCallGraph(CallGraph callGraph) throws IOException {
-        filer.storeResults(classifyUsingGraph(callGraph.getDependencyGraphRepresentation(), "call_ieee"));
+        classifyUsingGraph(callGraph.getDependencyGraphRepresentation(generalConf.getUnitRegistry()), "call_ieee");
     }
 
 
@@ -56,7 +55,7 @@ public class IEEETestTypeCollector extends BaseMetricCollector {
     @SupportsJava
     @SupportsPython
     public void createResultsJavaPythonMethodLevelCallGraph(CallGraph graph) throws IOException {
-        filer.storeResults(classifyUsingGraph(graph, "call_ieee_met"));
+        classifyUsingGraph(graph, "call_ieee_met");
     }
 
 
@@ -64,7 +63,7 @@ public class IEEETestTypeCollector extends BaseMetricCollector {
     @SupportsPython
     @SupportsClass
     public void createResultsJavaPythonDepGraph(DependencyGraph dependencyGraph) throws IOException {
-        filer.storeResults(classifyUsingGraph(dependencyGraph, "dep_ieee"));
+        classifyUsingGraph(dependencyGraph, "dep_ieee");
     }
 
 
@@ -76,8 +75,7 @@ public class IEEETestTypeCollector extends BaseMetricCollector {
                 getUniqueTestedPackages(dataSet.getCoverageDataClassLevel());
 
         // Merge results from different methods on class level
-        filer.storeResults(TestTypeDetectionUtils.generateResults(generalConf, unitAndAmountOfPackagesTested,
-                generalConf.getMethodLevel(), "cov_ieee"));
+        TestTypeDetectionUtils.storeResults(filer, unitAndAmountOfPackagesTested, "cov_ieee");
     }
 
 
@@ -88,20 +86,18 @@ public class IEEETestTypeCollector extends BaseMetricCollector {
         Map<IUnit, Integer> unitAndAmountOfPackagesTested = getUniqueTestedPackages(dataSet.getCoverageData());
 
         // Merge results from different methods on class level
-        filer.storeResults(TestTypeDetectionUtils.generateResults(generalConf, unitAndAmountOfPackagesTested,
-                generalConf.getMethodLevel(), "cov_ieee_met"));
+        TestTypeDetectionUtils.storeResults(filer, unitAndAmountOfPackagesTested, "cov_ieee_met");
     }
 
 
 
 
-    private Set<Result> classifyUsingGraph(IGraph graph, String metricName) {
+    private void classifyUsingGraph(IGraph graph, String metricName) throws IOException {
         Map<IUnit, Set<IUnit>> callerCalleePairs =
                 TestTypeDetectionUtils.getCallPairsOnClassLevel(graph);
         Map<IUnit, Integer> testAndAmountOfPackagesTested = getUniqueTestedPackages(callerCalleePairs);
 
-        return TestTypeDetectionUtils.generateResults(generalConf, testAndAmountOfPackagesTested,
-                generalConf.getMethodLevel(), metricName);
+        TestTypeDetectionUtils.storeResults(filer, testAndAmountOfPackagesTested, metricName);
     }
 
 
@@ -27,7 +27,6 @@ import de.ugoe.cs.comfort.data.graphs.DependencyGraph;
 import de.ugoe.cs.comfort.data.graphs.IGraph;
 import de.ugoe.cs.comfort.data.models.IUnit;
 import de.ugoe.cs.comfort.filer.BaseFiler;
-import de.ugoe.cs.comfort.filer.models.Result;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -47,7 +46,7 @@ public class ISTQBTestTypeCollector extends BaseMetricCollector {
     @SupportsJava
     @SupportsPython
     public void createResultsJavaMethodLevelCallGraph(CallGraph graph) throws IOException {
-        filer.storeResults(classifyUsingGraph(graph, "call_istqb_met"));
+        classifyUsingGraph(graph, "call_istqb_met");
     }
 
     @SupportsClass
@@ -55,14 +54,14 @@ public class ISTQBTestTypeCollector extends BaseMetricCollector {
     @SupportsPython
     public void createResultsJavaClassLevelCallGraph(CallGraph callGraph) throws IOException {
         logger.warn("Using depedency graph representation of call graph for strategy {}", this.getClass().getName());
-        filer.storeResults(classifyUsingGraph(callGraph.getDependencyGraphRepresentation(), "call_istqb"));
+        classifyUsingGraph(callGraph.getDependencyGraphRepresentation(generalConf.getUnitRegistry()), "call_istqb");
     }
 
     @SupportsPython
     @SupportsJava
     @SupportsClass
     public void createResultsJavaPythonClassDepGraph(DependencyGraph dependencyGraph) throws IOException {
-        filer.storeResults(classifyUsingGraph(dependencyGraph, "dep_istqb"));
+        classifyUsingGraph(dependencyGraph, "dep_istqb");
     }
 
     @SupportsPython
@@ -72,8 +71,7 @@ public class ISTQBTestTypeCollector extends BaseMetricCollector {
         Map<IUnit, Integer> unitAndAmountOfPackagesTested = getUniqueTestedClasses(dataSet.getCoverageDataClassLevel());
 
         // Merge results from different methods on class level
-        filer.storeResults(TestTypeDetectionUtils.generateResults(generalConf, unitAndAmountOfPackagesTested,
-                generalConf.getMethodLevel(), "cov_istqb"));
+        TestTypeDetectionUtils.storeResults(filer, unitAndAmountOfPackagesTested, "cov_istqb");
     }
 
     @SupportsPython
@@ -83,8 +81,7 @@ public class ISTQBTestTypeCollector extends BaseMetricCollector {
         Map<IUnit, Integer> unitAndAmountOfPackagesTested = getUniqueTestedClasses(dataSet.getCoverageData());
 
         // Merge results from different methods on class level
-        filer.storeResults(TestTypeDetectionUtils.generateResults(generalConf, unitAndAmountOfPackagesTested,
-                generalConf.getMethodLevel(), "cov_istqb_met"));
+        TestTypeDetectionUtils.storeResults(filer, unitAndAmountOfPackagesTested, "cov_istqb_met");
     }
 
     private Map<IUnit, Integer> getUniqueTestedClasses(Map<IUnit, Set<IUnit>> callerCalleePairs) {
@@ -99,14 +96,13 @@ public class ISTQBTestTypeCollector extends BaseMetricCollector {
         return testAndAmountOfClassesTested;
     }
 
-    private Set<Result> classifyUsingGraph(IGraph graph, String metricName) {
+    private void classifyUsingGraph(IGraph graph, String metricName) throws IOException {
         Map<IUnit, Set<IUnit>> callerCalleePairs =
                 TestTypeDetectionUtils.getCallPairsOnClassLevel(graph);
         Map<IUnit, Integer> testAndAmountOfUnitsTested = new HashMap<>();
         callerCalleePairs.forEach((caller, callees) -> testAndAmountOfUnitsTested.put(caller, callees.size()));
 
-        return TestTypeDetectionUtils.generateResults(generalConf, testAndAmountOfUnitsTested,
-                generalConf.getMethodLevel(), metricName);
+        TestTypeDetectionUtils.storeResults(filer, testAndAmountOfUnitsTested, metricName);
     }
 
 
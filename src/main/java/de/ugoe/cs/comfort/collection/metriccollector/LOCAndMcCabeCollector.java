@@ -30,6 +30,7 @@ import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
 import de.ugoe.cs.comfort.data.ProjectFiles;
 import de.ugoe.cs.comfort.exception.MetricCollectorException;
 import de.ugoe.cs.comfort.filer.BaseFiler;
+import de.ugoe.cs.comfort.filer.ResultSink;
 import de.ugoe.cs.comfort.filer.models.Result;
 import java.io.BufferedReader;
 import java.io.File;
@@ -38,7 +39,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
-import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -96,71 +96,90 @@ public class LOCAndMcCabeCollector extends BaseMetricCollector {
         }
 
         builder.command("python3", tempFile.toString(), generalConf.getProjectDir().toString());
-        filer.storeResults(executeCommandAndGenerateGraph(builder));
+        try (ResultSink sink = filer.openSink()) {
+            executeCommandAndStoreResults(builder, sink);
+            sink.commit();
+        }
     }
 
-    private Set<Result> executeCommandAndGenerateGraph(ProcessBuilder builder) throws MetricCollectorException {
+    private void executeCommandAndStoreResults(ProcessBuilder builder, ResultSink sink)
+            throws MetricCollectorException {
         logger.info("Calling command: {}", builder.command());
-        int exitCode;
-        Future<Set<Result>> future;
+        Process depExtract;
         try {
-            Process depExtract = builder.start();
-            LOCAndMcCabeOutputParser outputParser =
-                    new LOCAndMcCabeOutputParser(depExtract.getInputStream());
+            depExtract = builder.start();
+        } catch (IOException e) {
+            throw new MetricCollectorException("Error in executing loader, while calling "
+                + builder.command().toString()+" :"+e.getMessage());
+        }
+
+        LOCAndMcCabeOutputParser outputParser = new LOCAndMcCabeOutputParser(depExtract.getInputStream(), sink);
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        Future<Void> future = executor.submit(outputParser);
+        executor.shutdown();
 
-            ExecutorService executor = Executors.newFixedThreadPool(1);
-            future = executor.submit(outputParser);
+        int exitCode;
+        try {
             exitCode = depExtract.waitFor();
-        } catch (IOException | InterruptedException e) {
+        } catch (InterruptedException e) {
+            // The parser must not give results to the sink anymore, after it is closed
+            depExtract.destroy();
+            future.cancel(true);
+            Thread.currentThread().interrupt();
             throw new MetricCollectorException("Error in executing loader, while calling "
                 + builder.command().toString()+" :"+e.getMessage());
         }
 
+        // The parser is finished before the sink is closed, also if the extractor failed
+        String parseError = null;
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            parseError = e.getMessage();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            parseError = e.getMessage();
+        }
+
         // Check if it returned successfully
         if (exitCode != 0) {
             throw new MetricCollectorException("Error in executing loader: Program did not terminate with code 0");
         }
 
-        Set<Result> results;
-        try {
-            results = future.get();
-        } catch (InterruptedException | ExecutionException e) {
-            throw new MetricCollectorException("Error in parsing results: "+e.getMessage());
+        if(parseError != null) {
+            throw new MetricCollectorException("Error in parsing results: "+parseError);
         }
         logger.info("Execution successful...");
-        return results;
     }
 
-    private class LOCAndMcCabeOutputParser implements Callable<Set<Result>> {
+    /**
+     * Parses the output of the extractor and streams each result to the sink, while the extractor is still running.
+     */
+    private class LOCAndMcCabeOutputParser implements Callable<Void> {
         private InputStream inputStream;
+        private ResultSink sink;
 
-        LOCAndMcCabeOutputParser(InputStream inputStream) {
+        LOCAndMcCabeOutputParser(InputStream inputStream, ResultSink sink) {
             this.inputStream = inputStream;
+            this.sink = sink;
         }
 
         @Override
-        public Set<Result> call() {
-            Set<Result> results = new HashSet<>();
-            try {
-                parseOutput(results);
-            } catch (UnsupportedEncodingException e) {
-                logger.error("Charset not supported!");
+        public Void call() throws IOException {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+            String outputLine;
+            while((outputLine = reader.readLine()) != null) {
+                logger.debug("Original extractor line: {}", outputLine);
+                String[] parts = outputLine.split(Pattern.quote("::"));
+                Result result = new Result(parts[1], Paths.get(parts[0]));
+                result.addMetric("mc_cabe_sg", parts[2]);
+                result.addMetric("mc_cabe_all", parts[3]);
+                result.addMetric("cloc", parts[4]);
+                result.addMetric("lloc", parts[5]);
+                sink.accept(result);
             }
-            return results;
-        }
-
-        private void parseOutput(Set<Result> results) throws UnsupportedEncodingException {
-            new BufferedReader(new InputStreamReader(inputStream , "UTF-8")).lines()
-                    .forEach(outputLine -> {
-                        logger.debug("Original extractor line: {}", outputLine);
-                        String[] parts = outputLine.split(Pattern.quote("::"));
-                        Result result = new Result(parts[1], Paths.get(parts[0]));
-                        result.addMetric("mc_cabe_sg", parts[2]);
-                        result.addMetric("mc_cabe_all", parts[3]);
-                        result.addMetric("cloc", parts[4]);
-                        result.addMetric("lloc", parts[5]);
-                        results.add(result);
-                    });
+            return null;
         }
     }
 
@@ -168,8 +187,7 @@ public class LOCAndMcCabeCollector extends BaseMetricCollector {
     @SupportsJava
     @SupportsClass
     public void getLOCAndMcCabeForJavaClass(ProjectFiles projectFiles) throws MetricCollectorException {
-        try {
-            Set<Result> results = new HashSet<>();
+        try (ResultSink sink = filer.openSink()) {
             for(Path testFile: projectFiles.getTestFiles()) {
                 // creates a string with the code without blank lines
                 String code = getSourceCodeWithoutBlankLines(testFile);
@@ -186,11 +204,10 @@ public class LOCAndMcCabeCollector extends BaseMetricCollector {
 
                 Path resultPath = Paths.get(testFile.toString()
                         .replace(generalConf.getProjectDir().toString()+"/", ""));
-                results.add(createResultWithMetrics(astClassNode.getFQN(), resultPath, null,
+                sink.accept(createResultWithMetrics(astClassNode.getFQN(), resultPath, null,
                         astClassNode.getLLOC(), astClassNode.getCLOC()));
             }
-
-            filer.storeResults(results);
+            sink.commit();
         } catch (IOException e) {
             throw new MetricCollectorException("Could not collect metrics: "+e.getMessage());
         }
@@ -199,8 +216,7 @@ public class LOCAndMcCabeCollector extends BaseMetricCollector {
     @SupportsJava
     @SupportsMethod
     public void getLOCAndMcCabeForJavaMethod(ProjectFiles projectFiles) throws MetricCollectorException {
-        try {
-            Set<Result> results = new HashSet<>();
+        try (ResultSink sink = filer.openSink()) {
             for(Path testFile: projectFiles.getTestFiles()) {
                 // creates a string with the code without blank lines
                 String code = getSourceCodeWithoutBlankLines(testFile);
@@ -218,12 +234,11 @@ public class LOCAndMcCabeCollector extends BaseMetricCollector {
                         .replace(generalConf.getProjectDir().toString()+"/", ""));
 
                 for(ASTMethodNode astMethodNode: astResults) {
-                    results.add(createResultWithMetrics(astMethodNode.getFQNWithMethod(), resultPath,
+                    sink.accept(createResultWithMetrics(astMethodNode.getFQNWithMethod(), resultPath,
                             astMethodNode.getMcCC(), astMethodNode.getLLOC(), astMethodNode.getCLOC()));
                 }
             }
-
-            filer.storeResults(results);
+            sink.commit();
         } catch (IOException e) {
             throw new MetricCollectorException("Could not collect metrics: "+e.getMessage());
         }
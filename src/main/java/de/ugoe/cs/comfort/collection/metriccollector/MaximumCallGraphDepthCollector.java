@@ -27,20 +27,16 @@ import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
 import de.ugoe.cs.comfort.data.graphs.CallGraph;
 import de.ugoe.cs.comfort.data.models.IUnit;
 import de.ugoe.cs.comfort.filer.BaseFiler;
+import de.ugoe.cs.comfort.filer.ResultSink;
 import de.ugoe.cs.comfort.filer.models.Result;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.Callable;
-import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorCompletionService;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 /**
  * @author Fabian Trautsch
@@ -56,7 +52,7 @@ public class MaximumCallGraphDepthCollector extends BaseMetricCollector {
     @SupportsMethod
     public void getMaximumDepthForJavaOnMethodLevel(CallGraph callGraph) throws IOException {
         Map<String, Integer> longestPathForTest = getLongestPathToNodes(callGraph);
-        filer.storeResults(generateResults(longestPathForTest));
+        storeResults(longestPathForTest);
     }
 
     @SupportsJava
@@ -72,76 +68,44 @@ public class MaximumCallGraphDepthCollector extends BaseMetricCollector {
         }
         logger.debug("Generated the following results for class level {}", classResults);
 
-        filer.storeResults(generateResults(classResults));
+        storeResults(classResults);
     }
 
     private Map<String, Integer> getLongestPathToNodes(CallGraph callGraph) {
-        Map<String, Integer> longestPathForTest = new HashMap<>();
+        BreadthFirstDepthCalculator depthCalculator = new BreadthFirstDepthCalculator(callGraph);
+        Set<IUnit> testNodes = callGraph.getTestNodes();
 
         // We do concurrency here, as it is much faster for this heavy task
-        final ExecutorService executorService = Executors.newFixedThreadPool(generalConf.getNThreads());
-        CompletionService<Map<String, Integer>> pool = new ExecutorCompletionService<>(executorService);
-
-
-        for(IUnit node: callGraph.getTestNodes()) {
-            pool.submit(new LongestPathCalculator(node, callGraph));
-        }
-
-        for(IUnit node: callGraph.getTestNodes()) {
-            try {
-                Map<String, Integer> result = pool.take().get();
-                longestPathForTest.putAll(result);
-            } catch (InterruptedException | ExecutionException e) {
-                logger.catching(e);
-            }
+        ForkJoinPool forkJoinPool = new ForkJoinPool(Math.max(1, generalConf.getNThreads()));
+        try {
+            return forkJoinPool.submit(() -> testNodes.parallelStream().collect(Collectors.toMap(
+                    IUnit::getFQN,
+                    node -> {
+                        int maximumPath = depthCalculator.getMaximumDepth(node);
+                        logger.debug("Node {} has the maximum path of {}", node.getFQN(), maximumPath);
+                        return maximumPath;
+                    },
+                    Math::max))).get();
+        } catch (InterruptedException | ExecutionException e) {
+            logger.catching(e);
+            return new HashMap<>();
+        } finally {
+            forkJoinPool.shutdown();
         }
-        executorService.shutdown();
-
-        return longestPathForTest;
     }
 
-    private Set<Result> generateResults(Map<String, Integer> longesPathToNodes) {
-        Set<Result> results = new HashSet<>();
-        for(Map.Entry<String, Integer> entry: longesPathToNodes.entrySet()) {
-            try {
-                results.add(new Result(entry.getKey(),
-                        fileNameUtils.getPathForIdentifier(entry.getKey(), generalConf.getMethodLevel()),
-                        "call_path", String.valueOf(entry.getValue())));
-            } catch (FileNotFoundException e) {
-                logger.warn("Could not find Path for node {}...", entry.getKey());
-            }
-        }
-        return results;
-    }
-
-
-
-    private class LongestPathCalculator implements Callable<Map<String, Integer>> {
-        private IUnit node;
-        private DijkstraAlgorithm dijkstraAlgorithm;
-        private CallGraph callGraph;
-
-        public LongestPathCalculator(IUnit node, CallGraph callGraph) {
-            this.node = node;
-            this.dijkstraAlgorithm = new DijkstraAlgorithm(callGraph);
-            this.callGraph = callGraph;
-        }
-
-        @Override
-        public Map<String, Integer> call() throws Exception {
-            // Get depth
-            dijkstraAlgorithm.execute(node);
-            int maximumPath = 0;
-            for(IUnit productionNode: callGraph.getProductionNodes()) {
-                LinkedList<IUnit> shortestPathToNode = dijkstraAlgorithm.getPath(productionNode);
-                if(shortestPathToNode != null) {
-                    maximumPath = max(maximumPath, shortestPathToNode.size()-1);
+    private void storeResults(Map<String, Integer> longesPathToNodes) throws IOException {
+        try (ResultSink sink = filer.openSink()) {
+            for(Map.Entry<String, Integer> entry: longesPathToNodes.entrySet()) {
+                try {
+                    sink.accept(new Result(entry.getKey(),
+                            fileNameUtils.getPathForIdentifier(entry.getKey(), generalConf.getMethodLevel()),
+                            "call_path", String.valueOf(entry.getValue())));
+                } catch (FileNotFoundException e) {
+                    logger.warn("Could not find Path for node {}...", entry.getKey());
                 }
             }
-            logger.debug("Node {} has the maximum path of {}", node.getFQN(), maximumPath);
-            Map<String, Integer> callResult = new HashMap<>(1);
-            callResult.put(node.getFQN(), maximumPath);
-            return callResult;
+            sink.commit();
         }
     }
 }
@@ -22,7 +22,6 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListenableFutureTask;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
-import de.ugoe.cs.comfort.Utils;
 import de.ugoe.cs.comfort.annotations.SupportsJava;
 import de.ugoe.cs.comfort.annotations.SupportsMethod;
 import de.ugoe.cs.comfort.collection.metriccollector.mutation.MutationDataCollectorThread;
@@ -73,7 +72,7 @@ public class MutationDataCollector extends BaseMetricCollector {
         // this here, as we need to store the build file in the corresponding directory. If we then delete it
         // afterwards (or one thread deletes it while another thread is getting all files in the directory) we
         // will throw an exception
-        Set<Path> javaFiles = Utils.getAllFilesFromProjectForRegex(generalConf.getProjectDir(), ".*\\.java");
+        Set<Path> javaFiles = generalConf.getFileCatalog().getFiles(generalConf.getProjectDir(), ".*\\.java");
 
         // Create a list of futures, we add them here so that we can wait for completion
         List<ListenableFuture<Void>> futures = new ArrayList<>();
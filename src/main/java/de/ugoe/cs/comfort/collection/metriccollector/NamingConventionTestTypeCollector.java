@@ -26,6 +26,7 @@ import de.ugoe.cs.comfort.data.CoverageData;
 import de.ugoe.cs.comfort.data.ProjectFiles;
 import de.ugoe.cs.comfort.data.models.IUnit;
 import de.ugoe.cs.comfort.filer.BaseFiler;
+import de.ugoe.cs.comfort.filer.ResultSink;
 import de.ugoe.cs.comfort.filer.models.Result;
 import java.io.IOException;
 import java.nio.file.Path;
@@ -59,23 +60,24 @@ public class NamingConventionTestTypeCollector extends BaseMetricCollector {
         );
         logger.debug("Found the following java code filenames: {}", codeFileNamesWithoutTests);
 
-        // Create filer map
-        Set<Result> result = new HashSet<>();
-        for(Path testFile: projectFiles.getTestFiles()) {
-            result.add(classifyTestFile(testFile.toString(), testFile, codeFileNamesWithoutTests, "files_nc"));
+        // Stream the classification of each test file to the filer
+        try (ResultSink sink = filer.openSink()) {
+            for(Path testFile: projectFiles.getTestFiles()) {
+                Result result = classifyTestFile(testFile.toString(), testFile, codeFileNamesWithoutTests,
+                        "files_nc");
+                logger.debug("Got the following classification result: {}", result);
+                sink.accept(result);
+            }
+            sink.commit();
         }
-
-        logger.debug("Got the following classification results: {}", result);
-        filer.storeResults(result);
     }
 
     @SupportsPython
     @SupportsJava
     @SupportsMethod
     public void createResults(CoverageData coverageData) {
-        try {
-            // Create filer map
-            Set<Result> result = new HashSet<>();
+        // Stream the classification of each test to the filer
+        try (ResultSink sink = filer.openSink()) {
             for(Map.Entry<IUnit, Set<IUnit>> unit: coverageData.getCoverageData().entrySet()) {
                 Set<String> coveredUnits = new HashSet<>();
                 for(IUnit coveredUnit: unit.getValue()) {
@@ -87,11 +89,11 @@ public class NamingConventionTestTypeCollector extends BaseMetricCollector {
                 Path testPath = fileNameUtils.getPathForIdentifier(unit.getKey().getFQN(),
                         generalConf.getMethodLevel());
 
-                result.add(classifyTestFile(unit.getKey().getFQN(), testPath, coveredUnits, "cov_nc"));
+                Result result = classifyTestFile(unit.getKey().getFQN(), testPath, coveredUnits, "cov_nc");
+                logger.debug("Got the following classification result: {}", result);
+                sink.accept(result);
             }
-
-            logger.debug("Got the following classification results: {}", result);
-            filer.storeResults(result);
+            sink.commit();
         } catch (IOException e) {
             logger.catching(e);
         }
@@ -16,6 +16,7 @@
 
 package de.ugoe.cs.comfort.collection.metriccollector;
 
+import de.ugoe.cs.comfort.ClassFileSource;
 import de.ugoe.cs.comfort.annotations.SupportsClass;
 import de.ugoe.cs.comfort.annotations.SupportsJava;
 import de.ugoe.cs.comfort.annotations.SupportsMethod;
@@ -28,6 +29,7 @@ import de.ugoe.cs.comfort.data.graphs.CallGraph;
 import de.ugoe.cs.comfort.data.models.IUnit;
 import de.ugoe.cs.comfort.exception.MetricCollectorException;
 import de.ugoe.cs.comfort.filer.BaseFiler;
+import de.ugoe.cs.comfort.filer.ResultSink;
 import de.ugoe.cs.comfort.filer.models.Result;
 import java.io.IOException;
 import java.nio.file.Path;
@@ -52,15 +54,18 @@ public class NumAssertionCollector extends BaseMetricCollector {
         ClassParser cp;
         Set<Path> testClassFiles = classFiles.getTestFiles();
 
-        try {
-            Set<Result> results = new HashSet<>();
+        // The results of each class file are independent of each other and are streamed to the filer directly
+        try (ResultSink sink = filer.openSink()) {
             for(Path classFilePath: testClassFiles) {
-                cp = new ClassParser(classFilePath.toString());
+                Set<Result> results = new HashSet<>();
+                cp = new ClassParser(ClassFileSource.openStream(classFilePath),
+                        ClassFileSource.getLocation(classFilePath));
                 MetricClassVisitor visitor = new MetricClassVisitor(cp.parse(), results, generalConf,
                         generalConf.getMethodLevel(), classFiles);
                 visitor.start();
+                sink.acceptAll(results);
             }
-            filer.storeResults(results);
+            sink.commit();
         } catch (IOException e) {
             throw new MetricCollectorException("Error in executing NumAssertionCollector: "+e.getMessage());
         }
@@ -86,9 +91,12 @@ public class NumAssertionCollector extends BaseMetricCollector {
             allResults.put(testNode.getFQN(), result);
         }
 
-        Set<Result> results = new HashSet<>();
-        results.addAll(allResults.values());
-        filer.storeResults(results);
+        // The number of assertions is summed up over all nodes with the same id, therefore, the results can only
+        // be given to the filer afterwards
+        try (ResultSink sink = filer.openSink()) {
+            sink.acceptAll(allResults.values());
+            sink.commit();
+        }
     }
 
     @SupportsClass
@@ -112,9 +120,10 @@ public class NumAssertionCollector extends BaseMetricCollector {
             allResults.put(testNode.getFQNOfUnit(), result);
         }
 
-        Set<Result> results = new HashSet<>();
-        results.addAll(allResults.values());
-        filer.storeResults(results);
+        try (ResultSink sink = filer.openSink()) {
+            sink.acceptAll(allResults.values());
+            sink.commit();
+        }
     }
 
 }
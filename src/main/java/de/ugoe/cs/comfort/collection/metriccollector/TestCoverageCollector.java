@@ -26,6 +26,7 @@ import de.ugoe.cs.comfort.data.graphs.CallGraph;
 import de.ugoe.cs.comfort.data.graphs.DependencyGraph;
 import de.ugoe.cs.comfort.data.models.IUnit;
 import de.ugoe.cs.comfort.filer.BaseFiler;
+import de.ugoe.cs.comfort.filer.ResultSink;
 import de.ugoe.cs.comfort.filer.models.Result;
 import java.io.IOException;
 import java.util.HashMap;
@@ -54,7 +55,7 @@ public class TestCoverageCollector extends BaseMetricCollector{
             testAndCoveredMethods.put(entry.getKey(), coveredMethods);
         }
 
-        filer.storeResults(createResultsForMap(testAndCoveredMethods, true, "cov_tcov_met"));
+        storeResultsForMap(testAndCoveredMethods, true, "cov_tcov_met");
     }
 
 
@@ -70,7 +71,7 @@ public class TestCoverageCollector extends BaseMetricCollector{
             testAndCoveredMethods.put(entry.getKey(), coveredMethods);
         }
 
-        filer.storeResults(createResultsForMap(testAndCoveredMethods, false, "cov_tcov"));
+        storeResultsForMap(testAndCoveredMethods, false, "cov_tcov");
     }
 
     @SupportsJava
@@ -85,22 +86,22 @@ public class TestCoverageCollector extends BaseMetricCollector{
             entry.getValue().forEach(testedMethod -> coveredMethods.add(testedMethod.getFQNOfUnit()));
             testAndCoveredMethods.put(entry.getKey(), coveredMethods);
         }
-        filer.storeResults(createResultsForMap(testAndCoveredMethods, true, "call_tcov_met"));
+        storeResultsForMap(testAndCoveredMethods, true, "call_tcov_met");
     }
 
     @SupportsJava
     @SupportsPython
     @SupportsClass
     public void createResultsForCallGraphClassLevel(CallGraph callGraph) throws IOException {
-        Map<IUnit, Set<IUnit>> callerCalleePairs =
-                TestTypeDetectionUtils.getCallPairsOnClassLevel(callGraph.getDependencyGraphRepresentation());
+        Map<IUnit, Set<IUnit>> callerCalleePairs = TestTypeDetectionUtils.getCallPairsOnClassLevel(
+                callGraph.getDependencyGraphRepresentation(generalConf.getUnitRegistry()));
         Map<IUnit, Set<String>> testAndCoveredMethods = new HashMap<>();
         for (Map.Entry<IUnit, Set<IUnit>> entry : callerCalleePairs.entrySet()) {
             Set<String> coveredMethods = testAndCoveredMethods.getOrDefault(entry.getKey(), new HashSet<>());
             entry.getValue().forEach(testedMethod -> coveredMethods.add(testedMethod.getFQNOfUnit()));
             testAndCoveredMethods.put(entry.getKey(), coveredMethods);
         }
-        filer.storeResults(createResultsForMap(testAndCoveredMethods, false, "call_tcov"));
+        storeResultsForMap(testAndCoveredMethods, false, "call_tcov");
     }
 
     @SupportsPython
@@ -115,11 +116,11 @@ public class TestCoverageCollector extends BaseMetricCollector{
             entry.getValue().forEach(testedMethod -> coveredMethods.add(testedMethod.getFQNOfUnit()));
             testAndCoveredMethods.put(entry.getKey(), coveredMethods);
         }
-        filer.storeResults(createResultsForMap(testAndCoveredMethods, false, "dep_tcov"));
+        storeResultsForMap(testAndCoveredMethods, false, "dep_tcov");
     }
 
-    private Set<Result> createResultsForMap(Map<IUnit, Set<String>> testAndCoveredMethods,
-                                            boolean methodLevel, String metricName) {
+    private void storeResultsForMap(Map<IUnit, Set<String>> testAndCoveredMethods,
+                                    boolean methodLevel, String metricName) throws IOException {
         // First we need to go through everything and get the number of all covered methods by all tests
         Set<String> allCoveredMethods = new HashSet<>();
         for(Map.Entry<IUnit, Set<String>> entry: testAndCoveredMethods.entrySet()) {
@@ -128,12 +129,13 @@ public class TestCoverageCollector extends BaseMetricCollector{
         int overallCoveredMethods = allCoveredMethods.size();
 
         // Afterwards we calculate the percentage of covered methods for all tests
-        Set<Result> results = new HashSet<>();
-        for (Map.Entry<IUnit, Set<String>> entry : testAndCoveredMethods.entrySet()) {
-            int percent = (100 * entry.getValue().size() / overallCoveredMethods);
-            results.add(new Result(entry.getKey().getFQN(), entry.getKey().getFilePath(), metricName,
-                    String.valueOf(percent)));
+        try (ResultSink sink = filer.openSink()) {
+            for (Map.Entry<IUnit, Set<String>> entry : testAndCoveredMethods.entrySet()) {
+                int percent = (100 * entry.getValue().size() / overallCoveredMethods);
+                sink.accept(new Result(entry.getKey().getFQN(), entry.getKey().getFilePath(), metricName,
+                        String.valueOf(percent)));
+            }
+            sink.commit();
         }
-        return results;
     }
 }
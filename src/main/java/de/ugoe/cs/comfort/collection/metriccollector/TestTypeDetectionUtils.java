@@ -16,12 +16,14 @@
 
 package de.ugoe.cs.comfort.collection.metriccollector;
 
-import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
 import de.ugoe.cs.comfort.data.graphs.IGraph;
+import de.ugoe.cs.comfort.data.graphs.ReachabilityIndex;
 import de.ugoe.cs.comfort.data.models.IUnit;
+import de.ugoe.cs.comfort.filer.BaseFiler;
+import de.ugoe.cs.comfort.filer.ResultSink;
 import de.ugoe.cs.comfort.filer.models.Result;
+import java.io.IOException;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import org.apache.logging.log4j.LogManager;
@@ -37,63 +39,54 @@ class TestTypeDetectionUtils {
     static Map<IUnit, Set<IUnit>> getCallPairsOnClassLevel(IGraph graph) {
         LOGGER.info("Getting caller/callee pairs on class level...");
 
+        // The index is shared by all collectors that work on this graph
+        ReachabilityIndex reachabilityIndex = graph.getReachabilityIndex();
+
         Map<IUnit, Set<IUnit>> classesWithItsCallees = new HashMap<>();
         for(IUnit classNode: graph.nodes()) {
-            String fqnOfClass = classNode.getFQNOfUnit();
-
             // Only check tests
             if(classNode.isTestBasedOnFQNofUnit()) {
                 LOGGER.debug("Looking at test {}", classNode);
 
-                // Only visit every node once
-                Set<IUnit> visitedNodes = new HashSet<>();
-
-                // Traverse Graph from this node and store all visited nodes in the set
-                traverseGraphFromNode(graph, classNode, visitedNodes);
-
-                // Remove the test node (as it do not have a dependency on itself)
-                visitedNodes.remove(classNode);
-
-                // Get all callees from the class that we are looking at and add the calls from the method of this
-                // class to the set of callees
-                Set<IUnit> callees = classesWithItsCallees.containsKey(classNode)
-                        ? classesWithItsCallees.get(classNode) : new HashSet<>();
-                callees.addAll(visitedNodes);
+                // All nodes that can be reached from this node (without the test node itself, as it do not have a
+                // dependency on itself)
+                Set<IUnit> callees = reachabilityIndex.getReachableUnits(classNode);
                 classesWithItsCallees.put(classNode, callees);
 
-                LOGGER.debug("It has the following nodes as dependencies: {}", visitedNodes);
+                LOGGER.debug("It has the following nodes as dependencies: {}", callees);
             }
         }
         return classesWithItsCallees;
     }
 
-    static Set<Result> generateResults(GeneralConfiguration configuration, Map<IUnit, Integer> testAndUniqueUnitsTested,
-                                       Boolean executeOnMethodLevel, String metricName) {
-        // Create our filer set
-        Set<Result> results = new HashSet<>();
-
-        // Go through each entry of the caller-callee-pairs
-        for (Map.Entry<IUnit, Integer> entry : testAndUniqueUnitsTested.entrySet()) {
-            Result result = new Result(entry.getKey().getFQN(), entry.getKey().getFilePath());
-
-            // If the test only has one dependency -> its an unit test
-            // If it has 0 dependencies -> its unknown
-            // Otherwise -> integration test
-            switch (entry.getValue()) {
-                case 0:
-                    result.addMetric(metricName, TestType.UNKNOWN.name());
-                    break;
-                case 1:
-                    result.addMetric(metricName, TestType.UNIT.name());
-                    break;
-                default:
-                    result.addMetric(metricName, TestType.INTEGRATION.name());
+    static void storeResults(BaseFiler filer, Map<IUnit, Integer> testAndUniqueUnitsTested, String metricName)
+            throws IOException {
+        // Results are streamed to the filer test by test
+        try (ResultSink sink = filer.openSink()) {
+            for (Map.Entry<IUnit, Integer> entry : testAndUniqueUnitsTested.entrySet()) {
+                sink.accept(createResult(entry.getKey(), entry.getValue(), metricName));
             }
-
-            results.add(result);
+            sink.commit();
         }
+    }
 
-        return results;
+    private static Result createResult(IUnit test, int numberOfUniqueUnitsTested, String metricName) {
+        Result result = new Result(test.getFQN(), test.getFilePath());
+
+        // If the test only has one dependency -> its an unit test
+        // If it has 0 dependencies -> its unknown
+        // Otherwise -> integration test
+        switch (numberOfUniqueUnitsTested) {
+            case 0:
+                result.addMetric(metricName, TestType.UNKNOWN.name());
+                break;
+            case 1:
+                result.addMetric(metricName, TestType.UNIT.name());
+                break;
+            default:
+                result.addMetric(metricName, TestType.INTEGRATION.name());
+        }
+        return result;
     }
 
     /*
@@ -134,18 +127,4 @@ class TestTypeDetectionUtils {
         return testGranularities;
     }
     */
-
-    private static void traverseGraphFromNode(IGraph graph, IUnit node, Set<IUnit> visitedNodes) {
-        visitedNodes.add(node);
-
-        if(graph.successors(node).size() == 0) {
-            return;
-        }
-
-        for(IUnit successorNode: graph.successors(node)) {
-            if(!visitedNodes.contains(successorNode)) {
-                traverseGraphFromNode(graph, successorNode, visitedNodes);
-            }
-        }
-    }
 }
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.configuration;
+
+import com.google.common.base.MoreObjects;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of a batch run, in which several projects are analyzed within one JVM. Each project is described by
+ * its own config.json, which is the same as for a normal run.
+ *
+ * <p>The memory that is needed for a project is estimated via the size of its files:
+ * baseMemoryPerProject + bytesPerProjectByte * size of all files. Projects are only started, if their estimated
+ * memory fits into the memoryBudget together with the projects that are already running.</p>
+ *
+ * @author Fabian Trautsch
+ */
+public class BatchConfiguration {
+    private static final long MEGABYTE = 1024 * 1024;
+
+    private List<String> projects = new ArrayList<>();
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int maxConcurrentProjects = 0;
+    private long memoryBudget = Runtime.getRuntime().maxMemory() / 4 * 3;
+    private long baseMemoryPerProject = 64 * MEGABYTE;
+    private double bytesPerProjectByte = 20.0;
+    private String reportFile = "/tmp/comfort-batch.report.json";
+    private String logLevel = "INFO";
+    private String logFile = "/tmp/comfort-batch.out";
+
+    public List<String> getProjects() {
+        return projects;
+    }
+
+    public void setProjects(List<String> projects) {
+        this.projects = projects;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Returns the number of projects that are executed at the same time. If not set, it is equal to the parallelism.
+     *
+     * @return maximal number of concurrently executed projects
+     */
+    public int getMaxConcurrentProjects() {
+        return maxConcurrentProjects > 0 ? maxConcurrentProjects : parallelism;
+    }
+
+    public void setMaxConcurrentProjects(int maxConcurrentProjects) {
+        this.maxConcurrentProjects = maxConcurrentProjects;
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    public void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    public long getBaseMemoryPerProject() {
+        return baseMemoryPerProject;
+    }
+
+    public void setBaseMemoryPerProject(long baseMemoryPerProject) {
+        this.baseMemoryPerProject = baseMemoryPerProject;
+    }
+
+    public double getBytesPerProjectByte() {
+        return bytesPerProjectByte;
+    }
+
+    public void setBytesPerProjectByte(double bytesPerProjectByte) {
+        this.bytesPerProjectByte = bytesPerProjectByte;
+    }
+
+    public String getReportFile() {
+        return reportFile;
+    }
+
+    public void setReportFile(String reportFile) {
+        this.reportFile = reportFile;
+    }
+
+    public String getLogLevel() {
+        return logLevel;
+    }
+
+    public void setLogLevel(String logLevel) {
+        this.logLevel = logLevel;
+    }
+
+    public String getLogFile() {
+        return logFile;
+    }
+
+    public void setLogFile(String logFile) {
+        this.logFile = logFile;
+    }
+
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("projects", projects.size())
+                .add("parallelism", parallelism)
+                .add("maxConcurrentProjects", getMaxConcurrentProjects())
+                .add("memoryBudget", memoryBudget)
+                .toString();
+    }
+}
@@ -31,6 +31,12 @@ import java.util.List;
  */
 public class CollectionConfiguration {
 
+    @JsonProperty("name")
+    private String name;
+
+    @JsonProperty("dependsOn")
+    private List<String> dependsOn = new ArrayList<>();
+
     @JsonProperty("loader")
     private LoaderConfiguration loaderConf;
 
@@ -39,12 +45,36 @@ public class CollectionConfiguration {
         return loaderConf;
     }
 
+    public void setLoaderConfiguration(LoaderConfiguration loaderConf) {
+        this.loaderConf = loaderConf;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public List<String> getDependsOn() {
+        return dependsOn;
+    }
+
+    public void setDependsOn(List<String> dependsOn) {
+        this.dependsOn = dependsOn;
+    }
+
     @JsonProperty("filters")
     private List<String> filterConf = new ArrayList<>();
 
     @JsonProperty("collectors")
     private List<String> collectorConf = new ArrayList<>();
 
+    public void setCollectors(List<String> collectorConf) {
+        this.collectorConf = collectorConf;
+    }
+
     public BaseLoader getLoader(GeneralConfiguration conf) throws ClassNotFoundException, NoSuchMethodException,
             IllegalAccessException, InvocationTargetException, InstantiationException {
         return (BaseLoader) Class
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.configuration;
+
+import com.google.common.base.MoreObjects;
+import de.ugoe.cs.comfort.FileCatalog;
+import de.ugoe.cs.comfort.filer.DatastorePool;
+
+/**
+ * Configuration of the daemon mode. The limits define how many entries the caches, which are shared between the jobs,
+ * may contain.
+ *
+ * @author Fabian Trautsch
+ */
+public class DaemonConfiguration {
+    private int port = 8090;
+    private int jobThreads = 1;
+    private int collectionThreads = Runtime.getRuntime().availableProcessors();
+    private int maxCachedDataSets = 32;
+    private int maxCachedProjects = FileCatalog.DEFAULT_MAXIMUM_PROJECTS;
+    private int maxDatabaseConnections = DatastorePool.DEFAULT_MAXIMUM_CONNECTIONS;
+    private int maxRetainedJobs = 1000;
+    private String logLevel = "INFO";
+    private String logFile = "/tmp/comfort-daemon.out";
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public int getJobThreads() {
+        return jobThreads;
+    }
+
+    public void setJobThreads(int jobThreads) {
+        this.jobThreads = jobThreads;
+    }
+
+    public int getCollectionThreads() {
+        return collectionThreads;
+    }
+
+    public void setCollectionThreads(int collectionThreads) {
+        this.collectionThreads = collectionThreads;
+    }
+
+    public int getMaxCachedDataSets() {
+        return maxCachedDataSets;
+    }
+
+    public void setMaxCachedDataSets(int maxCachedDataSets) {
+        this.maxCachedDataSets = maxCachedDataSets;
+    }
+
+    public int getMaxCachedProjects() {
+        return maxCachedProjects;
+    }
+
+    public void setMaxCachedProjects(int maxCachedProjects) {
+        this.maxCachedProjects = maxCachedProjects;
+    }
+
+    public int getMaxDatabaseConnections() {
+        return maxDatabaseConnections;
+    }
+
+    public void setMaxDatabaseConnections(int maxDatabaseConnections) {
+        this.maxDatabaseConnections = maxDatabaseConnections;
+    }
+
+    public int getMaxRetainedJobs() {
+        return maxRetainedJobs;
+    }
+
+    public void setMaxRetainedJobs(int maxRetainedJobs) {
+        this.maxRetainedJobs = maxRetainedJobs;
+    }
+
+    public String getLogLevel() {
+        return logLevel;
+    }
+
+    public void setLogLevel(String logLevel) {
+        this.logLevel = logLevel;
+    }
+
+    public String getLogFile() {
+        return logFile;
+    }
+
+    public void setLogFile(String logFile) {
+        this.logFile = logFile;
+    }
+
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("port", port)
+                .add("jobThreads", jobThreads)
+                .add("collectionThreads", collectionThreads)
+                .add("maxCachedDataSets", maxCachedDataSets)
+                .add("maxCachedProjects", maxCachedProjects)
+                .add("maxDatabaseConnections", maxDatabaseConnections)
+                .toString();
+    }
+}
@@ -17,6 +17,8 @@
 package de.ugoe.cs.comfort.configuration;
 
 import com.google.common.base.MoreObjects;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
 
 /**
  * @author Fabian Trautsch
@@ -88,6 +90,41 @@ public class Database {
         ssl = sslEnabled;
     }
 
+    @Override
+    public boolean equals(Object obj) {
+        if(!(obj instanceof Database)) {
+            return false;
+        }
+
+        if(obj == this) {
+            return true;
+        }
+
+        Database otherDatabase = (Database) obj;
+        return new EqualsBuilder()
+                .append(hostname, otherDatabase.hostname)
+                .append(port, otherDatabase.port)
+                .append(database, otherDatabase.database)
+                .append(username, otherDatabase.username)
+                .append(password, otherDatabase.password)
+                .append(authenticationDatabase, otherDatabase.authenticationDatabase)
+                .append(ssl, otherDatabase.ssl)
+                .isEquals();
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder(17, 31)
+                .append(hostname)
+                .append(port)
+                .append(database)
+                .append(username)
+                .append(password)
+                .append(authenticationDatabase)
+                .append(ssl)
+                .toHashCode();
+    }
+
     public String toString() {
         return MoreObjects.toStringHelper(this)
                 .add("hostname", hostname)
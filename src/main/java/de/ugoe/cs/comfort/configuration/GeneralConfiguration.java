@@ -17,14 +17,23 @@
 package de.ugoe.cs.comfort.configuration;
 
 import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.MoreObjects;
+import de.ugoe.cs.comfort.ClassFileSource;
+import de.ugoe.cs.comfort.FileCatalog;
+import de.ugoe.cs.comfort.collection.loader.callgraph.CallGraphFrontend;
+import de.ugoe.cs.comfort.data.graphs.GraphBackend;
+import de.ugoe.cs.comfort.data.graphs.export.GraphExportFormat;
+import de.ugoe.cs.comfort.data.models.UnitRegistry;
 import de.ugoe.cs.comfort.filer.BaseFiler;
+import de.ugoe.cs.comfort.instrumentation.MetricsRegistry;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 
 /**
@@ -37,9 +46,46 @@ public class GeneralConfiguration {
     private String logLevel = "DEBUG";
     private String logFile = "/tmp/comfort.out";
 
+    private String snapshotDir = null;
+
+    // Either "guava", "compact" or "off_heap", see GraphBackend
+    private String graphBackend = "guava";
+
+    // Either "bcel" or "asm", see CallGraphFrontend
+    private String callGraphFrontend = "bcel";
+
+    // Directory into which the ExportGraphFilter writes the graphs
+    private String graphExportDir = null;
+
+    // Either "dot", "graphml" or "csv", see GraphExportFormat
+    private String graphExportFormat = "dot";
+
+    private boolean graphExportCompressed = false;
+
+    // If set, the class files inside of jar and zip archives of the project are read as well
+    private boolean readClassFileArchives = false;
+
+    @JsonIgnore
+    private final MetricsRegistry metricsRegistry = new MetricsRegistry();
+
+    @JsonIgnore
+    private final UnitRegistry unitRegistry = new UnitRegistry();
+
+    // Can be shared between several runs (e.g., in the daemon mode)
+    @JsonIgnore
+    private FileCatalog fileCatalog = new FileCatalog();
+
+    // Can be shared between several runs (e.g., in the daemon mode)
+    @JsonIgnore
+    private ClassFileSource classFileSource = new ClassFileSource();
+
     @JsonProperty("nThreads")
     private int nThreads = 1;
 
+    // Number of collections that are executed in parallel. Each collection can use up to nThreads threads itself.
+    @JsonProperty("collectionThreads")
+    private int collectionThreads = 1;
+
     private boolean methodLevel = false;
 
     @JsonProperty("collections")
@@ -48,6 +94,14 @@ public class GeneralConfiguration {
     @JsonProperty("filer")
     private FilerConfiguration filerConfiguration = new FilerConfiguration();
 
+    // If set, several revisions of the project are analyzed
+    @JsonProperty("revisions")
+    private RevisionConfiguration revisionConfiguration = null;
+
+    // Revision that is currently analyzed, if revisions are analyzed
+    @JsonIgnore
+    private String revision = null;
+
     @JsonGetter("filer")
     public FilerConfiguration getFilerConfiguration() {
         return filerConfiguration;
@@ -57,6 +111,25 @@ public class GeneralConfiguration {
         this.filerConfiguration = filerConfiguration;
     }
 
+    @JsonGetter("revisions")
+    public RevisionConfiguration getRevisionConfiguration() {
+        return revisionConfiguration;
+    }
+
+    public void setRevisionConfiguration(RevisionConfiguration revisionConfiguration) {
+        this.revisionConfiguration = revisionConfiguration;
+    }
+
+    @JsonIgnore
+    public String getRevision() {
+        return revision;
+    }
+
+    @JsonIgnore
+    public void setRevision(String revision) {
+        this.revision = revision;
+    }
+
     @JsonGetter("collections")
     public List<CollectionConfiguration> getCollections() {
         return collections;
@@ -129,6 +202,106 @@ public class GeneralConfiguration {
         this.nThreads = nThreads;
     }
 
+    public int getCollectionThreads() {
+        return collectionThreads;
+    }
+
+    public void setCollectionThreads(int collectionThreads) {
+        this.collectionThreads = collectionThreads;
+    }
+
+    public Path getSnapshotDir() {
+        if(snapshotDir == null) {
+            return null;
+        }
+        return Paths.get(snapshotDir);
+    }
+
+    public void setSnapshotDir(String snapshotDir) {
+        this.snapshotDir = snapshotDir;
+    }
+
+    public GraphBackend getGraphBackend() {
+        return GraphBackend.valueOf(graphBackend.toUpperCase(Locale.ROOT));
+    }
+
+    public void setGraphBackend(String graphBackend) {
+        this.graphBackend = graphBackend;
+    }
+
+    public CallGraphFrontend getCallGraphFrontend() {
+        return CallGraphFrontend.valueOf(callGraphFrontend.toUpperCase(Locale.ROOT));
+    }
+
+    public void setCallGraphFrontend(String callGraphFrontend) {
+        this.callGraphFrontend = callGraphFrontend;
+    }
+
+    public Path getGraphExportDir() {
+        if(graphExportDir == null) {
+            return null;
+        }
+        return Paths.get(graphExportDir);
+    }
+
+    public void setGraphExportDir(String graphExportDir) {
+        this.graphExportDir = graphExportDir;
+    }
+
+    public GraphExportFormat getGraphExportFormat() {
+        return GraphExportFormat.valueOf(graphExportFormat.toUpperCase(Locale.ROOT));
+    }
+
+    public void setGraphExportFormat(String graphExportFormat) {
+        this.graphExportFormat = graphExportFormat;
+    }
+
+    public boolean isGraphExportCompressed() {
+        return graphExportCompressed;
+    }
+
+    public void setGraphExportCompressed(boolean graphExportCompressed) {
+        this.graphExportCompressed = graphExportCompressed;
+    }
+
+    public boolean isReadClassFileArchives() {
+        return readClassFileArchives;
+    }
+
+    public void setReadClassFileArchives(boolean readClassFileArchives) {
+        this.readClassFileArchives = readClassFileArchives;
+    }
+
+    @JsonIgnore
+    public UnitRegistry getUnitRegistry() {
+        return unitRegistry;
+    }
+
+    @JsonIgnore
+    public MetricsRegistry getMetricsRegistry() {
+        return metricsRegistry;
+    }
+
+    @JsonIgnore
+    public FileCatalog getFileCatalog() {
+        return fileCatalog;
+    }
+
+    @JsonIgnore
+    public void setFileCatalog(FileCatalog fileCatalog) {
+        this.fileCatalog = fileCatalog;
+    }
+
+    @JsonIgnore
+    public ClassFileSource getClassFileSource() {
+        return classFileSource;
+    }
+
+    @JsonIgnore
+    public void setClassFileSource(ClassFileSource classFileSource) {
+        this.classFileSource = classFileSource;
+    }
+
     public BaseFiler getFiler() throws ClassNotFoundException, IllegalAccessException,
             InstantiationException, NoSuchMethodException, InvocationTargetException {
         return (BaseFiler) Class.forName("de.ugoe.cs.comfort.filer." + this.filerConfiguration.getName())
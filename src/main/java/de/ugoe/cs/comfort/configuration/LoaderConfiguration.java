@@ -20,6 +20,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.MoreObjects;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
 
 /**
  * @author Fabian Trautsch
@@ -67,6 +69,44 @@ public class LoaderConfiguration extends BaseConfiguration {
         return this.database;
     }
 
+    private static Path normalizeLocation(String location) {
+        if(location == null) {
+            return null;
+        }
+        return Paths.get(location).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if(!(obj instanceof LoaderConfiguration)) {
+            return false;
+        }
+
+        if(obj == this) {
+            return true;
+        }
+
+        LoaderConfiguration otherConf = (LoaderConfiguration) obj;
+        return new EqualsBuilder()
+                .append(name, otherConf.name)
+                .append(vcsSystemUrl, otherConf.vcsSystemUrl)
+                .append(database, otherConf.database)
+                .append(normalizeLocation(coverageLocation), normalizeLocation(otherConf.coverageLocation))
+                .append(normalizeLocation(callGraphLocation), normalizeLocation(otherConf.callGraphLocation))
+                .isEquals();
+    }
+
+    @Override
+    public int hashCode() {
+        return new HashCodeBuilder(17, 31)
+                .append(name)
+                .append(vcsSystemUrl)
+                .append(database)
+                .append(normalizeLocation(coverageLocation))
+                .append(normalizeLocation(callGraphLocation))
+                .toHashCode();
+    }
+
     @Override
     public String toString() {
         return MoreObjects.toStringHelper(this)
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.configuration;
+
+import com.google.common.base.MoreObjects;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuration of the analysis of several revisions of a project. The revisions from "from" (inclusive) up to "to"
+ * are checked out one after another in the project directory. Without "from", all revisions up to "to" are
+ * analyzed. If a build command is given, it is executed in the project directory after each checkout (e.g., to
+ * create the class files of the revision).
+ *
+ * @author Fabian Trautsch
+ */
+public class RevisionConfiguration {
+    private String from = null;
+    private String to = "HEAD";
+    private List<String> buildCommand = new ArrayList<>();
+
+    public String getFrom() {
+        return from;
+    }
+
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    public List<String> getBuildCommand() {
+        return buildCommand;
+    }
+
+    public void setBuildCommand(List<String> buildCommand) {
+        this.buildCommand = buildCommand;
+    }
+
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("from", from)
+                .add("to", to)
+                .add("buildCommand", buildCommand)
+                .toString();
+    }
+}
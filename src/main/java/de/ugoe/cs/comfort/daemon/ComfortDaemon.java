@@ -0,0 +1,290 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.daemon;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import de.ugoe.cs.comfort.ClassFileSource;
+import de.ugoe.cs.comfort.FileCatalog;
+import de.ugoe.cs.comfort.collection.CollectionScheduler;
+import de.ugoe.cs.comfort.collection.DataSetCache;
+import de.ugoe.cs.comfort.configuration.DaemonConfiguration;
+import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
+import de.ugoe.cs.comfort.filer.BaseFiler;
+import de.ugoe.cs.comfort.filer.DatastorePool;
+import de.ugoe.cs.comfort.instrumentation.MetricsRegistry;
+import de.ugoe.cs.comfort.instrumentation.StageTimer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Long-running mode of comfort. The daemon listens on a port of the loopback interface and accepts runs that are
+ * described by the same JSON as the config.json of a normal run:
+ * <ul>
+ *     <li>POST /jobs with a general configuration as body queues a run and returns its id.</li>
+ *     <li>GET /jobs/&lt;id&gt; returns the state of the run and its report, if it is finished.</li>
+ *     <li>POST /shutdown stops the daemon after the queued runs are finished.</li>
+ * </ul>
+ *
+ * <p>All runs share one executor for their collections. Furthermore, the following caches are kept between the runs:
+ * the files of the projects ({@link FileCatalog}), the loaded data sets ({@link DataSetCache}) and the connections
+ * to the databases ({@link DatastorePool}). Each cache has a limit that is defined in the
+ * {@link DaemonConfiguration}.</p>
+ *
+ * <p>The daemon writes to its own log file. The log file of a run is only used to determine where its report is
+ * stored.</p>
+ *
+ * @author Fabian Trautsch
+ */
+public class ComfortDaemon {
+    private static final Logger LOGGER = LogManager.getLogger(ComfortDaemon.class.getName());
+
+    private final DaemonConfiguration daemonConfiguration;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService jobExecutor;
+    private final ExecutorService collectionExecutor;
+    private final DataSetCache dataSetCache;
+    private final FileCatalog fileCatalog;
+    private final ClassFileSource classFileSource = new ClassFileSource();
+    private final Map<String, DaemonJob> jobs = new LinkedHashMap<>();
+    private final AtomicLong jobCounter = new AtomicLong();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private volatile boolean stopping = false;
+
+    public ComfortDaemon(DaemonConfiguration daemonConfiguration) throws IOException {
+        this.daemonConfiguration = daemonConfiguration;
+        this.dataSetCache = new DataSetCache(daemonConfiguration.getMaxCachedDataSets());
+        this.fileCatalog = new FileCatalog(daemonConfiguration.getMaxCachedProjects());
+        DatastorePool.setMaximumConnections(daemonConfiguration.getMaxDatabaseConnections());
+
+        this.jobExecutor = Executors.newFixedThreadPool(Math.max(1, daemonConfiguration.getJobThreads()));
+        this.collectionExecutor = Executors.newFixedThreadPool(
+                Math.max(1, daemonConfiguration.getCollectionThreads()));
+
+        // Only bind to the loopback interface, as there is no authentication
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                daemonConfiguration.getPort()), 0);
+        server.createContext("/jobs", this::handleJobs);
+        server.createContext("/shutdown", this::handleShutdown);
+        server.setExecutor(Executors.newSingleThreadExecutor());
+    }
+
+    public void start() {
+        server.start();
+        LOGGER.info("Daemon is listening on {} with configuration {}...", server.getAddress(), daemonConfiguration);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Queues a run.
+     *
+     * @param configuration configuration of the run
+     * @return the queued job
+     */
+    public DaemonJob submit(GeneralConfiguration configuration) {
+        if(stopping) {
+            throw new IllegalStateException("Daemon is stopping");
+        }
+
+        configuration.setFileCatalog(fileCatalog);
+        // Each job uses its own view, so that archives that were rebuilt are closed once the job is finished
+        configuration.setClassFileSource(classFileSource.openRun());
+        DaemonJob job = new DaemonJob(String.valueOf(jobCounter.incrementAndGet()), configuration);
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+            removeOldJobs();
+        }
+        jobExecutor.submit(() -> runJob(job));
+        LOGGER.info("Queued job {} for project {}.", job.getId(), configuration.getProjectName());
+        return job;
+    }
+
+    public DaemonJob getJob(String id) {
+        synchronized (jobs) {
+            return jobs.get(id);
+        }
+    }
+
+    /**
+     * Stops accepting new runs, waits for the queued runs and releases all resources.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting for the runs
+     */
+    public void stop() throws InterruptedException {
+        if(stopping) {
+            return;
+        }
+        stopping = true;
+        LOGGER.info("Stopping daemon...");
+
+        jobExecutor.shutdown();
+        jobExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        collectionExecutor.shutdown();
+        server.stop(0);
+        ((ExecutorService) server.getExecutor()).shutdown();
+        dataSetCache.clear();
+        fileCatalog.clear();
+        classFileSource.close();
+        DatastorePool.closeAll();
+
+        LOGGER.info("Daemon stopped.");
+        stopped.countDown();
+    }
+
+    public void awaitStop() throws InterruptedException {
+        stopped.await();
+    }
+
+    private void runJob(DaemonJob job) {
+        GeneralConfiguration configuration = job.getConfiguration();
+        job.setRunning();
+        LOGGER.info("Starting job {}...", job.getId());
+
+        String error = null;
+        try (ClassFileSource jobClassFileSource = configuration.getClassFileSource();
+             StageTimer timer = configuration.getMetricsRegistry().startStage("run");
+             BaseFiler filer = configuration.getFiler()) {
+            new CollectionScheduler(configuration, filer, dataSetCache, collectionExecutor)
+                    .execute(configuration.getCollections());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "Interrupted";
+        } catch (Exception e) {
+            // Errors of one run must never stop the daemon
+            LOGGER.catching(e);
+            error = e.getClass().getSimpleName()+": "+e.getMessage();
+        }
+
+        MetricsRegistry metricsRegistry = configuration.getMetricsRegistry();
+        Path reportPath = MetricsRegistry.getReportPath(configuration.getLogFile());
+        try {
+            metricsRegistry.writeReport(configuration.getProjectName(), reportPath);
+        } catch (IOException e) {
+            LOGGER.warn("Could not store run report in {}: {}", reportPath, e.getMessage());
+        }
+        job.setFinished(error, metricsRegistry.createReport(configuration.getProjectName()));
+        LOGGER.info("Job {} finished (state: {}).", job.getId(), job.getState());
+    }
+
+    private void removeOldJobs() {
+        // Only finished jobs are removed, so that the state of queued and running jobs can always be requested
+        Iterator<DaemonJob> iterator = jobs.values().iterator();
+        int size = jobs.size();
+        while(size > daemonConfiguration.getMaxRetainedJobs() && iterator.hasNext()) {
+            if(iterator.next().isFinished()) {
+                iterator.remove();
+                size--;
+            }
+        }
+    }
+
+    private void handleJobs(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            if(path.equals("/jobs") || path.equals("/jobs/")) {
+                if(!exchange.getRequestMethod().equals("POST")) {
+                    sendError(exchange, 405, "Only POST is supported");
+                    return;
+                }
+
+                GeneralConfiguration configuration;
+                try (InputStream body = exchange.getRequestBody()) {
+                    configuration = mapper.readValue(body, GeneralConfiguration.class);
+                } catch (IOException e) {
+                    sendError(exchange, 400, "Invalid configuration: "+e.getMessage());
+                    return;
+                }
+
+                try {
+                    sendJson(exchange, 202, submit(configuration).toStatus());
+                } catch (IllegalStateException e) {
+                    sendError(exchange, 503, e.getMessage());
+                }
+                return;
+            }
+
+            if(!exchange.getRequestMethod().equals("GET")) {
+                sendError(exchange, 405, "Only GET is supported");
+                return;
+            }
+            DaemonJob job = getJob(path.substring("/jobs/".length()));
+            if(job == null) {
+                sendError(exchange, 404, "Unknown job");
+                return;
+            }
+            sendJson(exchange, 200, job.toStatus());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void handleShutdown(HttpExchange exchange) throws IOException {
+        try {
+            if(!exchange.getRequestMethod().equals("POST")) {
+                sendError(exchange, 405, "Only POST is supported");
+                return;
+            }
+            sendJson(exchange, 202, Collections.singletonMap("state", "STOPPING"));
+        } finally {
+            exchange.close();
+        }
+
+        // The daemon can not be stopped by the thread of the server itself
+        Thread stopThread = new Thread(() -> {
+            try {
+                stop();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "daemon-shutdown");
+        stopThread.start();
+    }
+
+    private void sendError(HttpExchange exchange, int statusCode, String message) throws IOException {
+        sendJson(exchange, statusCode, Collections.singletonMap("error", message));
+    }
+
+    private void sendJson(HttpExchange exchange, int statusCode, Object body) throws IOException {
+        byte[] response = mapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(statusCode, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+}
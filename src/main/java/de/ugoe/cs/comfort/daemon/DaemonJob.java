@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.daemon;
+
+import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A run that was sent to the daemon together with its current state.
+ *
+ * @author Fabian Trautsch
+ */
+public class DaemonJob {
+    public enum State {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    private final String id;
+    private final GeneralConfiguration configuration;
+    private volatile State state = State.QUEUED;
+    private volatile String error = null;
+    private volatile Map<String, Object> report = null;
+
+    DaemonJob(String id, GeneralConfiguration configuration) {
+        this.id = id;
+        this.configuration = configuration;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public GeneralConfiguration getConfiguration() {
+        return configuration;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public boolean isFinished() {
+        return state == State.SUCCEEDED || state == State.FAILED;
+    }
+
+    void setRunning() {
+        this.state = State.RUNNING;
+    }
+
+    void setFinished(String error, Map<String, Object> report) {
+        this.error = error;
+        this.report = report;
+        this.state = error == null ? State.SUCCEEDED : State.FAILED;
+    }
+
+    public Map<String, Object> toStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("id", id);
+        status.put("projectName", configuration.getProjectName());
+        status.put("state", state.name());
+        if(error != null) {
+            status.put("error", error);
+        }
+        if(report != null) {
+            status.put("report", report);
+        }
+        return status;
+    }
+}
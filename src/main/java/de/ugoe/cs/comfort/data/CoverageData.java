@@ -19,8 +19,7 @@ package de.ugoe.cs.comfort.data;
 import com.google.common.base.MoreObjects;
 import de.ugoe.cs.comfort.Utils;
 import de.ugoe.cs.comfort.data.models.IUnit;
-import java.lang.reflect.InvocationTargetException;
-import java.nio.file.Path;
+import de.ugoe.cs.comfort.data.models.UnitRegistry;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -33,28 +32,34 @@ public class CoverageData extends DataSet {
     private Map<IUnit, Set<IUnit>> covfefeMethodLevel = new HashMap<>();
     private Map<IUnit, Set<IUnit>> covfefeClassLevel = new HashMap<>();
 
+    private final UnitRegistry unitRegistry;
+
     public CoverageData() {
+        this(new UnitRegistry());
+    }
+
+    public CoverageData(UnitRegistry unitRegistry) {
+        this.unitRegistry = unitRegistry;
     }
 
-    public void add(IUnit testMethod, Set<IUnit> testedMethods) {
+    public CoverageData(Map<IUnit, Set<IUnit>> covfefeMethodLevel, Map<IUnit, Set<IUnit>> covfefeClassLevel) {
+        this();
+        this.covfefeMethodLevel = covfefeMethodLevel;
+        this.covfefeClassLevel = covfefeClassLevel;
+    }
+
+    // Tests are added in parallel by the loader
+    public synchronized void add(IUnit testMethod, Set<IUnit> testedMethods) {
         covfefeMethodLevel.put(testMethod, testedMethods);
 
-        // As we also need the coverage on class level, we need to cast it here
-        try {
-            IUnit classLevelUnit = (IUnit) testMethod.getClass().getSuperclass()
-                    .getConstructor(String.class, Path.class).newInstance(
-                            testMethod.getFQNOfUnit(), testMethod.getFilePath()
-                    );
-            Set<IUnit> coveredClasses = covfefeClassLevel.getOrDefault(classLevelUnit, new HashSet<>());
+        // As we also need the coverage on class level, we need to project the test to its class here
+        IUnit classLevelUnit = unitRegistry.getClassLevelUnit(testMethod);
+        Set<IUnit> coveredClasses = covfefeClassLevel.getOrDefault(classLevelUnit, new HashSet<>());
 
-            if(testedMethods != null) {
-                coveredClasses.addAll(testedMethods);
-            }
-            covfefeClassLevel.put(classLevelUnit, coveredClasses);
-        } catch (InstantiationException | IllegalAccessException | NoSuchMethodException
-            | InvocationTargetException e) {
-            e.printStackTrace();
+        if(testedMethods != null) {
+            coveredClasses.addAll(testedMethods);
         }
+        covfefeClassLevel.put(classLevelUnit, coveredClasses);
     }
 
     @Override
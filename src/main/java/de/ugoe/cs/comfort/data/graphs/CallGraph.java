@@ -20,12 +20,14 @@ import com.google.common.base.MoreObjects;
 import com.google.common.graph.*;
 import de.ugoe.cs.comfort.Utils;
 import de.ugoe.cs.comfort.data.DataSet;
+import de.ugoe.cs.comfort.data.graphs.export.GraphExportFormat;
+import de.ugoe.cs.comfort.data.graphs.export.GraphExporter;
 import de.ugoe.cs.comfort.data.models.IUnit;
+import de.ugoe.cs.comfort.data.models.UnitRegistry;
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.function.Predicate;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
@@ -36,18 +38,119 @@ import org.apache.commons.lang3.builder.HashCodeBuilder;
  */
 public class CallGraph extends DataSet implements MutableNetwork<IUnit, CallEdge>, IGraph {
 
-    private final MutableNetwork<IUnit, CallEdge> graph;
+    private final GraphBackend backend;
+    private volatile MutableNetwork<IUnit, CallEdge> graph;
+
+    private volatile ReachabilityIndex reachabilityIndex = null;
+    private DependencyGraph dependencyGraphRepresentation = null;
+    private UnitRegistry projectionRegistry = null;
+
+    // Only set for filtered views that are not materialized yet
+    private CallGraph source = null;
+    private Predicate<IUnit> nodeFilter = null;
+    private Predicate<CallEdge> edgeFilter = null;
 
     public CallGraph() {
-        graph = NetworkBuilder.directed().allowsSelfLoops(true).allowsParallelEdges(true).build();
+        this(GraphBackend.GUAVA);
+    }
+
+    public CallGraph(GraphBackend backend) {
+        this.backend = backend;
+        graph = backend.createNetwork();
+    }
+
+    private CallGraph(CallGraph source, Predicate<IUnit> nodeFilter, Predicate<CallEdge> edgeFilter) {
+        this.backend = source.backend;
+        this.source = source;
+        this.nodeFilter = nodeFilter;
+        this.edgeFilter = edgeFilter;
+    }
+
+    public GraphBackend getBackend() {
+        return backend;
     }
 
     public CallGraph getCopyOfGraph() {
-        CallGraph clonedGraph = new CallGraph();
+        synchronized (this) {
+            if(graph == null) {
+                return new CallGraph(source, nodeFilter, edgeFilter);
+            }
+        }
+        CallGraph clonedGraph = new CallGraph(backend);
         edges().forEach(clonedGraph::addEdge);
         return clonedGraph;
     }
 
+    /**
+     * Creates a filtered view of this graph. The view contains all edges that are accepted by the edge filter and
+     * whose caller and callee are accepted by the node filter, and all nodes that are part of these edges (i.e., the
+     * result is the same as removing the nodes and edges from a copy and calling
+     * {@link #cleanGraphOfNodesThatAreSingle()}). The view is materialized in one pass over this graph, when it is
+     * accessed the first time. Filtering a view that is not materialized yet combines both filters, so that a chain
+     * of filters is executed in one pass without intermediate copies.
+     *
+     * This graph must not be changed afterwards.
+     *
+     * @param nodeFilter accepts the nodes that are kept, evaluated once per node
+     * @param edgeFilter accepts the edges that are kept
+     * @return filtered view
+     */
+    public CallGraph filter(Predicate<IUnit> nodeFilter, Predicate<CallEdge> edgeFilter) {
+        synchronized (this) {
+            if(graph == null) {
+                return new CallGraph(source, this.nodeFilter.and(nodeFilter), this.edgeFilter.and(edgeFilter));
+            }
+        }
+        return new CallGraph(this, nodeFilter, edgeFilter);
+    }
+
+    @Override
+    public boolean isMaterialized() {
+        return graph != null;
+    }
+
+    @Override
+    public ReachabilityIndex getReachabilityIndex() {
+        ReachabilityIndex currentIndex = reachabilityIndex;
+        if(currentIndex == null) {
+            synchronized (this) {
+                if(reachabilityIndex == null) {
+                    reachabilityIndex = new ReachabilityIndex(this);
+                }
+                currentIndex = reachabilityIndex;
+            }
+        }
+        return currentIndex;
+    }
+
+    private MutableNetwork<IUnit, CallEdge> getGraph() {
+        MutableNetwork<IUnit, CallEdge> currentGraph = graph;
+        if(currentGraph == null) {
+            synchronized (this) {
+                if(graph == null) {
+                    graph = materialize();
+                    source = null;
+                    nodeFilter = null;
+                    edgeFilter = null;
+                }
+                currentGraph = graph;
+            }
+        }
+        return currentGraph;
+    }
+
+    private MutableNetwork<IUnit, CallEdge> materialize() {
+        MutableNetwork<IUnit, CallEdge> filteredGraph = backend.createNetwork();
+        Map<IUnit, Boolean> acceptedNodes = new HashMap<>();
+        for(CallEdge edge : source.edges()) {
+            if(edgeFilter.test(edge) && acceptedNodes.computeIfAbsent(edge.getCaller(), nodeFilter::test)
+                    && acceptedNodes.computeIfAbsent(edge.getCallee(), nodeFilter::test)) {
+                filteredGraph.addEdge(edge.getCaller(), edge.getCallee(), edge);
+            }
+        }
+        return filteredGraph;
+    }
+
     public Set<IUnit> getTestNodes() {
         Set<IUnit> testNodes = new HashSet<>();
         for(IUnit node: this.nodes()) {
@@ -71,166 +174,174 @@ public class CallGraph extends DataSet implements MutableNetwork<IUnit, CallEdge
     @Override
     @ParametersAreNonnullByDefault
     public boolean addNode(IUnit node) {
-        return graph.addNode(node);
+        // A node without edges does not change the dependency graph representation
+        reachabilityIndex = null;
+        return getGraph().addNode(node);
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public boolean addEdge(IUnit nodeU, IUnit nodeV, CallEdge edge) {
-        return graph.addEdge(nodeU, nodeV, edge);
+        boolean added = getGraph().addEdge(nodeU, nodeV, edge);
+        if(added) {
+            onEdgeAdded(edge);
+        }
+        return added;
     }
 
     public boolean addEdge(CallEdge edge) {
-        return graph.addEdge(edge.getCaller(), edge.getCallee(), edge);
+        return addEdge(edge.getCaller(), edge.getCallee(), edge);
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public boolean removeNode(IUnit node) {
-        return graph.removeNode(node);
+        onGraphReduced();
+        return getGraph().removeNode(node);
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public boolean removeEdge(CallEdge edge) {
-        return graph.removeEdge(edge);
+        onGraphReduced();
+        return getGraph().removeEdge(edge);
     }
 
     @Override
     public Set<IUnit> nodes() {
-        return graph.nodes();
+        return getGraph().nodes();
     }
 
     @Override
     public Set<CallEdge> edges() {
-        return graph.edges();
+        return getGraph().edges();
     }
 
     @Override
     public Graph<IUnit> asGraph() {
-        return graph.asGraph();
+        return getGraph().asGraph();
     }
 
     @Override
     public boolean isDirected() {
-        return graph.isDirected();
+        return getGraph().isDirected();
     }
 
     @Override
     public boolean allowsParallelEdges() {
-        return graph.allowsParallelEdges();
+        return getGraph().allowsParallelEdges();
     }
 
     @Override
     public boolean allowsSelfLoops() {
-        return graph.allowsSelfLoops();
+        return getGraph().allowsSelfLoops();
     }
 
     @Override
     public ElementOrder<IUnit> nodeOrder() {
-        return graph.nodeOrder();
+        return getGraph().nodeOrder();
     }
 
     @Override
     public ElementOrder<CallEdge> edgeOrder() {
-        return graph.edgeOrder();
+        return getGraph().edgeOrder();
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public Set<IUnit> adjacentNodes(IUnit node) {
-        return graph.adjacentNodes(node);
+        return getGraph().adjacentNodes(node);
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public Set<IUnit> predecessors(IUnit node) {
-        return graph.predecessors(node);
+        return getGraph().predecessors(node);
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public Set<IUnit> successors(IUnit node) {
-        return graph.successors(node);
+        return getGraph().successors(node);
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public Set<CallEdge> incidentEdges(IUnit node) {
-        return graph.incidentEdges(node);
+        return getGraph().incidentEdges(node);
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public Set<CallEdge> inEdges(IUnit node) {
-        return graph.inEdges(node);
+        return getGraph().inEdges(node);
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public Set<CallEdge> outEdges(IUnit node) {
-        return graph.outEdges(node);
+        return getGraph().outEdges(node);
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public int degree(IUnit node) {
-        return graph.degree(node);
+        return getGraph().degree(node);
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public int inDegree(IUnit node) {
-        return graph.inDegree(node);
+        return getGraph().inDegree(node);
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public int outDegree(IUnit node) {
-        return graph.outDegree(node);
+        return getGraph().outDegree(node);
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public EndpointPair<IUnit> incidentNodes(CallEdge edge) {
-        return graph.incidentNodes(edge);
+        return getGraph().incidentNodes(edge);
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public Set<CallEdge> adjacentEdges(CallEdge edge) {
-        return graph.adjacentEdges(edge);
+        return getGraph().adjacentEdges(edge);
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public Set<CallEdge> edgesConnecting(IUnit nodeU, IUnit nodeV) {
-        return graph.edgesConnecting(nodeU, nodeV);
+        return getGraph().edgesConnecting(nodeU, nodeV);
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public Optional<CallEdge> edgeConnecting(IUnit nodeU, IUnit nodeV) {
-        return graph.edgeConnecting(nodeU, nodeV);
+        return getGraph().edgeConnecting(nodeU, nodeV);
     }
 
     @Nullable
     @Override
     @ParametersAreNonnullByDefault
     public CallEdge edgeConnectingOrNull(IUnit nodeU, IUnit nodeV) {
-        return graph.edgeConnectingOrNull(nodeU, nodeV);
+        return getGraph().edgeConnectingOrNull(nodeU, nodeV);
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public boolean hasEdgeConnecting(IUnit nodeU, IUnit nodeV) {
-        return graph.hasEdgeConnecting(nodeU, nodeV);
+        return getGraph().hasEdgeConnecting(nodeU, nodeV);
     }
 
     @Override
     public int hashCode() {
         return new HashCodeBuilder(17, 31)
-                .append(graph)
+                .append(getGraph())
                 .toHashCode();
     }
 
@@ -261,39 +372,53 @@ public class CallGraph extends DataSet implements MutableNetwork<IUnit, CallEdge
     }
 
     public void printGraphToFileInDotFormat(Path outputPath) throws IOException{
-        List<String> lines = new ArrayList<>();
-        lines.add("digraph callgraph {");
-        for(CallEdge edge: graph.edges()) {
-            lines.add("\"" + edge.getCaller() + "\" -> \"" + edge.getCallee() + "\" [ label = \""
-                    + edge.getOrderNumber() +"\" ];");
-        }
-        lines.add("}");
-        Files.write(outputPath, lines);
+        GraphExporter.export(this, outputPath, GraphExportFormat.DOT, false);
     }
 
 
     public DependencyGraph getDependencyGraphRepresentation() {
-        DependencyGraph dependencyGraph = new DependencyGraph();
-
-        this.edges().forEach(
-                callEdge -> {
-                    try {
-                        IUnit sourceNode = (IUnit) callEdge.getCaller().getClass().getSuperclass()
-                                .getConstructor(String.class, Path.class).newInstance(
-                                        callEdge.getCaller().getFQNOfUnit(), callEdge.getCaller().getFilePath());
-                        IUnit targetNode = (IUnit) callEdge.getCallee().getClass().getSuperclass()
-                                .getConstructor(String.class, Path.class).newInstance(
-                                        callEdge.getCallee().getFQNOfUnit(), callEdge.getCallee().getFilePath());
-                        dependencyGraph.putEdge(sourceNode, targetNode);
-                    } catch (InstantiationException | IllegalAccessException | NoSuchMethodException
-                        | InvocationTargetException e) {
-                        e.printStackTrace();
-                        System.exit(1);
-                    }
-                }
-        );
+        UnitRegistry unitRegistry = projectionRegistry;
+        return getDependencyGraphRepresentation(unitRegistry == null ? new UnitRegistry() : unitRegistry);
+    }
+
+    /**
+     * Returns the dependency graph on class level, which contains an edge between two classes if a method of the
+     * first class calls a method of the second class. The dependency graph is created once and cached: edges that are
+     * added to this graph afterwards are added to the dependency graph as well, removals drop it. Therefore, the
+     * returned graph is shared between all callers and must not be changed.
+     *
+     * @param unitRegistry registry through which the class level units are resolved
+     * @return dependency graph
+     */
+    public synchronized DependencyGraph getDependencyGraphRepresentation(UnitRegistry unitRegistry) {
+        if(dependencyGraphRepresentation == null || projectionRegistry != unitRegistry) {
+            DependencyGraph dependencyGraph = new DependencyGraph(backend);
+
+            // The class level units are resolved through the registry, so that they are created once per method
+            this.edges().forEach(callEdge -> projectEdge(dependencyGraph, unitRegistry, callEdge));
+
+            dependencyGraphRepresentation = dependencyGraph;
+            projectionRegistry = unitRegistry;
+        }
+        return dependencyGraphRepresentation;
+    }
+
+    private static void projectEdge(DependencyGraph dependencyGraph, UnitRegistry unitRegistry, CallEdge callEdge) {
+        dependencyGraph.putEdge(unitRegistry.getClassLevelUnit(callEdge.getCaller()),
+                unitRegistry.getClassLevelUnit(callEdge.getCallee()));
+    }
+
+    private synchronized void onEdgeAdded(CallEdge edge) {
+        reachabilityIndex = null;
+        if(dependencyGraphRepresentation != null) {
+            projectEdge(dependencyGraphRepresentation, projectionRegistry, edge);
+        }
+    }
 
-        return dependencyGraph;
+    private synchronized void onGraphReduced() {
+        reachabilityIndex = null;
+        dependencyGraphRepresentation = null;
+        projectionRegistry = null;
     }
 
     @Override
@@ -0,0 +1,341 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.data.graphs;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Int based adjacency structure that is shared by the {@link CompactNetwork} and the {@link CompactGraph}. Nodes and
+ * edges are identified by dense int ids. The endpoints of each edge are stored in two int arrays, from which the
+ * outgoing and incoming edges of all nodes are derived in compressed sparse row (CSR) form: one offset array per
+ * direction and one array with the edge ids, sorted by node.
+ *
+ * The CSR arrays are built lazily on the first query after edges were added, so that loading a graph edge by edge
+ * stays linear. Removed edges are only marked and skipped by the queries, so that removals do not require a rebuild.
+ * Queries may be executed concurrently, mutations must not be executed concurrently to anything else (like for the
+ * graphs of Guava).
+ *
+ * @author Fabian Trautsch
+ */
+final class CompactAdjacency<N> {
+    private static final int REMOVED = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final ObjectIdIndex<N> nodeIndex = new ObjectIdIndex<>();
+    private int[] sources = new int[INITIAL_CAPACITY];
+    private int[] targets = new int[INITIAL_CAPACITY];
+    private int edgeIdBound = 0;
+    private volatile Csr csr = null;
+
+    int getNodeId(Object node) {
+        return nodeIndex.getId(node);
+    }
+
+    N getNode(int nodeId) {
+        return nodeIndex.get(nodeId);
+    }
+
+    int getNodeIdBound() {
+        return nodeIndex.getIdBound();
+    }
+
+    int getNodeCount() {
+        return nodeIndex.size();
+    }
+
+    int addNode(N node) {
+        return nodeIndex.add(node);
+    }
+
+    /**
+     * Removes the node. All edges of the node must have been removed before.
+     *
+     * @param nodeId id of the node
+     */
+    void removeNode(int nodeId) {
+        nodeIndex.remove(nodeId);
+    }
+
+    void addEdge(int edgeId, int source, int target) {
+        if(edgeId >= sources.length) {
+            int capacity = Math.max(edgeId + 1, sources.length * 2);
+            sources = Arrays.copyOf(sources, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+        }
+        sources[edgeId] = source;
+        targets[edgeId] = target;
+        edgeIdBound = Math.max(edgeIdBound, edgeId + 1);
+        csr = null;
+    }
+
+    void removeEdge(int edgeId) {
+        sources[edgeId] = REMOVED;
+    }
+
+    int getSource(int edgeId) {
+        return sources[edgeId];
+    }
+
+    int getTarget(int edgeId) {
+        return targets[edgeId];
+    }
+
+    int[] getOutEdgeIds(int nodeId) {
+        Csr current = getCsr();
+        return current.getLiveEdges(current.outOffsets, current.outEdges, nodeId);
+    }
+
+    int[] getInEdgeIds(int nodeId) {
+        Csr current = getCsr();
+        return current.getLiveEdges(current.inOffsets, current.inEdges, nodeId);
+    }
+
+    /**
+     * @param nodeId id of the node
+     * @return sorted ids of all distinct successors
+     */
+    int[] getSuccessorIds(int nodeId) {
+        int[] edgeIds = getOutEdgeIds(nodeId);
+        int[] nodeIds = new int[edgeIds.length];
+        for(int i = 0; i < edgeIds.length; i++) {
+            nodeIds[i] = targets[edgeIds[i]];
+        }
+        return sortDistinct(nodeIds, nodeIds.length);
+    }
+
+    /**
+     * @param nodeId id of the node
+     * @return sorted ids of all distinct predecessors
+     */
+    int[] getPredecessorIds(int nodeId) {
+        int[] edgeIds = getInEdgeIds(nodeId);
+        int[] nodeIds = new int[edgeIds.length];
+        for(int i = 0; i < edgeIds.length; i++) {
+            nodeIds[i] = sources[edgeIds[i]];
+        }
+        return sortDistinct(nodeIds, nodeIds.length);
+    }
+
+    int[] getAdjacentIds(int nodeId) {
+        int[] successorIds = getSuccessorIds(nodeId);
+        int[] predecessorIds = getPredecessorIds(nodeId);
+        int[] nodeIds = Arrays.copyOf(successorIds, successorIds.length + predecessorIds.length);
+        System.arraycopy(predecessorIds, 0, nodeIds, successorIds.length, predecessorIds.length);
+        return sortDistinct(nodeIds, nodeIds.length);
+    }
+
+    int getOutDegree(int nodeId) {
+        Csr current = getCsr();
+        return current.countLiveEdges(current.outOffsets, current.outEdges, nodeId);
+    }
+
+    int getInDegree(int nodeId) {
+        Csr current = getCsr();
+        return current.countLiveEdges(current.inOffsets, current.inEdges, nodeId);
+    }
+
+    Set<N> nodes() {
+        return new AbstractSet<N>() {
+            @Override
+            public Iterator<N> iterator() {
+                return new IdIterator<N>(getNodeIdBound()) {
+                    @Override
+                    N get(int id) {
+                        return getNode(id);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return getNodeCount();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return getNodeId(o) >= 0;
+            }
+        };
+    }
+
+    /**
+     * Creates a set of nodes that is backed by the given ids. Like the sets of Guava, the set reflects removals of
+     * nodes. Nodes that are added later are not part of the set.
+     *
+     * @param sortedNodeIds sorted ids of the nodes
+     * @return set of nodes
+     */
+    Set<N> toNodeSet(int[] sortedNodeIds) {
+        return new AbstractSet<N>() {
+            @Override
+            public Iterator<N> iterator() {
+                return new IdIterator<N>(sortedNodeIds.length) {
+                    @Override
+                    N get(int index) {
+                        return getNode(sortedNodeIds[index]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for(int nodeId : sortedNodeIds) {
+                    if(getNode(nodeId) != null) {
+                        size++;
+                    }
+                }
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return Arrays.binarySearch(sortedNodeIds, getNodeId(o)) >= 0;
+            }
+        };
+    }
+
+    private Csr getCsr() {
+        Csr current = csr;
+        if(current == null) {
+            synchronized (this) {
+                current = csr;
+                if(current == null) {
+                    current = new Csr(getNodeIdBound(), sources, targets, edgeIdBound);
+                    csr = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    static int[] sortDistinct(int[] ids, int length) {
+        Arrays.sort(ids, 0, length);
+        int distinct = 0;
+        for(int i = 0; i < length; i++) {
+            if(distinct == 0 || ids[distinct - 1] != ids[i]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        return distinct == ids.length ? ids : Arrays.copyOf(ids, distinct);
+    }
+
+    /**
+     * Compressed sparse row representation of the incoming and outgoing edges. The edges of node i are stored in
+     * edges[offsets[i]] to edges[offsets[i+1]-1] in ascending order of their id.
+     */
+    private final class Csr {
+        private final int nodeIdBound;
+        private final int[] outOffsets;
+        private final int[] outEdges;
+        private final int[] inOffsets;
+        private final int[] inEdges;
+
+        Csr(int nodeIdBound, int[] sources, int[] targets, int edgeIdBound) {
+            this.nodeIdBound = nodeIdBound;
+            outOffsets = new int[nodeIdBound + 1];
+            inOffsets = new int[nodeIdBound + 1];
+            for(int edgeId = 0; edgeId < edgeIdBound; edgeId++) {
+                if(sources[edgeId] != REMOVED) {
+                    outOffsets[sources[edgeId] + 1]++;
+                    inOffsets[targets[edgeId] + 1]++;
+                }
+            }
+            for(int nodeId = 0; nodeId < nodeIdBound; nodeId++) {
+                outOffsets[nodeId + 1] += outOffsets[nodeId];
+                inOffsets[nodeId + 1] += inOffsets[nodeId];
+            }
+
+            outEdges = new int[outOffsets[nodeIdBound]];
+            inEdges = new int[inOffsets[nodeIdBound]];
+            int[] outPositions = Arrays.copyOf(outOffsets, nodeIdBound);
+            int[] inPositions = Arrays.copyOf(inOffsets, nodeIdBound);
+            for(int edgeId = 0; edgeId < edgeIdBound; edgeId++) {
+                if(sources[edgeId] != REMOVED) {
+                    outEdges[outPositions[sources[edgeId]]++] = edgeId;
+                    inEdges[inPositions[targets[edgeId]]++] = edgeId;
+                }
+            }
+        }
+
+        int[] getLiveEdges(int[] offsets, int[] edges, int nodeId) {
+            // Nodes that were added after the CSR was built have no edges, otherwise the CSR would have been reset
+            if(nodeId >= nodeIdBound) {
+                return new int[0];
+            }
+            int[] liveEdges = new int[offsets[nodeId + 1] - offsets[nodeId]];
+            int numberOfLiveEdges = 0;
+            for(int i = offsets[nodeId]; i < offsets[nodeId + 1]; i++) {
+                if(sources[edges[i]] != REMOVED) {
+                    liveEdges[numberOfLiveEdges++] = edges[i];
+                }
+            }
+            return numberOfLiveEdges == liveEdges.length ? liveEdges : Arrays.copyOf(liveEdges, numberOfLiveEdges);
+        }
+
+        int countLiveEdges(int[] offsets, int[] edges, int nodeId) {
+            if(nodeId >= nodeIdBound) {
+                return 0;
+            }
+            int numberOfLiveEdges = 0;
+            for(int i = offsets[nodeId]; i < offsets[nodeId + 1]; i++) {
+                if(sources[edges[i]] != REMOVED) {
+                    numberOfLiveEdges++;
+                }
+            }
+            return numberOfLiveEdges;
+        }
+    }
+
+    /**
+     * Iterates over the positions 0 to bound-1 and skips all positions whose element was removed.
+     */
+    abstract static class IdIterator<T> implements Iterator<T> {
+        private final int bound;
+        private int position = 0;
+        private T next = null;
+
+        IdIterator(int bound) {
+            this.bound = bound;
+        }
+
+        abstract T get(int position);
+
+        @Override
+        public boolean hasNext() {
+            while(next == null && position < bound) {
+                next = get(position++);
+            }
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T result = next;
+            next = null;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.data.graphs;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.graph.AbstractGraph;
+import com.google.common.graph.ElementOrder;
+import com.google.common.graph.MutableGraph;
+import java.util.Set;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Directed graph that allows self loops and stores its structure in int arrays (see {@link CompactAdjacency}). An
+ * edge is identified by the ids of its source and target, so that checking for an existing edge does not need to
+ * hash the nodes more than once.
+ *
+ * Nodes are returned in the order in which they were added. The returned sets are views that reflect removals, but
+ * not additions that happen after the set was created.
+ *
+ * @author Fabian Trautsch
+ */
+public class CompactGraph<N> extends AbstractGraph<N> implements MutableGraph<N> {
+    private final CompactAdjacency<N> adjacency = new CompactAdjacency<>();
+    private final LongIdIndex edgeIndex = new LongIdIndex();
+
+    public int getNodeId(N node) {
+        return adjacency.getNodeId(node);
+    }
+
+    public N getNode(int nodeId) {
+        return adjacency.getNode(nodeId);
+    }
+
+    /**
+     * @return upper bound (exclusive) of all node ids, can be used to size arrays that are indexed by node id
+     */
+    public int getNodeIdBound() {
+        return adjacency.getNodeIdBound();
+    }
+
+    /**
+     * @param nodeId id of the node
+     * @return sorted ids of all successors of the node
+     */
+    public int[] getSuccessorIds(int nodeId) {
+        return adjacency.getSuccessorIds(nodeId);
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public boolean addNode(N node) {
+        int nodeIdBound = adjacency.getNodeIdBound();
+        return adjacency.addNode(checkNotNull(node)) == nodeIdBound;
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public boolean putEdge(N nodeU, N nodeV) {
+        int sourceId = adjacency.addNode(checkNotNull(nodeU));
+        int targetId = adjacency.addNode(checkNotNull(nodeV));
+        int numberOfEdges = edgeIndex.size();
+        int edgeId = edgeIndex.add(getEdgeKey(sourceId, targetId));
+        if(edgeIndex.size() == numberOfEdges) {
+            return false;
+        }
+        adjacency.addEdge(edgeId, sourceId, targetId);
+        return true;
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public boolean removeNode(N node) {
+        int nodeId = adjacency.getNodeId(node);
+        if(nodeId < 0) {
+            return false;
+        }
+        for(int edgeId : adjacency.getOutEdgeIds(nodeId)) {
+            removeEdge(edgeId);
+        }
+        for(int edgeId : adjacency.getInEdgeIds(nodeId)) {
+            removeEdge(edgeId);
+        }
+        adjacency.removeNode(nodeId);
+        return true;
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public boolean removeEdge(N nodeU, N nodeV) {
+        int edgeId = getEdgeId(nodeU, nodeV);
+        if(edgeId < 0) {
+            return false;
+        }
+        removeEdge(edgeId);
+        return true;
+    }
+
+    private void removeEdge(int edgeId) {
+        // Self loops are part of the in and out edges. The ids of the edge index are used as edge ids.
+        if(adjacency.getSource(edgeId) >= 0) {
+            edgeIndex.remove(edgeId);
+            adjacency.removeEdge(edgeId);
+        }
+    }
+
+    @Override
+    public Set<N> nodes() {
+        return adjacency.nodes();
+    }
+
+    @Override
+    public boolean isDirected() {
+        return true;
+    }
+
+    @Override
+    public boolean allowsSelfLoops() {
+        return true;
+    }
+
+    @Override
+    public ElementOrder<N> nodeOrder() {
+        return ElementOrder.insertion();
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public Set<N> adjacentNodes(N node) {
+        return adjacency.toNodeSet(adjacency.getAdjacentIds(getExistingNodeId(node)));
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public Set<N> predecessors(N node) {
+        return adjacency.toNodeSet(adjacency.getPredecessorIds(getExistingNodeId(node)));
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public Set<N> successors(N node) {
+        return adjacency.toNodeSet(adjacency.getSuccessorIds(getExistingNodeId(node)));
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public int degree(N node) {
+        int nodeId = getExistingNodeId(node);
+        return adjacency.getInDegree(nodeId) + adjacency.getOutDegree(nodeId);
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public int inDegree(N node) {
+        return adjacency.getInDegree(getExistingNodeId(node));
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public int outDegree(N node) {
+        return adjacency.getOutDegree(getExistingNodeId(node));
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public boolean hasEdgeConnecting(N nodeU, N nodeV) {
+        return getEdgeId(nodeU, nodeV) >= 0;
+    }
+
+    private int getEdgeId(N nodeU, N nodeV) {
+        int sourceId = adjacency.getNodeId(nodeU);
+        int targetId = adjacency.getNodeId(nodeV);
+        if(sourceId < 0 || targetId < 0) {
+            return -1;
+        }
+        return edgeIndex.getId(getEdgeKey(sourceId, targetId));
+    }
+
+    private int getExistingNodeId(N node) {
+        int nodeId = adjacency.getNodeId(node);
+        if(nodeId < 0) {
+            throw new IllegalArgumentException("Node "+node+" is not an element of this graph.");
+        }
+        return nodeId;
+    }
+
+    private static long getEdgeKey(int sourceId, int targetId) {
+        return ((long) sourceId << 32) | (targetId & 0xFFFFFFFFL);
+    }
+}
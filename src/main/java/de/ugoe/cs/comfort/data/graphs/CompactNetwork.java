@@ -0,0 +1,360 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.data.graphs;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.graph.AbstractNetwork;
+import com.google.common.graph.ElementOrder;
+import com.google.common.graph.EndpointPair;
+import com.google.common.graph.MutableNetwork;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Directed network that allows self loops and parallel edges and stores its structure in int arrays (see
+ * {@link CompactAdjacency}) instead of a map per node. Each node and edge object is hashed once when it is added,
+ * afterwards all traversals only work on the int ids. The edge objects are kept as attributes of their edge id.
+ *
+ * Nodes and edges are returned in the order in which they were added. The returned sets are views that reflect
+ * removals, but not additions that happen after the set was created.
+ *
+ * @author Fabian Trautsch
+ */
+public class CompactNetwork<N, E> extends AbstractNetwork<N, E> implements MutableNetwork<N, E> {
+    private final CompactAdjacency<N> adjacency = new CompactAdjacency<>();
+    private final ObjectIdIndex<E> edgeIndex = new ObjectIdIndex<>();
+
+    public int getNodeId(N node) {
+        return adjacency.getNodeId(node);
+    }
+
+    public N getNode(int nodeId) {
+        return adjacency.getNode(nodeId);
+    }
+
+    /**
+     * @return upper bound (exclusive) of all node ids, can be used to size arrays that are indexed by node id
+     */
+    public int getNodeIdBound() {
+        return adjacency.getNodeIdBound();
+    }
+
+    /**
+     * @param nodeId id of the node
+     * @return sorted ids of all distinct successors of the node
+     */
+    public int[] getSuccessorIds(int nodeId) {
+        return adjacency.getSuccessorIds(nodeId);
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public boolean addNode(N node) {
+        int nodeIdBound = adjacency.getNodeIdBound();
+        return adjacency.addNode(checkNotNull(node)) == nodeIdBound;
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public boolean addEdge(N nodeU, N nodeV, E edge) {
+        checkNotNull(nodeU);
+        checkNotNull(nodeV);
+        int existingEdgeId = edgeIndex.getId(checkNotNull(edge));
+        if(existingEdgeId >= 0) {
+            EndpointPair<N> existingNodes = incidentNodes(edge);
+            if(existingNodes.equals(EndpointPair.ordered(nodeU, nodeV))) {
+                return false;
+            }
+            throw new IllegalArgumentException("Edge "+edge+" already exists between the following nodes: "
+                    +existingNodes+", so it can not be reused to connect "+nodeU+" and "+nodeV);
+        }
+
+        int sourceId = adjacency.addNode(nodeU);
+        int targetId = adjacency.addNode(nodeV);
+        adjacency.addEdge(edgeIndex.add(edge), sourceId, targetId);
+        return true;
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public boolean removeNode(N node) {
+        int nodeId = adjacency.getNodeId(node);
+        if(nodeId < 0) {
+            return false;
+        }
+        for(int edgeId : adjacency.getOutEdgeIds(nodeId)) {
+            removeEdge(edgeId);
+        }
+        for(int edgeId : adjacency.getInEdgeIds(nodeId)) {
+            removeEdge(edgeId);
+        }
+        adjacency.removeNode(nodeId);
+        return true;
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public boolean removeEdge(E edge) {
+        int edgeId = edgeIndex.getId(edge);
+        if(edgeId < 0) {
+            return false;
+        }
+        removeEdge(edgeId);
+        return true;
+    }
+
+    private void removeEdge(int edgeId) {
+        // Self loops are part of the in and out edges
+        if(edgeIndex.get(edgeId) != null) {
+            edgeIndex.remove(edgeId);
+            adjacency.removeEdge(edgeId);
+        }
+    }
+
+    @Override
+    public Set<N> nodes() {
+        return adjacency.nodes();
+    }
+
+    @Override
+    public Set<E> edges() {
+        return new AbstractSet<E>() {
+            @Override
+            public Iterator<E> iterator() {
+                return new CompactAdjacency.IdIterator<E>(edgeIndex.getIdBound()) {
+                    @Override
+                    E get(int edgeId) {
+                        return edgeIndex.get(edgeId);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return edgeIndex.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return edgeIndex.getId(o) >= 0;
+            }
+        };
+    }
+
+    @Override
+    public boolean isDirected() {
+        return true;
+    }
+
+    @Override
+    public boolean allowsParallelEdges() {
+        return true;
+    }
+
+    @Override
+    public boolean allowsSelfLoops() {
+        return true;
+    }
+
+    @Override
+    public ElementOrder<N> nodeOrder() {
+        return ElementOrder.insertion();
+    }
+
+    @Override
+    public ElementOrder<E> edgeOrder() {
+        return ElementOrder.insertion();
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public Set<N> adjacentNodes(N node) {
+        return adjacency.toNodeSet(adjacency.getAdjacentIds(getExistingNodeId(node)));
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public Set<N> predecessors(N node) {
+        return adjacency.toNodeSet(adjacency.getPredecessorIds(getExistingNodeId(node)));
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public Set<N> successors(N node) {
+        return adjacency.toNodeSet(adjacency.getSuccessorIds(getExistingNodeId(node)));
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public Set<E> incidentEdges(N node) {
+        int nodeId = getExistingNodeId(node);
+        int[] outEdgeIds = adjacency.getOutEdgeIds(nodeId);
+        int[] inEdgeIds = adjacency.getInEdgeIds(nodeId);
+        int[] edgeIds = Arrays.copyOf(outEdgeIds, outEdgeIds.length + inEdgeIds.length);
+        int numberOfEdges = outEdgeIds.length;
+        for(int edgeId : inEdgeIds) {
+            // Self loops are already part of the out edges
+            if(adjacency.getSource(edgeId) != nodeId) {
+                edgeIds[numberOfEdges++] = edgeId;
+            }
+        }
+        edgeIds = Arrays.copyOf(edgeIds, numberOfEdges);
+        Arrays.sort(edgeIds);
+        return toEdgeSet(edgeIds);
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public Set<E> inEdges(N node) {
+        return toEdgeSet(adjacency.getInEdgeIds(getExistingNodeId(node)));
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public Set<E> outEdges(N node) {
+        return toEdgeSet(adjacency.getOutEdgeIds(getExistingNodeId(node)));
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public int degree(N node) {
+        int nodeId = getExistingNodeId(node);
+        return adjacency.getInDegree(nodeId) + adjacency.getOutDegree(nodeId);
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public int inDegree(N node) {
+        return adjacency.getInDegree(getExistingNodeId(node));
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public int outDegree(N node) {
+        return adjacency.getOutDegree(getExistingNodeId(node));
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public EndpointPair<N> incidentNodes(E edge) {
+        int edgeId = edgeIndex.getId(edge);
+        if(edgeId < 0) {
+            throw new IllegalArgumentException("Edge "+edge+" is not an element of this graph.");
+        }
+        return EndpointPair.ordered(adjacency.getNode(adjacency.getSource(edgeId)),
+                adjacency.getNode(adjacency.getTarget(edgeId)));
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public Set<E> edgesConnecting(N nodeU, N nodeV) {
+        int sourceId = getExistingNodeId(nodeU);
+        int targetId = getExistingNodeId(nodeV);
+        int[] outEdgeIds = adjacency.getOutEdgeIds(sourceId);
+        int[] edgeIds = new int[outEdgeIds.length];
+        int numberOfEdges = 0;
+        for(int edgeId : outEdgeIds) {
+            if(adjacency.getTarget(edgeId) == targetId) {
+                edgeIds[numberOfEdges++] = edgeId;
+            }
+        }
+        return toEdgeSet(Arrays.copyOf(edgeIds, numberOfEdges));
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public Optional<E> edgeConnecting(N nodeU, N nodeV) {
+        return Optional.ofNullable(edgeConnectingOrNull(nodeU, nodeV));
+    }
+
+    @Nullable
+    @Override
+    @ParametersAreNonnullByDefault
+    public E edgeConnectingOrNull(N nodeU, N nodeV) {
+        Set<E> edgesConnecting = edgesConnecting(nodeU, nodeV);
+        switch (edgesConnecting.size()) {
+            case 0:
+                return null;
+            case 1:
+                return edgesConnecting.iterator().next();
+            default:
+                throw new IllegalArgumentException("Cannot call edgeConnecting() when parallel edges exist between "
+                        +nodeU+" and "+nodeV+". Consider calling edgesConnecting() instead.");
+        }
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public boolean hasEdgeConnecting(N nodeU, N nodeV) {
+        int sourceId = adjacency.getNodeId(nodeU);
+        int targetId = adjacency.getNodeId(nodeV);
+        if(sourceId < 0 || targetId < 0) {
+            return false;
+        }
+        for(int edgeId : adjacency.getOutEdgeIds(sourceId)) {
+            if(adjacency.getTarget(edgeId) == targetId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int getExistingNodeId(N node) {
+        int nodeId = adjacency.getNodeId(node);
+        if(nodeId < 0) {
+            throw new IllegalArgumentException("Node "+node+" is not an element of this graph.");
+        }
+        return nodeId;
+    }
+
+    private Set<E> toEdgeSet(int[] sortedEdgeIds) {
+        return new AbstractSet<E>() {
+            @Override
+            public Iterator<E> iterator() {
+                return new CompactAdjacency.IdIterator<E>(sortedEdgeIds.length) {
+                    @Override
+                    E get(int index) {
+                        return edgeIndex.get(sortedEdgeIds[index]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for(int edgeId : sortedEdgeIds) {
+                    if(edgeIndex.get(edgeId) != null) {
+                        size++;
+                    }
+                }
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return Arrays.binarySearch(sortedEdgeIds, edgeIndex.getId(o)) >= 0;
+            }
+        };
+    }
+}
@@ -19,18 +19,19 @@ package de.ugoe.cs.comfort.data.graphs;
 import com.google.common.base.MoreObjects;
 import com.google.common.graph.ElementOrder;
 import com.google.common.graph.EndpointPair;
-import com.google.common.graph.GraphBuilder;
 import com.google.common.graph.MutableGraph;
 import de.ugoe.cs.comfort.Utils;
 import de.ugoe.cs.comfort.data.DataSet;
+import de.ugoe.cs.comfort.data.graphs.export.GraphExportFormat;
+import de.ugoe.cs.comfort.data.graphs.export.GraphExporter;
 import de.ugoe.cs.comfort.data.models.IUnit;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Predicate;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 
@@ -41,115 +42,213 @@ import org.apache.commons.lang3.builder.HashCodeBuilder;
  * @author Fabian Trautsch
  */
 public class DependencyGraph extends DataSet implements MutableGraph<IUnit>, IGraph {
-    private final MutableGraph<IUnit> graph;
+    private final GraphBackend backend;
+    private volatile MutableGraph<IUnit> graph;
+
+    private volatile ReachabilityIndex reachabilityIndex = null;
+
+    // Only set for filtered views that are not materialized yet
+    private DependencyGraph source = null;
+    private Predicate<IUnit> nodeFilter = null;
+    private Predicate<EndpointPair<IUnit>> edgeFilter = null;
 
     public DependencyGraph() {
-        graph = GraphBuilder.directed().allowsSelfLoops(true).build();
+        this(GraphBackend.GUAVA);
+    }
+
+    public DependencyGraph(GraphBackend backend) {
+        this.backend = backend;
+        graph = backend.createGraph();
+    }
+
+    private DependencyGraph(DependencyGraph source, Predicate<IUnit> nodeFilter,
+                            Predicate<EndpointPair<IUnit>> edgeFilter) {
+        this.backend = source.backend;
+        this.source = source;
+        this.nodeFilter = nodeFilter;
+        this.edgeFilter = edgeFilter;
+    }
+
+    public GraphBackend getBackend() {
+        return backend;
     }
 
     public DependencyGraph getCopyOfGraph() {
-        DependencyGraph clonedGraph = new DependencyGraph();
+        synchronized (this) {
+            if(graph == null) {
+                return new DependencyGraph(source, nodeFilter, edgeFilter);
+            }
+        }
+        DependencyGraph clonedGraph = new DependencyGraph(backend);
         edges().forEach(
                 edge -> clonedGraph.putEdge(edge.source(), edge.target())
         );
         return clonedGraph;
     }
 
+    /**
+     * Creates a filtered view of this graph, see {@link CallGraph#filter(Predicate, Predicate)}.
+     *
+     * @param nodeFilter accepts the nodes that are kept, evaluated once per node
+     * @param edgeFilter accepts the edges that are kept
+     * @return filtered view
+     */
+    public DependencyGraph filter(Predicate<IUnit> nodeFilter, Predicate<EndpointPair<IUnit>> edgeFilter) {
+        synchronized (this) {
+            if(graph == null) {
+                return new DependencyGraph(source, this.nodeFilter.and(nodeFilter),
+                        this.edgeFilter.and(edgeFilter));
+            }
+        }
+        return new DependencyGraph(this, nodeFilter, edgeFilter);
+    }
+
+    @Override
+    public boolean isMaterialized() {
+        return graph != null;
+    }
+
+    @Override
+    public ReachabilityIndex getReachabilityIndex() {
+        ReachabilityIndex currentIndex = reachabilityIndex;
+        if(currentIndex == null) {
+            synchronized (this) {
+                if(reachabilityIndex == null) {
+                    reachabilityIndex = new ReachabilityIndex(this);
+                }
+                currentIndex = reachabilityIndex;
+            }
+        }
+        return currentIndex;
+    }
+
+    private MutableGraph<IUnit> getGraph() {
+        MutableGraph<IUnit> currentGraph = graph;
+        if(currentGraph == null) {
+            synchronized (this) {
+                if(graph == null) {
+                    graph = materialize();
+                    source = null;
+                    nodeFilter = null;
+                    edgeFilter = null;
+                }
+                currentGraph = graph;
+            }
+        }
+        return currentGraph;
+    }
+
+    private MutableGraph<IUnit> materialize() {
+        MutableGraph<IUnit> filteredGraph = backend.createGraph();
+        Map<IUnit, Boolean> acceptedNodes = new HashMap<>();
+        for(EndpointPair<IUnit> edge : source.edges()) {
+            if(edgeFilter.test(edge) && acceptedNodes.computeIfAbsent(edge.source(), nodeFilter::test)
+                    && acceptedNodes.computeIfAbsent(edge.target(), nodeFilter::test)) {
+                filteredGraph.putEdge(edge.source(), edge.target());
+            }
+        }
+        return filteredGraph;
+    }
+
     @Override
     @ParametersAreNonnullByDefault
     public boolean addNode(IUnit node) {
-        return graph.addNode(node);
+        reachabilityIndex = null;
+        return getGraph().addNode(node);
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public boolean putEdge(IUnit nodeU, IUnit nodeV) {
-        return graph.putEdge(nodeU, nodeV);
+        reachabilityIndex = null;
+        return getGraph().putEdge(nodeU, nodeV);
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public boolean removeNode(IUnit node) {
-        return graph.removeNode(node);
+        reachabilityIndex = null;
+        return getGraph().removeNode(node);
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public boolean removeEdge(IUnit nodeU, IUnit nodeV) {
-        return graph.removeEdge(nodeU, nodeV);
+        reachabilityIndex = null;
+        return getGraph().removeEdge(nodeU, nodeV);
     }
 
     @Override
     public Set<IUnit> nodes() {
-        return graph.nodes();
+        return getGraph().nodes();
     }
 
     @Override
     public Set<EndpointPair<IUnit>> edges() {
-        return graph.edges();
+        return getGraph().edges();
     }
 
     @Override
     public boolean isDirected() {
-        return graph.isDirected();
+        return getGraph().isDirected();
     }
 
     @Override
     public boolean allowsSelfLoops() {
-        return graph.allowsSelfLoops();
+        return getGraph().allowsSelfLoops();
     }
 
     @Override
     public ElementOrder<IUnit> nodeOrder() {
-        return graph.nodeOrder();
+        return getGraph().nodeOrder();
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public Set<IUnit> adjacentNodes(IUnit node) {
-        return graph.adjacentNodes(node);
+        return getGraph().adjacentNodes(node);
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public Set<IUnit> predecessors(IUnit node) {
-        return graph.predecessors(node);
+        return getGraph().predecessors(node);
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public Set<IUnit> successors(IUnit node) {
-        return graph.successors(node);
+        return getGraph().successors(node);
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public int degree(IUnit node) {
-        return graph.degree(node);
+        return getGraph().degree(node);
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public int inDegree(IUnit node) {
-        return graph.inDegree(node);
+        return getGraph().inDegree(node);
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public int outDegree(IUnit node) {
-        return graph.outDegree(node);
+        return getGraph().outDegree(node);
     }
 
     @Override
     @ParametersAreNonnullByDefault
     public boolean hasEdgeConnecting(IUnit nodeU, IUnit nodeV) {
-        return graph.hasEdgeConnecting(nodeU, nodeV);
+        return getGraph().hasEdgeConnecting(nodeU, nodeV);
     }
 
     @Override
     public int hashCode() {
         return new HashCodeBuilder(17, 31)
-                .append(graph)
+                .append(getGraph())
                 .toHashCode();
     }
 
@@ -193,13 +292,7 @@ public class DependencyGraph extends DataSet implements MutableGraph<IUnit>, IGr
 
 
     public void printToFileInDotFormat(Path outputPath) throws IOException {
-        List<String> lines = new ArrayList<>();
-        lines.add("digraph graph {");
-        for(EndpointPair<IUnit> edge: graph.edges()) {
-            lines.add("\"" + edge.source() + "\" -> \"" + edge.target() + "\";");
-        }
-        lines.add("}");
-        Files.write(outputPath, lines);
+        GraphExporter.export(this, outputPath, GraphExportFormat.DOT, false);
     }
 
     @Override
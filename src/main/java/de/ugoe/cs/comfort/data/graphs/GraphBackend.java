@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.data.graphs;
+
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import com.google.common.graph.MutableNetwork;
+import com.google.common.graph.NetworkBuilder;
+import de.ugoe.cs.comfort.data.models.IUnit;
+
+/**
+ * Backends that can be used to store the call graphs and dependency graphs. The GUAVA backend stores the adjacency of
+ * each node in hash maps. The COMPACT backend maps all nodes to int ids and stores the adjacency in int arrays, which
+ * needs less memory and makes traversals of large graphs faster. The OFF_HEAP backend stores the edges of call graphs
+ * in memory-mapped files (see {@link OffHeapCallNetwork}), so that the size of call graphs is not limited by the heap.
+ * Dependency graphs are on class level and therefore much smaller, they are stored like in the COMPACT backend.
+ *
+ * @author Fabian Trautsch
+ */
+public enum GraphBackend {
+    GUAVA,
+    COMPACT,
+    OFF_HEAP;
+
+    MutableNetwork<IUnit, CallEdge> createNetwork() {
+        if(this == OFF_HEAP) {
+            return new OffHeapCallNetwork();
+        }
+        if(this == COMPACT) {
+            return new CompactNetwork<>();
+        }
+        return NetworkBuilder.directed().allowsSelfLoops(true).allowsParallelEdges(true).build();
+    }
+
+    <N> MutableGraph<N> createGraph() {
+        if(this == COMPACT || this == OFF_HEAP) {
+            return new CompactGraph<>();
+        }
+        return GraphBuilder.directed().allowsSelfLoops(true).build();
+    }
+}
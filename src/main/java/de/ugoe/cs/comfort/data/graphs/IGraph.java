@@ -29,4 +29,14 @@ public interface IGraph {
     Set<IUnit> successors(IUnit node);
 
     Set<IUnit> getTestNodes();
+
+    /**
+     * @return false, if the graph is a filtered view that was not accessed yet
+     */
+    boolean isMaterialized();
+
+    /**
+     * @return reachability index of the graph, which is created once and reused until the graph is changed
+     */
+    ReachabilityIndex getReachabilityIndex();
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.data.graphs;
+
+import java.util.Arrays;
+
+/**
+ * Assigns dense int ids to long keys, like the {@link ObjectIdIndex} does for objects. It is used to identify the
+ * edges of a {@link CompactGraph} by their source and target id without boxing.
+ *
+ * @author Fabian Trautsch
+ */
+final class LongIdIndex {
+    private static final int FREE = 0;
+    private static final int DELETED = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private boolean[] removed = new boolean[INITIAL_CAPACITY];
+    private int[] table = new int[INITIAL_CAPACITY * 2];
+    private int idBound = 0;
+    private int size = 0;
+    private int usedSlots = 0;
+
+    int getId(long key) {
+        int mask = table.length - 1;
+        for(int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if(entry == FREE) {
+                return -1;
+            }
+            if(entry != DELETED && keys[entry - 1] == key) {
+                return entry - 1;
+            }
+        }
+    }
+
+    /**
+     * Adds the key, if it is not already part of the index.
+     *
+     * @param key key to add
+     * @return id of the key
+     */
+    int add(long key) {
+        int existingId = getId(key);
+        if(existingId >= 0) {
+            return existingId;
+        }
+
+        if(idBound == keys.length) {
+            keys = Arrays.copyOf(keys, idBound * 2);
+            removed = Arrays.copyOf(removed, idBound * 2);
+        }
+        if((usedSlots + 1) * 2 > table.length) {
+            rehash(Integer.highestOneBit(size + 1) * 4);
+        }
+
+        int id = idBound++;
+        keys[id] = key;
+        insertIntoTable(id);
+        usedSlots++;
+        size++;
+        return id;
+    }
+
+    void remove(int id) {
+        if(id < 0 || id >= idBound || removed[id]) {
+            return;
+        }
+        int mask = table.length - 1;
+        for(int slot = hash(keys[id]) & mask; ; slot = (slot + 1) & mask) {
+            if(table[slot] == id + 1) {
+                table[slot] = DELETED;
+                break;
+            }
+        }
+        removed[id] = true;
+        size--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void rehash(int capacity) {
+        table = new int[capacity];
+        usedSlots = 0;
+        for(int id = 0; id < idBound; id++) {
+            if(!removed[id]) {
+                insertIntoTable(id);
+                usedSlots++;
+            }
+        }
+    }
+
+    private void insertIntoTable(int id) {
+        int mask = table.length - 1;
+        int slot = hash(keys[id]) & mask;
+        while(table[slot] != FREE) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = id + 1;
+    }
+
+    private static int hash(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.data.graphs;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Int array that is stored outside of the java heap in a memory-mapped temporary file. The file is mapped in chunks,
+ * so that the array can grow beyond 2^31 bytes. New elements are 0. The operating system decides which parts of the
+ * file are kept in memory, therefore the size of the array is only limited by the disk.
+ *
+ * The file of an array is deleted, after the array is no longer reachable (checked whenever a new array is created)
+ * or at the latest when the JVM exits. Reads may be executed concurrently, writes must not be executed concurrently
+ * to anything else.
+ *
+ * @author Fabian Trautsch
+ */
+final class MappedIntArray {
+    private static final int CHUNK_SHIFT = 22;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final ReferenceQueue<MappedIntArray> RELEASED_ARRAYS = new ReferenceQueue<>();
+    private static final Set<FileReference> FILES = ConcurrentHashMap.newKeySet();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> FILES.forEach(FileReference::deleteFile)));
+    }
+
+    private final Path file;
+    private IntBuffer[] chunks = new IntBuffer[0];
+
+    MappedIntArray() {
+        deleteReleasedFiles();
+        try {
+            file = Files.createTempFile("comfort-", ".ints");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        FILES.add(new FileReference(this, file));
+    }
+
+    int get(long index) {
+        return chunks[(int) (index >>> CHUNK_SHIFT)].get((int) (index & CHUNK_MASK));
+    }
+
+    void set(long index, int value) {
+        ensureCapacity(index + 1);
+        chunks[(int) (index >>> CHUNK_SHIFT)].put((int) (index & CHUNK_MASK), value);
+    }
+
+    /**
+     * Maps the file at least up to the given number of elements.
+     *
+     * @param capacity number of elements that must be accessible
+     */
+    void ensureCapacity(long capacity) {
+        int numberOfChunks = (int) ((capacity + CHUNK_MASK) >>> CHUNK_SHIFT);
+        if(numberOfChunks <= chunks.length) {
+            return;
+        }
+
+        // Mapping a region behind the end of the file extends the file, the new region is filled with 0
+        IntBuffer[] newChunks = Arrays.copyOf(chunks, numberOfChunks);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            for(int chunk = chunks.length; chunk < numberOfChunks; chunk++) {
+                newChunks[chunk] = channel.map(FileChannel.MapMode.READ_WRITE,
+                        (long) chunk * CHUNK_SIZE * Integer.BYTES, (long) CHUNK_SIZE * Integer.BYTES)
+                        .order(ByteOrder.nativeOrder()).asIntBuffer();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        chunks = newChunks;
+    }
+
+    private static void deleteReleasedFiles() {
+        Reference<? extends MappedIntArray> reference;
+        while((reference = RELEASED_ARRAYS.poll()) != null) {
+            FileReference fileReference = (FileReference) reference;
+            FILES.remove(fileReference);
+            fileReference.deleteFile();
+        }
+    }
+
+    private static final class FileReference extends PhantomReference<MappedIntArray> {
+        private final Path file;
+
+        FileReference(MappedIntArray array, Path file) {
+            super(array, RELEASED_ARRAYS);
+            this.file = file;
+        }
+
+        void deleteFile() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // E.g., on windows files can not be deleted while they are mapped
+                file.toFile().deleteOnExit();
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.data.graphs;
+
+import java.util.Arrays;
+
+/**
+ * Assigns dense int ids to objects. Ids are handed out in insertion order and are never reused, so that an id stays
+ * valid (and points to null) after its object was removed. The index uses open addressing over an int table, so that
+ * no entry object and no boxed integer is created per element. The hash code of each object is stored, so that it is
+ * only computed once per object and lookups only call equals for objects with the same hash.
+ *
+ * @author Fabian Trautsch
+ */
+final class ObjectIdIndex<T> {
+    // Slots of the table store the id+1, so that 0 marks a free slot
+    private static final int FREE = 0;
+    private static final int DELETED = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int[] table = new int[INITIAL_CAPACITY * 2];
+    private int idBound = 0;
+    private int size = 0;
+    private int usedSlots = 0;
+
+    int getId(Object value) {
+        if(value == null) {
+            return -1;
+        }
+        int hash = hash(value);
+        int mask = table.length - 1;
+        for(int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if(entry == FREE) {
+                return -1;
+            }
+            if(entry != DELETED && hashes[entry - 1] == hash && value.equals(values[entry - 1])) {
+                return entry - 1;
+            }
+        }
+    }
+
+    /**
+     * Adds the value, if it is not already part of the index.
+     *
+     * @param value value to add
+     * @return id of the value
+     */
+    int add(T value) {
+        int existingId = getId(value);
+        if(existingId >= 0) {
+            return existingId;
+        }
+
+        if(idBound == values.length) {
+            values = Arrays.copyOf(values, idBound * 2);
+            hashes = Arrays.copyOf(hashes, idBound * 2);
+        }
+        if((usedSlots + 1) * 2 > table.length) {
+            // Deleted slots are dropped, so that the table only grows if there are enough live values
+            rehash(Integer.highestOneBit(size + 1) * 4);
+        }
+
+        int id = idBound++;
+        int hash = hash(value);
+        values[id] = value;
+        hashes[id] = hash;
+        insertIntoTable(id, hash);
+        usedSlots++;
+        size++;
+        return id;
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(int id) {
+        return id < 0 || id >= idBound ? null : (T) values[id];
+    }
+
+    void remove(int id) {
+        if(get(id) == null) {
+            return;
+        }
+        int mask = table.length - 1;
+        for(int slot = hashes[id] & mask; ; slot = (slot + 1) & mask) {
+            if(table[slot] == id + 1) {
+                table[slot] = DELETED;
+                break;
+            }
+        }
+        values[id] = null;
+        size--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return upper bound (exclusive) of all ids that were handed out
+     */
+    int getIdBound() {
+        return idBound;
+    }
+
+    private void rehash(int capacity) {
+        table = new int[capacity];
+        usedSlots = 0;
+        for(int id = 0; id < idBound; id++) {
+            if(values[id] != null) {
+                insertIntoTable(id, hashes[id]);
+                usedSlots++;
+            }
+        }
+    }
+
+    private void insertIntoTable(int id, int hash) {
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while(table[slot] != FREE) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = id + 1;
+    }
+
+    private static int hash(Object value) {
+        int hash = value.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
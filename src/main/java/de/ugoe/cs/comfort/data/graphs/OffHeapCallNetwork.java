@@ -0,0 +1,642 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.data.graphs;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.graph.AbstractNetwork;
+import com.google.common.graph.ElementOrder;
+import com.google.common.graph.EndpointPair;
+import com.google.common.graph.MutableNetwork;
+import de.ugoe.cs.comfort.data.models.IUnit;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Directed network for call graphs whose edges are stored outside of the java heap (see {@link MappedIntArray}). Only
+ * the units and their int ids are kept on the heap. Each edge is stored as record of four ints (caller id, callee id,
+ * call type and order number), the lookup of edges by their value is done via an open addressing hash table and the
+ * incoming and outgoing edges of each node are derived in compressed sparse row form, like in the
+ * {@link CompactAdjacency}. All three structures are memory-mapped.
+ *
+ * The {@link CallEdge} objects are not stored, but created when they are returned. Therefore, each edge must connect
+ * its caller with its callee and changes to returned edges are not reflected in the network. Nodes and edges are
+ * returned in the order in which they were added.
+ *
+ * @author Fabian Trautsch
+ */
+public class OffHeapCallNetwork extends AbstractNetwork<IUnit, CallEdge> implements MutableNetwork<IUnit, CallEdge> {
+    private static final int RECORD_SIZE = 4;
+    private static final int SOURCE = 0;
+    private static final int TARGET = 1;
+    private static final int TYPE = 2;
+    private static final int ORDER_NUMBER = 3;
+
+    private static final int REMOVED = -1;
+    // The call type is stored as ordinal+1 in the lower bits, so that 0 can be used for null
+    private static final int ORDER_NUMBER_PRESENT = 0x100;
+    private static final CallType[] CALL_TYPES = CallType.values();
+
+    // Slots of the edge table store the edge id+1, so that 0 marks a free slot
+    private static final int FREE = 0;
+    private static final int DELETED = -1;
+    private static final long INITIAL_TABLE_CAPACITY = 1 << 12;
+
+    private final ObjectIdIndex<IUnit> nodeIndex = new ObjectIdIndex<>();
+    private final MappedIntArray edgeRecords = new MappedIntArray();
+    private MappedIntArray edgeTable = new MappedIntArray();
+    private long tableCapacity = INITIAL_TABLE_CAPACITY;
+    private long usedSlots = 0;
+    private int edgeIdBound = 0;
+    private int edgeCount = 0;
+    private volatile Csr csr = null;
+
+    public OffHeapCallNetwork() {
+        edgeTable.ensureCapacity(tableCapacity);
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public boolean addNode(IUnit node) {
+        int nodeIdBound = nodeIndex.getIdBound();
+        return nodeIndex.add(checkNotNull(node)) == nodeIdBound;
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public boolean addEdge(IUnit nodeU, IUnit nodeV, CallEdge edge) {
+        checkNotNull(nodeU);
+        checkNotNull(nodeV);
+        checkNotNull(edge);
+        if(!nodeU.equals(edge.getCaller()) || !nodeV.equals(edge.getCallee())) {
+            throw new IllegalArgumentException("Edge "+edge+" can only connect its caller and callee, but not "
+                    +nodeU+" and "+nodeV);
+        }
+        if(getEdgeId(edge) >= 0) {
+            return false;
+        }
+
+        int sourceId = nodeIndex.add(nodeU);
+        int targetId = nodeIndex.add(nodeV);
+        int edgeId = edgeIdBound++;
+        long record = (long) edgeId * RECORD_SIZE;
+        edgeRecords.set(record + SOURCE, sourceId);
+        edgeRecords.set(record + TARGET, targetId);
+        edgeRecords.set(record + TYPE, encodeType(edge));
+        edgeRecords.set(record + ORDER_NUMBER, encodeOrderNumber(edge));
+
+        if((usedSlots + 1) * 2 > tableCapacity) {
+            rehash();
+        }
+        insertIntoTable(edgeId);
+        usedSlots++;
+        edgeCount++;
+        csr = null;
+        return true;
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public boolean removeNode(IUnit node) {
+        int nodeId = nodeIndex.getId(node);
+        if(nodeId < 0) {
+            return false;
+        }
+        for(int edgeId : getOutEdgeIds(nodeId)) {
+            removeEdge(edgeId);
+        }
+        for(int edgeId : getInEdgeIds(nodeId)) {
+            removeEdge(edgeId);
+        }
+        nodeIndex.remove(nodeId);
+        return true;
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public boolean removeEdge(CallEdge edge) {
+        int edgeId = getEdgeId(edge);
+        if(edgeId < 0) {
+            return false;
+        }
+        removeEdge(edgeId);
+        return true;
+    }
+
+    private void removeEdge(int edgeId) {
+        // Self loops are part of the in and out edges
+        if(getSource(edgeId) == REMOVED) {
+            return;
+        }
+        long mask = tableCapacity - 1;
+        for(long slot = hash(edgeId) & mask; ; slot = (slot + 1) & mask) {
+            if(edgeTable.get(slot) == edgeId + 1) {
+                edgeTable.set(slot, DELETED);
+                break;
+            }
+        }
+        edgeRecords.set((long) edgeId * RECORD_SIZE + SOURCE, REMOVED);
+        edgeCount--;
+    }
+
+    @Override
+    public Set<IUnit> nodes() {
+        return new AbstractSet<IUnit>() {
+            @Override
+            public Iterator<IUnit> iterator() {
+                return new CompactAdjacency.IdIterator<IUnit>(nodeIndex.getIdBound()) {
+                    @Override
+                    IUnit get(int nodeId) {
+                        return nodeIndex.get(nodeId);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return nodeIndex.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return nodeIndex.getId(o) >= 0;
+            }
+        };
+    }
+
+    @Override
+    public Set<CallEdge> edges() {
+        return new AbstractSet<CallEdge>() {
+            @Override
+            public Iterator<CallEdge> iterator() {
+                return new CompactAdjacency.IdIterator<CallEdge>(edgeIdBound) {
+                    @Override
+                    CallEdge get(int edgeId) {
+                        return getEdge(edgeId);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return edgeCount;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return getEdgeId(o) >= 0;
+            }
+        };
+    }
+
+    @Override
+    public boolean isDirected() {
+        return true;
+    }
+
+    @Override
+    public boolean allowsParallelEdges() {
+        return true;
+    }
+
+    @Override
+    public boolean allowsSelfLoops() {
+        return true;
+    }
+
+    @Override
+    public ElementOrder<IUnit> nodeOrder() {
+        return ElementOrder.insertion();
+    }
+
+    @Override
+    public ElementOrder<CallEdge> edgeOrder() {
+        return ElementOrder.insertion();
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public Set<IUnit> adjacentNodes(IUnit node) {
+        int nodeId = getExistingNodeId(node);
+        int[] successorIds = getSuccessorIds(nodeId);
+        int[] predecessorIds = getPredecessorIds(nodeId);
+        int[] nodeIds = Arrays.copyOf(successorIds, successorIds.length + predecessorIds.length);
+        System.arraycopy(predecessorIds, 0, nodeIds, successorIds.length, predecessorIds.length);
+        return toNodeSet(CompactAdjacency.sortDistinct(nodeIds, nodeIds.length));
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public Set<IUnit> predecessors(IUnit node) {
+        return toNodeSet(getPredecessorIds(getExistingNodeId(node)));
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public Set<IUnit> successors(IUnit node) {
+        return toNodeSet(getSuccessorIds(getExistingNodeId(node)));
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public Set<CallEdge> incidentEdges(IUnit node) {
+        int nodeId = getExistingNodeId(node);
+        int[] outEdgeIds = getOutEdgeIds(nodeId);
+        int[] inEdgeIds = getInEdgeIds(nodeId);
+        int[] edgeIds = Arrays.copyOf(outEdgeIds, outEdgeIds.length + inEdgeIds.length);
+        int numberOfEdges = outEdgeIds.length;
+        for(int edgeId : inEdgeIds) {
+            // Self loops are already part of the out edges
+            if(getSource(edgeId) != nodeId) {
+                edgeIds[numberOfEdges++] = edgeId;
+            }
+        }
+        edgeIds = Arrays.copyOf(edgeIds, numberOfEdges);
+        Arrays.sort(edgeIds);
+        return toEdgeSet(edgeIds);
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public Set<CallEdge> inEdges(IUnit node) {
+        return toEdgeSet(getInEdgeIds(getExistingNodeId(node)));
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public Set<CallEdge> outEdges(IUnit node) {
+        return toEdgeSet(getOutEdgeIds(getExistingNodeId(node)));
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public int degree(IUnit node) {
+        return inDegree(node) + outDegree(node);
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public int inDegree(IUnit node) {
+        return getInEdgeIds(getExistingNodeId(node)).length;
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public int outDegree(IUnit node) {
+        return getOutEdgeIds(getExistingNodeId(node)).length;
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public EndpointPair<IUnit> incidentNodes(CallEdge edge) {
+        int edgeId = getEdgeId(edge);
+        if(edgeId < 0) {
+            throw new IllegalArgumentException("Edge "+edge+" is not an element of this graph.");
+        }
+        return EndpointPair.ordered(nodeIndex.get(getSource(edgeId)), nodeIndex.get(getTarget(edgeId)));
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public Set<CallEdge> edgesConnecting(IUnit nodeU, IUnit nodeV) {
+        int sourceId = getExistingNodeId(nodeU);
+        int targetId = getExistingNodeId(nodeV);
+        int[] outEdgeIds = getOutEdgeIds(sourceId);
+        int[] edgeIds = new int[outEdgeIds.length];
+        int numberOfEdges = 0;
+        for(int edgeId : outEdgeIds) {
+            if(getTarget(edgeId) == targetId) {
+                edgeIds[numberOfEdges++] = edgeId;
+            }
+        }
+        return toEdgeSet(Arrays.copyOf(edgeIds, numberOfEdges));
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public Optional<CallEdge> edgeConnecting(IUnit nodeU, IUnit nodeV) {
+        return Optional.ofNullable(edgeConnectingOrNull(nodeU, nodeV));
+    }
+
+    @Nullable
+    @Override
+    @ParametersAreNonnullByDefault
+    public CallEdge edgeConnectingOrNull(IUnit nodeU, IUnit nodeV) {
+        Set<CallEdge> edgesConnecting = edgesConnecting(nodeU, nodeV);
+        switch (edgesConnecting.size()) {
+            case 0:
+                return null;
+            case 1:
+                return edgesConnecting.iterator().next();
+            default:
+                throw new IllegalArgumentException("Cannot call edgeConnecting() when parallel edges exist between "
+                        +nodeU+" and "+nodeV+". Consider calling edgesConnecting() instead.");
+        }
+    }
+
+    @Override
+    @ParametersAreNonnullByDefault
+    public boolean hasEdgeConnecting(IUnit nodeU, IUnit nodeV) {
+        int sourceId = nodeIndex.getId(nodeU);
+        int targetId = nodeIndex.getId(nodeV);
+        if(sourceId < 0 || targetId < 0) {
+            return false;
+        }
+        for(int edgeId : getOutEdgeIds(sourceId)) {
+            if(getTarget(edgeId) == targetId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int getExistingNodeId(IUnit node) {
+        int nodeId = nodeIndex.getId(node);
+        if(nodeId < 0) {
+            throw new IllegalArgumentException("Node "+node+" is not an element of this graph.");
+        }
+        return nodeId;
+    }
+
+    private int getSource(int edgeId) {
+        return edgeRecords.get((long) edgeId * RECORD_SIZE + SOURCE);
+    }
+
+    private int getTarget(int edgeId) {
+        return edgeRecords.get((long) edgeId * RECORD_SIZE + TARGET);
+    }
+
+    @Nullable
+    private CallEdge getEdge(int edgeId) {
+        long record = (long) edgeId * RECORD_SIZE;
+        int source = edgeRecords.get(record + SOURCE);
+        if(source == REMOVED) {
+            return null;
+        }
+        int type = edgeRecords.get(record + TYPE);
+        int callType = type & ~ORDER_NUMBER_PRESENT;
+        return new CallEdge(callType == 0 ? null : CALL_TYPES[callType - 1],
+                (type & ORDER_NUMBER_PRESENT) == 0 ? null : edgeRecords.get(record + ORDER_NUMBER),
+                nodeIndex.get(source), nodeIndex.get(edgeRecords.get(record + TARGET)));
+    }
+
+    private int getEdgeId(Object o) {
+        if(!(o instanceof CallEdge)) {
+            return -1;
+        }
+        CallEdge edge = (CallEdge) o;
+        int source = nodeIndex.getId(edge.getCaller());
+        int target = nodeIndex.getId(edge.getCallee());
+        if(source < 0 || target < 0) {
+            return -1;
+        }
+        int type = encodeType(edge);
+        int orderNumber = encodeOrderNumber(edge);
+
+        long mask = tableCapacity - 1;
+        for(long slot = hash(source, target, type, orderNumber) & mask; ; slot = (slot + 1) & mask) {
+            int entry = edgeTable.get(slot);
+            if(entry == FREE) {
+                return -1;
+            }
+            if(entry != DELETED) {
+                long record = (long) (entry - 1) * RECORD_SIZE;
+                if(edgeRecords.get(record + SOURCE) == source && edgeRecords.get(record + TARGET) == target
+                        && edgeRecords.get(record + TYPE) == type
+                        && edgeRecords.get(record + ORDER_NUMBER) == orderNumber) {
+                    return entry - 1;
+                }
+            }
+        }
+    }
+
+    private void insertIntoTable(int edgeId) {
+        long mask = tableCapacity - 1;
+        long slot = hash(edgeId) & mask;
+        while(edgeTable.get(slot) != FREE) {
+            slot = (slot + 1) & mask;
+        }
+        edgeTable.set(slot, edgeId + 1);
+    }
+
+    private void rehash() {
+        // Deleted slots are dropped, so that the table only grows if there are enough live edges
+        long capacity = INITIAL_TABLE_CAPACITY;
+        while(capacity < (edgeCount + 1L) * 4) {
+            capacity <<= 1;
+        }
+        edgeTable = new MappedIntArray();
+        edgeTable.ensureCapacity(capacity);
+        tableCapacity = capacity;
+        usedSlots = 0;
+        for(int edgeId = 0; edgeId < edgeIdBound; edgeId++) {
+            if(getSource(edgeId) != REMOVED) {
+                insertIntoTable(edgeId);
+                usedSlots++;
+            }
+        }
+    }
+
+    private long hash(int edgeId) {
+        long record = (long) edgeId * RECORD_SIZE;
+        return hash(edgeRecords.get(record + SOURCE), edgeRecords.get(record + TARGET),
+                edgeRecords.get(record + TYPE), edgeRecords.get(record + ORDER_NUMBER));
+    }
+
+    private static long hash(int source, int target, int type, int orderNumber) {
+        long hash = ((long) source << 32) ^ (target & 0xFFFFFFFFL);
+        hash = hash * 0x9E3779B97F4A7C15L + ((long) type << 32 ^ (orderNumber & 0xFFFFFFFFL));
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static int encodeType(CallEdge edge) {
+        int type = edge.getCallType() == null ? 0 : edge.getCallType().ordinal() + 1;
+        return edge.getOrderNumber() == null ? type : type | ORDER_NUMBER_PRESENT;
+    }
+
+    private static int encodeOrderNumber(CallEdge edge) {
+        return edge.getOrderNumber() == null ? 0 : edge.getOrderNumber();
+    }
+
+    private int[] getOutEdgeIds(int nodeId) {
+        Csr current = getCsr();
+        return current.getLiveEdges(current.outOffsets, current.outEdges, nodeId);
+    }
+
+    private int[] getInEdgeIds(int nodeId) {
+        Csr current = getCsr();
+        return current.getLiveEdges(current.inOffsets, current.inEdges, nodeId);
+    }
+
+    private int[] getSuccessorIds(int nodeId) {
+        int[] edgeIds = getOutEdgeIds(nodeId);
+        int[] nodeIds = new int[edgeIds.length];
+        for(int i = 0; i < edgeIds.length; i++) {
+            nodeIds[i] = getTarget(edgeIds[i]);
+        }
+        return CompactAdjacency.sortDistinct(nodeIds, nodeIds.length);
+    }
+
+    private int[] getPredecessorIds(int nodeId) {
+        int[] edgeIds = getInEdgeIds(nodeId);
+        int[] nodeIds = new int[edgeIds.length];
+        for(int i = 0; i < edgeIds.length; i++) {
+            nodeIds[i] = getSource(edgeIds[i]);
+        }
+        return CompactAdjacency.sortDistinct(nodeIds, nodeIds.length);
+    }
+
+    private Csr getCsr() {
+        Csr current = csr;
+        if(current == null) {
+            synchronized (this) {
+                current = csr;
+                if(current == null) {
+                    current = new Csr(nodeIndex.getIdBound());
+                    csr = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Set<IUnit> toNodeSet(int[] sortedNodeIds) {
+        return new AbstractSet<IUnit>() {
+            @Override
+            public Iterator<IUnit> iterator() {
+                return new CompactAdjacency.IdIterator<IUnit>(sortedNodeIds.length) {
+                    @Override
+                    IUnit get(int index) {
+                        return nodeIndex.get(sortedNodeIds[index]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for(int nodeId : sortedNodeIds) {
+                    if(nodeIndex.get(nodeId) != null) {
+                        size++;
+                    }
+                }
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return Arrays.binarySearch(sortedNodeIds, nodeIndex.getId(o)) >= 0;
+            }
+        };
+    }
+
+    private Set<CallEdge> toEdgeSet(int[] sortedEdgeIds) {
+        return new AbstractSet<CallEdge>() {
+            @Override
+            public Iterator<CallEdge> iterator() {
+                return new CompactAdjacency.IdIterator<CallEdge>(sortedEdgeIds.length) {
+                    @Override
+                    CallEdge get(int index) {
+                        return getEdge(sortedEdgeIds[index]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for(int edgeId : sortedEdgeIds) {
+                    if(getSource(edgeId) != REMOVED) {
+                        size++;
+                    }
+                }
+                return size;
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return Arrays.binarySearch(sortedEdgeIds, getEdgeId(o)) >= 0;
+            }
+        };
+    }
+
+    /**
+     * Compressed sparse row representation of the incoming and outgoing edges, see {@link CompactAdjacency}. The
+     * offsets are kept on the heap, as their size only depends on the number of nodes. The edge ids are memory-mapped.
+     */
+    private final class Csr {
+        private final int nodeIdBound;
+        private final int[] outOffsets;
+        private final MappedIntArray outEdges = new MappedIntArray();
+        private final int[] inOffsets;
+        private final MappedIntArray inEdges = new MappedIntArray();
+
+        Csr(int nodeIdBound) {
+            this.nodeIdBound = nodeIdBound;
+            outOffsets = new int[nodeIdBound + 1];
+            inOffsets = new int[nodeIdBound + 1];
+            for(int edgeId = 0; edgeId < edgeIdBound; edgeId++) {
+                int source = getSource(edgeId);
+                if(source != REMOVED) {
+                    outOffsets[source + 1]++;
+                    inOffsets[getTarget(edgeId) + 1]++;
+                }
+            }
+            for(int nodeId = 0; nodeId < nodeIdBound; nodeId++) {
+                outOffsets[nodeId + 1] += outOffsets[nodeId];
+                inOffsets[nodeId + 1] += inOffsets[nodeId];
+            }
+
+            outEdges.ensureCapacity(outOffsets[nodeIdBound]);
+            inEdges.ensureCapacity(inOffsets[nodeIdBound]);
+            int[] outPositions = Arrays.copyOf(outOffsets, nodeIdBound);
+            int[] inPositions = Arrays.copyOf(inOffsets, nodeIdBound);
+            for(int edgeId = 0; edgeId < edgeIdBound; edgeId++) {
+                int source = getSource(edgeId);
+                if(source != REMOVED) {
+                    outEdges.set(outPositions[source]++, edgeId);
+                    inEdges.set(inPositions[getTarget(edgeId)]++, edgeId);
+                }
+            }
+        }
+
+        int[] getLiveEdges(int[] offsets, MappedIntArray edges, int nodeId) {
+            // Nodes that were added after the CSR was built have no edges, otherwise the CSR would have been reset
+            if(nodeId >= nodeIdBound) {
+                return new int[0];
+            }
+            int[] liveEdges = new int[offsets[nodeId + 1] - offsets[nodeId]];
+            int numberOfLiveEdges = 0;
+            for(int i = offsets[nodeId]; i < offsets[nodeId + 1]; i++) {
+                int edgeId = edges.get(i);
+                if(getSource(edgeId) != REMOVED) {
+                    liveEdges[numberOfLiveEdges++] = edgeId;
+                }
+            }
+            return numberOfLiveEdges == liveEdges.length ? liveEdges : Arrays.copyOf(liveEdges, numberOfLiveEdges);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.data.graphs;
+
+import de.ugoe.cs.comfort.data.models.IUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Answers which units are reachable from a test. The part of the graph that is reachable from the tests is condensed
+ * into its strongly connected components (iterative Tarjan, so that deep call chains do not overflow the stack).
+ * The set of reachable components is computed once for each component, in reverse topological order from the sets
+ * of its successor components. Therefore, a component that is reached by several tests is only traversed once.
+ *
+ * The sets are run-length encoded: as the components are numbered in the order in which Tarjan finishes them, the
+ * components that are reachable from a component mostly have contiguous numbers (e.g., the set of each component of
+ * a call chain is a single run). Moreover, the members of contiguous components are stored one after another, so
+ * that the reachable units of a unit are collected in O(number of reachable units).
+ *
+ * The index is immutable and can be shared between collectors, see {@link IGraph#getReachabilityIndex()}.
+ *
+ * @author Fabian Trautsch
+ */
+public final class ReachabilityIndex {
+    private final Map<IUnit, Integer> componentOfUnit = new HashMap<>();
+
+    // Members of component c are componentMembers[componentStart[c]] to componentMembers[componentStart[c+1]-1]
+    private IUnit[] componentMembers;
+    private int[] componentStart;
+    // Reachable components of component c are stored as runs [from, to) in reachableRuns[runStart[c]] to
+    // reachableRuns[runStart[c+1]-1], two entries per run
+    private int[] runStart;
+    private int[] reachableRuns;
+
+    public ReachabilityIndex(IGraph graph) {
+        Set<IUnit> roots = new HashSet<>();
+        for(IUnit node : graph.nodes()) {
+            if(node.isTestBasedOnFQNofUnit()) {
+                roots.add(node);
+            }
+        }
+        build(graph, roots);
+    }
+
+    /**
+     * Returns all units that are reachable from the given unit, without the unit itself.
+     *
+     * @param unit unit that is reachable from a test (e.g., the test itself)
+     * @return reachable units or an empty set, if the unit is not reachable from any test
+     */
+    public Set<IUnit> getReachableUnits(IUnit unit) {
+        Integer component = componentOfUnit.get(unit);
+        if(component == null) {
+            return Collections.emptySet();
+        }
+
+        int size = 0;
+        for(int i = runStart[component]; i < runStart[component + 1]; i += 2) {
+            size += componentStart[reachableRuns[i + 1]] - componentStart[reachableRuns[i]];
+        }
+
+        // The members of the components of a run are stored one after another
+        Set<IUnit> reachableUnits = new HashSet<>(size * 4 / 3 + 1);
+        for(int i = runStart[component]; i < runStart[component + 1]; i += 2) {
+            for(int m = componentStart[reachableRuns[i]]; m < componentStart[reachableRuns[i + 1]]; m++) {
+                reachableUnits.add(componentMembers[m]);
+            }
+        }
+
+        // A unit does not depend on itself, even if it is part of a cycle
+        reachableUnits.remove(unit);
+        return reachableUnits;
+    }
+
+    public int getNumberOfComponents() {
+        return componentStart.length - 1;
+    }
+
+    int getNumberOfRuns() {
+        return reachableRuns.length / 2;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void build(IGraph graph, Set<IUnit> roots) {
+        int maxNodes = graph.nodes().size();
+        Map<IUnit, Integer> nodeIds = new HashMap<>();
+        IUnit[] nodes = new IUnit[maxNodes];
+        int[] index = new int[maxNodes];
+        int[] lowLink = new int[maxNodes];
+        int[] component = new int[maxNodes];
+        Arrays.fill(component, -1);
+
+        // Stack of the nodes of the components that are not finished yet
+        int[] tarjanStack = new int[maxNodes];
+        int tarjanStackSize = 0;
+
+        // Replaces the recursion: the node and the iterator over its successors for each level of the traversal
+        int[] callStack = new int[maxNodes];
+        Iterator<IUnit>[] successorIterators = new Iterator[maxNodes];
+        int callStackSize = 0;
+
+        componentMembers = new IUnit[maxNodes];
+        componentStart = new int[maxNodes + 1];
+        runStart = new int[maxNodes + 1];
+        reachableRuns = new int[16];
+        int numberOfRunEntries = 0;
+        // Runs of the successor components of the current component, packed as (from << 32 | to) for sorting
+        long[] successorRuns = new long[16];
+        // Last component that added the component as successor, used to add each successor only once
+        int[] lastPredecessor = new int[maxNodes];
+        Arrays.fill(lastPredecessor, -1);
+        int numberOfMembers = 0;
+        int numberOfComponents = 0;
+
+        for(IUnit root : graph.nodes()) {
+            if(!roots.contains(root) || nodeIds.containsKey(root)) {
+                continue;
+            }
+
+            int rootId = nodeIds.size();
+            nodeIds.put(root, rootId);
+            nodes[rootId] = root;
+            index[rootId] = rootId;
+            lowLink[rootId] = rootId;
+            tarjanStack[tarjanStackSize++] = rootId;
+            callStack[callStackSize] = rootId;
+            successorIterators[callStackSize++] = graph.successors(root).iterator();
+
+            while(callStackSize > 0) {
+                int node = callStack[callStackSize - 1];
+                Iterator<IUnit> successors = successorIterators[callStackSize - 1];
+
+                if(successors.hasNext()) {
+                    IUnit successor = successors.next();
+                    Integer successorId = nodeIds.get(successor);
+                    if(successorId == null) {
+                        successorId = nodeIds.size();
+                        nodeIds.put(successor, successorId);
+                        nodes[successorId] = successor;
+                        index[successorId] = successorId;
+                        lowLink[successorId] = successorId;
+                        tarjanStack[tarjanStackSize++] = successorId;
+                        callStack[callStackSize] = successorId;
+                        successorIterators[callStackSize++] = graph.successors(successor).iterator();
+                    } else if(component[successorId] == -1) {
+                        // Successor is still on the tarjan stack
+                        lowLink[node] = Math.min(lowLink[node], index[successorId]);
+                    }
+                    continue;
+                }
+
+                successorIterators[--callStackSize] = null;
+                if(callStackSize > 0) {
+                    int parent = callStack[callStackSize - 1];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[node]);
+                }
+
+                if(lowLink[node] == index[node]) {
+                    // Node is the root of a component: all nodes above it on the tarjan stack belong to it
+                    int componentId = numberOfComponents++;
+                    componentStart[componentId] = numberOfMembers;
+                    int member;
+                    do {
+                        member = tarjanStack[--tarjanStackSize];
+                        component[member] = componentId;
+                        componentMembers[numberOfMembers++] = nodes[member];
+                    } while(member != node);
+                    componentStart[componentId + 1] = numberOfMembers;
+
+                    // All successor components are finished already, so their reachable components are known
+                    int numberOfSuccessorRuns = 0;
+                    successorRuns[numberOfSuccessorRuns++] = packRun(componentId, componentId + 1);
+                    for(int i = componentStart[componentId]; i < componentStart[componentId + 1]; i++) {
+                        for(IUnit successor : graph.successors(componentMembers[i])) {
+                            int successorComponent = component[nodeIds.get(successor)];
+                            if(successorComponent == componentId
+                                    || lastPredecessor[successorComponent] == componentId) {
+                                continue;
+                            }
+                            lastPredecessor[successorComponent] = componentId;
+                            int numberOfRuns = (runStart[successorComponent + 1] - runStart[successorComponent]) / 2;
+                            if(numberOfSuccessorRuns + numberOfRuns > successorRuns.length) {
+                                successorRuns = Arrays.copyOf(successorRuns,
+                                        Math.max(successorRuns.length * 2, numberOfSuccessorRuns + numberOfRuns));
+                            }
+                            for(int r = runStart[successorComponent]; r < runStart[successorComponent + 1]; r += 2) {
+                                successorRuns[numberOfSuccessorRuns++] = packRun(reachableRuns[r],
+                                        reachableRuns[r + 1]);
+                            }
+                        }
+                    }
+
+                    // Merge the overlapping and adjacent runs
+                    Arrays.sort(successorRuns, 0, numberOfSuccessorRuns);
+                    runStart[componentId] = numberOfRunEntries;
+                    int from = (int) (successorRuns[0] >>> 32);
+                    int to = (int) successorRuns[0];
+                    for(int i = 1; i <= numberOfSuccessorRuns; i++) {
+                        int nextFrom = i < numberOfSuccessorRuns ? (int) (successorRuns[i] >>> 32) : Integer.MAX_VALUE;
+                        if(nextFrom <= to) {
+                            to = Math.max(to, (int) successorRuns[i]);
+                            continue;
+                        }
+                        if(numberOfRunEntries + 2 > reachableRuns.length) {
+                            reachableRuns = Arrays.copyOf(reachableRuns, reachableRuns.length * 2);
+                        }
+                        reachableRuns[numberOfRunEntries++] = from;
+                        reachableRuns[numberOfRunEntries++] = to;
+                        if(i < numberOfSuccessorRuns) {
+                            from = nextFrom;
+                            to = (int) successorRuns[i];
+                        }
+                    }
+                    runStart[componentId + 1] = numberOfRunEntries;
+                }
+            }
+        }
+
+        runStart = Arrays.copyOf(runStart, numberOfComponents + 1);
+        reachableRuns = Arrays.copyOf(reachableRuns, numberOfRunEntries);
+        componentStart = Arrays.copyOf(componentStart, numberOfComponents + 1);
+        componentMembers = Arrays.copyOf(componentMembers, numberOfMembers);
+        nodeIds.forEach((node, nodeId) -> componentOfUnit.put(node, component[nodeId]));
+    }
+
+    private static long packRun(int from, int to) {
+        return ((long) from << 32) | to;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.data.graphs.binary;
+
+/**
+ * Constants of the binary graph format. A file has the following layout (numbers are big endian, "varint" is an
+ * unsigned LEB128 encoded int):
+ *
+ * <pre>
+ * header:  int magic, short version, byte graph type
+ * strings: varint count, per string: varint length, UTF-8 bytes
+ * units:   varint count, per unit: byte unit type and the fields of the unit as references into the string table
+ * edges:   varint count, per edge: varint source unit, varint target unit (call graphs: byte call type, varint order)
+ * index:   byte number of sections, per section: byte section, long offset, long length
+ * trailer: long offset of the index
+ * </pre>
+ *
+ * References to strings and nullable numbers are stored as value+1, so that 0 can be used for null.
+ *
+ * @author Fabian Trautsch
+ */
+final class BinaryGraphFormat {
+    static final int MAGIC = 0x43474246;
+    static final short VERSION = 1;
+
+    static final byte CALL_GRAPH = 1;
+    static final byte DEPENDENCY_GRAPH = 2;
+
+    static final byte STRINGS_SECTION = 1;
+    static final byte UNITS_SECTION = 2;
+    static final byte EDGES_SECTION = 3;
+
+    static final byte JAVA_CLASS = 1;
+    static final byte JAVA_METHOD = 2;
+    static final byte PYTHON_MODULE = 3;
+    static final byte PYTHON_METHOD = 4;
+
+    static final int NULL_REFERENCE = 0;
+
+    private BinaryGraphFormat() {
+
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.data.graphs.binary;
+
+import static de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphFormat.CALL_GRAPH;
+import static de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphFormat.DEPENDENCY_GRAPH;
+import static de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphFormat.EDGES_SECTION;
+import static de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphFormat.JAVA_CLASS;
+import static de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphFormat.JAVA_METHOD;
+import static de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphFormat.MAGIC;
+import static de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphFormat.NULL_REFERENCE;
+import static de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphFormat.PYTHON_METHOD;
+import static de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphFormat.PYTHON_MODULE;
+import static de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphFormat.STRINGS_SECTION;
+import static de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphFormat.UNITS_SECTION;
+import static de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphFormat.VERSION;
+
+import de.ugoe.cs.comfort.data.DataSet;
+import de.ugoe.cs.comfort.data.graphs.CallEdge;
+import de.ugoe.cs.comfort.data.graphs.CallGraph;
+import de.ugoe.cs.comfort.data.graphs.CallType;
+import de.ugoe.cs.comfort.data.graphs.DependencyGraph;
+import de.ugoe.cs.comfort.data.graphs.GraphBackend;
+import de.ugoe.cs.comfort.data.models.IUnit;
+import de.ugoe.cs.comfort.data.models.JavaClass;
+import de.ugoe.cs.comfort.data.models.JavaMethod;
+import de.ugoe.cs.comfort.data.models.PythonMethod;
+import de.ugoe.cs.comfort.data.models.PythonModule;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads call graphs and dependency graphs that were written by {@link BinaryGraphWriter}. The file is mapped into
+ * memory and the sections are located via the index at the end of the file. Each string of the string table is
+ * decoded only once and shared by all units that reference it, the units are created once and shared by all edges.
+ *
+ * @author Fabian Trautsch
+ */
+public final class BinaryGraphReader {
+    private static final CallType[] CALL_TYPES = CallType.values();
+
+    private final ByteBuffer buffer;
+    private String[] strings;
+    private Path[] paths;
+    private IUnit[] units;
+
+    private BinaryGraphReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Reads the graph that is stored in the file.
+     *
+     * @param file file that was written by {@link BinaryGraphWriter}
+     * @param graphBackend backend of the graph that is created
+     * @return call graph or dependency graph
+     * @throws IOException if the file can not be read or is no valid binary graph
+     */
+    public static DataSet read(Path file, GraphBackend graphBackend) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if(channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Binary graph "+file+" is too large to be mapped");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new BinaryGraphReader(buffer).readGraph(graphBackend);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Binary graph "+file+" is corrupt", e);
+        }
+    }
+
+    private DataSet readGraph(GraphBackend graphBackend) throws IOException {
+        if(buffer.getInt() != MAGIC) {
+            throw new IOException("File is no binary graph");
+        }
+        short version = buffer.getShort();
+        if(version != VERSION) {
+            throw new IOException("Unsupported version "+version+" of binary graph");
+        }
+        byte graphType = buffer.get();
+
+        // Locate the sections via the index, whose offset is stored at the end of the file
+        long[] sectionOffsets = new long[3];
+        buffer.position(toInt(buffer.getLong(buffer.limit() - Long.BYTES)));
+        int numberOfSections = buffer.get();
+        for(int i = 0; i < numberOfSections; i++) {
+            byte section = buffer.get();
+            long offset = buffer.getLong();
+            buffer.getLong();
+            if(section >= STRINGS_SECTION && section <= EDGES_SECTION) {
+                sectionOffsets[section - 1] = offset;
+            }
+        }
+
+        buffer.position(toInt(sectionOffsets[STRINGS_SECTION - 1]));
+        readStringTable();
+        buffer.position(toInt(sectionOffsets[UNITS_SECTION - 1]));
+        readUnits();
+        buffer.position(toInt(sectionOffsets[EDGES_SECTION - 1]));
+        if(graphType == CALL_GRAPH) {
+            return readCallGraph(graphBackend);
+        } else if(graphType == DEPENDENCY_GRAPH) {
+            return readDependencyGraph(graphBackend);
+        }
+        throw new IOException("Unknown graph type "+graphType+" in binary graph");
+    }
+
+    private void readStringTable() {
+        int numberOfStrings = readVarInt();
+        strings = new String[numberOfStrings];
+        paths = new Path[numberOfStrings];
+        byte[] scratch = new byte[64];
+        for(int i = 0; i < numberOfStrings; i++) {
+            int length = readVarInt();
+            if(scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(scratch, 0, length);
+            strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+
+    private void readUnits() throws IOException {
+        int numberOfUnits = readVarInt();
+        units = new IUnit[numberOfUnits];
+        for(int i = 0; i < numberOfUnits; i++) {
+            units[i] = readUnit();
+        }
+    }
+
+    private IUnit readUnit() throws IOException {
+        // The fields are read in the order of the constructor arguments, followed by the covered lines
+        byte unitType = buffer.get();
+        IUnit unit;
+        switch (unitType) {
+            case JAVA_CLASS:
+                unit = new JavaClass(readString(), readString(), readPath());
+                break;
+            case JAVA_METHOD:
+                unit = new JavaMethod(readString(), readString(), readString(), readStringList(), readPath());
+                break;
+            case PYTHON_MODULE:
+                unit = new PythonModule(readString(), readString(), readPath());
+                break;
+            case PYTHON_METHOD:
+                unit = new PythonMethod(readString(), readString(), readString(), readString(), readStringList(),
+                        readPath());
+                break;
+            default:
+                throw new IOException("Unknown unit type "+unitType+" in binary graph");
+        }
+        unit.setCoveredLines(readNullableInt());
+        return unit;
+    }
+
+    private CallGraph readCallGraph(GraphBackend graphBackend) throws IOException {
+        CallGraph callGraph = new CallGraph(graphBackend);
+        // Nodes are added separately, as the graph can contain nodes without edges
+        for(IUnit unit : units) {
+            callGraph.addNode(unit);
+        }
+
+        int numberOfEdges = readVarInt();
+        for(int i = 0; i < numberOfEdges; i++) {
+            IUnit caller = units[readVarInt()];
+            IUnit callee = units[readVarInt()];
+            int callType = buffer.get();
+            if(callType > CALL_TYPES.length) {
+                throw new IOException("Unknown call type "+callType+" in binary graph");
+            }
+            CallType type = callType == NULL_REFERENCE ? null : CALL_TYPES[callType - 1];
+            callGraph.addEdge(new CallEdge(type, readNullableInt(), caller, callee));
+        }
+        return callGraph;
+    }
+
+    private DependencyGraph readDependencyGraph(GraphBackend graphBackend) {
+        DependencyGraph dependencyGraph = new DependencyGraph(graphBackend);
+        for(IUnit unit : units) {
+            dependencyGraph.addNode(unit);
+        }
+
+        int numberOfEdges = readVarInt();
+        for(int i = 0; i < numberOfEdges; i++) {
+            IUnit source = units[readVarInt()];
+            IUnit target = units[readVarInt()];
+            dependencyGraph.putEdge(source, target);
+        }
+        return dependencyGraph;
+    }
+
+    private String readString() {
+        int reference = readVarInt();
+        return reference == NULL_REFERENCE ? null : strings[reference - 1];
+    }
+
+    private List<String> readStringList() {
+        int size = readVarInt();
+        if(size == NULL_REFERENCE) {
+            return null;
+        }
+        List<String> result = new ArrayList<>(size - 1);
+        for(int i = 1; i < size; i++) {
+            result.add(readString());
+        }
+        return result;
+    }
+
+    private Path readPath() {
+        int reference = readVarInt();
+        if(reference == NULL_REFERENCE) {
+            return null;
+        }
+        // Units of the same file share their path object
+        Path path = paths[reference - 1];
+        if(path == null) {
+            path = Paths.get(strings[reference - 1]);
+            paths[reference - 1] = path;
+        }
+        return path;
+    }
+
+    private Integer readNullableInt() {
+        int value = readVarInt();
+        if(value == NULL_REFERENCE) {
+            return null;
+        }
+        int zigzag = value - 1;
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    private int readVarInt() {
+        int value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = buffer.get();
+            value |= (current & 0x7F) << shift;
+            shift += 7;
+        } while((current & 0x80) != 0 && shift < 35);
+        return value;
+    }
+
+    private static int toInt(long offset) throws IOException {
+        if(offset <= 0 || offset > Integer.MAX_VALUE) {
+            throw new IOException("Invalid section offset "+offset+" in binary graph");
+        }
+        return (int) offset;
+    }
+}
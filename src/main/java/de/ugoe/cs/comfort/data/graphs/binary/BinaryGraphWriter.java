@@ -0,0 +1,281 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.data.graphs.binary;
+
+import static de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphFormat.CALL_GRAPH;
+import static de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphFormat.DEPENDENCY_GRAPH;
+import static de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphFormat.EDGES_SECTION;
+import static de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphFormat.JAVA_CLASS;
+import static de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphFormat.JAVA_METHOD;
+import static de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphFormat.MAGIC;
+import static de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphFormat.NULL_REFERENCE;
+import static de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphFormat.PYTHON_METHOD;
+import static de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphFormat.PYTHON_MODULE;
+import static de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphFormat.STRINGS_SECTION;
+import static de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphFormat.UNITS_SECTION;
+import static de.ugoe.cs.comfort.data.graphs.binary.BinaryGraphFormat.VERSION;
+
+import com.google.common.graph.EndpointPair;
+import com.google.common.io.CountingOutputStream;
+import de.ugoe.cs.comfort.data.DataSet;
+import de.ugoe.cs.comfort.data.graphs.CallEdge;
+import de.ugoe.cs.comfort.data.graphs.CallGraph;
+import de.ugoe.cs.comfort.data.graphs.DependencyGraph;
+import de.ugoe.cs.comfort.data.models.IUnit;
+import de.ugoe.cs.comfort.data.models.JavaClass;
+import de.ugoe.cs.comfort.data.models.JavaMethod;
+import de.ugoe.cs.comfort.data.models.PythonMethod;
+import de.ugoe.cs.comfort.data.models.PythonModule;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes call graphs and dependency graphs in the binary graph format, which can be read with
+ * {@link BinaryGraphReader}. Each string (package, class, method, path, ...) is only written once to the string table
+ * and each unit only once to the unit table, the edges only reference them.
+ *
+ * @author Fabian Trautsch
+ */
+public final class BinaryGraphWriter {
+    private final Map<String, Integer> stringIds = new LinkedHashMap<>();
+    private final Map<IUnit, Integer> unitIds = new HashMap<>();
+
+    private final CountingOutputStream countingStream;
+    private final DataOutputStream out;
+    private final long[][] sections = new long[3][];
+
+    private BinaryGraphWriter(CountingOutputStream countingStream) {
+        this.countingStream = countingStream;
+        this.out = new DataOutputStream(countingStream);
+    }
+
+    public static boolean isSupported(DataSet dataSet) {
+        return dataSet instanceof CallGraph || dataSet instanceof DependencyGraph;
+    }
+
+    /**
+     * Writes the given graph to the file.
+     *
+     * @param graph call graph or dependency graph
+     * @param file file to write to, is overwritten if it exists
+     * @throws IOException if the file can not be written or the graph contains units that are not supported
+     */
+    public static void write(DataSet graph, Path file) throws IOException {
+        if(!isSupported(graph)) {
+            throw new IOException("Data set "+graph.getClass().getName()+" can not be written as binary graph");
+        }
+
+        try (CountingOutputStream countingStream = new CountingOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file)))) {
+            BinaryGraphWriter writer = new BinaryGraphWriter(countingStream);
+            if(graph instanceof CallGraph) {
+                writer.writeCallGraph((CallGraph) graph);
+            } else {
+                writer.writeDependencyGraph((DependencyGraph) graph);
+            }
+            writer.out.flush();
+        }
+    }
+
+    private void writeCallGraph(CallGraph callGraph) throws IOException {
+        writeHeader(CALL_GRAPH);
+        writeStringsAndUnits(callGraph.nodes());
+
+        long start = startSection();
+        Set<CallEdge> edges = callGraph.edges();
+        writeVarInt(edges.size());
+        for(CallEdge edge : edges) {
+            writeVarInt(unitIds.get(edge.getCaller()));
+            writeVarInt(unitIds.get(edge.getCallee()));
+            out.writeByte(edge.getCallType() == null ? NULL_REFERENCE : edge.getCallType().ordinal() + 1);
+            writeNullableInt(edge.getOrderNumber());
+        }
+        endSection(EDGES_SECTION, start);
+
+        writeIndex();
+    }
+
+    private void writeDependencyGraph(DependencyGraph dependencyGraph) throws IOException {
+        writeHeader(DEPENDENCY_GRAPH);
+        writeStringsAndUnits(dependencyGraph.nodes());
+
+        long start = startSection();
+        Set<EndpointPair<IUnit>> edges = dependencyGraph.edges();
+        writeVarInt(edges.size());
+        for(EndpointPair<IUnit> edge : edges) {
+            writeVarInt(unitIds.get(edge.source()));
+            writeVarInt(unitIds.get(edge.target()));
+        }
+        endSection(EDGES_SECTION, start);
+
+        writeIndex();
+    }
+
+    private void writeHeader(byte graphType) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeByte(graphType);
+    }
+
+    private void writeStringsAndUnits(Set<IUnit> nodes) throws IOException {
+        // The string table needs to be complete before the units are written
+        for(IUnit node : nodes) {
+            collectStrings(node);
+        }
+
+        long start = startSection();
+        writeVarInt(stringIds.size());
+        for(String string : stringIds.keySet()) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            out.write(bytes);
+        }
+        endSection(STRINGS_SECTION, start);
+
+        start = startSection();
+        writeVarInt(nodes.size());
+        for(IUnit node : nodes) {
+            unitIds.put(node, unitIds.size());
+            writeUnit(node);
+        }
+        endSection(UNITS_SECTION, start);
+    }
+
+    private void collectStrings(IUnit unit) throws IOException {
+        // Subclasses first, as the methods extend the class level units
+        if(unit instanceof JavaMethod) {
+            JavaMethod javaMethod = (JavaMethod) unit;
+            collectStrings(javaMethod.getPackage(), javaMethod.getClassName(), javaMethod.getMethod());
+            collectStrings(javaMethod.getParameter());
+        } else if(unit instanceof JavaClass) {
+            JavaClass javaClass = (JavaClass) unit;
+            collectStrings(javaClass.getPackage(), javaClass.getClassName());
+        } else if(unit instanceof PythonMethod) {
+            PythonMethod pythonMethod = (PythonMethod) unit;
+            collectStrings(pythonMethod.getPackage(), pythonMethod.getModule(), pythonMethod.getNameSpace(),
+                    pythonMethod.getMethod());
+            collectStrings(pythonMethod.getParameter());
+        } else if(unit instanceof PythonModule) {
+            PythonModule pythonModule = (PythonModule) unit;
+            collectStrings(pythonModule.getPackage(), pythonModule.getModule());
+        } else {
+            throw new IOException("Unit "+unit.getClass().getName()+" can not be written as part of a binary graph");
+        }
+        collectStrings(unit.getFilePath() == null ? null : unit.getFilePath().toString());
+    }
+
+    private void collectStrings(List<String> strings) {
+        if(strings != null) {
+            strings.forEach(this::collectStrings);
+        }
+    }
+
+    private void collectStrings(String... strings) {
+        for(String string : strings) {
+            if(string != null) {
+                stringIds.putIfAbsent(string, stringIds.size());
+            }
+        }
+    }
+
+    private void writeUnit(IUnit unit) throws IOException {
+        if(unit instanceof JavaMethod) {
+            JavaMethod javaMethod = (JavaMethod) unit;
+            out.writeByte(JAVA_METHOD);
+            writeStrings(javaMethod.getPackage(), javaMethod.getClassName(), javaMethod.getMethod());
+            writeStrings(javaMethod.getParameter());
+        } else if(unit instanceof JavaClass) {
+            JavaClass javaClass = (JavaClass) unit;
+            out.writeByte(JAVA_CLASS);
+            writeStrings(javaClass.getPackage(), javaClass.getClassName());
+        } else if(unit instanceof PythonMethod) {
+            PythonMethod pythonMethod = (PythonMethod) unit;
+            out.writeByte(PYTHON_METHOD);
+            writeStrings(pythonMethod.getPackage(), pythonMethod.getModule(), pythonMethod.getNameSpace(),
+                    pythonMethod.getMethod());
+            writeStrings(pythonMethod.getParameter());
+        } else {
+            PythonModule pythonModule = (PythonModule) unit;
+            out.writeByte(PYTHON_MODULE);
+            writeStrings(pythonModule.getPackage(), pythonModule.getModule());
+        }
+        writeStrings(unit.getFilePath() == null ? null : unit.getFilePath().toString());
+        writeNullableInt(unit.getCoveredLines());
+    }
+
+    private void writeStrings(List<String> strings) throws IOException {
+        if(strings == null) {
+            writeVarInt(NULL_REFERENCE);
+            return;
+        }
+        writeVarInt(strings.size() + 1);
+        for(String string : strings) {
+            writeStrings(string);
+        }
+    }
+
+    private void writeStrings(String... strings) throws IOException {
+        for(String string : strings) {
+            writeVarInt(string == null ? NULL_REFERENCE : stringIds.get(string) + 1);
+        }
+    }
+
+    private void writeNullableInt(Integer value) throws IOException {
+        // Zigzag encoding, so that small negative numbers are small as well
+        writeVarInt(value == null ? NULL_REFERENCE : ((value << 1) ^ (value >> 31)) + 1);
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        int remaining = value;
+        while((remaining & ~0x7F) != 0) {
+            out.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.writeByte(remaining);
+    }
+
+    private long startSection() throws IOException {
+        out.flush();
+        return countingStream.getCount();
+    }
+
+    private void endSection(byte section, long start) throws IOException {
+        out.flush();
+        sections[section - 1] = new long[]{section, start, countingStream.getCount() - start};
+    }
+
+    private void writeIndex() throws IOException {
+        long indexOffset = startSection();
+        out.writeByte(sections.length);
+        for(long[] section : sections) {
+            out.writeByte((int) section[0]);
+            out.writeLong(section[1]);
+            out.writeLong(section[2]);
+        }
+        out.writeLong(indexOffset);
+    }
+}
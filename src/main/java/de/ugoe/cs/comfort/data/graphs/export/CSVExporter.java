@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.data.graphs.export;
+
+import de.ugoe.cs.comfort.data.graphs.CallType;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Exports graphs as edge list with the columns caller, callee, call type and order number. Nodes without edges are
+ * not part of the export. The call type and order number are empty for dependency graphs.
+ *
+ * @author Fabian Trautsch
+ */
+class CSVExporter extends GraphExporter {
+    CSVExporter(Writer writer) {
+        super(writer);
+    }
+
+    @Override
+    protected void writeHeader(String graphName) throws IOException {
+        writer.write("caller,callee,callType,orderNumber\n");
+    }
+
+    @Override
+    protected void writeNode(String label) {
+        // Only edges are exported
+    }
+
+    @Override
+    protected void writeEdge(String source, String target, CallType callType, Integer orderNumber)
+            throws IOException {
+        writeField(source);
+        writer.write(',');
+        writeField(target);
+        writer.write(',');
+        if(callType != null) {
+            writer.write(callType.name());
+        }
+        writer.write(',');
+        if(orderNumber != null) {
+            writer.write(orderNumber.toString());
+        }
+        writer.write('\n');
+    }
+
+    @Override
+    protected void writeFooter() {
+        // The edge list has no footer
+    }
+
+    private void writeField(String value) throws IOException {
+        // Fields are quoted if needed, e.g., for the parameters of methods
+        if(value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
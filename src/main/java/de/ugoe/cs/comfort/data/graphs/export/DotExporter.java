@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.data.graphs.export;
+
+import de.ugoe.cs.comfort.data.graphs.CallType;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Exports graphs in the DOT format of graphviz. The order number of calls is used as edge label.
+ *
+ * @author Fabian Trautsch
+ */
+class DotExporter extends GraphExporter {
+    DotExporter(Writer writer) {
+        super(writer);
+    }
+
+    @Override
+    protected void writeHeader(String graphName) throws IOException {
+        writer.write("digraph ");
+        writer.write(graphName);
+        writer.write(" {\n");
+    }
+
+    @Override
+    protected void writeNode(String label) throws IOException {
+        writer.write("  ");
+        writeId(label);
+        writer.write(";\n");
+    }
+
+    @Override
+    protected void writeEdge(String source, String target, CallType callType, Integer orderNumber)
+            throws IOException {
+        writer.write("  ");
+        writeId(source);
+        writer.write(" -> ");
+        writeId(target);
+        if(orderNumber != null) {
+            writer.write(" [ label = \"");
+            writer.write(orderNumber.toString());
+            writer.write("\" ]");
+        }
+        writer.write(";\n");
+    }
+
+    @Override
+    protected void writeFooter() throws IOException {
+        writer.write("}\n");
+    }
+
+    private void writeId(String id) throws IOException {
+        writer.write('"');
+        for(int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if(c == '"' || c == '\\') {
+                writer.write('\\');
+                writer.write(c);
+            } else if(c == '\n') {
+                writer.write("\\n");
+            } else {
+                writer.write(c);
+            }
+        }
+        writer.write('"');
+    }
+}
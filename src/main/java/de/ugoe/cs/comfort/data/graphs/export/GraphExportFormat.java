@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.data.graphs.export;
+
+import java.io.Writer;
+
+/**
+ * Formats in which graphs can be exported via {@link GraphExporter}.
+ *
+ * @author Fabian Trautsch
+ */
+public enum GraphExportFormat {
+    DOT(".dot"),
+    GRAPHML(".graphml"),
+    CSV(".csv");
+
+    private final String fileEnding;
+
+    GraphExportFormat(String fileEnding) {
+        this.fileEnding = fileEnding;
+    }
+
+    public String getFileEnding() {
+        return fileEnding;
+    }
+
+    GraphExporter createExporter(Writer writer) {
+        switch (this) {
+            case GRAPHML:
+                return new GraphMLExporter(writer);
+            case CSV:
+                return new CSVExporter(writer);
+            default:
+                return new DotExporter(writer);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.data.graphs.export;
+
+import com.google.common.graph.EndpointPair;
+import de.ugoe.cs.comfort.data.DataSet;
+import de.ugoe.cs.comfort.data.graphs.CallEdge;
+import de.ugoe.cs.comfort.data.graphs.CallGraph;
+import de.ugoe.cs.comfort.data.graphs.CallType;
+import de.ugoe.cs.comfort.data.graphs.DependencyGraph;
+import de.ugoe.cs.comfort.data.models.IUnit;
+import de.ugoe.cs.comfort.data.models.JavaMethod;
+import de.ugoe.cs.comfort.data.models.PythonMethod;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes call graphs and dependency graphs to a file. The nodes and edges are written one after another through a
+ * buffered writer, so that the memory that is needed for the export does not depend on the size of the graph.
+ *
+ * <p>Nodes are identified by their label: the fully qualified name, followed by the parameters for methods. This is
+ * needed, as the fully qualified names of overloaded methods are equal.</p>
+ *
+ * @author Fabian Trautsch
+ */
+public abstract class GraphExporter {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    protected final Writer writer;
+
+    protected GraphExporter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public static boolean isSupported(DataSet dataSet) {
+        return dataSet instanceof CallGraph || dataSet instanceof DependencyGraph;
+    }
+
+    /**
+     * Exports the graph to the given file.
+     *
+     * @param graph call graph or dependency graph
+     * @param file file to write to, is overwritten if it exists
+     * @param format format of the file
+     * @param compress true, if the file should be compressed with gzip
+     * @throws IOException if the file can not be written or the data set is no graph
+     */
+    public static void export(DataSet graph, Path file, GraphExportFormat format, boolean compress)
+            throws IOException {
+        if(!isSupported(graph)) {
+            throw new IOException("Data set "+graph.getClass().getName()+" can not be exported as graph");
+        }
+
+        // The file is closed by its own resource, as the constructor of the gzip stream can fail
+        try (OutputStream fileOut = Files.newOutputStream(file);
+             OutputStream out = compress ? new GZIPOutputStream(fileOut, BUFFER_SIZE) : fileOut;
+             Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            GraphExporter exporter = format.createExporter(writer);
+            if(graph instanceof CallGraph) {
+                exporter.exportCallGraph((CallGraph) graph);
+            } else {
+                exporter.exportDependencyGraph((DependencyGraph) graph);
+            }
+        }
+    }
+
+    private void exportCallGraph(CallGraph callGraph) throws IOException {
+        writeHeader("callgraph");
+        for(IUnit node : callGraph.nodes()) {
+            writeNode(getLabel(node));
+        }
+        for(CallEdge edge : callGraph.edges()) {
+            writeEdge(getLabel(edge.getCaller()), getLabel(edge.getCallee()), edge.getCallType(),
+                    edge.getOrderNumber());
+        }
+        writeFooter();
+    }
+
+    private void exportDependencyGraph(DependencyGraph dependencyGraph) throws IOException {
+        writeHeader("dependencygraph");
+        for(IUnit node : dependencyGraph.nodes()) {
+            writeNode(getLabel(node));
+        }
+        for(EndpointPair<IUnit> edge : dependencyGraph.edges()) {
+            writeEdge(getLabel(edge.source()), getLabel(edge.target()), null, null);
+        }
+        writeFooter();
+    }
+
+    protected abstract void writeHeader(String graphName) throws IOException;
+
+    protected abstract void writeNode(String label) throws IOException;
+
+    protected abstract void writeEdge(String source, String target, CallType callType, Integer orderNumber)
+            throws IOException;
+
+    protected abstract void writeFooter() throws IOException;
+
+    static String getLabel(IUnit unit) {
+        List<String> parameter = null;
+        if(unit instanceof JavaMethod) {
+            parameter = ((JavaMethod) unit).getParameter();
+        } else if(unit instanceof PythonMethod) {
+            parameter = ((PythonMethod) unit).getParameter();
+        } else {
+            return unit.getFQN();
+        }
+        return unit.getFQN()+"("+(parameter == null ? "" : String.join(",", parameter))+")";
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.data.graphs.export;
+
+import de.ugoe.cs.comfort.data.graphs.CallType;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Exports graphs in the GraphML format. The label of a node is used as its id, the call type and order number of
+ * calls are stored as edge data.
+ *
+ * @author Fabian Trautsch
+ */
+class GraphMLExporter extends GraphExporter {
+    GraphMLExporter(Writer writer) {
+        super(writer);
+    }
+
+    @Override
+    protected void writeHeader(String graphName) throws IOException {
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        writer.write("<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n");
+        writer.write("  <key id=\"callType\" for=\"edge\" attr.name=\"callType\" attr.type=\"string\"/>\n");
+        writer.write("  <key id=\"orderNumber\" for=\"edge\" attr.name=\"orderNumber\" attr.type=\"int\"/>\n");
+        writer.write("  <graph id=\"");
+        writer.write(graphName);
+        writer.write("\" edgedefault=\"directed\">\n");
+    }
+
+    @Override
+    protected void writeNode(String label) throws IOException {
+        writer.write("    <node id=\"");
+        writeEscaped(label);
+        writer.write("\"/>\n");
+    }
+
+    @Override
+    protected void writeEdge(String source, String target, CallType callType, Integer orderNumber)
+            throws IOException {
+        writer.write("    <edge source=\"");
+        writeEscaped(source);
+        writer.write("\" target=\"");
+        writeEscaped(target);
+        if(callType == null && orderNumber == null) {
+            writer.write("\"/>\n");
+            return;
+        }
+
+        writer.write("\">\n");
+        if(callType != null) {
+            writer.write("      <data key=\"callType\">");
+            writer.write(callType.name());
+            writer.write("</data>\n");
+        }
+        if(orderNumber != null) {
+            writer.write("      <data key=\"orderNumber\">");
+            writer.write(orderNumber.toString());
+            writer.write("</data>\n");
+        }
+        writer.write("    </edge>\n");
+    }
+
+    @Override
+    protected void writeFooter() throws IOException {
+        writer.write("  </graph>\n");
+        writer.write("</graphml>\n");
+    }
+
+    private void writeEscaped(String value) throws IOException {
+        for(int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '<':
+                    writer.write("&lt;");
+                    break;
+                case '>':
+                    writer.write("&gt;");
+                    break;
+                case '&':
+                    writer.write("&amp;");
+                    break;
+                case '"':
+                    writer.write("&quot;");
+                    break;
+                case '\'':
+                    writer.write("&apos;");
+                    break;
+                default:
+                    writer.write(c);
+            }
+        }
+    }
+}
@@ -36,4 +36,10 @@ public interface IUnit extends Serializable {
     void setCoveredLines(Integer coveredLines);
 
     Integer getCoveredLines();
+
+    /**
+     * @return unit on class level that contains this unit (e.g., the JavaClass of a JavaMethod), or the unit itself
+     * if it is already on class level
+     */
+    IUnit toClassLevelUnit();
 }
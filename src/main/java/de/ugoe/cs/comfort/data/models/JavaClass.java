@@ -18,7 +18,11 @@ package de.ugoe.cs.comfort.data.models;
 
 import com.google.common.base.MoreObjects;
 import de.ugoe.cs.comfort.Utils;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Comparator;
 import javax.annotation.Nonnull;
 import org.apache.commons.lang3.builder.CompareToBuilder;
@@ -31,9 +35,14 @@ import org.apache.commons.lang3.builder.HashCodeBuilder;
 public class JavaClass implements Comparable<JavaClass>, Comparator<JavaClass>, IUnit {
     protected String jPackage;
     protected String jClass;
-    protected Path fileName;
+    protected transient Path fileName;
     protected Integer coveredLines = null;
 
+    // Units are used as keys in the graphs, therefore often used values are computed only once
+    private transient String fqnOfUnit = null;
+    private transient Boolean testBasedOnFQNOfUnit = null;
+    private transient int hash = 0;
+
     public JavaClass(String jPackage, String jClass, Path fileName) {
         this.jPackage = jPackage;
         this.jClass = jClass;
@@ -51,6 +60,10 @@ public class JavaClass implements Comparable<JavaClass>, Comparator<JavaClass>,
         return jPackage;
     }
 
+    public String getClassName() {
+        return jClass;
+    }
+
     @Override
     public void setCoveredLines(Integer coveredLines) {
         this.coveredLines = coveredLines;
@@ -70,16 +83,22 @@ public class JavaClass implements Comparable<JavaClass>, Comparator<JavaClass>,
     }
 
     public Boolean isTestBasedOnFQNofUnit() {
-        return getFQNOfUnit().toLowerCase().contains("test");
+        if(testBasedOnFQNOfUnit == null) {
+            testBasedOnFQNOfUnit = getFQNOfUnit().toLowerCase().contains("test");
+        }
+        return testBasedOnFQNOfUnit;
     }
 
     @Override
     public String getFQNOfUnit() {
-        if(jPackage == null || jPackage.equals("")) {
-            return jClass;
+        if(fqnOfUnit == null) {
+            if(jPackage == null || jPackage.equals("")) {
+                fqnOfUnit = jClass;
+            } else {
+                fqnOfUnit = jPackage+"."+jClass;
+            }
         }
-
-        return jPackage+"."+jClass;
+        return fqnOfUnit;
     }
 
     @Override
@@ -87,6 +106,11 @@ public class JavaClass implements Comparable<JavaClass>, Comparator<JavaClass>,
         return getFQNOfUnit();
     }
 
+    @Override
+    public IUnit toClassLevelUnit() {
+        return this;
+    }
+
     public Boolean isInnerClass() {
         return jClass.contains("$");
     }
@@ -125,11 +149,26 @@ public class JavaClass implements Comparable<JavaClass>, Comparator<JavaClass>,
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder(17, 31)
-                .append(jPackage)
-                .append(jClass)
-                .append(fileName)
-                .toHashCode();
+        if(hash == 0) {
+            hash = new HashCodeBuilder(17, 31)
+                    .append(jPackage)
+                    .append(jClass)
+                    .append(fileName)
+                    .toHashCode();
+        }
+        return hash;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        // Path is not serializable, therefore we store the path as string
+        out.defaultWriteObject();
+        out.writeObject(fileName == null ? null : fileName.toString());
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        String path = (String) in.readObject();
+        fileName = path == null ? null : Paths.get(path);
     }
 
     @Override
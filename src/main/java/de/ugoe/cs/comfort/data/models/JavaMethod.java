@@ -20,6 +20,7 @@ import com.google.common.base.MoreObjects;
 import de.ugoe.cs.comfort.Utils;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
@@ -29,12 +30,16 @@ import org.apache.commons.lang3.builder.HashCodeBuilder;
  */
 public class JavaMethod extends JavaClass implements IUnit {
     private String method;
-    private List<String> parameter = new ArrayList<>();
+    // Unmodifiable, as the hash of the method is cached
+    private List<String> parameter = Collections.emptyList();
+
+    private transient String fqn = null;
+    private transient int hash = 0;
 
     public JavaMethod(String jPackage, String jClass, String method, List<String> parameter, Path fileName) {
         super(jPackage, jClass, fileName);
         this.method = method;
-        this.parameter = parameter;
+        this.parameter = copyOf(parameter);
     }
 
     public JavaMethod(String jPackage, String jClass, String method, Path fileName) {
@@ -45,7 +50,22 @@ public class JavaMethod extends JavaClass implements IUnit {
     public JavaMethod(String fullyQualifiedName, String methodName, List<String> parameter, Path fileName) {
         super(Utils.getPackageName(fullyQualifiedName), Utils.getClassName(fullyQualifiedName), fileName);
         this.method = methodName;
-        this.parameter = parameter;
+        this.parameter = copyOf(parameter);
+    }
+
+    private static List<String> copyOf(List<String> parameter) {
+        if(parameter == null) {
+            return null;
+        }
+        return Collections.unmodifiableList(new ArrayList<>(parameter));
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public List<String> getParameter() {
+        return parameter;
     }
 
     public Boolean isTestBasedOnFQNOfMethod() {
@@ -54,7 +74,15 @@ public class JavaMethod extends JavaClass implements IUnit {
 
     @Override
     public String getFQN() {
-        return getFQNOfUnit()+"."+method;
+        if(fqn == null) {
+            fqn = getFQNOfUnit()+"."+method;
+        }
+        return fqn;
+    }
+
+    @Override
+    public IUnit toClassLevelUnit() {
+        return new JavaClass(getFQNOfUnit(), getFilePath());
     }
 
     @Override
@@ -77,11 +105,14 @@ public class JavaMethod extends JavaClass implements IUnit {
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder(17, 31)
-                .appendSuper(super.hashCode())
-                .append(method)
-                .append(parameter)
-                .toHashCode();
+        if(hash == 0) {
+            hash = new HashCodeBuilder(17, 31)
+                    .appendSuper(super.hashCode())
+                    .append(method)
+                    .append(parameter)
+                    .toHashCode();
+        }
+        return hash;
     }
 
     @Override
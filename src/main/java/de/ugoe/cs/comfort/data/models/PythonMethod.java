@@ -32,6 +32,9 @@ public class PythonMethod extends PythonModule implements IUnit {
     private String method;
     private List<String> parameter = new ArrayList<>();
 
+    private transient String fqn = null;
+    private transient int hash = 0;
+
     public PythonMethod(String pPackage, String pModule, String nameSpace, String method, List<String> parameter,
                         Path fileName) {
         super(pPackage, pModule, fileName);
@@ -80,11 +83,32 @@ public class PythonMethod extends PythonModule implements IUnit {
             } else {
                 this.pPackage = fullNameBasedOnFileName.replace("." + this.pModule, "");
             }
+            resetCachedValues();
         }
     }
 
     public void setFileName(Path fileName) {
         this.fileName = fileName;
+        resetCachedValues();
+    }
+
+    @Override
+    protected void resetCachedValues() {
+        super.resetCachedValues();
+        fqn = null;
+        hash = 0;
+    }
+
+    public String getNameSpace() {
+        return nameSpace;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public List<String> getParameter() {
+        return parameter;
     }
 
     public Boolean isTestBasedOnFQNOfMethod() {
@@ -97,10 +121,19 @@ public class PythonMethod extends PythonModule implements IUnit {
 
     @Override
     public String getFQN() {
-        if (nameSpace == null) {
-            return getFQNOfUnit()+":"+method;
+        if(fqn == null) {
+            if (nameSpace == null) {
+                fqn = getFQNOfUnit()+":"+method;
+            } else {
+                fqn = getFQNOfUnit()+":"+nameSpace+"."+method;
+            }
         }
-        return getFQNOfUnit()+":"+nameSpace+"."+method;
+        return fqn;
+    }
+
+    @Override
+    public IUnit toClassLevelUnit() {
+        return new PythonModule(getFQNOfUnit(), getFilePath());
     }
 
     @Override
@@ -124,12 +157,15 @@ public class PythonMethod extends PythonModule implements IUnit {
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder(17, 31)
-                .appendSuper(super.hashCode())
-                .append(nameSpace)
-                .append(method)
-                .append(parameter)
-                .toHashCode();
+        if(hash == 0) {
+            hash = new HashCodeBuilder(17, 31)
+                    .appendSuper(super.hashCode())
+                    .append(nameSpace)
+                    .append(method)
+                    .append(parameter)
+                    .toHashCode();
+        }
+        return hash;
     }
 
     @Override
@@ -17,7 +17,11 @@
 package de.ugoe.cs.comfort.data.models;
 
 import com.google.common.base.MoreObjects;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Comparator;
 import javax.annotation.Nonnull;
@@ -32,9 +36,14 @@ import org.apache.commons.lang3.builder.HashCodeBuilder;
 public class PythonModule implements Comparable<PythonModule>, Comparator<PythonModule>, IUnit {
     protected String pPackage;
     protected String pModule;
-    protected Path fileName;
+    protected transient Path fileName;
     protected Integer coveredLines = null;
 
+    // Units are used as keys in the graphs, therefore often used values are computed only once
+    private transient String fqnOfUnit = null;
+    private transient Boolean testBasedOnFQNOfUnit = null;
+    private transient int hash = 0;
+
     public PythonModule(String pPackage, String pModule, Path fileName) {
         this.pPackage = pPackage;
         this.pModule = pModule;
@@ -73,7 +82,10 @@ public class PythonModule implements Comparable<PythonModule>, Comparator<Python
     }
 
     public Boolean isTestBasedOnFQNofUnit() {
-        return getFQNOfUnit().toLowerCase().contains("test");
+        if(testBasedOnFQNOfUnit == null) {
+            testBasedOnFQNOfUnit = getFQNOfUnit().toLowerCase().contains("test");
+        }
+        return testBasedOnFQNOfUnit;
     }
 
     public String getModule() {
@@ -82,7 +94,24 @@ public class PythonModule implements Comparable<PythonModule>, Comparator<Python
 
     @Override
     public String getFQNOfUnit() {
-        return pPackage+"."+pModule;
+        if(fqnOfUnit == null) {
+            fqnOfUnit = pPackage+"."+pModule;
+        }
+        return fqnOfUnit;
+    }
+
+    @Override
+    public IUnit toClassLevelUnit() {
+        return this;
+    }
+
+    /**
+     * Needs to be called by subclasses, if they change the package, module or file name.
+     */
+    protected void resetCachedValues() {
+        fqnOfUnit = null;
+        testBasedOnFQNOfUnit = null;
+        hash = 0;
     }
 
     @Override
@@ -124,11 +153,26 @@ public class PythonModule implements Comparable<PythonModule>, Comparator<Python
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder(17, 31)
-                .append(pPackage)
-                .append(pModule)
-                .append(fileName)
-                .toHashCode();
+        if(hash == 0) {
+            hash = new HashCodeBuilder(17, 31)
+                    .append(pPackage)
+                    .append(pModule)
+                    .append(fileName)
+                    .toHashCode();
+        }
+        return hash;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        // Path is not serializable, therefore we store the path as string
+        out.defaultWriteObject();
+        out.writeObject(fileName == null ? null : fileName.toString());
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        String path = (String) in.readObject();
+        fileName = path == null ? null : Paths.get(path);
     }
 
     @Override
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.data.models;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry that holds one canonical instance per unit for one run. Loaders resolve the units that they create through
+ * the registry, so that equal units are only stored once and compared by reference afterwards. Units can be looked
+ * up by a cheap key (e.g., the class name, method name and signature of a call instruction), so that the unit and
+ * its file path do not need to be created again for each occurrence. Each unit gets a dense int id.
+ *
+ * Units that carry the number of covered lines are not interned, as this number belongs to one test only.
+ * The registry is thread-safe.
+ *
+ * @author Fabian Trautsch
+ */
+public class UnitRegistry {
+    private final ConcurrentMap<IUnit, RegisteredUnit> registeredUnits = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, IUnit> unitsByKey = new ConcurrentHashMap<>();
+    private final ConcurrentMap<IUnit, IUnit> classLevelUnits = new ConcurrentHashMap<>();
+    private final List<IUnit> units = new ArrayList<>();
+
+    /**
+     * Creates units for the {@link UnitRegistry#intern(String, UnitFactory)} method.
+     *
+     * @param <T> type of the unit
+     * @param <X> exception that is thrown, if the unit can not be created
+     */
+    @FunctionalInterface
+    public interface UnitFactory<T extends IUnit, X extends Exception> {
+        T create() throws X;
+    }
+
+    /**
+     * Returns the canonical instance of the given unit.
+     *
+     * @param unit unit to intern
+     * @param <T> type of the unit
+     * @return canonical instance, which is the given unit if the unit was not registered before
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends IUnit> T intern(T unit) {
+        if(unit == null || unit.getCoveredLines() != null) {
+            return unit;
+        }
+        RegisteredUnit registeredUnit = registeredUnits.get(unit);
+        if(registeredUnit == null) {
+            synchronized (units) {
+                registeredUnit = registeredUnits.get(unit);
+                if(registeredUnit == null) {
+                    registeredUnit = new RegisteredUnit(unit, units.size());
+                    units.add(unit);
+                    registeredUnits.put(unit, registeredUnit);
+                }
+            }
+        }
+        return (T) registeredUnit.unit;
+    }
+
+    /**
+     * Returns the canonical instance of the unit with the given key. The unit is only created, if there is no unit
+     * for the key yet.
+     *
+     * @param key key that identifies the unit. Two units that are created for the same key must be equal
+     * @param factory creates the unit
+     * @param <T> type of the unit
+     * @param <X> exception that is thrown by the factory
+     * @return canonical instance of the unit
+     * @throws X if the unit can not be created
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends IUnit, X extends Exception> T intern(String key, UnitFactory<T, X> factory) throws X {
+        IUnit unit = unitsByKey.get(key);
+        if(unit == null) {
+            unit = intern(factory.create());
+            unitsByKey.putIfAbsent(key, unit);
+        }
+        return (T) unit;
+    }
+
+    /**
+     * Returns the canonical class level unit (e.g., the JavaClass of a JavaMethod) of the given unit.
+     *
+     * @param unit method or class level unit
+     * @return class level unit
+     */
+    public IUnit getClassLevelUnit(IUnit unit) {
+        IUnit classLevelUnit = classLevelUnits.get(unit);
+        if(classLevelUnit == null) {
+            classLevelUnit = intern(unit.toClassLevelUnit());
+            classLevelUnits.putIfAbsent(unit, classLevelUnit);
+        }
+        return classLevelUnit;
+    }
+
+    /**
+     * @param unit unit
+     * @return id of the unit or -1, if the unit was not interned
+     */
+    public int getId(IUnit unit) {
+        RegisteredUnit registeredUnit = registeredUnits.get(unit);
+        return registeredUnit == null ? -1 : registeredUnit.id;
+    }
+
+    public IUnit getUnit(int id) {
+        synchronized (units) {
+            return units.get(id);
+        }
+    }
+
+    public int size() {
+        synchronized (units) {
+            return units.size();
+        }
+    }
+
+    private static final class RegisteredUnit {
+        private final IUnit unit;
+        private final int id;
+
+        private RegisteredUnit(IUnit unit, int id) {
+            this.unit = unit;
+            this.id = id;
+        }
+    }
+}
@@ -21,13 +21,15 @@ import de.ugoe.cs.comfort.configuration.FilerConfiguration;
 import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
 import de.ugoe.cs.comfort.filer.models.Result;
 import de.ugoe.cs.comfort.filer.models.ResultSet;
+import de.ugoe.cs.comfort.instrumentation.StageTimer;
+import java.io.Closeable;
 import java.io.IOException;
 import java.util.Set;
 
 /**
  * @author Fabian Trautsch
  */
-public abstract class BaseFiler extends BaseModel {
+public abstract class BaseFiler extends BaseModel implements Closeable {
     protected ResultSet resultSet = new ResultSet();
     protected FilerConfiguration filerConfiguration;
 
@@ -39,6 +41,49 @@ public abstract class BaseFiler extends BaseModel {
 
     public abstract void storeResults(Set<Result> results) throws IOException;
 
+    /**
+     * Opens a sink that streams results to this filer in batches. The results are only stored, if the sink is
+     * committed after all results are given to it. The sink must be closed afterwards.
+     *
+     * @return sink for the results
+     */
+    public ResultSink openSink() {
+        return new ResultSink(this);
+    }
+
+    /**
+     * Stores a batch of results that was streamed via a {@link ResultSink}, after the sink was committed. Filers can
+     * override this method, if storing a batch can be done cheaper than storing the results directly (e.g., by
+     * deferring the write until {@link #finishResultBatches()} is called).
+     *
+     * @param results batch of results
+     * @throws IOException thrown if there is a problem with storing the results
+     */
+    protected void storeResultBatch(Set<Result> results) throws IOException {
+        storeResults(results);
+    }
+
+    /**
+     * Is called after the last batch of a {@link ResultSink} was given to {@link #storeResultBatch(Set)}.
+     *
+     * @throws IOException thrown if there is a problem with storing the results
+     */
+    protected void finishResultBatches() throws IOException {
+
+    }
+
+    /**
+     * Starts to measure a write of the filer. Must be closed after the results are written.
+     *
+     * @param numberOfResults number of results that are written
+     * @return timer for the write
+     */
+    protected StageTimer startWrite(int numberOfResults) {
+        generalConf.getMetricsRegistry().increment("filer.results", numberOfResults);
+        generalConf.getMetricsRegistry().increment("filer.writes", 1);
+        return generalConf.getMetricsRegistry().startStage("filer:"+this.getClass().getSimpleName());
+    }
+
     /**
      *
      * Stores the result in the database. The result is NOT merged
@@ -47,4 +92,15 @@ public abstract class BaseFiler extends BaseModel {
      * @throws IOException thrown if there is a problem with storing the result
      */
     public abstract void storeResult(Result result) throws IOException;
+
+    /**
+     * Releases the resources of the filer (e.g., database connections). Must be called after all collections that
+     * use the filer are finished.
+     *
+     * @throws IOException if the resources could not be released
+     */
+    @Override
+    public void close() throws IOException {
+
+    }
 }
@@ -23,8 +23,10 @@ import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
 import de.ugoe.cs.comfort.filer.models.Mutation;
 import de.ugoe.cs.comfort.filer.models.Result;
 import de.ugoe.cs.comfort.filer.models.ResultSet;
+import de.ugoe.cs.comfort.instrumentation.StageTimer;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -38,6 +40,7 @@ import java.util.stream.Collectors;
  * @author Fabian Trautsch
  */
 public class CSVFiler extends BaseFiler {
+    private static final String REVISION_PLACEHOLDER = "{revision}";
 
     public CSVFiler(GeneralConfiguration generalConfiguration, FilerConfiguration filerConfiguration) {
         super(generalConfiguration, filerConfiguration);
@@ -45,28 +48,75 @@ public class CSVFiler extends BaseFiler {
 
     @Override
     public synchronized void storeResults(Set<Result> results) throws IOException {
-        resultSet.addResults(results);
+        try (StageTimer timer = startWrite(results.size())) {
+            resultSet.addResults(results);
 
-        // Store as CSV
-        storeResultsAsCSV();
+            // Store as CSV
+            storeResultsAsCSV();
+        }
+    }
+
+    /**
+     * The results of a batch are only merged into the result set. The CSV files are written once after the last
+     * batch, as each write contains all results.
+     */
+    @Override
+    protected synchronized void storeResultBatch(Set<Result> results) {
+        try (StageTimer timer = startWrite(results.size())) {
+            resultSet.addResults(results);
+        }
+    }
+
+    @Override
+    protected synchronized void finishResultBatches() throws IOException {
+        try (StageTimer timer = startWrite(0)) {
+            storeResultsAsCSV();
+        }
     }
 
     @Override
     public synchronized void storeResult(Result result) throws IOException {
-        // Merge with result with the same id -> add to result set
-        resultSet.addResults(new HashSet<Result>(){
-            {
-                add(result);
-            }
-        });
+        try (StageTimer timer = startWrite(1)) {
+            // Merge with result with the same id -> add to result set
+            resultSet.addResults(new HashSet<Result>(){
+                {
+                    add(result);
+                }
+            });
+
+            // Store result
+            storeResultsAsCSV();
+        }
+    }
 
-        // Store result
-        storeResultsAsCSV();
+    /**
+     * Returns the path of a CSV file. If several revisions are analyzed, the placeholder {revision} in the configured
+     * path is replaced by the analyzed revision, so that each revision is stored in its own file. If the configured
+     * path has no placeholder, the revision is appended to the file name (e.g., metrics-&lt;revision&gt;.csv), as
+     * otherwise each revision would overwrite the file of the previous one.
+     */
+    Path getCSVPath(String configuredPath) {
+        String revision = generalConf.getRevision();
+        if(revision == null) {
+            return Paths.get(configuredPath);
+        }
+        if(configuredPath.contains(REVISION_PLACEHOLDER)) {
+            return Paths.get(configuredPath.replace(REVISION_PLACEHOLDER, revision));
+        }
+
+        Path path = Paths.get(configuredPath);
+        String fileName = path.getFileName().toString();
+        int extensionStart = fileName.lastIndexOf('.');
+        if(extensionStart <= 0) {
+            extensionStart = fileName.length();
+        }
+        return path.resolveSibling(fileName.substring(0, extensionStart)+"-"+revision
+                +fileName.substring(extensionStart));
     }
 
     private void clearCSVFile() throws IOException {
-        if(Files.exists(Paths.get(filerConfiguration.getMetricsCSVPath()))) {
-            Files.delete(Paths.get(filerConfiguration.getMetricsCSVPath()));
+        if(Files.exists(getCSVPath(filerConfiguration.getMetricsCSVPath()))) {
+            Files.delete(getCSVPath(filerConfiguration.getMetricsCSVPath()));
         }
     }
 
@@ -84,7 +134,7 @@ public class CSVFiler extends BaseFiler {
                 .map(result -> toMetricsCSVRow(result, metricHeaders))
                 .collect(Collectors.joining(System.getProperty("line.separator")));
 
-        Files.write(Paths.get(filerConfiguration.getMetricsCSVPath()),
+        Files.write(getCSVPath(filerConfiguration.getMetricsCSVPath()),
                 resultsAsCSV.getBytes(UTF_8));
 
         // Create mutation csv
@@ -97,7 +147,7 @@ public class CSVFiler extends BaseFiler {
                     .collect(Collectors.joining(System.getProperty("line.separator")));
 
 
-            Files.write(Paths.get(filerConfiguration.getMutationCSVPath()),
+            Files.write(getCSVPath(filerConfiguration.getMutationCSVPath()),
                     resultsAsCSV.getBytes(UTF_8));
         }
     }
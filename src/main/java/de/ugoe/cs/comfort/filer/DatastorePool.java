@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.filer;
+
+import com.github.danielfelgar.morphia.Log4JLoggerImplFactory;
+import com.mongodb.MongoClient;
+import com.mongodb.MongoClientURI;
+import de.ugoe.cs.comfort.configuration.Database;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mongodb.morphia.Datastore;
+import org.mongodb.morphia.Morphia;
+import org.mongodb.morphia.logging.MorphiaLoggerFactory;
+
+/**
+ * Keeps the connections to the databases open, so that filers that use the same database (e.g., in several runs of the
+ * daemon mode) share one connection pool. The models are only mapped once.
+ *
+ * Each filer that gets a datastore must release it again ({@link #releaseDatastore(Database)}), so that the pool
+ * knows which connections are in use. At most maximumConnections databases are kept open. If there are more, the
+ * connections to the least recently used databases that are not in use anymore are closed. Connections that are
+ * still in use are never closed, even if the limit is exceeded.
+ *
+ * @author Fabian Trautsch
+ */
+public final class DatastorePool {
+    private static final Logger LOGGER = LogManager.getLogger(DatastorePool.class.getName());
+
+    public static final int DEFAULT_MAXIMUM_CONNECTIONS = 4;
+
+    private static Morphia morphia = null;
+    private static int maximumConnections = DEFAULT_MAXIMUM_CONNECTIONS;
+    // Access order, so that the least recently used connection is closed first
+    private static final Map<Database, Connection> CONNECTIONS = new LinkedHashMap<>(16, 0.75f, true);
+    private static Connector connector = DatastorePool::connect;
+
+    private DatastorePool() {
+
+    }
+
+    /**
+     * Returns the datastore for the database. The connection is kept open until the datastore is released.
+     *
+     * @param databaseConfiguration configuration of the database
+     * @return datastore of the database
+     */
+    public static synchronized Datastore getDatastore(Database databaseConfiguration) {
+        Connection connection = CONNECTIONS.get(databaseConfiguration);
+        if(connection == null) {
+            connection = connector.connect(databaseConfiguration);
+            CONNECTIONS.put(databaseConfiguration, connection);
+        }
+        connection.users++;
+        closeLeastRecentlyUsed();
+        return connection.datastore;
+    }
+
+    /**
+     * Releases a datastore that was returned by {@link #getDatastore(Database)}. The connection stays open for later
+     * requests, as long as the limit of connections is not exceeded.
+     *
+     * @param databaseConfiguration configuration of the database
+     */
+    public static synchronized void releaseDatastore(Database databaseConfiguration) {
+        Connection connection = CONNECTIONS.get(databaseConfiguration);
+        if(connection != null && connection.users > 0) {
+            connection.users--;
+        }
+        closeLeastRecentlyUsed();
+    }
+
+    public static synchronized void setMaximumConnections(int maximumConnections) {
+        if(maximumConnections < 1) {
+            throw new IllegalArgumentException("At least one connection must be allowed");
+        }
+        DatastorePool.maximumConnections = maximumConnections;
+        closeLeastRecentlyUsed();
+    }
+
+    public static synchronized void closeAll() {
+        for(Connection connection : CONNECTIONS.values()) {
+            connection.closer.run();
+        }
+        CONNECTIONS.clear();
+    }
+
+    static synchronized boolean isOpen(Database databaseConfiguration) {
+        return CONNECTIONS.containsKey(databaseConfiguration);
+    }
+
+    // For testing purpose, null restores the connector that connects to MongoDB
+    static synchronized void setConnector(Connector connector) {
+        DatastorePool.connector = connector == null ? DatastorePool::connect : connector;
+    }
+
+    private static void closeLeastRecentlyUsed() {
+        Iterator<Map.Entry<Database, Connection>> iterator = CONNECTIONS.entrySet().iterator();
+        while(CONNECTIONS.size() > maximumConnections && iterator.hasNext()) {
+            Map.Entry<Database, Connection> entry = iterator.next();
+            // Filers of other runs still work with this connection
+            if(entry.getValue().users > 0) {
+                continue;
+            }
+            LOGGER.debug("Closing connection to database {}...", entry.getKey().getDatabase());
+            entry.getValue().closer.run();
+            iterator.remove();
+        }
+    }
+
+    private static Connection connect(Database databaseConfiguration) {
+        if(morphia == null) {
+            // Set up log4j logging
+            MorphiaLoggerFactory.reset();
+            MorphiaLoggerFactory.registerLogger(Log4JLoggerImplFactory.class);
+
+            // Map models
+            morphia = new Morphia();
+            morphia.mapPackage("de.ugoe.cs.smartshark.model");
+            morphia.mapPackage("de.ugoe.cs.comfort.database.models");
+        }
+
+        LOGGER.debug("Connecting to database...");
+        // Create database connection
+        MongoClientURI uri = new MongoClientURI(de.ugoe.cs.smartshark.Utils.createMongoDBURI(
+                databaseConfiguration.getUsername(),
+                databaseConfiguration.getPassword(),
+                databaseConfiguration.getHostname(),
+                String.valueOf(databaseConfiguration.getPort()),
+                databaseConfiguration.getAuthenticationDatabase(),
+                databaseConfiguration.getSSL()));
+        MongoClient mongoClient = new MongoClient(uri);
+        Datastore datastore = morphia.createDatastore(mongoClient, databaseConfiguration.getDatabase());
+        datastore.ensureIndexes();
+        return new Connection(mongoClient::close, datastore);
+    }
+
+    @FunctionalInterface
+    interface Connector {
+        Connection connect(Database databaseConfiguration);
+    }
+
+    static class Connection {
+        private final Runnable closer;
+        private final Datastore datastore;
+        // Number of filers that use the connection at the moment
+        private int users = 0;
+
+        Connection(Runnable closer, Datastore datastore) {
+            this.closer = closer;
+            this.datastore = datastore;
+        }
+    }
+}
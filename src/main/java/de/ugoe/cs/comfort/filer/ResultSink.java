@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.filer;
+
+import de.ugoe.cs.comfort.filer.models.Result;
+import de.ugoe.cs.comfort.filer.models.ResultSet;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Streams results from a metric collector to a filer. Results are given to the sink one after another, as soon as
+ * they are computed. A writer thread merges them, so that the collector does not need to keep its results. The queue
+ * between the collector and the writer is bounded: if the writer can not keep up, {@link #accept(Result)} blocks until
+ * there is space again.
+ *
+ * <p>The results are only handed over to the filer (in batches), when the collector calls {@link #commit()} after it
+ * was successful. If the sink is closed without a commit (e.g., because the collector failed), all results are
+ * discarded, so that no partial results of a collection are stored.</p>
+ *
+ * @author Fabian Trautsch
+ */
+public class ResultSink implements AutoCloseable {
+    private static final Logger LOGGER = LogManager.getLogger(ResultSink.class.getName());
+
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    // Marks the end of the stream in the queue
+    private static final Result END_OF_STREAM = new Result("end-of-stream");
+
+    private final BaseFiler filer;
+    private final int batchSize;
+    private final BlockingQueue<Result> queue;
+    private final Thread writer;
+    private volatile Throwable failure = null;
+    private volatile boolean committed = false;
+    private boolean closed = false;
+
+    public ResultSink(BaseFiler filer) {
+        this(filer, DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    public ResultSink(BaseFiler filer, int capacity, int batchSize) {
+        if(capacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Capacity and batch size must be at least 1");
+        }
+        this.filer = filer;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = new Thread(this::writeResults, "result-writer-"+filer.getClass().getSimpleName());
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Gives a result to the sink. Blocks, if the writer can not keep up with the collector.
+     *
+     * @param result result to store
+     * @throws IOException if the thread was interrupted
+     */
+    public void accept(Result result) throws IOException {
+        if(closed) {
+            throw new IllegalStateException("Result sink is already closed");
+        }
+
+        try {
+            queue.put(result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the result writer");
+        }
+    }
+
+    public void acceptAll(Iterable<Result> results) throws IOException {
+        for(Result result : results) {
+            accept(result);
+        }
+    }
+
+    /**
+     * Hands all results over to the filer and waits until they are stored. Must be called after the last result was
+     * given to the sink. Afterwards, the sink is closed.
+     *
+     * @throws IOException if the filer could not store the results
+     */
+    public void commit() throws IOException {
+        if(closed) {
+            throw new IllegalStateException("Result sink is already closed");
+        }
+        committed = true;
+        finishStream();
+        throwIfFailed();
+    }
+
+    /**
+     * Closes the sink. If it was not committed before, all results that were given to the sink are discarded.
+     *
+     * @throws IOException if the thread was interrupted
+     */
+    @Override
+    public void close() throws IOException {
+        if(closed) {
+            return;
+        }
+        finishStream();
+    }
+
+    private void finishStream() throws IOException {
+        closed = true;
+        try {
+            queue.put(END_OF_STREAM);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writer.interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the result writer");
+        }
+    }
+
+    private void throwIfFailed() throws IOException {
+        if(failure != null) {
+            throw new IOException("Could not store results: "+failure.getMessage(), failure);
+        }
+    }
+
+    private void writeResults() {
+        // Results with the same id are merged, before they are handed over to the filer
+        ResultSet stagedResults = new ResultSet();
+        while(true) {
+            Result result;
+            try {
+                result = queue.take();
+            } catch (InterruptedException e) {
+                // Only happens if the collector thread was interrupted while closing the sink
+                return;
+            }
+            if(result == END_OF_STREAM) {
+                break;
+            }
+            stagedResults.addResult(result);
+        }
+
+        if(!committed) {
+            LOGGER.debug("Discarding {} results, as the sink was closed without a commit", stagedResults.size());
+            return;
+        }
+
+        try {
+            Set<Result> batch = new LinkedHashSet<>();
+            for(Result result : stagedResults.getResults()) {
+                batch.add(result);
+                if(batch.size() == batchSize) {
+                    filer.storeResultBatch(batch);
+                    batch = new LinkedHashSet<>();
+                }
+            }
+            if(!batch.isEmpty()) {
+                filer.storeResultBatch(batch);
+            }
+            filer.finishResultBatches();
+        } catch (IOException | RuntimeException | Error e) {
+            // Unchecked exceptions (e.g., of the database driver) are kept as well, so that they are reported to the
+            // collector by the commit
+            LOGGER.catching(e);
+            failure = e;
+        }
+    }
+}
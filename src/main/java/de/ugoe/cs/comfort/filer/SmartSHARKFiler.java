@@ -16,15 +16,14 @@
 
 package de.ugoe.cs.comfort.filer;
 
-import com.github.danielfelgar.morphia.Log4JLoggerImplFactory;
-import com.mongodb.MongoClient;
-import com.mongodb.MongoClientURI;
 import de.ugoe.cs.comfort.collection.metriccollector.mutation.MutationLocation;
 import de.ugoe.cs.comfort.configuration.Database;
 import de.ugoe.cs.comfort.configuration.FilerConfiguration;
 import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
 import de.ugoe.cs.comfort.filer.models.Mutation;
 import de.ugoe.cs.comfort.filer.models.Result;
+import de.ugoe.cs.comfort.filer.models.ResultSet;
+import de.ugoe.cs.comfort.instrumentation.StageTimer;
 import de.ugoe.cs.smartshark.model.Commit;
 import de.ugoe.cs.smartshark.model.File;
 import de.ugoe.cs.smartshark.model.MutationResult;
@@ -44,8 +43,6 @@ import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.lib.RepositoryBuilder;
 import org.mongodb.morphia.Datastore;
-import org.mongodb.morphia.Morphia;
-import org.mongodb.morphia.logging.MorphiaLoggerFactory;
 import org.mongodb.morphia.query.Query;
 import org.mongodb.morphia.query.UpdateOperations;
 
@@ -53,8 +50,8 @@ import org.mongodb.morphia.query.UpdateOperations;
  * @author Fabian Trautsch
  */
 public class SmartSHARKFiler extends BaseFiler {
-    private final Morphia morphia = new Morphia();
     private Datastore datastore;
+    private boolean closed = false;
     private ObjectId commitId;
     private Map<Path, ObjectId> files = new HashMap<>();
     private Map<MutationLocation, ObjectId> storedMutations = new HashMap<>();
@@ -77,7 +74,16 @@ public class SmartSHARKFiler extends BaseFiler {
 
         // Connect to database
         datastore = connectToDatabase(filerConfiguration.getDatabase());
+        try {
+            loadDataOfCommit();
+        } catch (IOException | RuntimeException e) {
+            // The filer can not be used, therefore, it does not need the connection anymore
+            close();
+            throw e;
+        }
+    }
 
+    private void loadDataOfCommit() throws IOException {
         Repository repo = getRepository();
 
         // Get VCS System
@@ -119,11 +125,16 @@ public class SmartSHARKFiler extends BaseFiler {
 
     @Override
     public synchronized void storeResults(Set<Result> results) {
-        resultSet.addResults(results);
-
-        // Go through all results -> create a test state and store it
-        for(Result result: resultSet.getResults()) {
-            storeResult(result);
+        try (StageTimer timer = startWrite(results.size())) {
+            // Results with the same id are merged first. Results of earlier calls do not need to be stored again,
+            // as the metrics of the stored test states are merged with the new ones.
+            ResultSet resultsToStore = new ResultSet();
+            resultsToStore.addResults(results);
+
+            // Go through all results -> create a test state and store it
+            for(Result result: resultsToStore.getResults()) {
+                storeTestStateForResult(result);
+            }
         }
     }
 
@@ -138,6 +149,16 @@ public class SmartSHARKFiler extends BaseFiler {
             return;
         }
 
+        try (StageTimer timer = startWrite(1)) {
+            storeTestStateForResult(result);
+        }
+    }
+
+    private void storeTestStateForResult(Result result) {
+        if(result == null) {
+            return;
+        }
+
         ObjectId fileId = files.get(result.getPathToFile());
 
         // Create mutation results
@@ -250,28 +271,17 @@ public class SmartSHARKFiler extends BaseFiler {
     }
 
     private Datastore connectToDatabase(Database databaseConfiguration) {
-        // Set up log4j logging
-        MorphiaLoggerFactory.reset();
-        MorphiaLoggerFactory.registerLogger(Log4JLoggerImplFactory.class);
-
-        // Map models
-        morphia.mapPackage("de.ugoe.cs.smartshark.model");
-        morphia.mapPackage("de.ugoe.cs.comfort.database.models");
-
-        logger.debug("Connecting to database...");
-        // Create database connection
-        MongoClientURI uri = new MongoClientURI(de.ugoe.cs.smartshark.Utils.createMongoDBURI(
-                databaseConfiguration.getUsername(),
-                databaseConfiguration.getPassword(),
-                databaseConfiguration.getHostname(),
-                String.valueOf(databaseConfiguration.getPort()),
-                databaseConfiguration.getAuthenticationDatabase(),
-                databaseConfiguration.getSSL()));
-        MongoClient mongoClient = new MongoClient(uri);
-        final Datastore datastore = morphia.createDatastore(mongoClient, databaseConfiguration.getDatabase());
-        datastore.ensureIndexes();
-
-        return datastore;
+        // Connections are shared between all filers that use the same database
+        return DatastorePool.getDatastore(databaseConfiguration);
+    }
+
+    @Override
+    public synchronized void close() {
+        // The connection is only closed by the pool, if no other filer uses it anymore
+        if(!closed) {
+            closed = true;
+            DatastorePool.releaseDatastore(filerConfiguration.getDatabase());
+        }
     }
 
     public Map<MutationLocation, String> getMutationsAndClassification() {
@@ -17,20 +17,27 @@
 package de.ugoe.cs.comfort.filer.models;
 
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * @author Fabian Trautsch
  */
 public class ResultSet {
-    private Set<Result> results = new HashSet<>();
+    // Results are indexed by their id, as results with the same id are merged
+    private Map<String, Result> results = new LinkedHashMap<>();
 
     public ResultSet() {
 
     }
 
     public Set<Result> getResults() {
-        return results;
+        return new HashSet<>(results.values());
+    }
+
+    public int size() {
+        return results.size();
     }
 
     public void addResults(Set<Result> results) {
@@ -40,15 +47,14 @@ public class ResultSet {
     }
 
     public void addResult(Result resultToStore) {
-        for(Result result: this.results) {
-            if(result.getId().equals(resultToStore.getId())) {
-                result.mergeResult(resultToStore);
-                return;
-            }
+        Result result = results.get(resultToStore.getId());
+        if(result != null) {
+            result.mergeResult(resultToStore);
+            return;
         }
 
         // If we are here, we did not find the result, so we need to add it
-        results.add(resultToStore);
+        results.put(resultToStore.getId(), resultToStore);
     }
 
 }
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.ugoe.cs.comfort.instrumentation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.common.graph.Graph;
+import com.google.common.graph.Network;
+import de.ugoe.cs.comfort.data.DataSet;
+import de.ugoe.cs.comfort.data.graphs.IGraph;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects timings and counters of one run. The registry is thread-safe, as collections are executed in parallel.
+ * At the end of the run, the collected values can be written as JSON report.
+ *
+ * @author Fabian Trautsch
+ */
+public class MetricsRegistry {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final long startTime = System.currentTimeMillis();
+    private final long startNanos = System.nanoTime();
+    private final ConcurrentMap<String, StageStatistics> stages = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final List<Map<String, Object>> graphSizes = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Starts to measure a stage on the current thread. The returned timer must be closed on the same thread.
+     *
+     * @param stage name of the stage, e.g., "loader:CallGraphLoader"
+     * @return timer for the stage
+     */
+    public StageTimer startStage(String stage) {
+        return new StageTimer(this, stage);
+    }
+
+    void recordStage(String stage, long wallTime, long cpuTime, long allocatedBytes) {
+        stages.computeIfAbsent(stage, key -> new StageStatistics()).add(wallTime, cpuTime, allocatedBytes);
+    }
+
+    public void increment(String counter, long delta) {
+        counters.computeIfAbsent(counter, key -> new LongAdder()).add(delta);
+    }
+
+    public long getCounter(String counter) {
+        LongAdder adder = counters.get(counter);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    public long getStageCount(String stage) {
+        StageStatistics statistics = stages.get(stage);
+        return statistics == null ? 0 : statistics.getCount();
+    }
+
+    /**
+     * Records the number of nodes and edges of a graph before and after a stage (e.g., a filter). Data sets that
+     * are no graphs and filtered views that are not materialized yet are ignored.
+     *
+     * @param stage name of the stage
+     * @param before data set before the stage, null if there is none (e.g., for loaders)
+     * @param after data set after the stage
+     */
+    public void recordGraphSize(String stage, DataSet before, DataSet after) {
+        long[] sizeAfter = getGraphSize(after);
+        if(sizeAfter == null) {
+            return;
+        }
+
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("stage", stage);
+        long[] sizeBefore = getGraphSize(before);
+        if(sizeBefore != null) {
+            entry.put("nodesBefore", sizeBefore[0]);
+            entry.put("edgesBefore", sizeBefore[1]);
+        }
+        entry.put("nodesAfter", sizeAfter[0]);
+        entry.put("edgesAfter", sizeAfter[1]);
+        graphSizes.add(entry);
+    }
+
+    public Map<String, Object> createReport(String projectName) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("projectName", projectName);
+        report.put("version", MetricsRegistry.class.getPackage().getImplementationVersion());
+        report.put("startTime", startTime);
+        report.put("wallTimeMs", (System.nanoTime() - startNanos) / NANOS_PER_MILLI);
+
+        Map<String, Object> stageReport = new TreeMap<>();
+        stages.forEach((stage, statistics) -> stageReport.put(stage, statistics.toReport()));
+        report.put("stages", stageReport);
+
+        Map<String, Object> counterReport = new TreeMap<>();
+        counters.forEach((counter, value) -> counterReport.put(counter, value.sum()));
+        report.put("counters", counterReport);
+
+        synchronized (graphSizes) {
+            report.put("graphSizes", new ArrayList<>(graphSizes));
+        }
+        return report;
+    }
+
+    public void writeReport(String projectName, Path reportPath) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.enable(SerializationFeature.INDENT_OUTPUT);
+        mapper.writeValue(reportPath.toFile(), createReport(projectName));
+    }
+
+    /**
+     * Returns the path of the report for the given log file: the report is stored next to the log file.
+     *
+     * @param logFile path to the log file
+     * @return path to the report
+     */
+    public static Path getReportPath(String logFile) {
+        Path logPath = Paths.get(logFile);
+        return logPath.resolveSibling(logPath.getFileName().toString()+".report.json");
+    }
+
+    private static long[] getGraphSize(DataSet dataSet) {
+        // The size of a filtered view is not known without materializing it, which would prevent fusing filters
+        if(dataSet instanceof IGraph && !((IGraph) dataSet).isMaterialized()) {
+            return null;
+        }
+        if(dataSet instanceof Network) {
+            Network<?, ?> network = (Network<?, ?>) dataSet;
+            return new long[]{network.nodes().size(), network.edges().size()};
+        } else if(dataSet instanceof Graph) {
+            Graph<?> graph = (Graph<?>) dataSet;
+            return new long[]{graph.nodes().size(), graph.edges().size()};
+        }
+        return null;
+    }
+
+    private static class StageStatistics {
+        private long count = 0;
+        private long wallTime = 0;
+        private long maxWallTime = 0;
+        private long cpuTime = 0;
+        private long allocatedBytes = 0;
+
+        synchronized void add(long wallTime, long cpuTime, long allocatedBytes) {
+            this.count++;
+            this.wallTime += wallTime;
+            this.maxWallTime = Math.max(this.maxWallTime, wallTime);
+            this.cpuTime += Math.max(0, cpuTime);
+            this.allocatedBytes += Math.max(0, allocatedBytes);
+        }
+
+        synchronized long getCount() {
+            return count;
+        }
+
+        synchronized Map<String, Object> toReport() {
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("count", count);
+            report.put("wallTimeMs", wallTime / NANOS_PER_MILLI);
+            report.put("maxWallTimeMs", maxWallTime / NANOS_PER_MILLI);
+            report.put("cpuTimeMs", cpuTime / NANOS_PER_MILLI);
+            report.put("allocatedBytes", allocatedBytes);
+            return report;
+        }
+    }
+}
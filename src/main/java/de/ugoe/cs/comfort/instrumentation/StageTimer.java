@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.ugoe.cs.comfort.instrumentation;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the wall time, cpu time and allocated bytes of the current thread between its creation and
+ * {@link #close()}. The measurement is added to the statistics of its stage in the {@link MetricsRegistry}.
+ *
+ * @author Fabian Trautsch
+ */
+public class StageTimer implements AutoCloseable {
+    private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final MetricsRegistry registry;
+    private final String stage;
+    private final long threadId;
+    private final long startWallTime;
+    private final long startCpuTime;
+    private final long startAllocatedBytes;
+    private boolean closed = false;
+
+    StageTimer(MetricsRegistry registry, String stage) {
+        this.registry = registry;
+        this.stage = stage;
+        this.threadId = Thread.currentThread().getId();
+        this.startCpuTime = getCpuTime();
+        this.startAllocatedBytes = getAllocatedBytes(threadId);
+        this.startWallTime = System.nanoTime();
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    @Override
+    public void close() {
+        if(closed) {
+            return;
+        }
+        closed = true;
+
+        long wallTime = System.nanoTime() - startWallTime;
+        long cpuTime = startCpuTime < 0 ? -1 : getCpuTime() - startCpuTime;
+        long allocatedBytes = startAllocatedBytes < 0 ? -1 : getAllocatedBytes(threadId) - startAllocatedBytes;
+        registry.recordStage(stage, wallTime, cpuTime, allocatedBytes);
+    }
+
+    private static long getCpuTime() {
+        if(!THREAD_BEAN.isCurrentThreadCpuTimeSupported()) {
+            return -1;
+        }
+        return THREAD_BEAN.getCurrentThreadCpuTime();
+    }
+
+    private static long getAllocatedBytes(long threadId) {
+        // Only available on HotSpot based JVMs
+        if(THREAD_BEAN instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) THREAD_BEAN).getThreadAllocatedBytes(threadId);
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.revision;
+
+import de.ugoe.cs.comfort.ClassFileSource;
+import de.ugoe.cs.comfort.collection.CollectionScheduler;
+import de.ugoe.cs.comfort.collection.DataSetCache;
+import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
+import de.ugoe.cs.comfort.configuration.RevisionConfiguration;
+import de.ugoe.cs.comfort.exception.RevisionException;
+import de.ugoe.cs.comfort.exception.SchedulerException;
+import de.ugoe.cs.comfort.filer.BaseFiler;
+import de.ugoe.cs.comfort.instrumentation.StageTimer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.lib.RepositoryBuilder;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevSort;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
+
+/**
+ * Analyzes several revisions of a project. The revisions are checked out one after another (oldest first) in the
+ * project directory and the collections are executed for each of them. The results of each revision are stored via
+ * a new filer, which is created while the revision is checked out.
+ *
+ * <p>Only the first revision is loaded completely. For all later revisions, the files that were changed since the
+ * previous revision are determined via git and the data sets of the previous revision are updated with them (see
+ * {@link DataSetCache#createCacheForNextRevision(Set)}). If a revision fails (e.g., because the build command
+ * failed), the next revision is loaded completely again.</p>
+ *
+ * <p>The working tree must not contain uncommitted changes. At the end, the revision that was checked out before
+ * is restored.</p>
+ *
+ * @author Fabian Trautsch
+ */
+public class RevisionWalker {
+    private static final Logger LOGGER = LogManager.getLogger(RevisionWalker.class.getName());
+
+    private final GeneralConfiguration generalConf;
+    private final RevisionConfiguration revisionConf;
+
+    public RevisionWalker(GeneralConfiguration generalConfiguration) {
+        this.generalConf = generalConfiguration;
+        this.revisionConf = generalConfiguration.getRevisionConfiguration();
+    }
+
+    /**
+     * Analyzes all revisions of the revision configuration.
+     *
+     * @return the revisions that were analyzed successfully
+     * @throws RevisionException if the revisions can not be determined or checked out
+     * @throws IOException if the repository can not be read
+     * @throws InterruptedException if the analysis is interrupted
+     */
+    public List<String> walk() throws RevisionException, IOException, InterruptedException {
+        List<String> analyzedRevisions = new ArrayList<>();
+        try (Repository repository = new RepositoryBuilder().findGitDir(generalConf.getProjectDir().toFile())
+                .build();
+             Git git = new Git(repository)) {
+            if(git.status().call().hasUncommittedChanges()) {
+                throw new RevisionException("Working tree of "+repository.getWorkTree()+" has uncommitted changes");
+            }
+
+            List<RevCommit> revisions = getRevisions(repository);
+            LOGGER.info("Analyzing {} revisions of {}...", revisions.size(), repository.getWorkTree());
+
+            String originalHead = repository.getFullBranch();
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, generalConf.getNThreads()));
+            try {
+                DataSetCache dataSetCache = null;
+                RevCommit previousRevision = null;
+                for(RevCommit revision : revisions) {
+                    git.checkout().setName(revision.getName()).call();
+                    if(dataSetCache != null) {
+                        Set<Path> changedFiles = getChangedFiles(repository, previousRevision, revision);
+                        generalConf.getMetricsRegistry().increment("revisions.changedFiles", changedFiles.size());
+                        dataSetCache = dataSetCache.createCacheForNextRevision(changedFiles);
+                    } else {
+                        dataSetCache = new DataSetCache();
+                    }
+
+                    if(analyzeRevision(revision.getName(), dataSetCache, executor)) {
+                        analyzedRevisions.add(revision.getName());
+                        previousRevision = revision;
+                    } else {
+                        // The data of a failed revision can be incomplete
+                        dataSetCache = null;
+                        previousRevision = null;
+                    }
+                }
+            } finally {
+                executor.shutdownNow();
+                generalConf.setRevision(null);
+                LOGGER.info("Restoring {}...", originalHead);
+                git.checkout().setName(originalHead).call();
+            }
+        } catch (GitAPIException e) {
+            throw new RevisionException("Could not access git repository: "+e.getMessage());
+        }
+        return analyzedRevisions;
+    }
+
+    private List<RevCommit> getRevisions(Repository repository) throws IOException, RevisionException {
+        List<RevCommit> revisions = new ArrayList<>();
+        try (RevWalk revWalk = new RevWalk(repository)) {
+            revWalk.markStart(revWalk.parseCommit(resolve(repository, revisionConf.getTo())));
+            RevCommit from = null;
+            if(revisionConf.getFrom() != null) {
+                from = revWalk.parseCommit(resolve(repository, revisionConf.getFrom()));
+                revWalk.markUninteresting(from);
+                revisions.add(from);
+            }
+            // Oldest revision first, so that each revision can be based on the previous one
+            revWalk.sort(RevSort.TOPO);
+            revWalk.sort(RevSort.REVERSE, true);
+            for(RevCommit revision : revWalk) {
+                revisions.add(revision);
+            }
+        }
+        return revisions;
+    }
+
+    private ObjectId resolve(Repository repository, String revision) throws IOException, RevisionException {
+        ObjectId objectId = repository.resolve(revision);
+        if(objectId == null) {
+            throw new RevisionException("Unknown revision "+revision);
+        }
+        return objectId;
+    }
+
+    /**
+     * Returns the files that were added, changed, deleted or renamed between the two revisions. For renamed files,
+     * the old and the new path are returned.
+     *
+     * @param repository git repository
+     * @param oldRevision previous revision
+     * @param newRevision current revision
+     * @return absolute paths of the changed files in the working tree
+     * @throws IOException if the revisions can not be read
+     */
+    static Set<Path> getChangedFiles(Repository repository, RevCommit oldRevision, RevCommit newRevision)
+            throws IOException {
+        Path workTree = repository.getWorkTree().toPath().toAbsolutePath().normalize();
+        Set<Path> changedFiles = new HashSet<>();
+        try (DiffFormatter diffFormatter = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
+            diffFormatter.setRepository(repository);
+            for(DiffEntry entry : diffFormatter.scan(oldRevision.getTree(), newRevision.getTree())) {
+                if(!entry.getOldPath().equals(DiffEntry.DEV_NULL)) {
+                    changedFiles.add(workTree.resolve(entry.getOldPath()));
+                }
+                if(!entry.getNewPath().equals(DiffEntry.DEV_NULL)) {
+                    changedFiles.add(workTree.resolve(entry.getNewPath()));
+                }
+            }
+        }
+        return changedFiles;
+    }
+
+    private boolean analyzeRevision(String revision, DataSetCache dataSetCache, ExecutorService executor)
+            throws InterruptedException {
+        LOGGER.info("Analyzing revision {}...", revision);
+        generalConf.setRevision(revision);
+        // Archives that are rebuilt for the next revision are closed once this revision is analyzed
+        ClassFileSource classFileSource = generalConf.getClassFileSource();
+        try (ClassFileSource revisionClassFileSource = classFileSource.openRun();
+             StageTimer timer = generalConf.getMetricsRegistry().startStage("revision")) {
+            generalConf.setClassFileSource(revisionClassFileSource);
+            build();
+            try (BaseFiler filer = generalConf.getFiler()) {
+                new CollectionScheduler(generalConf, filer, dataSetCache, executor)
+                        .execute(generalConf.getCollections());
+            }
+            generalConf.getMetricsRegistry().increment("revisions.analyzed", 1);
+            return true;
+        } catch (IOException | RevisionException | SchedulerException | ClassNotFoundException
+                | IllegalAccessException | InstantiationException | NoSuchMethodException
+                | InvocationTargetException e) {
+            // One failing revision does not stop the analysis of the others
+            LOGGER.error("Could not analyze revision {}.", revision);
+            LOGGER.catching(e);
+            generalConf.getMetricsRegistry().increment("revisions.failed", 1);
+            return false;
+        } finally {
+            generalConf.setClassFileSource(classFileSource);
+        }
+    }
+
+    private void build() throws IOException, InterruptedException, RevisionException {
+        if(revisionConf.getBuildCommand().isEmpty()) {
+            return;
+        }
+
+        ProcessBuilder builder = new ProcessBuilder(revisionConf.getBuildCommand());
+        builder.directory(generalConf.getProjectDir().toFile());
+        builder.redirectErrorStream(true);
+        LOGGER.info("Calling command: {}", builder.command());
+        Process process = builder.start();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(),
+                StandardCharsets.UTF_8))) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                LOGGER.debug(line);
+            }
+        }
+        if(process.waitFor() != 0) {
+            throw new RevisionException("Build command "+builder.command()+" did not terminate with code 0");
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.io.ByteStreams;
+import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Fabian Trautsch
+ */
+public class ClassFileSourceTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final byte[] MAIN_CONTENT = {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 1};
+    private static final byte[] PERSON_CONTENT = {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 2};
+
+    @Test
+    public void archivesAreOnlyReadIfConfiguredTest() throws IOException {
+        File projectDir = createProject();
+        GeneralConfiguration configuration = new GeneralConfiguration();
+        configuration.setProjectDir(projectDir.toString());
+
+        try (ClassFileSource source = new ClassFileSource()) {
+            Set<Path> classFiles = source.getClassFiles(configuration);
+            assertEquals(1, classFiles.size());
+            assertTrue(classFiles.iterator().next().endsWith("org/foo/Main.class"));
+        }
+    }
+
+    @Test
+    public void classFilesOfArchivesAreReadTest() throws IOException {
+        File projectDir = createProject();
+        GeneralConfiguration configuration = new GeneralConfiguration();
+        configuration.setProjectDir(projectDir.toString());
+        configuration.setReadClassFileArchives(true);
+
+        try (ClassFileSource source = new ClassFileSource()) {
+            Set<Path> classFiles = source.getClassFiles(configuration);
+            // Main.class of the archive is not read, as it is also a loose class file
+            assertEquals(2, classFiles.size());
+
+            for(Path classFile : classFiles) {
+                if(classFile.endsWith("org/foo/models/Person.class")) {
+                    assertArrayEquals(PERSON_CONTENT, ClassFileSource.readBytes(classFile));
+                    assertTrue(ClassFileSource.getLocation(classFile).endsWith("lib.jar!/org/foo/models/Person.class"));
+                    try (InputStream in = ClassFileSource.openStream(classFile)) {
+                        assertArrayEquals(PERSON_CONTENT, ByteStreams.toByteArray(in));
+                    }
+                } else {
+                    assertEquals(projectDir.toPath().resolve("target/classes/org/foo/Main.class"), classFile);
+                    assertArrayEquals(MAIN_CONTENT, ClassFileSource.readBytes(classFile));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void invalidArchivesAreSkippedTest() throws IOException {
+        File projectDir = createProject();
+        Files.write(projectDir.toPath().resolve("invalid.zip"), new byte[]{1, 2, 3, 4});
+        Files.write(projectDir.toPath().resolve("a.jar"), "no archive".getBytes(StandardCharsets.UTF_8));
+        GeneralConfiguration configuration = new GeneralConfiguration();
+        configuration.setProjectDir(projectDir.toString());
+        configuration.setReadClassFileArchives(true);
+
+        try (ClassFileSource source = new ClassFileSource()) {
+            assertEquals(2, source.getClassFiles(configuration).size());
+        }
+    }
+
+    @Test
+    public void outdatedArchivesAreClosedWithTheirLastRunTest() throws IOException {
+        File projectDir = createProject();
+        Path archiveFile = projectDir.toPath().resolve("lib.jar");
+        byte[] rebuiltPersonContent = {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 3, 4, 5};
+        GeneralConfiguration configuration = new GeneralConfiguration();
+        configuration.setProjectDir(projectDir.toString());
+        configuration.setReadClassFileArchives(true);
+
+        try (ClassFileSource source = new ClassFileSource()) {
+            ClassFileSource firstRun = source.openRun();
+            Path oldPerson = getPersonClassFile(firstRun.getClassFiles(configuration));
+            ClassFileSource secondRun = source.openRun();
+            Path person = getPersonClassFile(secondRun.getClassFiles(configuration));
+            // The archive did not change, therefore, both runs share it
+            assertEquals(oldPerson.getFileSystem(), person.getFileSystem());
+
+            // Like a build, the archive is replaced instead of overwritten
+            Files.delete(archiveFile);
+            writeArchive(archiveFile, rebuiltPersonContent);
+            ClassFileSource thirdRun = source.openRun();
+            Path rebuiltPerson = getPersonClassFile(thirdRun.getClassFiles(configuration));
+            assertArrayEquals(rebuiltPersonContent, ClassFileSource.readBytes(rebuiltPerson));
+
+            // The outdated archive is still used by the first two runs
+            firstRun.close();
+            assertTrue(oldPerson.getFileSystem().isOpen());
+            assertArrayEquals(PERSON_CONTENT, ClassFileSource.readBytes(oldPerson));
+            secondRun.close();
+            assertFalse(oldPerson.getFileSystem().isOpen());
+
+            // The up to date archive stays open for the next runs
+            thirdRun.close();
+            assertTrue(rebuiltPerson.getFileSystem().isOpen());
+            assertArrayEquals(rebuiltPersonContent, ClassFileSource.readBytes(rebuiltPerson));
+        }
+    }
+
+    @Test
+    public void largeClassFilesAreMappedTest() throws IOException {
+        Path classFile = folder.newFile("Large.class").toPath();
+        byte[] content = new byte[64 * 1024];
+        content[content.length - 1] = 42;
+        Files.write(classFile, content);
+
+        ByteBuffer buffer = ClassFileSource.read(classFile);
+        assertTrue(buffer.isDirect());
+        assertEquals(content.length, buffer.remaining());
+        assertEquals(42, buffer.get(content.length - 1));
+    }
+
+    private File createProject() throws IOException {
+        File projectDir = folder.newFolder("project");
+        Path classDir = projectDir.toPath().resolve("target/classes/org/foo");
+        Files.createDirectories(classDir);
+        Files.write(classDir.resolve("Main.class"), MAIN_CONTENT);
+
+        writeArchive(projectDir.toPath().resolve("lib.jar"), PERSON_CONTENT);
+        return projectDir;
+    }
+
+    private void writeArchive(Path archiveFile, byte[] personContent) throws IOException {
+        try (OutputStream out = Files.newOutputStream(archiveFile);
+             ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("META-INF/versions/9/org/foo/Main.class"));
+            zip.write(MAIN_CONTENT);
+            zip.putNextEntry(new ZipEntry("org/foo/Main.class"));
+            zip.write(MAIN_CONTENT);
+            zip.putNextEntry(new ZipEntry("org/foo/models/Person.class"));
+            zip.write(personContent);
+        }
+    }
+
+    private Path getPersonClassFile(Set<Path> classFiles) {
+        for(Path classFile : classFiles) {
+            if(classFile.endsWith("org/foo/models/Person.class")) {
+                return classFile;
+            }
+        }
+        throw new AssertionError("Person.class was not found");
+    }
+}
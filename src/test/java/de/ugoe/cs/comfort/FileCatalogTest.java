@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Fabian Trautsch
+ */
+public class FileCatalogTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void filesAreEqualToWalkTest() throws IOException {
+        File projectDir = folder.newFolder("project");
+        File packageDir = new File(projectDir, "package");
+        assertTrue(packageDir.mkdir());
+        assertTrue(new File(projectDir, "a.py").createNewFile());
+        assertTrue(new File(packageDir, "b.py").createNewFile());
+        assertTrue(new File(packageDir, "c.txt").createNewFile());
+
+        FileCatalog catalog = new FileCatalog();
+        Set<Path> files = catalog.getFiles(projectDir.toPath(), ".*\\.py");
+
+        Set<Path> expectedFiles = new HashSet<>();
+        expectedFiles.add(projectDir.toPath().resolve("a.py"));
+        expectedFiles.add(packageDir.toPath().resolve("b.py"));
+        assertEquals(expectedFiles, files);
+        assertEquals(Utils.getAllFilesFromProjectForRegex(projectDir.toPath(), ".*\\.py"), files);
+    }
+
+    @Test
+    public void addedFileIsDetectedTest() throws IOException {
+        File projectDir = folder.newFolder("project");
+        File packageDir = new File(projectDir, "package");
+        assertTrue(packageDir.mkdir());
+        assertTrue(new File(packageDir, "a.py").createNewFile());
+
+        FileCatalog catalog = new FileCatalog();
+        assertEquals(1, catalog.getFiles(projectDir.toPath(), ".*\\.py").size());
+
+        assertTrue(new File(packageDir, "b.py").createNewFile());
+        // Make sure that the modification time changes, even if the file system has a coarse resolution
+        assertTrue(packageDir.setLastModified(packageDir.lastModified() + 2000));
+        assertEquals(2, catalog.getFiles(projectDir.toPath(), ".*\\.py").size());
+    }
+
+    @Test
+    public void returnedSetCanBeChangedTest() throws IOException {
+        File projectDir = folder.newFolder("project");
+        assertTrue(new File(projectDir, "a.py").createNewFile());
+
+        FileCatalog catalog = new FileCatalog();
+        catalog.getFiles(projectDir.toPath(), ".*\\.py").clear();
+        assertEquals(1, catalog.getFiles(projectDir.toPath(), ".*\\.py").size());
+    }
+
+    @Test
+    public void leastRecentlyUsedProjectIsRemovedTest() throws IOException {
+        FileCatalog catalog = new FileCatalog(2);
+        catalog.getFiles(folder.newFolder("first").toPath(), ".*");
+        catalog.getFiles(folder.newFolder("second").toPath(), ".*");
+        catalog.getFiles(folder.newFolder("third").toPath(), ".*");
+
+        assertEquals(2, catalog.size());
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+/**
+ * @author Fabian Trautsch
+ */
+public class FileNameUtilsTest extends BaseTest {
+
+    @Test
+    public void getPathForJavaClassFQNTest() throws IOException {
+        GeneralConfiguration configuration = new GeneralConfiguration();
+        configuration.setProjectDir(getPathToResource("loaderTestData/callgraph/javaproject"));
+        FileNameUtils fileNameUtils = new FileNameUtils(configuration);
+        Set<Path> javaFiles = Utils.getAllFilesFromProjectForRegexWithoutProjectDirPath(
+                configuration.getProjectDir(), ".*\\.java");
+
+        for(String fqn : Arrays.asList("org.foo.models.Person", "org.foo.models.Person$Inner",
+                "org.foo.models.Person$Inner$Nested", "models.Address", "Main", "org.foo.view.EntryView")) {
+            assertEquals(Utils.getPathForFullyQualifiedClassNameInSetOfPaths(javaFiles, fqn,
+                    configuration.getProjectDir()), fileNameUtils.getPathForJavaClassFQN(fqn));
+        }
+    }
+
+    @Test
+    public void getPathForJavaClassFQNNegativeTest() {
+        GeneralConfiguration configuration = new GeneralConfiguration();
+        configuration.setProjectDir(getPathToResource("loaderTestData/callgraph/javaproject"));
+        FileNameUtils fileNameUtils = new FileNameUtils(configuration);
+
+        // The second lookup is answered from the cache and needs to fail as well
+        for(int i = 0; i < 2; i++) {
+            try {
+                fileNameUtils.getPathForJavaClassFQN("org.foo.models.NonExisting");
+                fail("Expected exception!");
+            } catch (FileNotFoundException e) {
+                assertEquals("File for class org.foo.models.NonExisting was not found!", e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void getPathForPythonModuleFQNTest() throws FileNotFoundException {
+        GeneralConfiguration configuration = new GeneralConfiguration();
+        configuration.setProjectDir(getPathToResource("loaderTestData/callgraph/pythonproject"));
+        configuration.setLanguage("python");
+        FileNameUtils fileNameUtils = new FileNameUtils(configuration);
+
+        assertEquals(Paths.get("tests/data/demo.py"), fileNameUtils.getPathForPythonModuleFQN("tests.data.demo"));
+        assertEquals(Paths.get("tests/data/demo.py"), fileNameUtils.getPathForPythonModuleFQN("data.demo"));
+        assertEquals(Paths.get("tests/data/__init__.py"), fileNameUtils.getPathForPythonModuleFQN("tests.data"));
+        assertEquals(Paths.get("tests/data/demo_testsuite.py"),
+                fileNameUtils.getPathForIdentifier("tests.data.demo_testsuite:test_callDemo", true));
+        assertTrue(fileNameUtils.isPythonPackage("tests.data"));
+        assertFalse(fileNameUtils.isPythonPackage("tests.data.demo"));
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void getPathForPythonModuleFQNNegativeTest() throws FileNotFoundException {
+        GeneralConfiguration configuration = new GeneralConfiguration();
+        configuration.setProjectDir(getPathToResource("loaderTestData/callgraph/pythonproject"));
+        configuration.setLanguage("python");
+        new FileNameUtils(configuration).getPathForPythonModuleFQN("tests.data.nonexisting");
+    }
+
+    @Test
+    public void pathSuffixIndexTest() {
+        Set<Path> paths = new HashSet<>();
+        paths.add(Paths.get("/root/src/main/java/org/foo/Bar.java"));
+        paths.add(Paths.get("/root/src/main/java/org/bar/Bar.java"));
+        paths.add(Paths.get("/root/src/main/java/org/foo/FooBar.java"));
+        paths.add(Paths.get("/root/src/main/java/Bar.java"));
+        PathSuffixIndex index = new PathSuffixIndex(paths);
+
+        assertEquals(Paths.get("/root/src/main/java/org/foo/Bar.java"), index.getBestFit("org/foo/Bar.java"));
+        assertEquals(Paths.get("/root/src/main/java/org/foo/FooBar.java"), index.getBestFit("Bar.java"));
+        assertEquals(4, index.getNumberOfPaths("Bar.java"));
+        assertEquals(3, index.getNumberOfPaths("/Bar.java"));
+        assertEquals(1, index.getNumberOfPaths("java/Bar.java"));
+        assertEquals(4, index.getNumberOfPaths(""));
+        assertEquals(0, index.getNumberOfPaths("Baz.java"));
+        assertNull(index.getBestFit("/root/src/main/java/org/foo/Bar.java2"));
+    }
+}
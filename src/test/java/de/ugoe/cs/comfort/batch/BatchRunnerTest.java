@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.ugoe.cs.comfort.configuration.BatchConfiguration;
+import de.ugoe.cs.comfort.configuration.FilerConfiguration;
+import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Fabian Trautsch
+ */
+public class BatchRunnerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private BatchConfiguration batchConfiguration = new BatchConfiguration();
+
+    @Before
+    public void createConfiguration() {
+        batchConfiguration.setParallelism(2);
+        batchConfiguration.setReportFile(new File(folder.getRoot(), "report.json").getAbsolutePath());
+    }
+
+    private BatchProject createProject(String projectName, String filerName) throws Exception {
+        GeneralConfiguration configuration = new GeneralConfiguration();
+        configuration.setProjectName(projectName);
+        configuration.setProjectDir(folder.newFolder(projectName).getAbsolutePath());
+        configuration.setFilerConfiguration(new FilerConfiguration(filerName));
+        return new BatchProject(null, configuration);
+    }
+
+    @Test
+    public void failureIsIsolatedPerProjectTest() throws Exception {
+        List<BatchProject> projects = new ArrayList<>();
+        projects.add(createProject("first", "CSVFiler"));
+        projects.add(createProject("broken", "UnknownFiler"));
+        projects.add(createProject("second", "CSVFiler"));
+
+        new BatchRunner(batchConfiguration).run(projects);
+
+        assertTrue(projects.get(0).isSuccessful());
+        assertFalse(projects.get(1).isSuccessful());
+        assertTrue(projects.get(1).getError().startsWith("ClassNotFoundException"));
+        assertTrue(projects.get(2).isSuccessful());
+    }
+
+    @Test
+    public void unreadableConfigurationIsReportedTest() throws Exception {
+        batchConfiguration.getProjects().add(new File(folder.getRoot(), "missing.json").getAbsolutePath());
+
+        List<BatchProject> projects = new BatchRunner(batchConfiguration).run();
+
+        assertEquals(1, projects.size());
+        assertFalse(projects.get(0).isSuccessful());
+    }
+
+    @Test
+    public void projectLargerThanBudgetIsExecutedTest() throws Exception {
+        batchConfiguration.setMemoryBudget(1);
+        List<BatchProject> projects = new ArrayList<>();
+        projects.add(createProject("first", "CSVFiler"));
+        projects.add(createProject("second", "CSVFiler"));
+
+        new BatchRunner(batchConfiguration).run(projects);
+
+        assertTrue(projects.get(0).isSuccessful());
+        assertTrue(projects.get(1).isSuccessful());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void consolidatedReportIsWrittenTest() throws Exception {
+        List<BatchProject> projects = new ArrayList<>();
+        projects.add(createProject("first", "CSVFiler"));
+        projects.add(createProject("broken", "UnknownFiler"));
+
+        new BatchRunner(batchConfiguration).run(projects);
+
+        Map<String, Object> report = new ObjectMapper().readValue(new File(batchConfiguration.getReportFile()),
+                Map.class);
+        assertEquals(2, report.get("projects"));
+        assertEquals(1, report.get("successful"));
+        assertEquals(1, report.get("failed"));
+        assertEquals(2, ((List<Object>) report.get("projectResults")).size());
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.ugoe.cs.comfort.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import de.ugoe.cs.comfort.collection.loader.SchedulerTestLoader;
+import de.ugoe.cs.comfort.collection.metriccollector.FilerMock;
+import de.ugoe.cs.comfort.collection.metriccollector.SchedulerTestCollector;
+import de.ugoe.cs.comfort.configuration.CollectionConfiguration;
+import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
+import de.ugoe.cs.comfort.configuration.LoaderConfiguration;
+import de.ugoe.cs.comfort.exception.SchedulerException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Fabian Trautsch
+ */
+public class CollectionSchedulerTest {
+    private GeneralConfiguration configuration = new GeneralConfiguration();
+
+    private CollectionConfiguration createCollection(String name, String... dependsOn) {
+        CollectionConfiguration collection = new CollectionConfiguration();
+        collection.setName(name);
+        collection.setDependsOn(Arrays.asList(dependsOn));
+        return collection;
+    }
+
+    private CollectionConfiguration createLoadingCollection(String name, String loaderId, String... dependsOn) {
+        CollectionConfiguration collection = createCollection(name, dependsOn);
+        LoaderConfiguration loaderConfiguration = new LoaderConfiguration("SchedulerTestLoader");
+        loaderConfiguration.setVcsSystemUrl(loaderId);
+        collection.setLoaderConfiguration(loaderConfiguration);
+        collection.setCollectors(Collections.singletonList("SchedulerTestCollector"));
+        return collection;
+    }
+
+    @Before
+    public void resetTestModels() {
+        SchedulerTestLoader.EVENTS.clear();
+        SchedulerTestCollector.COLLECTED_DATA.clear();
+        SchedulerTestCollector.barrier = null;
+    }
+
+    @Test(expected = SchedulerException.class)
+    public void unknownDependencyTest() throws Exception {
+        List<CollectionConfiguration> collections = new ArrayList<>();
+        collections.add(createCollection("callgraph", "coverage"));
+
+        new CollectionScheduler(configuration, new FilerMock(configuration, null)).execute(collections);
+    }
+
+    @Test(expected = SchedulerException.class)
+    public void duplicateNameTest() throws Exception {
+        List<CollectionConfiguration> collections = new ArrayList<>();
+        collections.add(createCollection("callgraph"));
+        collections.add(createCollection("callgraph"));
+
+        new CollectionScheduler(configuration, new FilerMock(configuration, null)).execute(collections);
+    }
+
+    @Test(expected = SchedulerException.class)
+    public void cyclicDependencyTest() throws Exception {
+        List<CollectionConfiguration> collections = new ArrayList<>();
+        collections.add(createCollection("callgraph", "coverage"));
+        collections.add(createCollection("coverage", "dependency"));
+        collections.add(createCollection("dependency", "callgraph"));
+
+        new CollectionScheduler(configuration, new FilerMock(configuration, null)).execute(collections);
+    }
+
+    @Test
+    public void emptyCollectionsTest() throws Exception {
+        new CollectionScheduler(configuration, new FilerMock(configuration, null)).execute(new ArrayList<>());
+    }
+
+    @Test(timeout = 20000)
+    public void collectionsAreExecutedOneAfterAnotherByDefaultTest() throws Exception {
+        // The threads of the collectors do not change the number of collections that run in parallel
+        configuration.setNThreads(4);
+        List<CollectionConfiguration> collections = new ArrayList<>();
+        collections.add(createLoadingCollection("coverage", "a"));
+        collections.add(createLoadingCollection("callgraph", "b"));
+
+        new CollectionScheduler(configuration, new FilerMock(configuration, null)).execute(collections);
+
+        List<String> events = SchedulerTestLoader.EVENTS;
+        assertEquals(4, events.size());
+        assertEquals(events.get(0).replace("start:", "end:"), events.get(1));
+        assertEquals(events.get(2).replace("start:", "end:"), events.get(3));
+    }
+
+    @Test(timeout = 20000)
+    public void collectionsWithSameLoaderRunConcurrentlyTest() throws Exception {
+        configuration.setCollectionThreads(2);
+        // The collectors only finish, if both collections run at the same time
+        SchedulerTestCollector.barrier = new CyclicBarrier(2);
+        List<CollectionConfiguration> collections = new ArrayList<>();
+        collections.add(createLoadingCollection("testtype", "shared"));
+        collections.add(createLoadingCollection("coverage", "shared"));
+
+        new CollectionScheduler(configuration, new FilerMock(configuration, null)).execute(collections);
+
+        assertEquals(2, SchedulerTestCollector.COLLECTED_DATA.size());
+        assertSame(SchedulerTestCollector.COLLECTED_DATA.get(0), SchedulerTestCollector.COLLECTED_DATA.get(1));
+        // The data is only loaded once
+        assertEquals(Arrays.asList("start:shared", "end:shared"), SchedulerTestLoader.EVENTS);
+    }
+
+    @Test(timeout = 20000)
+    public void dependenciesAreExecutedFirstTest() throws Exception {
+        configuration.setCollectionThreads(4);
+        List<CollectionConfiguration> collections = new ArrayList<>();
+        collections.add(createLoadingCollection("callgraph", "c", "coverage", "projectfiles"));
+        collections.add(createLoadingCollection("coverage", "b", "projectfiles"));
+        collections.add(createLoadingCollection("projectfiles", "a"));
+
+        new CollectionScheduler(configuration, new FilerMock(configuration, null)).execute(collections);
+
+        assertEquals(Arrays.asList("start:a", "end:a", "start:b", "end:b", "start:c", "end:c"),
+                SchedulerTestLoader.EVENTS);
+        assertEquals(3, SchedulerTestCollector.COLLECTED_DATA.size());
+    }
+
+    @Test(timeout = 20000)
+    public void dependentsOfFailedCollectionAreSkippedTest() throws Exception {
+        configuration.setCollectionThreads(2);
+        List<CollectionConfiguration> collections = new ArrayList<>();
+        collections.add(createLoadingCollection("broken", "failing"));
+        collections.add(createLoadingCollection("dependent", "b", "broken"));
+        collections.add(createLoadingCollection("transitive", "c", "dependent"));
+        collections.add(createLoadingCollection("independent", "d"));
+
+        new CollectionScheduler(configuration, new FilerMock(configuration, null)).execute(collections);
+
+        assertTrue(SchedulerTestLoader.EVENTS.contains("start:failing"));
+        assertFalse(SchedulerTestLoader.EVENTS.contains("start:b"));
+        assertFalse(SchedulerTestLoader.EVENTS.contains("start:c"));
+        // Collections that do not depend on the failed collection are executed
+        assertTrue(SchedulerTestLoader.EVENTS.contains("end:d"));
+        assertEquals(1, SchedulerTestCollector.COLLECTED_DATA.size());
+    }
+}
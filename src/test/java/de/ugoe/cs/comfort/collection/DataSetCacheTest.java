@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.ugoe.cs.comfort.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import de.ugoe.cs.comfort.BaseTest;
+import de.ugoe.cs.comfort.configuration.CollectionConfiguration;
+import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
+import de.ugoe.cs.comfort.configuration.LoaderConfiguration;
+import de.ugoe.cs.comfort.data.DataSet;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Fabian Trautsch
+ */
+public class DataSetCacheTest extends BaseTest {
+    private GeneralConfiguration configuration = new GeneralConfiguration();
+
+    @Before
+    public void createConfiguration() {
+        configuration.setProjectDir(getPathToResource("loaderTestData/projectfiles/pythonproject"));
+        configuration.setLanguage("python");
+    }
+
+    private CollectionConfiguration createCollection(String loaderName) {
+        CollectionConfiguration collection = new CollectionConfiguration();
+        collection.setLoaderConfiguration(new LoaderConfiguration(loaderName));
+        return collection;
+    }
+
+    @Test
+    public void sameLoaderConfigurationIsLoadedOnceTest() throws Exception {
+        DataSetCache cache = new DataSetCache();
+        DataSet first = cache.getDataSet(configuration, createCollection("ProjectFilesLoader"));
+        DataSet second = cache.getDataSet(configuration, createCollection("ProjectFilesLoader"));
+
+        assertSame("Data set was loaded twice!", first, second);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void differentProjectsAreLoadedSeparatelyTest() throws Exception {
+        DataSetCache cache = new DataSetCache();
+        DataSet first = cache.getDataSet(configuration, createCollection("ProjectFilesLoader"));
+
+        GeneralConfiguration otherConfiguration = new GeneralConfiguration();
+        otherConfiguration.setProjectDir(getPathToResource("loaderTestData/projectfiles/javaproject"));
+        otherConfiguration.setLanguage("python");
+        DataSet second = cache.getDataSet(otherConfiguration, createCollection("ProjectFilesLoader"));
+
+        assertNotSame("Data set of another project was reused!", first, second);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void unchangedProjectIsSharedBetweenRunsTest() throws Exception {
+        DataSetCache cache = new DataSetCache(4);
+        DataSet first = cache.getDataSet(configuration, createCollection("ProjectFilesLoader"));
+
+        // A new run of the same project uses another configuration object
+        GeneralConfiguration nextConfiguration = new GeneralConfiguration();
+        nextConfiguration.setProjectDir(configuration.getProjectDir().toString());
+        nextConfiguration.setLanguage("python");
+        DataSet second = cache.getDataSet(nextConfiguration, createCollection("ProjectFilesLoader"));
+
+        assertSame("Data set was not shared between runs!", first, second);
+        assertEquals(1, nextConfiguration.getMetricsRegistry().getCounter("dataSetCache.hits"));
+    }
+
+    @Test
+    public void differentGraphBackendsAreLoadedSeparatelyTest() throws Exception {
+        DataSetCache cache = new DataSetCache(4);
+        DataSet first = cache.getDataSet(configuration, createCollection("ProjectFilesLoader"));
+
+        GeneralConfiguration offHeapConfiguration = new GeneralConfiguration();
+        offHeapConfiguration.setProjectDir(configuration.getProjectDir().toString());
+        offHeapConfiguration.setLanguage("python");
+        offHeapConfiguration.setGraphBackend("off_heap");
+        DataSet second = cache.getDataSet(offHeapConfiguration, createCollection("ProjectFilesLoader"));
+
+        assertNotSame("Data set of another graph backend was reused!", first, second);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void sharedCacheIsBoundedTest() throws Exception {
+        DataSetCache cache = new DataSetCache(1);
+        cache.getDataSet(configuration, createCollection("ProjectFilesLoader"));
+
+        GeneralConfiguration otherConfiguration = new GeneralConfiguration();
+        otherConfiguration.setProjectDir(getPathToResource("loaderTestData/projectfiles/javaproject"));
+        otherConfiguration.setLanguage("python");
+        cache.getDataSet(otherConfiguration, createCollection("ProjectFilesLoader"));
+
+        assertEquals(1, cache.size());
+    }
+}
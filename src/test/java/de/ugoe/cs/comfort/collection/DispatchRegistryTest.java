@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.ugoe.cs.comfort.collection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import de.ugoe.cs.comfort.annotations.SupportsJava;
+import de.ugoe.cs.comfort.collection.DispatchRegistry.DispatchTarget;
+import de.ugoe.cs.comfort.collection.filter.SameProjectFilter;
+import de.ugoe.cs.comfort.data.graphs.CallGraph;
+import de.ugoe.cs.comfort.data.graphs.DependencyGraph;
+import java.io.IOException;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * @author Fabian Trautsch
+ */
+public class DispatchRegistryTest {
+
+    @Test
+    public void findMethodForDataSetTypeTest() {
+        List<DispatchTarget> targets = DispatchRegistry.getTargets(SameProjectFilter.class, "java", null,
+                DependencyGraph.class);
+        assertEquals(1, targets.size());
+        assertEquals("filterDependencyGraph", targets.get(0).getName());
+
+        targets = DispatchRegistry.getTargets(SameProjectFilter.class, "python", null, CallGraph.class);
+        assertEquals(1, targets.size());
+        assertEquals("filterCallGraph", targets.get(0).getName());
+    }
+
+    @Test
+    public void unsupportedLanguageTest() {
+        assertTrue(DispatchRegistry.getTargets(SameProjectFilter.class, "cobol", null, CallGraph.class).isEmpty());
+    }
+
+    @Test
+    public void levelIsConsideredTest() {
+        // Filters are not annotated with a level
+        assertTrue(DispatchRegistry.getTargets(SameProjectFilter.class, "java", true, CallGraph.class).isEmpty());
+    }
+
+    @Test
+    public void resolutionIsCachedTest() {
+        List<DispatchTarget> first = DispatchRegistry.getTargets(SameProjectFilter.class, "java", null,
+                CallGraph.class);
+        List<DispatchTarget> second = DispatchRegistry.getTargets(SameProjectFilter.class, "java", null,
+                CallGraph.class);
+        assertSame(first, second);
+    }
+
+    @Test
+    public void exceptionsOfMethodAreNotWrappedTest() throws Exception {
+        DispatchTarget target = getTarget(FailingModel.class, "failWithException");
+        try {
+            target.invoke(new FailingModel());
+            fail("Exception of the method was not thrown!");
+        } catch (IOException e) {
+            assertEquals("Could not read", e.getMessage());
+        }
+    }
+
+    @Test(expected = OutOfMemoryError.class)
+    public void errorsOfMethodAreNotWrappedTest() throws Exception {
+        getTarget(FailingModel.class, "failWithError").invoke(new FailingModel());
+    }
+
+    private DispatchTarget getTarget(Class<?> modelClass, String name) {
+        for(DispatchTarget target : DispatchRegistry.getTargets(modelClass, "java", null, null)) {
+            if(target.getName().equals(name)) {
+                return target;
+            }
+        }
+        throw new IllegalArgumentException("Method "+name+" was not found");
+    }
+
+    public static class FailingModel {
+        @SupportsJava
+        public Object failWithException() throws IOException {
+            throw new IOException("Could not read");
+        }
+
+        @SupportsJava
+        public Object failWithError() {
+            throw new OutOfMemoryError("Out of memory");
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.collection.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import de.ugoe.cs.comfort.BaseTest;
+import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
+import de.ugoe.cs.comfort.data.graphs.CallEdge;
+import de.ugoe.cs.comfort.data.graphs.CallGraph;
+import de.ugoe.cs.comfort.data.graphs.CallType;
+import de.ugoe.cs.comfort.data.graphs.DependencyGraph;
+import java.io.File;
+import java.io.IOException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Fabian Trautsch
+ */
+public class ExportGraphFilterTest extends BaseTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private GeneralConfiguration configuration = new GeneralConfiguration();
+    private File exportDir;
+
+    @Before
+    public void setUpConfiguration() throws IOException {
+        exportDir = folder.newFolder("export");
+        configuration.setProjectName("foo");
+        configuration.setGraphExportDir(exportDir.toString());
+    }
+
+    @Test
+    public void exportCallGraphTest() throws IOException {
+        configuration.setGraphExportFormat("csv");
+        configuration.setGraphExportCompressed(true);
+        CallGraph callGraph = new CallGraph();
+        callGraph.addEdge(new CallEdge(CallType.INVOKE_SPECIAL, 0, addressTestInit, addressInitWithParam));
+
+        ExportGraphFilter filter = new ExportGraphFilter(configuration);
+        assertSame(callGraph, filter.exportCallGraph(callGraph));
+
+        String[] files = exportDir.list();
+        assertEquals(1, files.length);
+        assertTrue(files[0].startsWith("foo-callgraph-"));
+        assertTrue(files[0].endsWith(".csv.gz"));
+    }
+
+    @Test
+    public void exportDependencyGraphTwiceTest() throws IOException {
+        DependencyGraph dependencyGraph = new DependencyGraph();
+        dependencyGraph.putEdge(fooTest, main);
+
+        ExportGraphFilter filter = new ExportGraphFilter(configuration);
+        assertSame(dependencyGraph, filter.exportDependencyGraph(dependencyGraph));
+        assertSame(dependencyGraph, filter.exportDependencyGraph(dependencyGraph));
+
+        String[] files = exportDir.list();
+        assertEquals(2, files.length);
+        for(String file : files) {
+            assertTrue(file.startsWith("foo-dependencygraph-"));
+            assertTrue(file.endsWith(".dot"));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void exportWithoutExportDirTest() throws IOException {
+        configuration.setGraphExportDir(null);
+        new ExportGraphFilter(configuration).exportDependencyGraph(new DependencyGraph());
+    }
+}
@@ -145,4 +145,25 @@ public class MergeInnerClassToMainClassFilterTest extends BaseTest{
 
     }
 
+    @Test
+    public void filterGraphMainClassIsMissingTest() {
+        /*
+         * Graph:
+         * org.foo.C1 -> org.foo.C3
+         * org.foo.C2$1 -> org.foo.C4
+         *
+         * expected filer: org.foo.C1 -> org.foo.C3
+         */
+        DependencyGraph dependencyGraph = new DependencyGraph();
+        dependencyGraph.putEdge(C1, C3);
+        dependencyGraph.putEdge(C21, C4);
+
+        // Apply filter
+        DependencyGraph filteredGraph = filterDependencyGraph(dependencyGraph);
+
+        // Expected Graph
+        DependencyGraph expectedDependencyGraph = new DependencyGraph();
+        expectedDependencyGraph.putEdge(C1, C3);
+        assertEquals("Graphs not equal!", expectedDependencyGraph, filteredGraph);
+    }
 }
@@ -23,11 +23,20 @@ import de.ugoe.cs.comfort.data.graphs.CallEdge;
 import de.ugoe.cs.comfort.data.graphs.CallGraph;
 import de.ugoe.cs.comfort.data.graphs.CallType;
 import de.ugoe.cs.comfort.exception.LoaderException;
+import de.ugoe.cs.comfort.instrumentation.MetricsRegistry;
+import org.apache.commons.io.FileUtils;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.Set;
 
 import static org.junit.Assert.*;
 
@@ -35,6 +44,9 @@ import static org.junit.Assert.*;
  * @author Fabian Trautsch
  */
 public class CallGraphLoaderTest extends BaseTest{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private GeneralConfiguration javaConfiguration = new GeneralConfiguration();
     private GeneralConfiguration pythonConfiguration = new GeneralConfiguration();
 
@@ -135,6 +147,80 @@ public class CallGraphLoaderTest extends BaseTest{
 
     }
 
+    @Test
+    public void loadJavaCallGraphWithAsmFrontendTest() throws LoaderException {
+        callGraphLoader = new CallGraphLoader(javaConfiguration, loaderJavaConfiguration);
+        CallGraph bcelCallGraph = callGraphLoader.loadJavaCallGraph();
+
+        GeneralConfiguration asmConfiguration = new GeneralConfiguration();
+        asmConfiguration.setProjectDir(javaConfiguration.getProjectDir().toString());
+        asmConfiguration.setCallGraphFrontend("asm");
+        callGraphLoader = new CallGraphLoader(asmConfiguration, loaderJavaConfiguration);
+        CallGraph asmCallGraph = callGraphLoader.loadJavaCallGraph();
+
+        assertEquals("Nodes are not equal", bcelCallGraph.nodes(), asmCallGraph.nodes());
+        assertEquals("Networks are not equal!", bcelCallGraph, asmCallGraph);
+    }
+
+    @Test
+    public void loadJavaCallGraphInParallelTest() throws LoaderException {
+        callGraphLoader = new CallGraphLoader(javaConfiguration, loaderJavaConfiguration);
+        CallGraph sequentialCallGraph = callGraphLoader.loadJavaCallGraph();
+
+        for(String frontend : new String[]{"bcel", "asm"}) {
+            GeneralConfiguration parallelConfiguration = new GeneralConfiguration();
+            parallelConfiguration.setProjectDir(javaConfiguration.getProjectDir().toString());
+            parallelConfiguration.setCallGraphFrontend(frontend);
+            parallelConfiguration.setNThreads(4);
+            callGraphLoader = new CallGraphLoader(parallelConfiguration, loaderJavaConfiguration);
+            // One class file per partition, so that the few class files of the project are parsed in parallel
+            callGraphLoader.setMinClassFilesPerPartition(1);
+            CallGraph parallelCallGraph = callGraphLoader.loadJavaCallGraph();
+
+            assertEquals("Nodes are not equal", sequentialCallGraph.nodes(), parallelCallGraph.nodes());
+            // Equality of the edges includes their order numbers
+            assertEquals("Networks are not equal!", sequentialCallGraph, parallelCallGraph);
+        }
+    }
+
+    @Test
+    public void loadJavaCallGraphWithEdgeCacheTest() throws LoaderException, IOException {
+        File projectDir = folder.newFolder("javaproject");
+        FileUtils.copyDirectory(javaConfiguration.getProjectDir().toFile(), projectDir);
+        File snapshotDir = folder.newFolder("snapshots");
+
+        GeneralConfiguration coldConfiguration = new GeneralConfiguration();
+        coldConfiguration.setProjectDir(projectDir.toString());
+        coldConfiguration.setSnapshotDir(snapshotDir.toString());
+        CallGraph coldCallGraph = (CallGraph) new CallGraphLoader(coldConfiguration, loaderJavaConfiguration)
+                .loadData();
+        MetricsRegistry coldMetrics = coldConfiguration.getMetricsRegistry();
+        assertTrue(coldMetrics.getCounter("callGraphLoader.parsedClassFiles") > 0);
+        assertEquals(0, coldMetrics.getCounter("callGraphLoader.cachedClassFiles"));
+
+        // A duplicate of a class file (e.g., in a second build output directory) changes the inputs of the loader,
+        // therefore, the snapshot of the call graph can not be used, but the cached edges of all class files
+        Path classFile = projectDir.toPath().resolve("target/classes/org/foo/models/Person.class");
+        Path duplicateClassFile = projectDir.toPath().resolve("build/classes/org/foo/models/Person.class");
+        Files.createDirectories(duplicateClassFile.getParent());
+        Files.copy(classFile, duplicateClassFile);
+
+        GeneralConfiguration warmConfiguration = new GeneralConfiguration();
+        warmConfiguration.setProjectDir(projectDir.toString());
+        warmConfiguration.setSnapshotDir(snapshotDir.toString());
+        CallGraph warmCallGraph = (CallGraph) new CallGraphLoader(warmConfiguration, loaderJavaConfiguration)
+                .loadData();
+        MetricsRegistry warmMetrics = warmConfiguration.getMetricsRegistry();
+        assertEquals(0, warmMetrics.getCounter("snapshots.used"));
+        assertEquals(0, warmMetrics.getCounter("callGraphLoader.parsedClassFiles"));
+        // The duplicate is neither parsed nor taken from the cache, as its content was already seen
+        assertEquals(coldMetrics.getCounter("callGraphLoader.parsedClassFiles"),
+                warmMetrics.getCounter("callGraphLoader.cachedClassFiles"));
+
+        assertEquals("Nodes are not equal", coldCallGraph.nodes(), warmCallGraph.nodes());
+        assertEquals("Networks are not equal!", coldCallGraph, warmCallGraph);
+    }
+
     @Test
     public void loadPythonCallGraphTest() {
         try {
@@ -161,4 +247,26 @@ public class CallGraphLoaderTest extends BaseTest{
         callGraphLoader = new CallGraphLoader(javaConfiguration, loaderJavaConfiguration);
         callGraphLoader.loadJavaCallGraph();
     }
+
+    @Test
+    public void updateJavaCallGraphOfPreviousRevisionTest() throws LoaderException {
+        callGraphLoader = new CallGraphLoader(javaConfiguration, loaderJavaConfiguration);
+        CallGraph callGraph = callGraphLoader.loadJavaCallGraph();
+
+        // Simulate an outdated graph, in which the calls of org.foo.models.Person are missing
+        CallGraph previousCallGraph = callGraph.getCopyOfGraph();
+        for(CallEdge edge : callGraph.edges()) {
+            if(edge.getCaller().getFQNOfUnit().equals("org.foo.models.Person")) {
+                previousCallGraph.removeEdge(edge);
+            }
+        }
+        previousCallGraph.cleanGraphOfNodesThatAreSingle();
+
+        Set<Path> changedFiles = new HashSet<>();
+        changedFiles.add(javaConfiguration.getProjectDir().resolve("src/main/java/org/foo/models/Person.java"));
+        CallGraph updatedCallGraph = (CallGraph) callGraphLoader.updateData(previousCallGraph, changedFiles);
+
+        assertEquals(callGraph, updatedCallGraph);
+        assertNotEquals(callGraph, previousCallGraph);
+    }
 }
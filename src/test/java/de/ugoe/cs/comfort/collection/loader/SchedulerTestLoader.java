@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.collection.loader;
+
+import de.ugoe.cs.comfort.annotations.SupportsJava;
+import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
+import de.ugoe.cs.comfort.configuration.LoaderConfiguration;
+import de.ugoe.cs.comfort.data.ProjectFiles;
+import de.ugoe.cs.comfort.exception.LoaderException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Loader for the tests of the scheduler. The vcsSystemUrl of the loader configuration is used as id of the loaded
+ * data. Loaders whose id starts with "failing" fail.
+ *
+ * @author Fabian Trautsch
+ */
+public class SchedulerTestLoader extends BaseLoader {
+    public static final List<String> EVENTS = Collections.synchronizedList(new ArrayList<>());
+
+    public SchedulerTestLoader(GeneralConfiguration generalConfiguration, LoaderConfiguration loaderConfiguration) {
+        super(generalConfiguration, loaderConfiguration);
+    }
+
+    @SupportsJava
+    public ProjectFiles loadTestData() throws LoaderException {
+        String id = loaderConf.getVcsSystemUrl();
+        EVENTS.add("start:"+id);
+        if(id.startsWith("failing")) {
+            throw new LoaderException("Loading of "+id+" failed");
+        }
+
+        try {
+            // Gives other collections the chance to run in the meantime
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LoaderException("Interrupted while loading "+id);
+        }
+        EVENTS.add("end:"+id);
+        return new ProjectFiles(null, null, null);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.collection.loader.callgraph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.google.common.hash.HashCode;
+import de.ugoe.cs.comfort.BaseTest;
+import de.ugoe.cs.comfort.FileNameUtils;
+import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
+import de.ugoe.cs.comfort.data.graphs.CallEdge;
+import de.ugoe.cs.comfort.data.graphs.CallType;
+import de.ugoe.cs.comfort.data.models.JavaMethod;
+import de.ugoe.cs.comfort.data.models.UnitRegistry;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Fabian Trautsch
+ */
+public class CallEdgeCacheTest extends BaseTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FileNameUtils fileNameUtils;
+    private final HashCode personClassFile = CallEdgeCache.hash("Person".getBytes(StandardCharsets.UTF_8));
+    private final HashCode addressClassFile = CallEdgeCache.hash("Address".getBytes(StandardCharsets.UTF_8));
+
+    @Before
+    public void createFileNameUtils() {
+        GeneralConfiguration configuration = new GeneralConfiguration();
+        configuration.setProjectDir(getPathToResource("loaderTestData/callgraph/javaproject"));
+        fileNameUtils = new FileNameUtils(configuration);
+    }
+
+    @Test
+    public void edgesAreReadFromCacheFileTest() throws IOException {
+        Path cacheFile = folder.getRoot().toPath().resolve("test.edges");
+        List<CallEdge> edges = getPersonEdges();
+        CallEdgeCache cache = new CallEdgeCache(fileNameUtils, new UnitRegistry());
+        cache.put(personClassFile, edges);
+        cache.write(cacheFile, true);
+
+        UnitRegistry unitRegistry = new UnitRegistry();
+        CallEdgeCache readCache = CallEdgeCache.read(cacheFile, fileNameUtils, unitRegistry);
+        assertEquals(1, readCache.size());
+        List<CallEdge> readEdges = readCache.get(personClassFile);
+        assertEquals(edges, readEdges);
+        assertEquals(edges.get(0).getOrderNumber(), readEdges.get(0).getOrderNumber());
+        assertEquals(edges.get(2).getOrderNumber(), readEdges.get(2).getOrderNumber());
+        // The units are interned, so that all edges share the same instances
+        assertSame(unitRegistry.intern(personInit), readEdges.get(0).getCaller());
+        assertSame(readEdges.get(0).getCaller(), readEdges.get(2).getCaller());
+        assertNull(readCache.get(addressClassFile));
+    }
+
+    @Test
+    public void pathOfInvokeDynamicCalleeIsLookedUpForObjectTest() throws IOException {
+        Path cacheFile = folder.getRoot().toPath().resolve("test.edges");
+        JavaMethod lambdaFactory = new JavaMethod("org.foo.models", "Address", "apply", new ArrayList<>(), null);
+        List<CallEdge> edges = Arrays.asList(new CallEdge(CallType.INVOKE_DYNAMIC, 0, personInit, lambdaFactory));
+        CallEdgeCache cache = new CallEdgeCache(fileNameUtils, new UnitRegistry());
+        cache.put(personClassFile, edges);
+        cache.write(cacheFile, true);
+
+        List<CallEdge> readEdges = CallEdgeCache.read(cacheFile, fileNameUtils, new UnitRegistry())
+                .get(personClassFile);
+        assertEquals(edges, readEdges);
+        assertNull(readEdges.get(0).getCallee().getFilePath());
+    }
+
+    @Test
+    public void unusedEntriesAreRemovedTest() throws IOException {
+        Path cacheFile = folder.getRoot().toPath().resolve("test.edges");
+        CallEdgeCache cache = new CallEdgeCache(fileNameUtils, new UnitRegistry());
+        cache.put(personClassFile, getPersonEdges());
+        cache.put(addressClassFile, Arrays.asList(
+                new CallEdge(CallType.INVOKE_SPECIAL, 0, addressInit, javaLangObjectInit)));
+        cache.write(cacheFile, true);
+
+        // Only the class file of the person is used, the class file of the address does not exist anymore
+        CallEdgeCache readCache = CallEdgeCache.read(cacheFile, fileNameUtils, new UnitRegistry());
+        readCache.get(personClassFile);
+        readCache.write(cacheFile, false);
+        assertEquals(2, CallEdgeCache.read(cacheFile, fileNameUtils, new UnitRegistry()).size());
+        readCache.write(cacheFile, true);
+        assertEquals(1, CallEdgeCache.read(cacheFile, fileNameUtils, new UnitRegistry()).size());
+    }
+
+    @Test
+    public void corruptCacheFileIsIgnoredTest() throws IOException {
+        Path cacheFile = folder.getRoot().toPath().resolve("test.edges");
+        Files.write(cacheFile, new byte[]{1, 2, 3});
+
+        assertEquals(0, CallEdgeCache.read(cacheFile, fileNameUtils, new UnitRegistry()).size());
+    }
+
+    private List<CallEdge> getPersonEdges() {
+        return Arrays.asList(
+                new CallEdge(CallType.INVOKE_SPECIAL, 0, personInit, javaLangObjectInit),
+                new CallEdge(CallType.INVOKE_STATIC, 1, personInit, javaLangIntegerValueOf),
+                new CallEdge(CallType.INVOKE_SPECIAL, 2, personInit, addressInitWithParam));
+    }
+}
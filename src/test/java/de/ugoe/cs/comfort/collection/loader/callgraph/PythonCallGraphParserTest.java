@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.collection.loader.callgraph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import de.ugoe.cs.comfort.BaseTest;
+import de.ugoe.cs.comfort.FileNameUtils;
+import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
+import de.ugoe.cs.comfort.data.graphs.CallEdge;
+import de.ugoe.cs.comfort.data.graphs.CallType;
+import de.ugoe.cs.comfort.data.models.UnitRegistry;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Fabian Trautsch
+ */
+public class PythonCallGraphParserTest extends BaseTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private GeneralConfiguration configuration;
+    private FileNameUtils fileNameUtils;
+    private Path callGraphFile;
+
+    @Before
+    public void createFileNameUtils() {
+        configuration = new GeneralConfiguration();
+        configuration.setProjectDir(getPathToResource("loaderTestData/callgraph/pythonproject"));
+        configuration.setLanguage("python");
+        fileNameUtils = new FileNameUtils(configuration);
+        callGraphFile = Paths.get(getPathToResource("loaderTestData/callgraph/pythonproject/.callgraph"));
+    }
+
+    @Test
+    public void parseTest() throws IOException {
+        UnitRegistry unitRegistry = new UnitRegistry();
+        List<CallEdge> edges = new ArrayList<>();
+        new PythonCallGraphParser(fileNameUtils, unitRegistry, 1).parse(callGraphFile, edges::add);
+
+        List<CallEdge> expectedEdges = Arrays.asList(
+                new CallEdge(CallType.INVOKE_PYTHON, 0, testCallDemo, callDemo),
+                new CallEdge(CallType.INVOKE_PYTHON, 0, callDemo, demoInit),
+                new CallEdge(CallType.INVOKE_PYTHON, 1, callDemo, demoBar),
+                new CallEdge(CallType.INVOKE_PYTHON, 0, demoBar, demoFoo)
+        );
+        assertEquals(expectedEdges, edges);
+        // Each call string is only parsed once
+        assertSame(edges.get(1).getCaller(), edges.get(2).getCaller());
+        assertSame(edges.get(2).getCallee(), edges.get(3).getCaller());
+    }
+
+    @Test
+    public void parseInChunksTest() throws IOException {
+        // Each line of the call graph is repeated, so that the file consists of many chunks
+        String lines = new String(Files.readAllBytes(callGraphFile), StandardCharsets.UTF_8).trim()+"\n";
+        StringBuilder content = new StringBuilder();
+        for(int i = 0; i < 100; i++) {
+            content.append(i % 2 == 0 ? lines : lines.replace("\n", "\r\n"));
+        }
+        Path largeCallGraphFile = folder.getRoot().toPath().resolve(".callgraph");
+        Files.write(largeCallGraphFile, content.toString().getBytes(StandardCharsets.UTF_8));
+
+        List<CallEdge> sequentialEdges = new ArrayList<>();
+        new PythonCallGraphParser(fileNameUtils, new UnitRegistry(), 1).parse(largeCallGraphFile,
+                sequentialEdges::add);
+        List<CallEdge> parallelEdges = new ArrayList<>();
+        new PythonCallGraphParser(fileNameUtils, new UnitRegistry(), 3, 1024).parse(largeCallGraphFile,
+                parallelEdges::add);
+
+        assertEquals(400, sequentialEdges.size());
+        assertEquals(new CallEdge(CallType.INVOKE_PYTHON, 199, callDemo, demoBar), sequentialEdges.get(398));
+        assertEquals(sequentialEdges, parallelEdges);
+    }
+
+    @Test
+    public void missingModuleIsOnlySearchedOnceTest() throws IOException {
+        AtomicInteger searchedModules = new AtomicInteger(0);
+        FileNameUtils countingFileNameUtils = new FileNameUtils(configuration) {
+            @Override
+            public Path getPathForPythonModuleFQN(String fullyQualifiedName) throws FileNotFoundException {
+                searchedModules.incrementAndGet();
+                return super.getPathForPythonModuleFQN(fullyQualifiedName);
+            }
+        };
+        Path missingModuleCallGraphFile = folder.getRoot().toPath().resolve(".callgraph");
+        Files.write(missingModuleCallGraphFile,
+                "tests.data.missing:foo(F),missing.py;tests.data.missing:bar(F),missing.py\n"
+                        .getBytes(StandardCharsets.UTF_8));
+
+        PythonCallGraphParser parser = new PythonCallGraphParser(countingFileNameUtils, new UnitRegistry(), 1);
+        for(int i = 0; i < 2; i++) {
+            try {
+                parser.parse(missingModuleCallGraphFile, edge -> { });
+                fail("Missing module was not reported!");
+            } catch (FileNotFoundException e) {
+                assertTrue(e.getMessage().contains("tests.data.missing"));
+            }
+        }
+        assertEquals(1, searchedModules.get());
+    }
+
+    @Test(expected = IOException.class)
+    public void parseMalformedLineTest() throws IOException {
+        Path malformedCallGraphFile = folder.getRoot().toPath().resolve(".callgraph");
+        Files.write(malformedCallGraphFile, "tests.data.demo:callDemo(F),demo.py\n".getBytes(StandardCharsets.UTF_8));
+        new PythonCallGraphParser(fileNameUtils, new UnitRegistry(), 1).parse(malformedCallGraphFile, edge -> { });
+    }
+}
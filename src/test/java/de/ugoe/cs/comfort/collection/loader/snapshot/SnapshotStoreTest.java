@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package de.ugoe.cs.comfort.collection.loader.snapshot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import de.ugoe.cs.comfort.BaseTest;
+import de.ugoe.cs.comfort.collection.loader.CallGraphLoader;
+import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
+import de.ugoe.cs.comfort.configuration.LoaderConfiguration;
+import de.ugoe.cs.comfort.data.graphs.CallEdge;
+import de.ugoe.cs.comfort.data.graphs.CallGraph;
+import de.ugoe.cs.comfort.data.graphs.CallType;
+import de.ugoe.cs.comfort.data.graphs.DependencyGraph;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Fabian Trautsch
+ */
+public class SnapshotStoreTest extends BaseTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private GeneralConfiguration configuration = new GeneralConfiguration();
+    private LoaderConfiguration loaderConf = new LoaderConfiguration("CallGraphLoader");
+    private SnapshotStore snapshotStore;
+
+    @Before
+    public void createSnapshotStore() throws IOException {
+        configuration.setProjectDir(folder.getRoot().toString());
+        snapshotStore = new SnapshotStore(folder.newFolder("snapshots").toPath());
+    }
+
+    @Test
+    public void storeAndReadCallGraphTest() {
+        CallGraph callGraph = new CallGraph();
+        callGraph.addEdge(new CallEdge(CallType.INVOKE_SPECIAL, 0, addressTestInit, personInit));
+        callGraph.addEdge(new CallEdge(CallType.INVOKE_SPECIAL, 0, personInit, javaLangObjectInit));
+        callGraph.addEdge(new CallEdge(CallType.INVOKE_SPECIAL, 1, addressGetStreet, javaLangObjectInit));
+
+        snapshotStore.write("callgraph", callGraph);
+        assertEquals("Graphs not equal!", callGraph, snapshotStore.read("callgraph"));
+    }
+
+    @Test
+    public void storeAndReadDependencyGraphTest() {
+        DependencyGraph dependencyGraph = new DependencyGraph();
+        dependencyGraph.putEdge(fooTest, main);
+        dependencyGraph.putEdge(pyTest1, module1);
+        dependencyGraph.putEdge(entryView, object);
+
+        snapshotStore.write("dependencygraph", dependencyGraph);
+        assertEquals("Graphs not equal!", dependencyGraph, snapshotStore.read("dependencygraph"));
+    }
+
+    @Test
+    public void readNotExistingSnapshotTest() {
+        assertNull(snapshotStore.read("notexisting"));
+    }
+
+    @Test
+    public void keyChangesWithContentTest() throws IOException {
+        Path inputFile = folder.newFile("callgraph.txt").toPath();
+        Files.write(inputFile, "first".getBytes(StandardCharsets.UTF_8));
+        String firstKey = snapshotStore.createKey(CallGraphLoader.class, configuration, loaderConf,
+                Collections.singleton(inputFile));
+        String sameKey = snapshotStore.createKey(CallGraphLoader.class, configuration, loaderConf,
+                Collections.singleton(inputFile));
+
+        Files.write(inputFile, "second".getBytes(StandardCharsets.UTF_8));
+        String secondKey = snapshotStore.createKey(CallGraphLoader.class, configuration, loaderConf,
+                Collections.singleton(inputFile));
+
+        assertEquals(firstKey, sameKey);
+        assertNotEquals(firstKey, secondKey);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.collection.metriccollector;
+
+import static org.junit.Assert.assertEquals;
+
+import de.ugoe.cs.comfort.data.graphs.CallEdge;
+import de.ugoe.cs.comfort.data.graphs.CallGraph;
+import de.ugoe.cs.comfort.data.graphs.CallType;
+import de.ugoe.cs.comfort.data.models.JavaMethod;
+import java.nio.file.Paths;
+import org.junit.Test;
+
+/**
+ * @author Fabian Trautsch
+ */
+public class BreadthFirstDepthCalculatorTest {
+    private final JavaMethod test1 = new JavaMethod("org.foo", "FooTest", "test1",
+            Paths.get("src/test/java/org/foo/FooTest.java"));
+    private final JavaMethod test2 = new JavaMethod("org.foo", "FooTest", "test2",
+            Paths.get("src/test/java/org/foo/FooTest.java"));
+    private final JavaMethod bar = new JavaMethod("org.foo", "Bar", "bar",
+            Paths.get("src/main/java/org/foo/Bar.java"));
+    // Production class in a package that contains "test"
+    private final JavaMethod helper = new JavaMethod("org.foo.test.util", "Helper", "help",
+            Paths.get("src/main/java/org/foo/test/util/Helper.java"));
+    // Classes whose name contains "validate" are tests
+    private final JavaMethod validateInput = new JavaMethod("org.foo", "ValidateInput", "validate",
+            Paths.get("src/test/java/org/foo/ValidateInput.java"));
+    private final JavaMethod validateOther = new JavaMethod("org.foo", "ValidateOther", "validate",
+            Paths.get("src/test/java/org/foo/ValidateOther.java"));
+
+    @Test
+    public void getMaximumDepthTest() {
+        /*
+         * Graph:
+         * org.foo.FooTest:test1 -> org.foo.Bar:bar
+         * org.foo.Bar:bar -> org.foo.ValidateInput:validate
+         * org.foo.ValidateInput:validate -> org.foo.test.util.Helper:help
+         * org.foo.FooTest:test2 -> org.foo.test.util.Helper:help
+         * org.foo.test.util.Helper:help -> org.foo.ValidateOther:validate
+         */
+        CallGraph callGraph = new CallGraph();
+        callGraph.addEdge(new CallEdge(CallType.INVOKE_VIRTUAL, 0, test1, bar));
+        callGraph.addEdge(new CallEdge(CallType.INVOKE_VIRTUAL, 0, bar, validateInput));
+        callGraph.addEdge(new CallEdge(CallType.INVOKE_VIRTUAL, 0, validateInput, helper));
+        callGraph.addEdge(new CallEdge(CallType.INVOKE_VIRTUAL, 0, test2, helper));
+        callGraph.addEdge(new CallEdge(CallType.INVOKE_VIRTUAL, 0, helper, validateOther));
+
+        // The results are the same as the ones of the former Dijkstra based implementation, which used
+        // CallGraph#getProductionNodes to find the production nodes
+        BreadthFirstDepthCalculator depthCalculator = new BreadthFirstDepthCalculator(callGraph);
+        assertEquals(3, depthCalculator.getMaximumDepth(test1));
+        assertEquals(1, depthCalculator.getMaximumDepth(test2));
+        assertEquals(0, depthCalculator.getMaximumDepth(validateOther));
+        assertEquals(0, depthCalculator.getMaximumDepth(new JavaMethod("org.foo", "Unknown", "foo",
+                Paths.get("src/main/java/org/foo/Unknown.java"))));
+    }
+
+    @Test
+    public void getMaximumDepthWithCycleTest() {
+        CallGraph callGraph = new CallGraph();
+        callGraph.addEdge(new CallEdge(CallType.INVOKE_VIRTUAL, 0, test1, bar));
+        callGraph.addEdge(new CallEdge(CallType.INVOKE_VIRTUAL, 0, bar, helper));
+        callGraph.addEdge(new CallEdge(CallType.INVOKE_VIRTUAL, 0, helper, bar));
+        callGraph.addEdge(new CallEdge(CallType.INVOKE_VIRTUAL, 1, test1, helper));
+
+        // Shortest paths are used: helper is directly called by the test
+        assertEquals(1, new BreadthFirstDepthCalculator(callGraph).getMaximumDepth(test1));
+    }
+}
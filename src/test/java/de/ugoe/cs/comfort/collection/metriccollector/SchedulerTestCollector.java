@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.collection.metriccollector;
+
+import de.ugoe.cs.comfort.annotations.SupportsClass;
+import de.ugoe.cs.comfort.annotations.SupportsJava;
+import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
+import de.ugoe.cs.comfort.data.ProjectFiles;
+import de.ugoe.cs.comfort.filer.BaseFiler;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collector for the tests of the scheduler. It stores the collected data and, if a barrier is set, waits until the
+ * other collectors reached the barrier, too.
+ *
+ * @author Fabian Trautsch
+ */
+public class SchedulerTestCollector extends BaseMetricCollector {
+    public static final List<ProjectFiles> COLLECTED_DATA = Collections.synchronizedList(new ArrayList<>());
+    public static volatile CyclicBarrier barrier = null;
+
+    public SchedulerTestCollector(GeneralConfiguration configuration, BaseFiler filer) {
+        super(configuration, filer);
+    }
+
+    @SupportsJava
+    @SupportsClass
+    public void collectTestData(ProjectFiles data) throws Exception {
+        if(barrier != null) {
+            barrier.await(10, TimeUnit.SECONDS);
+        }
+        COLLECTED_DATA.add(data);
+    }
+}
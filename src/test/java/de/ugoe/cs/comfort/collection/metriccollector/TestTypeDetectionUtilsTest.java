@@ -19,8 +19,10 @@ package de.ugoe.cs.comfort.collection.metriccollector;
 import de.ugoe.cs.comfort.BaseTest;
 import de.ugoe.cs.comfort.data.graphs.DependencyGraph;
 import de.ugoe.cs.comfort.data.models.IUnit;
+import de.ugoe.cs.comfort.data.models.JavaClass;
 import org.junit.Test;
 
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -90,6 +92,87 @@ public class TestTypeDetectionUtilsTest extends BaseTest {
 
     }
 
+    @Test
+    public void getCallerCalleePairsOnClassLevelFromGraphWithCycleOverTest() {
+        /*
+         * Graph:
+         * org.foo.t1.T1 -> org.foo.C1
+         * org.foo.C1 -> org.foo.t1.T1
+         * org.foo.C1 -> org.foo.C2
+         *
+         * Result: T1 = [C1, C2]
+         */
+        DependencyGraph dependencyGraph = new DependencyGraph();
+        dependencyGraph.putEdge(test, C1);
+        dependencyGraph.putEdge(C1, test);
+        dependencyGraph.putEdge(C1, C2);
+
+        Set<IUnit> test1Callees = new HashSet<>();
+        test1Callees.add(C1);
+        test1Callees.add(C2);
+        Map<IUnit, Set<IUnit>> expectedResult = new HashMap<>();
+        expectedResult.put(test, test1Callees);
+
+        assertEquals("Cycles are not handled correctly", expectedResult,
+                TestTypeDetectionUtils.getCallPairsOnClassLevel(dependencyGraph));
+    }
+
+    @Test
+    public void getCallerCalleePairsOnClassLevelFromDeepGraph() {
+        DependencyGraph dependencyGraph = new DependencyGraph();
+        IUnit previousNode = test;
+        for(int i = 0; i < 100000; i++) {
+            IUnit node = new JavaClass("org.foo", "C"+i, Paths.get("src/main/java/org/foo/C"+i+".java"));
+            dependencyGraph.putEdge(previousNode, node);
+            previousNode = node;
+        }
+
+        assertEquals("Not all nodes are reachable", 100000,
+                TestTypeDetectionUtils.getCallPairsOnClassLevel(dependencyGraph).get(test).size());
+    }
+
+    @Test
+    public void getCallerCalleePairsOnClassLevelFromLongChainWithCycles() {
+        // Without run-length encoding, the reachable components of each component would need more than 5 GB for
+        // this chain
+        DependencyGraph dependencyGraph = new DependencyGraph();
+        IUnit previousNode = test;
+        IUnit middleNode = null;
+        for(int i = 0; i < 300000; i++) {
+            IUnit node = new JavaClass("org.foo", "C"+i, Paths.get("src/main/java/org/foo/C"+i+".java"));
+            dependencyGraph.putEdge(previousNode, node);
+            if(i % 3 == 2) {
+                // Small cycles, so that not every component consists of one node
+                dependencyGraph.putEdge(node, previousNode);
+            }
+            if(i == 150000) {
+                middleNode = node;
+            }
+            previousNode = node;
+        }
+
+        assertEquals("Not all nodes are reachable", 300000,
+                TestTypeDetectionUtils.getCallPairsOnClassLevel(dependencyGraph).get(test).size());
+        assertEquals("Not all nodes are reachable from the middle of the chain", 149999,
+                dependencyGraph.getReachabilityIndex().getReachableUnits(middleNode).size());
+    }
+
+    @Test
+    public void getCallerCalleePairsOnClassLevelAfterChangeOfGraph() {
+        DependencyGraph dependencyGraph = new DependencyGraph();
+        dependencyGraph.putEdge(test, C1);
+        assertEquals("Index is not reused", dependencyGraph.getReachabilityIndex(),
+                dependencyGraph.getReachabilityIndex());
+
+        dependencyGraph.putEdge(C1, C2);
+
+        Set<IUnit> test1Callees = new HashSet<>();
+        test1Callees.add(C1);
+        test1Callees.add(C2);
+        assertEquals("Index is not updated", test1Callees,
+                TestTypeDetectionUtils.getCallPairsOnClassLevel(dependencyGraph).get(test));
+    }
+
     /*
     @Test
     public void getTestGranularitiesForTestsOnMethodLevelUsingExampleFromPaperTest() {
@@ -17,9 +17,13 @@
 package de.ugoe.cs.comfort.data.graphs;
 
 import de.ugoe.cs.comfort.BaseTest;
+import de.ugoe.cs.comfort.data.models.UnitRegistry;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Fabian Trautsch
@@ -39,4 +43,91 @@ public class CallGraphTest extends BaseTest {
         expectedDependencyGraph.putEdge(address, object);
         assertEquals("Not the correct graph representation!", expectedDependencyGraph, callGraph.getDependencyGraphRepresentation());
     }
+
+    @Test
+    public void compactBackendTest() {
+        CallGraph guavaGraph = new CallGraph();
+        CallGraph compactGraph = new CallGraph(GraphBackend.COMPACT);
+        for(CallGraph callGraph : new CallGraph[]{guavaGraph, compactGraph}) {
+            callGraph.addEdge(new CallEdge(CallType.INVOKE_SPECIAL, 0, addressTestInit, addressGetStreet));
+            callGraph.addEdge(new CallEdge(CallType.INVOKE_SPECIAL, 0, addressGetStreet, personInit));
+            callGraph.addEdge(new CallEdge(CallType.INVOKE_SPECIAL, 0, addressInit, javaLangObjectInit));
+            callGraph.addEdge(new CallEdge(CallType.INVOKE_SPECIAL, 1, addressInit, javaLangObjectInit));
+        }
+
+        assertEquals("Not the same graph!", guavaGraph, compactGraph);
+        assertEquals("Not the same copy!", guavaGraph.getCopyOfGraph(), compactGraph.getCopyOfGraph());
+        assertEquals("Not the correct backend!", GraphBackend.COMPACT, compactGraph.getCopyOfGraph().getBackend());
+        assertEquals("Not the correct graph representation!", guavaGraph.getDependencyGraphRepresentation(),
+                compactGraph.getDependencyGraphRepresentation());
+    }
+
+    @Test
+    public void offHeapBackendTest() {
+        CallGraph guavaGraph = new CallGraph();
+        CallGraph offHeapGraph = new CallGraph(GraphBackend.OFF_HEAP);
+        for(CallGraph callGraph : new CallGraph[]{guavaGraph, offHeapGraph}) {
+            callGraph.addEdge(new CallEdge(CallType.INVOKE_SPECIAL, 0, addressTestInit, addressGetStreet));
+            callGraph.addEdge(new CallEdge(CallType.INVOKE_SPECIAL, 0, addressGetStreet, personInit));
+            callGraph.addEdge(new CallEdge(CallType.INVOKE_SPECIAL, 0, addressInit, javaLangObjectInit));
+            callGraph.addEdge(new CallEdge(CallType.INVOKE_SPECIAL, 1, addressInit, javaLangObjectInit));
+        }
+
+        assertEquals("Not the same graph!", guavaGraph, offHeapGraph);
+        assertEquals("Not the same test nodes!", guavaGraph.getTestNodes(), offHeapGraph.getTestNodes());
+        assertEquals("Not the same copy!", guavaGraph.getCopyOfGraph(), offHeapGraph.getCopyOfGraph());
+        assertEquals("Not the correct backend!", GraphBackend.OFF_HEAP, offHeapGraph.getCopyOfGraph().getBackend());
+        assertEquals("Not the correct graph representation!", guavaGraph.getDependencyGraphRepresentation(),
+                offHeapGraph.getDependencyGraphRepresentation());
+    }
+
+    @Test
+    public void filterTest() {
+        CallGraph callGraph = new CallGraph();
+        callGraph.addEdge(new CallEdge(CallType.INVOKE_SPECIAL, 0, addressTestInit, addressGetStreet));
+        callGraph.addEdge(new CallEdge(CallType.INVOKE_SPECIAL, 0, addressGetStreet, personInit));
+        callGraph.addEdge(new CallEdge(CallType.INVOKE_SPECIAL, 0, addressInit, javaLangObjectInit));
+        callGraph.addEdge(new CallEdge(CallType.INVOKE_SPECIAL, 1, addressInit, javaLangObjectInit));
+
+        // Chained filters are fused into one view of the original graph
+        CallGraph filteredGraph = callGraph
+                .filter(node -> !node.equals(javaLangObjectInit), edge -> true)
+                .filter(node -> true, edge -> !edge.getCaller().equals(addressTestInit));
+        assertFalse("View is already materialized!", filteredGraph.isMaterialized());
+
+        CallGraph expectedCallGraph = new CallGraph();
+        expectedCallGraph.addEdge(new CallEdge(CallType.INVOKE_SPECIAL, 0, addressGetStreet, personInit));
+        assertEquals("Not the correct filtered graph!", expectedCallGraph, filteredGraph);
+        assertTrue("View is not materialized!", filteredGraph.isMaterialized());
+
+        // Changes of the view must not change the original graph
+        filteredGraph.removeNode(personInit);
+        assertEquals("Original graph was changed!", 4, callGraph.edges().size());
+    }
+
+    @Test
+    public void cachedDependencyGraphRepresentationTest() {
+        UnitRegistry unitRegistry = new UnitRegistry();
+        CallGraph callGraph = new CallGraph();
+        callGraph.addEdge(new CallEdge(CallType.INVOKE_SPECIAL, 0, addressTestInit, addressGetStreet));
+
+        DependencyGraph dependencyGraph = callGraph.getDependencyGraphRepresentation(unitRegistry);
+        assertSame("Representation is not cached!", dependencyGraph,
+                callGraph.getDependencyGraphRepresentation(unitRegistry));
+
+        // Added edges are added to the cached representation
+        callGraph.addEdge(new CallEdge(CallType.INVOKE_SPECIAL, 0, addressGetStreet, personInit));
+        DependencyGraph expectedDependencyGraph = new DependencyGraph();
+        expectedDependencyGraph.putEdge(addressTest, address);
+        expectedDependencyGraph.putEdge(address, person);
+        assertSame("Representation is not cached!", dependencyGraph,
+                callGraph.getDependencyGraphRepresentation(unitRegistry));
+        assertEquals("Not the correct graph representation!", expectedDependencyGraph, dependencyGraph);
+
+        // Removals create a new representation
+        callGraph.removeNode(personInit);
+        expectedDependencyGraph.removeNode(person);
+        assertEquals("Not the correct graph representation!", expectedDependencyGraph,
+                callGraph.getDependencyGraphRepresentation(unitRegistry));
+    }
 }
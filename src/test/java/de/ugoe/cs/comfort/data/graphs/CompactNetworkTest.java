@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.data.graphs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.Sets;
+import com.google.common.graph.EndpointPair;
+import com.google.common.graph.MutableNetwork;
+import com.google.common.graph.NetworkBuilder;
+import org.junit.Test;
+
+/**
+ * @author Fabian Trautsch
+ */
+public class CompactNetworkTest {
+    @Test
+    public void adjacencyTest() {
+        CompactNetwork<String, String> network = new CompactNetwork<>();
+        network.addEdge("a", "b", "ab1");
+        network.addEdge("a", "b", "ab2");
+        network.addEdge("a", "a", "aa");
+        network.addEdge("c", "a", "ca");
+
+        assertEquals(Sets.newHashSet("a", "b"), network.successors("a"));
+        assertEquals(Sets.newHashSet("a", "c"), network.predecessors("a"));
+        assertEquals(Sets.newHashSet("a", "b", "c"), network.adjacentNodes("a"));
+        assertEquals(Sets.newHashSet("ab1", "ab2"), network.edgesConnecting("a", "b"));
+        assertEquals(Sets.newHashSet("ab1", "ab2", "aa", "ca"), network.incidentEdges("a"));
+        assertEquals(5, network.degree("a"));
+        assertEquals(EndpointPair.ordered("c", "a"), network.incidentNodes("ca"));
+        assertTrue(network.hasEdgeConnecting("c", "a"));
+        assertFalse(network.hasEdgeConnecting("a", "c"));
+    }
+
+    @Test
+    public void addExistingEdgeTest() {
+        CompactNetwork<String, String> network = new CompactNetwork<>();
+        assertTrue(network.addEdge("a", "b", "ab"));
+        assertFalse(network.addEdge("a", "b", "ab"));
+        assertFalse(network.addNode("a"));
+        assertEquals(1, network.edges().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void reuseEdgeForOtherNodesTest() {
+        CompactNetwork<String, String> network = new CompactNetwork<>();
+        network.addEdge("a", "b", "ab");
+        network.addEdge("b", "a", "ab");
+    }
+
+    @Test
+    public void removeTest() {
+        CompactNetwork<String, String> network = new CompactNetwork<>();
+        network.addEdge("a", "b", "ab");
+        network.addEdge("b", "c", "bc");
+        network.addEdge("c", "c", "cc");
+        assertEquals(Sets.newHashSet("c"), network.successors("b"));
+
+        assertTrue(network.removeNode("c"));
+        assertFalse(network.removeNode("c"));
+        assertTrue(network.successors("b").isEmpty());
+        assertEquals(Sets.newHashSet("ab"), network.edges());
+
+        assertTrue(network.removeEdge("ab"));
+        assertFalse(network.removeEdge("ab"));
+        assertEquals(Sets.newHashSet("a", "b"), network.nodes());
+        assertEquals(0, network.degree("a"));
+
+        // Edges that are added after a removal must be visible
+        network.addEdge("b", "d", "bd");
+        assertEquals(Sets.newHashSet("d"), network.successors("b"));
+    }
+
+    @Test
+    public void equalToGuavaNetworkTest() {
+        MutableNetwork<String, String> guavaNetwork = NetworkBuilder.directed().allowsSelfLoops(true)
+                .allowsParallelEdges(true).build();
+        CompactNetwork<String, String> compactNetwork = new CompactNetwork<>();
+        for(int i = 0; i < 100; i++) {
+            String source = "n"+(i % 7);
+            String target = "n"+(i * 3 % 11);
+            guavaNetwork.addEdge(source, target, "e"+i);
+            compactNetwork.addEdge(source, target, "e"+i);
+        }
+        guavaNetwork.removeNode("n3");
+        compactNetwork.removeNode("n3");
+
+        assertEquals(guavaNetwork, compactNetwork);
+        assertEquals(guavaNetwork.hashCode(), compactNetwork.hashCode());
+        for(String node : guavaNetwork.nodes()) {
+            assertEquals(guavaNetwork.successors(node), compactNetwork.successors(node));
+            assertEquals(guavaNetwork.predecessors(node), compactNetwork.predecessors(node));
+            assertEquals(guavaNetwork.inEdges(node), compactNetwork.inEdges(node));
+            assertEquals(guavaNetwork.outEdges(node), compactNetwork.outEdges(node));
+        }
+    }
+
+    @Test
+    public void compactGraphTest() {
+        CompactGraph<String> graph = new CompactGraph<>();
+        assertTrue(graph.putEdge("a", "b"));
+        assertFalse(graph.putEdge("a", "b"));
+        assertTrue(graph.putEdge("b", "b"));
+        assertTrue(graph.putEdge("c", "b"));
+
+        assertEquals(Sets.newHashSet("a", "b", "c"), graph.predecessors("b"));
+        assertEquals(3, graph.edges().size());
+        assertTrue(graph.hasEdgeConnecting("b", "b"));
+
+        assertTrue(graph.removeEdge("a", "b"));
+        assertFalse(graph.hasEdgeConnecting("a", "b"));
+        assertTrue(graph.removeNode("b"));
+        assertEquals(Sets.newHashSet("a", "c"), graph.nodes());
+        assertTrue(graph.edges().isEmpty());
+    }
+}
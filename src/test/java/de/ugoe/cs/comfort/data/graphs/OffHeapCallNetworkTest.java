@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.data.graphs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.Sets;
+import com.google.common.graph.EndpointPair;
+import com.google.common.graph.MutableNetwork;
+import com.google.common.graph.NetworkBuilder;
+import de.ugoe.cs.comfort.BaseTest;
+import de.ugoe.cs.comfort.data.models.IUnit;
+import de.ugoe.cs.comfort.data.models.JavaMethod;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * @author Fabian Trautsch
+ */
+public class OffHeapCallNetworkTest extends BaseTest {
+    @Test
+    public void adjacencyTest() {
+        CallEdge first = new CallEdge(CallType.INVOKE_SPECIAL, 0, addressInit, personInit);
+        CallEdge second = new CallEdge(CallType.INVOKE_SPECIAL, 1, addressInit, personInit);
+        CallEdge selfLoop = new CallEdge(CallType.INVOKE_VIRTUAL, null, addressInit, addressInit);
+        CallEdge incoming = new CallEdge(null, 2, addressTestInit, addressInit);
+
+        OffHeapCallNetwork network = new OffHeapCallNetwork();
+        network.addEdge(first.getCaller(), first.getCallee(), first);
+        network.addEdge(second.getCaller(), second.getCallee(), second);
+        network.addEdge(selfLoop.getCaller(), selfLoop.getCallee(), selfLoop);
+        network.addEdge(incoming.getCaller(), incoming.getCallee(), incoming);
+
+        assertEquals(Sets.newHashSet(addressInit, personInit), network.successors(addressInit));
+        assertEquals(Sets.newHashSet(addressInit, addressTestInit), network.predecessors(addressInit));
+        assertEquals(Sets.newHashSet(addressInit, personInit, addressTestInit), network.adjacentNodes(addressInit));
+        assertEquals(Sets.newHashSet(first, second), network.edgesConnecting(addressInit, personInit));
+        assertEquals(Sets.newHashSet(first, second, selfLoop, incoming), network.incidentEdges(addressInit));
+        assertEquals(5, network.degree(addressInit));
+        assertEquals(EndpointPair.ordered(addressTestInit, addressInit), network.incidentNodes(incoming));
+        assertTrue(network.hasEdgeConnecting(addressTestInit, addressInit));
+        assertFalse(network.hasEdgeConnecting(addressInit, addressTestInit));
+    }
+
+    @Test
+    public void addExistingEdgeTest() {
+        OffHeapCallNetwork network = new OffHeapCallNetwork();
+        assertTrue(network.addEdge(addressInit, personInit,
+                new CallEdge(CallType.INVOKE_SPECIAL, 0, addressInit, personInit)));
+        assertFalse(network.addEdge(addressInit, personInit,
+                new CallEdge(CallType.INVOKE_SPECIAL, 0, addressInit, personInit)));
+        assertFalse(network.addNode(addressInit));
+        assertEquals(1, network.edges().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addEdgeBetweenOtherNodesTest() {
+        OffHeapCallNetwork network = new OffHeapCallNetwork();
+        network.addEdge(personInit, addressInit, new CallEdge(CallType.INVOKE_SPECIAL, 0, addressInit, personInit));
+    }
+
+    @Test
+    public void removeTest() {
+        CallEdge ab = new CallEdge(CallType.INVOKE_SPECIAL, 0, addressTestInit, addressInit);
+        CallEdge bc = new CallEdge(CallType.INVOKE_SPECIAL, 0, addressInit, personInit);
+        CallEdge cc = new CallEdge(CallType.INVOKE_SPECIAL, 0, personInit, personInit);
+        OffHeapCallNetwork network = new OffHeapCallNetwork();
+        for(CallEdge edge : new CallEdge[]{ab, bc, cc}) {
+            network.addEdge(edge.getCaller(), edge.getCallee(), edge);
+        }
+        assertEquals(Sets.newHashSet(personInit), network.successors(addressInit));
+
+        assertTrue(network.removeNode(personInit));
+        assertFalse(network.removeNode(personInit));
+        assertTrue(network.successors(addressInit).isEmpty());
+        assertEquals(Sets.newHashSet(ab), network.edges());
+
+        assertTrue(network.removeEdge(ab));
+        assertFalse(network.removeEdge(ab));
+        assertEquals(Sets.newHashSet(addressTestInit, addressInit), network.nodes());
+        assertEquals(0, network.degree(addressTestInit));
+
+        // Edges that are added after a removal must be visible
+        CallEdge bd = new CallEdge(CallType.INVOKE_STATIC, 1, addressInit, javaLangObjectInit);
+        network.addEdge(bd.getCaller(), bd.getCallee(), bd);
+        assertEquals(Sets.newHashSet(javaLangObjectInit), network.successors(addressInit));
+    }
+
+    @Test
+    public void equalToGuavaNetworkTest() {
+        MutableNetwork<IUnit, CallEdge> guavaNetwork = NetworkBuilder.directed().allowsSelfLoops(true)
+                .allowsParallelEdges(true).build();
+        OffHeapCallNetwork offHeapNetwork = new OffHeapCallNetwork();
+        List<IUnit> units = new ArrayList<>();
+        for(int i = 0; i < 50; i++) {
+            units.add(new JavaMethod("org.foo", "Class"+(i % 13), "method"+i, new ArrayList<>(), null));
+        }
+
+        // Enough edges to rehash the edge table several times
+        for(int i = 0; i < 20000; i++) {
+            IUnit caller = units.get(i % 50);
+            IUnit callee = units.get(i * 7 % 47);
+            CallEdge edge = new CallEdge(CallType.values()[i % CallType.values().length], i / 50, caller, callee);
+            assertEquals(guavaNetwork.addEdge(caller, callee, edge), offHeapNetwork.addEdge(caller, callee, edge));
+        }
+        for(int i = 0; i < 10; i++) {
+            guavaNetwork.removeNode(units.get(i * 3));
+            offHeapNetwork.removeNode(units.get(i * 3));
+        }
+
+        assertEquals(guavaNetwork, offHeapNetwork);
+        assertEquals(guavaNetwork.hashCode(), offHeapNetwork.hashCode());
+        for(IUnit node : guavaNetwork.nodes()) {
+            assertEquals(guavaNetwork.successors(node), offHeapNetwork.successors(node));
+            assertEquals(guavaNetwork.predecessors(node), offHeapNetwork.predecessors(node));
+            assertEquals(guavaNetwork.inEdges(node), offHeapNetwork.inEdges(node));
+            assertEquals(guavaNetwork.outEdges(node), offHeapNetwork.outEdges(node));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.data.graphs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import de.ugoe.cs.comfort.data.models.IUnit;
+import de.ugoe.cs.comfort.data.models.JavaClass;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import org.junit.Test;
+
+/**
+ * @author Fabian Trautsch
+ */
+public class ReachabilityIndexTest {
+    private final IUnit firstTest = createClass("FirstTest");
+    private final IUnit secondTest = createClass("SecondTest");
+
+    private static IUnit createClass(String name) {
+        return new JavaClass("org.foo", name, Paths.get("src/main/java/org/foo/"+name+".java"));
+    }
+
+    @Test
+    public void componentsAreSharedBetweenTestsTest() {
+        IUnit x = createClass("X");
+        IUnit y = createClass("Y");
+        IUnit z = createClass("Z");
+        IUnit w = createClass("W");
+        DependencyGraph dependencyGraph = new DependencyGraph();
+        dependencyGraph.putEdge(firstTest, x);
+        dependencyGraph.putEdge(secondTest, x);
+        dependencyGraph.putEdge(secondTest, w);
+        dependencyGraph.putEdge(x, y);
+        dependencyGraph.putEdge(y, x);
+        dependencyGraph.putEdge(y, z);
+
+        ReachabilityIndex index = new ReachabilityIndex(dependencyGraph);
+        // Both tests reach the same component {X, Y}, which is stored and computed only once
+        assertEquals(5, index.getNumberOfComponents());
+        assertEquals(new HashSet<>(Arrays.asList(x, y, z)), index.getReachableUnits(firstTest));
+        assertEquals(new HashSet<>(Arrays.asList(x, y, z, w)), index.getReachableUnits(secondTest));
+        assertEquals(new HashSet<>(Arrays.asList(y, z)), index.getReachableUnits(x));
+        assertEquals(new HashSet<>(Arrays.asList(x, z)), index.getReachableUnits(y));
+        assertEquals(Collections.emptySet(), index.getReachableUnits(z));
+        assertTrue(index.getNumberOfRuns() <= 2 * index.getNumberOfComponents());
+    }
+
+    @Test
+    public void reachableComponentsOfChainAreOneRunTest() {
+        DependencyGraph dependencyGraph = new DependencyGraph();
+        IUnit previousNode = firstTest;
+        for(int i = 0; i < 100000; i++) {
+            IUnit node = createClass("C"+i);
+            dependencyGraph.putEdge(previousNode, node);
+            if(i % 3 == 2) {
+                dependencyGraph.putEdge(node, previousNode);
+            }
+            previousNode = node;
+        }
+
+        ReachabilityIndex index = new ReachabilityIndex(dependencyGraph);
+        assertEquals(100000, index.getReachableUnits(firstTest).size());
+        // Without the run-length encoding, the chain would need one entry for each pair of components
+        assertEquals(index.getNumberOfComponents(), index.getNumberOfRuns());
+    }
+}
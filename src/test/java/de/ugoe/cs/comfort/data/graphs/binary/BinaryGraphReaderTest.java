@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.data.graphs.binary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import de.ugoe.cs.comfort.BaseTest;
+import de.ugoe.cs.comfort.data.graphs.CallEdge;
+import de.ugoe.cs.comfort.data.graphs.CallGraph;
+import de.ugoe.cs.comfort.data.graphs.CallType;
+import de.ugoe.cs.comfort.data.graphs.DependencyGraph;
+import de.ugoe.cs.comfort.data.graphs.GraphBackend;
+import de.ugoe.cs.comfort.data.models.IUnit;
+import de.ugoe.cs.comfort.data.models.JavaClass;
+import de.ugoe.cs.comfort.data.models.PythonMethod;
+import de.ugoe.cs.comfort.data.models.PythonModule;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Fabian Trautsch
+ */
+public class BinaryGraphReaderTest extends BaseTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void writeAndReadCallGraphTest() throws IOException {
+        CallGraph callGraph = new CallGraph();
+        callGraph.addEdge(new CallEdge(CallType.INVOKE_SPECIAL, 0, addressTestInit, personInit));
+        callGraph.addEdge(new CallEdge(CallType.INVOKE_VIRTUAL, 1, addressTestInit, addressInitWithParam));
+        callGraph.addEdge(new CallEdge(null, null, personInit, javaLangObjectInit));
+        callGraph.addNode(main);
+
+        Path file = folder.newFile().toPath();
+        BinaryGraphWriter.write(callGraph, file);
+        CallGraph readGraph = (CallGraph) BinaryGraphReader.read(file, GraphBackend.GUAVA);
+
+        assertEquals("Graphs not equal!", callGraph, readGraph);
+        assertEquals(callGraph.edges(), readGraph.edges());
+        assertTrue(readGraph.nodes().contains(main));
+    }
+
+    @Test
+    public void writeAndReadPythonCallGraphTest() throws IOException {
+        PythonMethod caller = new PythonMethod("tests", "test1", "TestClass", "test_method",
+                Arrays.asList("self", "x"), Paths.get("tests/test1.py"));
+        PythonMethod callee = new PythonMethod("module", "module1", null, "method", null,
+                Paths.get("module/module1.py"));
+        CallGraph callGraph = new CallGraph();
+        callGraph.addEdge(new CallEdge(CallType.INVOKE_PYTHON, -5, caller, callee));
+
+        Path file = folder.newFile().toPath();
+        BinaryGraphWriter.write(callGraph, file);
+        CallGraph readGraph = (CallGraph) BinaryGraphReader.read(file, GraphBackend.COMPACT);
+
+        assertEquals(callGraph.edges(), readGraph.edges());
+        CallEdge edge = readGraph.edges().iterator().next();
+        assertEquals(Integer.valueOf(-5), edge.getOrderNumber());
+        PythonMethod readCaller = (PythonMethod) edge.getCaller();
+        assertEquals(Arrays.asList("self", "x"), readCaller.getParameter());
+        assertEquals("TestClass", readCaller.getNameSpace());
+        assertEquals(Paths.get("tests/test1.py"), readCaller.getFilePath());
+        assertNull(((PythonMethod) edge.getCallee()).getParameter());
+    }
+
+    @Test
+    public void writeAndReadDependencyGraphTest() throws IOException {
+        JavaClass coveredClass = new JavaClass("org.foo.models", "Address", Paths.get("src/Address.java"));
+        coveredClass.setCoveredLines(42);
+        JavaClass otherClass = new JavaClass("org.foo.models", "Person", Paths.get("src/Address.java"));
+        PythonModule moduleWithoutPath = new PythonModule("unittest", "unittest", null);
+
+        DependencyGraph dependencyGraph = new DependencyGraph();
+        dependencyGraph.putEdge(coveredClass, otherClass);
+        dependencyGraph.putEdge(pyTest1, moduleWithoutPath);
+        dependencyGraph.addNode(entryView);
+
+        Path file = folder.newFile().toPath();
+        BinaryGraphWriter.write(dependencyGraph, file);
+        DependencyGraph readGraph = (DependencyGraph) BinaryGraphReader.read(file, GraphBackend.GUAVA);
+
+        assertEquals("Graphs not equal!", dependencyGraph, readGraph);
+        IUnit readCoveredClass = null;
+        IUnit readOtherClass = null;
+        for(IUnit unit : readGraph.nodes()) {
+            if(unit.equals(coveredClass)) {
+                readCoveredClass = unit;
+            } else if(unit.equals(otherClass)) {
+                readOtherClass = unit;
+            } else if(unit.equals(moduleWithoutPath)) {
+                assertNull(unit.getFilePath());
+            }
+        }
+        assertEquals(Integer.valueOf(42), readCoveredClass.getCoveredLines());
+        assertNull(readOtherClass.getCoveredLines());
+        assertSame(readCoveredClass.getFilePath(), readOtherClass.getFilePath());
+    }
+
+    @Test(expected = IOException.class)
+    public void readInvalidFileTest() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+        BinaryGraphReader.read(file, GraphBackend.GUAVA);
+    }
+
+    @Test
+    public void isSupportedTest() {
+        assertTrue(BinaryGraphWriter.isSupported(new CallGraph()));
+        assertTrue(BinaryGraphWriter.isSupported(new DependencyGraph()));
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.data.graphs.export;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.io.ByteStreams;
+import de.ugoe.cs.comfort.BaseTest;
+import de.ugoe.cs.comfort.data.DataSet;
+import de.ugoe.cs.comfort.data.ProjectFiles;
+import de.ugoe.cs.comfort.data.graphs.CallEdge;
+import de.ugoe.cs.comfort.data.graphs.CallGraph;
+import de.ugoe.cs.comfort.data.graphs.CallType;
+import de.ugoe.cs.comfort.data.graphs.DependencyGraph;
+import de.ugoe.cs.comfort.data.models.JavaClass;
+import de.ugoe.cs.comfort.data.models.JavaMethod;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Fabian Trautsch
+ */
+public class GraphExporterTest extends BaseTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private JavaMethod caller = new JavaMethod("org.foo", "FooTest", "testFoo", Collections.emptyList(),
+            Paths.get("src/test/java/org/foo/FooTest.java"));
+    private JavaMethod callee = new JavaMethod("org.foo", "Foo", "bar", Arrays.asList("int", "java.lang.String"),
+            Paths.get("src/main/java/org/foo/Foo.java"));
+
+    private CallGraph createCallGraph() {
+        CallGraph callGraph = new CallGraph();
+        callGraph.addEdge(new CallEdge(CallType.INVOKE_VIRTUAL, 2, caller, callee));
+        return callGraph;
+    }
+
+    private String export(DataSet graph, GraphExportFormat format, boolean compress) throws IOException {
+        Path file = folder.newFile().toPath();
+        GraphExporter.export(graph, file, format, compress);
+        if(!compress) {
+            return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return new String(ByteStreams.toByteArray(in), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void exportCallGraphAsDotTest() throws IOException {
+        String dot = export(createCallGraph(), GraphExportFormat.DOT, false);
+        assertTrue(dot.startsWith("digraph callgraph {\n"));
+        assertTrue(dot.contains("  \"org.foo.FooTest.testFoo()\";\n"));
+        assertTrue(dot.contains("  \"org.foo.Foo.bar(int,java.lang.String)\";\n"));
+        assertTrue(dot.contains("  \"org.foo.FooTest.testFoo()\" -> \"org.foo.Foo.bar(int,java.lang.String)\""
+                + " [ label = \"2\" ];\n"));
+        assertTrue(dot.endsWith("}\n"));
+    }
+
+    @Test
+    public void exportCallGraphAsCSVTest() throws IOException {
+        String expected = "caller,callee,callType,orderNumber\n"
+                + "org.foo.FooTest.testFoo(),\"org.foo.Foo.bar(int,java.lang.String)\",INVOKE_VIRTUAL,2\n";
+        assertEquals(expected, export(createCallGraph(), GraphExportFormat.CSV, false));
+    }
+
+    @Test
+    public void exportCompressedCallGraphAsCSVTest() throws IOException {
+        String expected = "caller,callee,callType,orderNumber\n"
+                + "org.foo.FooTest.testFoo(),\"org.foo.Foo.bar(int,java.lang.String)\",INVOKE_VIRTUAL,2\n";
+        assertEquals(expected, export(createCallGraph(), GraphExportFormat.CSV, true));
+    }
+
+    @Test
+    public void exportCallGraphAsGraphMLTest() throws IOException {
+        String graphML = export(createCallGraph(), GraphExportFormat.GRAPHML, false);
+        assertTrue(graphML.contains("<edge source=\"org.foo.FooTest.testFoo()\" "
+                + "target=\"org.foo.Foo.bar(int,java.lang.String)\">\n"
+                + "      <data key=\"callType\">INVOKE_VIRTUAL</data>\n"
+                + "      <data key=\"orderNumber\">2</data>\n"
+                + "    </edge>\n"));
+        assertTrue(graphML.endsWith("  </graph>\n</graphml>\n"));
+    }
+
+    @Test
+    public void exportDependencyGraphWithEscapingTest() throws IOException {
+        JavaClass source = new JavaClass("org.foo", "Foo\"Bar", null);
+        JavaClass target = new JavaClass("org.foo", "Foo<T>", null);
+        DependencyGraph dependencyGraph = new DependencyGraph();
+        dependencyGraph.putEdge(source, target);
+
+        assertTrue(export(dependencyGraph, GraphExportFormat.DOT, false)
+                .contains("  \"org.foo.Foo\\\"Bar\" -> \"org.foo.Foo<T>\";\n"));
+        assertTrue(export(dependencyGraph, GraphExportFormat.GRAPHML, false)
+                .contains("    <edge source=\"org.foo.Foo&quot;Bar\" target=\"org.foo.Foo&lt;T&gt;\"/>\n"));
+        assertEquals("caller,callee,callType,orderNumber\n\"org.foo.Foo\"\"Bar\",org.foo.Foo<T>,,\n",
+                export(dependencyGraph, GraphExportFormat.CSV, false));
+    }
+
+    @Test
+    public void exportCSVWithCarriageReturnTest() throws IOException {
+        JavaClass source = new JavaClass("org.foo", "Foo\rBar", null);
+        JavaClass target = new JavaClass("org.foo", "Foo", null);
+        DependencyGraph dependencyGraph = new DependencyGraph();
+        dependencyGraph.putEdge(source, target);
+
+        assertEquals("caller,callee,callType,orderNumber\n\"org.foo.Foo\rBar\",org.foo.Foo,,\n",
+                export(dependencyGraph, GraphExportFormat.CSV, false));
+    }
+
+    @Test(expected = IOException.class)
+    public void exportUnsupportedDataSetTest() throws IOException {
+        GraphExporter.export(new ProjectFiles(null, null, null), folder.newFile().toPath(),
+                GraphExportFormat.DOT, false);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.data.models;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import de.ugoe.cs.comfort.BaseTest;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+/**
+ * @author Fabian Trautsch
+ */
+public class UnitRegistryTest extends BaseTest {
+    @Test
+    public void internTest() {
+        UnitRegistry unitRegistry = new UnitRegistry();
+        JavaClass copyOfAddress = new JavaClass("org.foo.models", "Address",
+                Paths.get("src/main/java/org/foo/models/Address.java"));
+
+        assertSame(address, unitRegistry.intern(address));
+        assertSame(address, unitRegistry.intern(copyOfAddress));
+        assertSame(person, unitRegistry.intern(person));
+        assertEquals(0, unitRegistry.getId(copyOfAddress));
+        assertEquals(1, unitRegistry.getId(person));
+        assertEquals(-1, unitRegistry.getId(main));
+        assertSame(person, unitRegistry.getUnit(1));
+        assertEquals(2, unitRegistry.size());
+    }
+
+    @Test
+    public void unitsWithCoveredLinesAreNotInternedTest() {
+        UnitRegistry unitRegistry = new UnitRegistry();
+        JavaMethod coveredMethod = new JavaMethod("org.foo.models", "Address", "getStreet", new ArrayList<>(),
+                Paths.get("src/main/java/org/foo/models/Address.java"));
+        coveredMethod.setCoveredLines(3);
+
+        assertSame(coveredMethod, unitRegistry.intern(coveredMethod));
+        assertEquals(-1, unitRegistry.getId(coveredMethod));
+    }
+
+    @Test
+    public void internByKeyTest() {
+        UnitRegistry unitRegistry = new UnitRegistry();
+        AtomicInteger createdUnits = new AtomicInteger(0);
+        JavaClass internedAddress = null;
+        for(int i = 0; i < 3; i++) {
+            internedAddress = unitRegistry.intern("org.foo.models.Address", () -> {
+                createdUnits.incrementAndGet();
+                return new JavaClass("org.foo.models.Address", Paths.get("src/main/java/org/foo/models/Address.java"));
+            });
+        }
+
+        assertEquals(1, createdUnits.get());
+        // Units that were created for a key are the canonical instances
+        assertSame(internedAddress, unitRegistry.intern(address));
+    }
+
+    @Test
+    public void internedMethodIsNotChangedByItsParameterListTest() {
+        UnitRegistry unitRegistry = new UnitRegistry();
+        List<String> parameter = new ArrayList<>(Collections.singletonList("java.lang.String"));
+        JavaMethod setStreet = new JavaMethod("org.foo.models", "Address", "setStreet", parameter,
+                Paths.get("src/main/java/org/foo/models/Address.java"));
+        unitRegistry.intern(setStreet);
+        int hash = setStreet.hashCode();
+
+        // The hash of the interned method is cached, therefore its parameters must not change afterwards
+        parameter.add("int");
+        assertEquals(hash, setStreet.hashCode());
+        assertEquals(1, setStreet.getParameter().size());
+        JavaMethod copyOfSetStreet = new JavaMethod("org.foo.models", "Address", "setStreet",
+                Collections.singletonList("java.lang.String"), Paths.get("src/main/java/org/foo/models/Address.java"));
+        assertSame(setStreet, unitRegistry.intern(copyOfSetStreet));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void parameterOfMethodCanNotBeChangedTest() {
+        JavaMethod setStreet = new JavaMethod("org.foo.models", "Address", "setStreet", new ArrayList<>(),
+                Paths.get("src/main/java/org/foo/models/Address.java"));
+        setStreet.getParameter().add("int");
+    }
+
+    @Test
+    public void getClassLevelUnitTest() {
+        UnitRegistry unitRegistry = new UnitRegistry();
+        JavaMethod getStreet = new JavaMethod("org.foo.models", "Address", "getStreet", new ArrayList<>(),
+                Paths.get("src/main/java/org/foo/models/Address.java"));
+        JavaMethod getNumber = new JavaMethod("org.foo.models", "Address", "getNumber", new ArrayList<>(),
+                Paths.get("src/main/java/org/foo/models/Address.java"));
+
+        IUnit classLevelUnit = unitRegistry.getClassLevelUnit(getStreet);
+        assertEquals(address, classLevelUnit);
+        assertNotSame(address, classLevelUnit);
+        assertSame(classLevelUnit, unitRegistry.getClassLevelUnit(getNumber));
+
+        // Units on class level are projected to themselves
+        assertSame(classLevelUnit, unitRegistry.getClassLevelUnit(classLevelUnit));
+        assertEquals(module1, new PythonMethod("module.package1.sub_package1", "module1", "", "foo",
+                Paths.get("module/package1/sub_package1/module1.py")).toClassLevelUnit());
+    }
+}
@@ -17,6 +17,8 @@
 package de.ugoe.cs.comfort.filer;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import de.ugoe.cs.comfort.BaseTest;
@@ -132,6 +134,35 @@ public class CSVFilerTest extends BaseTest{
         assertEquals("Contents not the same!", expectedContent, content);
     }
 
+    @Test
+    public void revisionsAreStoredInSeparateFilesTest() throws IOException {
+        res1.addMetric("istqb_call", TestType.UNIT.name());
+        resultsToStore.add(res1);
+
+        configuration.setRevision("abc");
+        try (CSVFiler csvFiler = new CSVFiler(configuration, configuration.getFilerConfiguration())) {
+            csvFiler.storeResults(resultsToStore);
+        }
+        configuration.setRevision("def");
+        try (CSVFiler csvFiler = new CSVFiler(configuration, configuration.getFilerConfiguration())) {
+            csvFiler.storeResults(resultsToStore);
+        }
+
+        // Without placeholder, the revision is appended to the file name
+        assertTrue(Files.exists(Paths.get(filerOutput, "metrics-abc.csv")));
+        assertTrue(Files.exists(Paths.get(filerOutput, "metrics-def.csv")));
+        assertTrue(Files.exists(Paths.get(filerOutput, "mutation-def.csv")));
+        assertFalse(Files.exists(metricsCSVPath));
+
+        // With placeholder, the placeholder is replaced
+        configuration.getFilerConfiguration().setMetricsCSVPath(Paths.get(filerOutput, "{revision}_m").toString());
+        CSVFiler csvFiler = new CSVFiler(configuration, configuration.getFilerConfiguration());
+        assertEquals(Paths.get(filerOutput, "def_m"),
+                csvFiler.getCSVPath(configuration.getFilerConfiguration().getMetricsCSVPath()));
+        assertEquals(Paths.get(filerOutput, "m-def"),
+                csvFiler.getCSVPath(Paths.get(filerOutput, "m").toString()));
+    }
+
     @Test
     public void storeMutationDataTest() {
         // Create test data
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.filer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import de.ugoe.cs.comfort.configuration.Database;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @author Fabian Trautsch
+ */
+public class DatastorePoolTest {
+    private final Map<String, Integer> closedConnections = new HashMap<>();
+    private final Database firstDatabase = createDatabase("first");
+    private final Database secondDatabase = createDatabase("second");
+
+    @Before
+    public void setUpPool() {
+        DatastorePool.setConnector(database -> new DatastorePool.Connection(
+                () -> closedConnections.merge(database.getDatabase(), 1, Integer::sum), null));
+        DatastorePool.setMaximumConnections(1);
+    }
+
+    @After
+    public void resetPool() {
+        DatastorePool.closeAll();
+        DatastorePool.setMaximumConnections(DatastorePool.DEFAULT_MAXIMUM_CONNECTIONS);
+        DatastorePool.setConnector(null);
+    }
+
+    @Test
+    public void connectionsInUseAreNotClosedTest() {
+        // Two runs use different databases at the same time, although only one connection should be kept
+        DatastorePool.getDatastore(firstDatabase);
+        DatastorePool.getDatastore(secondDatabase);
+        assertTrue(DatastorePool.isOpen(firstDatabase));
+        assertTrue(DatastorePool.isOpen(secondDatabase));
+        assertTrue(closedConnections.isEmpty());
+
+        // After the first run is finished, its connection exceeds the limit and is closed
+        DatastorePool.releaseDatastore(firstDatabase);
+        assertFalse(DatastorePool.isOpen(firstDatabase));
+        assertEquals(Integer.valueOf(1), closedConnections.get("first"));
+        assertTrue(DatastorePool.isOpen(secondDatabase));
+
+        // The last connection is kept for later runs
+        DatastorePool.releaseDatastore(secondDatabase);
+        assertTrue(DatastorePool.isOpen(secondDatabase));
+        assertNull(closedConnections.get("second"));
+    }
+
+    @Test
+    public void connectionIsSharedByUsersOfTheSameDatabaseTest() {
+        DatastorePool.getDatastore(firstDatabase);
+        DatastorePool.getDatastore(firstDatabase);
+        DatastorePool.getDatastore(secondDatabase);
+
+        // One of the two users of the first database is finished, the other one still uses the connection
+        DatastorePool.releaseDatastore(firstDatabase);
+        assertTrue(DatastorePool.isOpen(firstDatabase));
+
+        DatastorePool.releaseDatastore(firstDatabase);
+        assertFalse(DatastorePool.isOpen(firstDatabase));
+        assertEquals(Integer.valueOf(1), closedConnections.get("first"));
+        assertTrue(DatastorePool.isOpen(secondDatabase));
+    }
+
+    private static Database createDatabase(String name) {
+        Database database = new Database();
+        database.setDatabase(name);
+        return database;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.filer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import de.ugoe.cs.comfort.configuration.FilerConfiguration;
+import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
+import de.ugoe.cs.comfort.filer.models.Result;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+
+/**
+ * @author Fabian Trautsch
+ */
+public class ResultSinkTest {
+    private GeneralConfiguration configuration = new GeneralConfiguration();
+
+    @Test
+    public void allResultsAreStoredInBatchesTest() throws IOException {
+        BatchRecordingFiler filer = new BatchRecordingFiler(configuration, false);
+        try (ResultSink sink = new ResultSink(filer, 2, 3)) {
+            for(int i = 0; i < 10; i++) {
+                sink.accept(new Result("test"+i, null, "metric", String.valueOf(i)));
+            }
+            // Results with the same id are merged by the filer
+            sink.accept(new Result("test0", null, "other", "1"));
+            sink.commit();
+        }
+
+        assertEquals(10, filer.resultSet.size());
+        assertTrue(filer.finished);
+        for(Integer batchSize : filer.batchSizes) {
+            assertTrue("Batch is too large: "+batchSize, batchSize <= 3);
+        }
+        for(Result result : filer.resultSet.getResults()) {
+            if(result.getId().equals("test0")) {
+                assertEquals("0", result.getMetric("metric"));
+                assertEquals("1", result.getMetric("other"));
+            }
+        }
+    }
+
+    @Test
+    public void failureOfFilerIsReportedTest() {
+        BatchRecordingFiler filer = new BatchRecordingFiler(configuration, true);
+        try {
+            try (ResultSink sink = new ResultSink(filer, 1, 1)) {
+                for(int i = 0; i < 10; i++) {
+                    sink.accept(new Result("test"+i, null, "metric", String.valueOf(i)));
+                }
+                sink.commit();
+            }
+            fail("Failure of the filer was not reported!");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("Could not store"));
+        }
+        assertEquals(false, filer.finished);
+    }
+
+    @Test(timeout = 10000)
+    public void uncheckedFailureOfFilerIsReportedTest() {
+        UncheckedFailingFiler filer = new UncheckedFailingFiler(configuration);
+        try {
+            try (ResultSink sink = new ResultSink(filer, 1, 1)) {
+                for(int i = 0; i < 100; i++) {
+                    sink.accept(new Result("test"+i, null, "metric", String.valueOf(i)));
+                }
+                sink.commit();
+            }
+            fail("Failure of the filer was not reported!");
+        } catch (IOException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void resultsAreDiscardedIfSinkIsNotCommittedTest() throws IOException {
+        BatchRecordingFiler filer = new BatchRecordingFiler(configuration, false);
+        try {
+            // More results than the capacity of the queue, so that some of them are already taken by the writer
+            try (ResultSink sink = new ResultSink(filer, 2, 3)) {
+                for(int i = 0; i < 10; i++) {
+                    sink.accept(new Result("test"+i, null, "metric", String.valueOf(i)));
+                }
+                throw new IllegalStateException("Collector failed");
+            }
+        } catch (IllegalStateException e) {
+            assertEquals("Collector failed", e.getMessage());
+        }
+
+        assertEquals(0, filer.resultSet.size());
+        assertTrue(filer.batchSizes.isEmpty());
+        assertEquals(false, filer.finished);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void acceptAfterCommitFailsTest() throws IOException {
+        try (ResultSink sink = new ResultSink(new BatchRecordingFiler(configuration, false))) {
+            sink.commit();
+            sink.accept(new Result("test", null, "metric", "1"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidCapacityTest() {
+        new ResultSink(new BatchRecordingFiler(configuration, false), 0, 1);
+    }
+
+    private static class BatchRecordingFiler extends BaseFiler {
+        private final boolean fail;
+        private final List<Integer> batchSizes = new ArrayList<>();
+        private boolean finished = false;
+
+        BatchRecordingFiler(GeneralConfiguration generalConfiguration, boolean fail) {
+            super(generalConfiguration, new FilerConfiguration());
+            this.fail = fail;
+        }
+
+        @Override
+        public void storeResults(Set<Result> results) throws IOException {
+            if(fail) {
+                throw new IOException("Could not store");
+            }
+            batchSizes.add(results.size());
+            resultSet.addResults(results);
+        }
+
+        @Override
+        public void storeResult(Result result) throws IOException {
+            resultSet.addResult(result);
+        }
+
+        @Override
+        protected void finishResultBatches() {
+            finished = true;
+        }
+    }
+
+    private static class UncheckedFailingFiler extends BaseFiler {
+        UncheckedFailingFiler(GeneralConfiguration generalConfiguration) {
+            super(generalConfiguration, new FilerConfiguration());
+        }
+
+        @Override
+        public void storeResults(Set<Result> results) {
+            throw new IllegalStateException("state should be: open");
+        }
+
+        @Override
+        public void storeResult(Result result) {
+            throw new IllegalStateException("state should be: open");
+        }
+    }
+}
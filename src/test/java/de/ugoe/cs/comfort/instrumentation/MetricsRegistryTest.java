@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.instrumentation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.ugoe.cs.comfort.data.graphs.DependencyGraph;
+import de.ugoe.cs.comfort.data.models.JavaClass;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Fabian Trautsch
+ */
+public class MetricsRegistryTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void stagesAndCountersAreRecordedTest() {
+        MetricsRegistry registry = new MetricsRegistry();
+        try (StageTimer timer = registry.startStage("loader:Test")) {
+            registry.increment("results", 2);
+        }
+        try (StageTimer timer = registry.startStage("loader:Test")) {
+            registry.increment("results", 3);
+        }
+
+        assertEquals(2, registry.getStageCount("loader:Test"));
+        assertEquals(0, registry.getStageCount("filer:Test"));
+        assertEquals(5, registry.getCounter("results"));
+        assertEquals(0, registry.getCounter("unknown"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void reportIsWrittenTest() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        DependencyGraph before = new DependencyGraph();
+        before.putEdge(new JavaClass("a.A", null), new JavaClass("b.B", null));
+        DependencyGraph after = new DependencyGraph();
+        after.addNode(new JavaClass("a.A", null));
+        registry.recordGraphSize("filter:Test", before, after);
+        try (StageTimer timer = registry.startStage("filter:Test")) {
+            registry.increment("results", 1);
+        }
+
+        Path reportPath = folder.getRoot().toPath().resolve("report.json");
+        registry.writeReport("testproject", reportPath);
+
+        Map<String, Object> report = new ObjectMapper().readValue(reportPath.toFile(), Map.class);
+        assertEquals("testproject", report.get("projectName"));
+        assertTrue(((Map<String, Object>) report.get("stages")).containsKey("filter:Test"));
+        assertEquals(1, ((Map<String, Object>) report.get("counters")).get("results"));
+
+        List<Map<String, Object>> graphSizes = (List<Map<String, Object>>) report.get("graphSizes");
+        assertEquals(1, graphSizes.size());
+        assertEquals(2, graphSizes.get(0).get("nodesBefore"));
+        assertEquals(1, graphSizes.get(0).get("edgesBefore"));
+        assertEquals(1, graphSizes.get(0).get("nodesAfter"));
+        assertEquals(0, graphSizes.get(0).get("edgesAfter"));
+    }
+
+    @Test
+    public void reportIsStoredNextToLogFileTest() {
+        assertEquals(Paths.get("/tmp/logs/comfort.log.report.json"),
+                MetricsRegistry.getReportPath("/tmp/logs/comfort.log"));
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2017 University of Goettingen, Germany
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package de.ugoe.cs.comfort.revision;
+
+import static org.junit.Assert.assertEquals;
+
+import de.ugoe.cs.comfort.configuration.FilerConfiguration;
+import de.ugoe.cs.comfort.configuration.GeneralConfiguration;
+import de.ugoe.cs.comfort.configuration.RevisionConfiguration;
+import de.ugoe.cs.comfort.exception.RevisionException;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * @author Fabian Trautsch
+ */
+public class RevisionWalkerTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Git git;
+    private Path projectDir;
+    private List<RevCommit> commits = new ArrayList<>();
+
+    @Before
+    public void createRepository() throws Exception {
+        File projectFolder = folder.newFolder("project");
+        projectDir = projectFolder.toPath().toAbsolutePath().normalize();
+        git = Git.init().setDirectory(projectFolder).call();
+
+        commit("First", "A.java", "class A {}");
+        commit("Second", "A.java", "class A { void a() {} }");
+        commit("Third", "B.java", "class B {}");
+    }
+
+    @After
+    public void closeRepository() {
+        git.close();
+    }
+
+    private void commit(String message, String fileName, String content) throws Exception {
+        Files.write(projectDir.resolve(fileName), content.getBytes(StandardCharsets.UTF_8));
+        git.add().addFilepattern(fileName).call();
+        commits.add(git.commit().setMessage(message).call());
+    }
+
+    private GeneralConfiguration createConfiguration(String from) {
+        GeneralConfiguration configuration = new GeneralConfiguration();
+        configuration.setProjectDir(projectDir.toString());
+        configuration.setFilerConfiguration(new FilerConfiguration("CSVFiler"));
+
+        RevisionConfiguration revisionConfiguration = new RevisionConfiguration();
+        revisionConfiguration.setFrom(from);
+        configuration.setRevisionConfiguration(revisionConfiguration);
+        return configuration;
+    }
+
+    @Test
+    public void allRevisionsAreAnalyzedInOrderTest() throws Exception {
+        List<String> revisions = new RevisionWalker(createConfiguration(commits.get(0).getName())).walk();
+
+        assertEquals(Arrays.asList(commits.get(0).getName(), commits.get(1).getName(), commits.get(2).getName()),
+                revisions);
+        // The branch that was checked out before is restored
+        assertEquals("refs/heads/master", git.getRepository().getFullBranch());
+    }
+
+    @Test
+    public void wholeHistoryIsAnalyzedWithoutStartTest() throws Exception {
+        List<String> revisions = new RevisionWalker(createConfiguration(null)).walk();
+
+        assertEquals(Arrays.asList(commits.get(0).getName(), commits.get(1).getName(), commits.get(2).getName()),
+                revisions);
+    }
+
+    @Test
+    public void changedFilesAreDeterminedTest() throws Exception {
+        Set<Path> changedFiles = RevisionWalker.getChangedFiles(git.getRepository(), commits.get(0),
+                commits.get(2));
+
+        Set<Path> expectedFiles = new HashSet<>();
+        expectedFiles.add(projectDir.resolve("A.java"));
+        expectedFiles.add(projectDir.resolve("B.java"));
+        assertEquals(expectedFiles, changedFiles);
+    }
+
+    @Test(expected = RevisionException.class)
+    public void uncommittedChangesAreRejectedTest() throws Exception {
+        Files.write(projectDir.resolve("A.java"), "class A { void b() {} }".getBytes(StandardCharsets.UTF_8));
+        new RevisionWalker(createConfiguration(null)).walk();
+    }
+
+    @Test(expected = RevisionException.class)
+    public void unknownRevisionIsRejectedTest() throws Exception {
+        new RevisionWalker(createConfiguration("unknown")).walk();
+    }
+}